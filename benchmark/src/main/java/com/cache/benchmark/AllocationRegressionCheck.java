@@ -0,0 +1,71 @@
+package com.cache.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @author zhao tailen
+ * @description 本地命中路径的内存分配回归检查：执行{@link LocalHitBenchmark}，
+ * 每次操作的分配字节数【gc.alloc.rate.norm】超过上限时以非0状态退出
+ * @date 2026-10-17
+ */
+public class AllocationRegressionCheck {
+
+    private static final String ALLOCATION_METRIC="gc.alloc.rate.norm";
+
+    /**
+     * 每次操作允许分配的字节数，本地命中不应分配，写入只允许一个{@code LocalValue}及caffeine自身的更新任务
+     * */
+    private static final Map<String, Double> LIMITS=new LinkedHashMap<>();
+
+    static {
+        LIMITS.put("getHit", 1.0);
+        LIMITS.put("getWithLoaderHit", 1.0);
+        LIMITS.put("putLocal", 64.0);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options=new OptionsBuilder()
+                .include(LocalHitBenchmark.class.getName() + ".")
+                .addProfiler(GCProfiler.class)
+                .build();
+        Collection<RunResult> results=new Runner(options).run();
+
+        boolean failed=false;
+        for (RunResult result : results) {
+            String benchmark=result.getParams().getBenchmark();
+            String label=benchmark.substring(benchmark.lastIndexOf('.') + 1);
+            String priority=result.getParams().getParam("priority");
+            Double limit=LIMITS.get(label);
+            Result allocation=findAllocation(result);
+            if (limit == null || allocation == null) {
+                continue;
+            }
+            double bytes=allocation.getScore();
+            boolean exceeded=bytes > limit;
+            failed|=exceeded;
+            System.out.printf("%-20s %-14s %10.2f B/op (limit %.0f) %s%n", label, priority, bytes, limit, exceeded ? "FAILED" : "ok");
+        }
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    private static Result findAllocation(RunResult result) {
+        for (Map.Entry<String, Result> entry : result.getSecondaryResults().entrySet()) {
+            // the profiler prefixes its labels with a middle dot
+            if (entry.getKey().endsWith(ALLOCATION_METRIC)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,32 @@
+package com.cache.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * @author zhao tailen
+ * @description 基准测试入口，默认执行所有基准测试并开启GC profiler【每次操作的内存分配】，
+ * 结果写入jmh-result.json，命令行参数与JMH一致，可覆盖默认值
+ * @date 2026-10-17
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLineOptions=new CommandLineOptions(args);
+        OptionsBuilder builder=new OptionsBuilder();
+        builder.parent(commandLineOptions);
+        if (commandLineOptions.getIncludes().isEmpty()) {
+            builder.include("com.cache.benchmark.*");
+        }
+        Options options=builder
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("jmh-result.json")
+                .build();
+        new Runner(options).run();
+    }
+}
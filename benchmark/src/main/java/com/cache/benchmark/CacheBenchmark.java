@@ -0,0 +1,158 @@
+package com.cache.benchmark;
+
+import com.cache.batch.BatchCache;
+import com.cache.domain.CachePriority;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.springframework.cache.Cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author zhao tailen
+ * @description 按缓存优先级测试lookup、get(key, Callable)、put、evict的吞吐量、延迟分位数，
+ * 配合GC profiler统计每次操作的内存分配。key按Zipfian或均匀分布访问，多线程并发执行
+ * @date 2026-10-17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3, time=5)
+@Measurement(iterations=5, time=10)
+@Fork(value=1, jvmArgsAppend={"-Xms2g", "-Xmx2g"})
+@Threads(8)
+public class CacheBenchmark {
+
+    /**
+     * 每个线程预先生成的key序号数量
+     * */
+    private static final int SEQUENCE_SIZE=1 << 16;
+
+    private static final int SEQUENCE_MASK=SEQUENCE_SIZE - 1;
+
+    private static final int PRELOAD_BATCH_SIZE=1000;
+
+    @Param({"ONLY_LOCAL", "ONLY_REMOTE", "FIRST_LOCAL", "FIRST_REMOTE", "LOCAL_REMOTE"})
+    public CachePriority priority;
+
+    @Param({"zipfian", "uniform"})
+    public String distribution;
+
+    @Param({"100000"})
+    public int keySpace;
+
+    private String[] keys;
+
+    private String[] values;
+
+    private Callable<?>[] loaders;
+
+    private Cache cache;
+
+    private CacheFixture fixture;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        keys=new String[keySpace];
+        values=new String[keySpace];
+        loaders=new Callable<?>[keySpace];
+        for (int i=0; i < keySpace; i++) {
+            String value="value:" + i;
+            keys[i]="key:" + i;
+            values[i]=value;
+            loaders[i]=() -> value;
+        }
+        fixture=new CacheFixture();
+        // local holds half of the keys, remote holds all of them
+        cache=fixture.start(priority, "benchmark", keySpace * 3 / 2);
+        preload();
+    }
+
+    private void preload() {
+        Map<Object, Object> batch=new HashMap<>();
+        for (int i=0; i < keySpace; i++) {
+            batch.put(keys[i], values[i]);
+            if (batch.size() == PRELOAD_BATCH_SIZE || i == keySpace - 1) {
+                ((BatchCache) cache).putAll(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.stop();
+    }
+
+    /**
+     * @author zhao tailen
+     * @description 每个线程独立的key访问序列，提前生成以免分布计算计入测试结果
+     * @date 2026-10-17
+     */
+    @State(Scope.Thread)
+    public static class KeySequence {
+
+        private final int[] indexes=new int[SEQUENCE_SIZE];
+
+        private int position;
+
+        @Setup(Level.Trial)
+        public void setup(CacheBenchmark benchmark, ThreadParams threadParams) {
+            long seed=31L * threadParams.getThreadIndex() + 17;
+            if ("zipfian".equals(benchmark.distribution)) {
+                ZipfianGenerator generator=new ZipfianGenerator(benchmark.keySpace, seed);
+                for (int i=0; i < SEQUENCE_SIZE; i++) {
+                    indexes[i]=generator.next();
+                }
+            } else {
+                Random random=new Random(seed);
+                for (int i=0; i < SEQUENCE_SIZE; i++) {
+                    indexes[i]=random.nextInt(benchmark.keySpace);
+                }
+            }
+        }
+
+        public int next() {
+            return indexes[position++ & SEQUENCE_MASK];
+        }
+    }
+
+    @Benchmark
+    public Object lookup(KeySequence sequence) {
+        return cache.get(keys[sequence.next()]);
+    }
+
+    @Benchmark
+    public Object getWithLoader(KeySequence sequence) {
+        int index=sequence.next();
+        return cache.get(keys[index], loaders[index]);
+    }
+
+    @Benchmark
+    public void put(KeySequence sequence) {
+        int index=sequence.next();
+        cache.put(keys[index], values[index]);
+    }
+
+    @Benchmark
+    public void evict(KeySequence sequence) {
+        cache.evict(keys[sequence.next()]);
+    }
+}
@@ -0,0 +1,139 @@
+package com.cache.benchmark;
+
+import com.cache.doubleLevel.DoubleLevel;
+import com.cache.domain.CachePriority;
+import com.cache.domain.CacheSpace;
+import com.cache.local.LocalCacha;
+import com.cache.remote.RemoteCacha;
+import com.cache.server.CacheAttributeService;
+import com.cache.server.CacheTaskExecutor;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import org.springframework.cache.Cache;
+import redis.embedded.RedisServer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author zhao tailen
+ * @description 基准测试使用的缓存环境：本地启动一个内嵌redis【设置benchmark.redis.address时使用已有的redis】，
+ * 按缓存优先级创建与线上相同的缓存空间
+ * @date 2026-10-17
+ */
+public class CacheFixture {
+
+    private static final int REDIS_PORT=Integer.getInteger("benchmark.redis.port", 6399);
+
+    private static final String REDIS_ADDRESS=System.getProperty("benchmark.redis.address");
+
+    private RedisServer redisServer;
+
+    private RedissonClient redissonClient;
+
+    private CacheTaskExecutor taskExecutor;
+
+    private Cache cache;
+
+    /**
+     * @param priority 缓存优先级
+     * @param name     缓存空间名称
+     * @param maxSize  缓存数量【本地和远程按0.5的比率分配】
+     * @description 启动redis并创建缓存空间
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public Cache start(CachePriority priority, String name, int maxSize) {
+        String address=REDIS_ADDRESS;
+        if (address == null) {
+            redisServer=RedisServer.builder().port(REDIS_PORT).setting("maxmemory 1gb").build();
+            redisServer.start();
+            address="redis://127.0.0.1:" + REDIS_PORT;
+        }
+        Config config=new Config();
+        config.useSingleServer()
+                .setAddress(address)
+                .setConnectionMinimumIdleSize(32)
+                .setConnectionPoolSize(64);
+        redissonClient=Redisson.create(config);
+        redissonClient.getKeys().flushall();
+        taskExecutor=new CacheTaskExecutor(Runtime.getRuntime().availableProcessors(), 1000, 100);
+        cache=createCache(cacheSpace(priority, name, maxSize));
+        return cache;
+    }
+
+    private Cache createCache(CacheSpace cacheSpace) {
+        if (CachePriority.ONLY_LOCAL.equals(cacheSpace.getCachePriority())) {
+            return new LocalCacha(cacheSpace);
+        }
+        if (CachePriority.ONLY_REMOTE.equals(cacheSpace.getCachePriority())) {
+            return new RemoteCacha(cacheSpace, redissonClient, taskExecutor);
+        }
+        return new DoubleLevel(cacheSpace, redissonClient, taskExecutor);
+    }
+
+    /**
+     * @description 通过{@code CacheAttributeService}解析yml配置的同一个入口创建缓存空间，只指定优先级和数量，其他属性使用线上的默认值
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private static CacheSpace cacheSpace(CachePriority priority, String name, int maxSize) {
+        Map<String, String> attributes=new HashMap<>();
+        attributes.put("name", name);
+        // keep maxSize / 1.5 exact for the BigDecimal sizing in DoubleLevel
+        attributes.put("maxSize", String.valueOf(maxSize - maxSize % 3));
+        attributes.put("cachePriority", cachePriority(priority));
+        if (CachePriority.FIRST_LOCAL.equals(priority)) {
+            attributes.put("cacheChangeStrategy", "overflowMaxSize");
+        }
+        if (CachePriority.FIRST_REMOTE.equals(priority)) {
+            attributes.put("cacheChangeStrategy", "accessThreshold");
+        }
+        attributes.put("accessThreshold", String.valueOf(Long.getLong("benchmark.accessThreshold", 10)));
+        if (System.getProperty("benchmark.codec") != null) {
+            attributes.put("codec", System.getProperty("benchmark.codec"));
+        }
+        CacheSpace cacheSpace=CacheAttributeService.createCacheSpaca(attributes, null);
+        cacheSpace.setAllowNullValues(false);
+        return cacheSpace;
+    }
+
+    /**
+     * @return 缓存优先级在yml中的写法
+     */
+    private static String cachePriority(CachePriority priority) {
+        switch (priority) {
+            case ONLY_REMOTE:
+                return "remote";
+            case FIRST_LOCAL:
+                return "firstLocal";
+            case FIRST_REMOTE:
+                return "firstRemote";
+            case LOCAL_REMOTE:
+                return "localRemote";
+            default:
+                return "local";
+        }
+    }
+
+    /**
+     * @description 释放缓存空间、线程池、redis客户端及内嵌redis
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void stop() {
+        if (cache instanceof DoubleLevel) {
+            ((DoubleLevel) cache).destroy();
+        }
+        if (taskExecutor != null) {
+            taskExecutor.shutdown(10000);
+        }
+        if (redissonClient != null) {
+            redissonClient.shutdown();
+        }
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+}
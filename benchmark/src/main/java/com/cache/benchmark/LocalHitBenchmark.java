@@ -0,0 +1,100 @@
+package com.cache.benchmark;
+
+import com.cache.batch.BatchCache;
+import com.cache.domain.CachePriority;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author zhao tailen
+ * @description 本地命中路径的内存分配，所有key都在本地缓存中，由{@link AllocationRegressionCheck}检查每次操作的分配字节数
+ * @date 2026-10-17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=3, time=2)
+@Measurement(iterations=3, time=2)
+@Fork(value=1, jvmArgsAppend={"-Xms1g", "-Xmx1g"})
+public class LocalHitBenchmark {
+
+    private static final int KEY_SPACE=1024;
+
+    private static final int KEY_MASK=KEY_SPACE - 1;
+
+    @Param({"ONLY_LOCAL", "FIRST_LOCAL", "LOCAL_REMOTE"})
+    public CachePriority priority;
+
+    private final String[] keys=new String[KEY_SPACE];
+
+    private final String[] values=new String[KEY_SPACE];
+
+    private final Callable<?>[] loaders=new Callable<?>[KEY_SPACE];
+
+    private Cache cache;
+
+    private CacheFixture fixture;
+
+    private int position;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Map<Object, Object> entries=new HashMap<>();
+        for (int i=0; i < KEY_SPACE; i++) {
+            String value="value:" + i;
+            keys[i]="key:" + i;
+            values[i]=value;
+            loaders[i]=() -> value;
+            entries.put(keys[i], value);
+        }
+        fixture=new CacheFixture();
+        // large enough that the local tier holds every key
+        cache=fixture.start(priority, "allocation", KEY_SPACE * 30);
+        ((BatchCache) cache).putAll(entries);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.stop();
+    }
+
+    @Benchmark
+    public Object getHit() {
+        return cache.get(keys[position++ & KEY_MASK]);
+    }
+
+    @Benchmark
+    public Object getWithLoaderHit() {
+        int index=position++ & KEY_MASK;
+        return cache.get(keys[index], loaders[index]);
+    }
+
+    /**
+     * 覆盖已存在的key【只写本地的优先级】
+     */
+    @Benchmark
+    public void putLocal() {
+        if (CachePriority.LOCAL_REMOTE.equals(priority)) {
+            return;
+        }
+        int index=position++ & KEY_MASK;
+        cache.put(keys[index], values[index]);
+    }
+}
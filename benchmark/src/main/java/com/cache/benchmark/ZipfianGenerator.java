@@ -0,0 +1,63 @@
+package com.cache.benchmark;
+
+import java.util.Random;
+
+/**
+ * @author zhao tailen
+ * @description Zipfian分布的key序号生成器【Gray等人的算法，与YCSB一致】，序号0最热
+ * @date 2026-10-17
+ */
+public class ZipfianGenerator {
+
+    public static final double ZIPFIAN_CONSTANT=0.99;
+
+    private final int items;
+
+    private final double theta;
+
+    private final double alpha;
+
+    private final double zetan;
+
+    private final double eta;
+
+    private final Random random;
+
+    public ZipfianGenerator(int items, long seed) {
+        this(items, ZIPFIAN_CONSTANT, seed);
+    }
+
+    public ZipfianGenerator(int items, double theta, long seed) {
+        this.items=items;
+        this.theta=theta;
+        this.random=new Random(seed);
+        double zeta2=zeta(2, theta);
+        this.alpha=1.0 / (1.0 - theta);
+        this.zetan=zeta(items, theta);
+        this.eta=(1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta2 / zetan);
+    }
+
+    private static double zeta(int n, double theta) {
+        double sum=0;
+        for (int i=0; i < n; i++) {
+            sum+=1 / Math.pow(i + 1, theta);
+        }
+        return sum;
+    }
+
+    /**
+     * @return [0, items)之间的序号
+     */
+    public int next() {
+        double u=random.nextDouble();
+        double uz=u * zetan;
+        if (uz < 1.0) {
+            return 0;
+        }
+        if (uz < 1.0 + Math.pow(0.5, theta)) {
+            return 1;
+        }
+        int index=(int) (items * Math.pow(eta * u - eta + 1, alpha));
+        return Math.min(index, items - 1);
+    }
+}
@@ -0,0 +1,29 @@
+package com.cache.batch;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * @author zhao tailen
+ * @description 支持批量读写的缓存
+ * @date 2026-10-17
+ */
+public interface BatchCache {
+
+    /**
+     * @param keys 缓存key
+     * @return 命中的key和value，未命中的key不在结果中
+     * @description 批量获取缓存
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    Map<Object, Object> getAll(Collection<?> keys);
+
+    /**
+     * @param entries 缓存key和value，value为null的key会被清理
+     * @description 批量设置缓存，每个key使用缓存空间的有效时间和空闲时间
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    void putAll(Map<?, ?> entries);
+}
@@ -0,0 +1,40 @@
+package com.cache.batch;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * @author zhao tailen
+ * @description 按key逐个缓存批量查询方法的结果。
+ * 方法的第{@link #keysIndex()}个参数为key集合【Collection】，返回值为Map【key -> value】，
+ * 已缓存的key直接从缓存中获取，只有未命中的key会传给方法
+ * @date 2026-10-17
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface BatchCacheable {
+
+    /**
+     * 缓存空间名称
+     */
+    String value();
+
+    /**
+     * key集合参数的位置
+     */
+    int keysIndex() default 0;
+
+    /**
+     * 缓存key前缀，缓存key为 keyPrefix + id + keySuffix
+     */
+    String keyPrefix() default "";
+
+    /**
+     * 缓存key后缀
+     */
+    String keySuffix() default "";
+}
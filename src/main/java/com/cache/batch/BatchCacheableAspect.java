@@ -0,0 +1,123 @@
+package com.cache.batch;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.*;
+
+/**
+ * @author zhao tailen
+ * @description {@link BatchCacheable}切面，批量查询缓存后只把未命中的key交给方法执行
+ * @date 2026-10-17
+ */
+@Aspect
+@Component
+public class BatchCacheableAspect {
+
+    private final Logger log=LoggerFactory.getLogger(BatchCacheableAspect.class);
+
+    @Resource
+    private CacheManager cacheManager;
+
+    @Around("@annotation(batchCacheable)")
+    public Object around(ProceedingJoinPoint joinPoint, BatchCacheable batchCacheable) throws Throwable {
+        Object[] args=joinPoint.getArgs();
+        int keysIndex=batchCacheable.keysIndex();
+        Class<?> returnType=((MethodSignature) joinPoint.getSignature()).getReturnType();
+        if (keysIndex >= args.length || !(args[keysIndex] instanceof Collection) || !Map.class.isAssignableFrom(returnType)) {
+            log.warn("BatchCacheable: {} is not a batch method, skip cache", joinPoint.getSignature());
+            return joinPoint.proceed();
+        }
+
+        Cache cache=cacheManager.getCache(batchCacheable.value());
+        if (cache == null) {
+            log.warn("BatchCacheable: cache < {} > not found, skip cache", batchCacheable.value());
+            return joinPoint.proceed();
+        }
+
+        Collection<?> ids=(Collection<?>) args[keysIndex];
+        Map<Object, Object> idKeyMap=new LinkedHashMap<>(ids.size());
+        for (Object id : ids) {
+            idKeyMap.put(id, toCacheKey(batchCacheable, id));
+        }
+
+        Map<Object, Object> cached=getAll(cache, idKeyMap.values());
+        Map<Object, Object> result=new LinkedHashMap<>(idKeyMap.size());
+        List<Object> missingIds=new ArrayList<>();
+        for (Map.Entry<Object, Object> entry : idKeyMap.entrySet()) {
+            Object value=cached.get(entry.getValue());
+            if (value != null) {
+                result.put(entry.getKey(), value);
+            } else {
+                missingIds.add(entry.getKey());
+            }
+        }
+        log.debug("BatchCacheable: {} hit {} of {}", batchCacheable.value(), result.size(), idKeyMap.size());
+        if (missingIds.isEmpty()) {
+            return result;
+        }
+
+        args[keysIndex]=ids instanceof Set ? new LinkedHashSet<>(missingIds) : missingIds;
+        Map<?, ?> loaded=(Map<?, ?>) joinPoint.proceed(args);
+        if (loaded == null || loaded.isEmpty()) {
+            return result;
+        }
+
+        Map<Object, Object> toCache=new HashMap<>(loaded.size());
+        for (Map.Entry<?, ?> entry : loaded.entrySet()) {
+            if (entry.getValue() != null) {
+                toCache.put(toCacheKey(batchCacheable, entry.getKey()), entry.getValue());
+            }
+        }
+        putAll(cache, toCache);
+
+        // keep the order of the requested ids
+        Map<Object, Object> ordered=new LinkedHashMap<>(idKeyMap.size());
+        for (Object id : idKeyMap.keySet()) {
+            Object value=result.containsKey(id) ? result.get(id) : loaded.get(id);
+            if (value != null) {
+                ordered.put(id, value);
+            }
+        }
+        return ordered;
+    }
+
+    private Object toCacheKey(BatchCacheable batchCacheable, Object id) {
+        if (batchCacheable.keyPrefix().isEmpty() && batchCacheable.keySuffix().isEmpty()) {
+            return id;
+        }
+        return batchCacheable.keyPrefix() + id + batchCacheable.keySuffix();
+    }
+
+    private Map<Object, Object> getAll(Cache cache, Collection<Object> keys) {
+        if (cache instanceof BatchCache) {
+            return ((BatchCache) cache).getAll(keys);
+        }
+        Map<Object, Object> values=new HashMap<>(keys.size());
+        for (Object key : keys) {
+            Cache.ValueWrapper valueWrapper=cache.get(key);
+            if (valueWrapper != null && valueWrapper.get() != null) {
+                values.put(key, valueWrapper.get());
+            }
+        }
+        return values;
+    }
+
+    private void putAll(Cache cache, Map<Object, Object> entries) {
+        if (cache instanceof BatchCache) {
+            ((BatchCache) cache).putAll(entries);
+            return;
+        }
+        for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+            cache.put(entry.getKey(), entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.cache.codec;
+
+import com.cache.domain.CacheSpace;
+import org.apache.commons.lang3.StringUtils;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * @author zhao tailen
+ * @description 按缓存空间的codec属性创建远程缓存的编码，相同配置的缓存空间共享同一个编码实例
+ * @date 2026-10-17
+ */
+public final class CacheCodecs {
+
+    /**
+     * 使用redisson-config.yml中配置的编码
+     * */
+    public static final String DEFAULT="default";
+
+    /**
+     * 使用{@link CompactKryoCodec}
+     * */
+    public static final String KRYO="kryo";
+
+    private static final ConcurrentMap<String, Codec> CODECS=new ConcurrentHashMap<>();
+
+    private CacheCodecs() {
+    }
+
+    /**
+     * @param cacheSpace     缓存属性
+     * @param redissonClient redission客户端
+     * @return 缓存空间的编码
+     * @description codec为空或default时使用redisson客户端的编码，kryo时使用{@link CompactKryoCodec}并注册codecClasses，
+     * 其他值按{@link Codec}实现类的全限定名创建
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public static Codec resolve(CacheSpace cacheSpace, RedissonClient redissonClient) {
+        String codec=StringUtils.trimToNull(cacheSpace.getCodec());
+        if (codec == null || DEFAULT.equals(codec)) {
+            return redissonClient.getConfig().getCodec();
+        }
+        String codecClasses=StringUtils.deleteWhitespace(StringUtils.defaultString(cacheSpace.getCodecClasses()));
+        return CODECS.computeIfAbsent(codec + "|" + codecClasses, k -> create(codec, codecClasses));
+    }
+
+    private static Codec create(String codec, String codecClasses) {
+        ClassLoader classLoader=Thread.currentThread().getContextClassLoader();
+        if (KRYO.equals(codec)) {
+            return new CompactKryoCodec(loadClasses(codecClasses, classLoader), classLoader);
+        }
+        try {
+            return (Codec) Class.forName(codec, true, classLoader).newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalArgumentException("codec " + codec + " is not a " + Codec.class.getName(), e);
+        }
+    }
+
+    private static List<Class<?>> loadClasses(String codecClasses, ClassLoader classLoader) {
+        List<Class<?>> classes=new ArrayList<>();
+        for (String className : StringUtils.split(codecClasses, ',')) {
+            try {
+                classes.add(Class.forName(className, false, classLoader));
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("codecClasses " + className + " is not found", e);
+            }
+        }
+        return classes;
+    }
+}
@@ -0,0 +1,147 @@
+package com.cache.codec;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import org.objenesis.strategy.StdInstantiatorStrategy;
+import org.redisson.client.codec.BaseCodec;
+import org.redisson.client.handler.State;
+import org.redisson.client.protocol.Decoder;
+import org.redisson.client.protocol.Encoder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author zhao tailen
+ * @description 基于Kryo的紧凑二进制编码，注册过的类只写入编号而不写入类名，
+ * 每个线程复用自己的Kryo实例和读写缓冲区，编解码过程不再为每次调用分配临时对象
+ * @date 2026-10-17
+ */
+public class CompactKryoCodec extends BaseCodec {
+
+    /**
+     * 写缓冲区的初始大小
+     * */
+    private static final int BUFFER_SIZE=4096;
+
+    /**
+     * 线程保留的缓冲区上限，超出的缓冲区用完后丢弃，避免偶发的大value长期占用内存
+     * */
+    private static final int RETAINED_BUFFER_SIZE=1024 * 1024;
+
+    /**
+     * 注册的类【所有节点必须按相同顺序注册】
+     * */
+    private final List<Class<?>> registeredClasses;
+
+    private final ClassLoader classLoader;
+
+    private final ThreadLocal<Kryo> kryos=ThreadLocal.withInitial(this::createKryo);
+
+    private final ThreadLocal<Output> outputs=ThreadLocal.withInitial(() -> new Output(BUFFER_SIZE, -1));
+
+    private final ThreadLocal<Input> inputs=ThreadLocal.withInitial(Input::new);
+
+    private final ThreadLocal<byte[]> inputBuffers=ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+    private final Encoder encoder=new Encoder() {
+        @Override
+        public ByteBuf encode(Object in) {
+            Output output=outputs.get();
+            output.clear();
+            kryos.get().writeClassAndObject(output, in);
+            int length=output.position();
+            ByteBuf out=ByteBufAllocator.DEFAULT.buffer(length);
+            out.writeBytes(output.getBuffer(), 0, length);
+            if (output.getBuffer().length > RETAINED_BUFFER_SIZE) {
+                outputs.remove();
+            }
+            return out;
+        }
+    };
+
+    private final Decoder<Object> decoder=new Decoder<Object>() {
+        @Override
+        public Object decode(ByteBuf buf, State state) {
+            int length=buf.readableBytes();
+            Input input=inputs.get();
+            if (buf.hasArray()) {
+                input.setBuffer(buf.array(), buf.arrayOffset() + buf.readerIndex(), length);
+            } else {
+                byte[] bytes=inputBuffer(length);
+                buf.getBytes(buf.readerIndex(), bytes, 0, length);
+                input.setBuffer(bytes, 0, length);
+            }
+            try {
+                return kryos.get().readClassAndObject(input);
+            } finally {
+                buf.skipBytes(length);
+                // don't keep a reference to netty's pooled array
+                input.setBuffer(inputBuffers.get(), 0, 0);
+            }
+        }
+    };
+
+    public CompactKryoCodec() {
+        this(Collections.<Class<?>>emptyList(), null);
+    }
+
+    /**
+     * @param registeredClasses 需要注册的类
+     * @param classLoader       反序列化使用的类加载器，为空时使用Kryo默认类加载器
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public CompactKryoCodec(List<Class<?>> registeredClasses, ClassLoader classLoader) {
+        this.registeredClasses=new ArrayList<>(registeredClasses);
+        this.classLoader=classLoader;
+    }
+
+    private Kryo createKryo() {
+        Kryo kryo=new Kryo();
+        if (classLoader != null) {
+            kryo.setClassLoader(classLoader);
+        }
+        // classes without a no-arg constructor are still readable
+        kryo.setInstantiatorStrategy(new Kryo.DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
+        kryo.setRegistrationRequired(false);
+        for (Class<?> clazz : registeredClasses) {
+            kryo.register(clazz);
+        }
+        return kryo;
+    }
+
+    private byte[] inputBuffer(int length) {
+        byte[] bytes=inputBuffers.get();
+        if (bytes.length < length) {
+            bytes=new byte[Math.max(length, bytes.length * 2)];
+            if (bytes.length <= RETAINED_BUFFER_SIZE) {
+                inputBuffers.set(bytes);
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public Decoder<Object> getValueDecoder() {
+        return decoder;
+    }
+
+    @Override
+    public Encoder getValueEncoder() {
+        return encoder;
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+        return classLoader != null ? classLoader : super.getClassLoader();
+    }
+
+    public List<Class<?>> getRegisteredClasses() {
+        return Collections.unmodifiableList(registeredClasses);
+    }
+}
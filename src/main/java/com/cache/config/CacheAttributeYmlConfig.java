@@ -17,6 +17,46 @@ import java.util.Map;
 public class CacheAttributeYmlConfig {
     private List<Map<String,String>> limitSizeList = new ArrayList<>();
 
+    /**
+     * 共享后台线程池的线程数
+     * */
+    private Integer executorParallelism;
+
+    /**
+     * 共享后台线程池的等待队列长度
+     * */
+    private Integer executorQueueSize;
+
+    /**
+     * 单个缓存空间最多同时排队或执行的后台任务数
+     * */
+    private Integer executorSpaceLimit;
+
+    /**
+     * 远程缓存分片额外使用的redis节点，每个节点一个classpath下的redisson配置文件【按地址记录分片位置，新增或调整顺序后迁移旧分片中的缓存，删除节点时不迁移】
+     * */
+    private List<String> remoteNodes = new ArrayList<>();
+
+    /**
+     * redis的部署方式：single单节点，masterSlave主从【redisson配置文件使用masterSlaveServersConfig】
+     * */
+    private String redisTopology;
+
+    /**
+     * 主从部署时从节点心跳的间隔【毫秒】
+     * */
+    private Integer replicaHeartbeatInterval;
+
+    /**
+     * 本地缓存快照文件所在的目录【默认为java.io.tmpdir】
+     * */
+    private String snapshotDir;
+
+    /**
+     * 启动时是否等待所有缓存空间预热完成后应用才就绪【默认true，false时在后台预热】
+     * */
+    private Boolean warmUpBlocking;
+
     public List<Map<String,String>> getLimitSizeList() {
         return limitSizeList;
     }
@@ -24,4 +64,68 @@ public class CacheAttributeYmlConfig {
     public void setLimitSizeList( List<Map<String,String>> limitSizeList) {
         this.limitSizeList = limitSizeList;
     }
+
+    public Integer getExecutorParallelism() {
+        return executorParallelism;
+    }
+
+    public void setExecutorParallelism(Integer executorParallelism) {
+        this.executorParallelism = executorParallelism;
+    }
+
+    public Integer getExecutorQueueSize() {
+        return executorQueueSize;
+    }
+
+    public void setExecutorQueueSize(Integer executorQueueSize) {
+        this.executorQueueSize = executorQueueSize;
+    }
+
+    public Integer getExecutorSpaceLimit() {
+        return executorSpaceLimit;
+    }
+
+    public void setExecutorSpaceLimit(Integer executorSpaceLimit) {
+        this.executorSpaceLimit = executorSpaceLimit;
+    }
+
+    public List<String> getRemoteNodes() {
+        return remoteNodes;
+    }
+
+    public void setRemoteNodes(List<String> remoteNodes) {
+        this.remoteNodes = remoteNodes;
+    }
+
+    public String getRedisTopology() {
+        return redisTopology;
+    }
+
+    public void setRedisTopology(String redisTopology) {
+        this.redisTopology = redisTopology;
+    }
+
+    public Integer getReplicaHeartbeatInterval() {
+        return replicaHeartbeatInterval;
+    }
+
+    public void setReplicaHeartbeatInterval(Integer replicaHeartbeatInterval) {
+        this.replicaHeartbeatInterval = replicaHeartbeatInterval;
+    }
+
+    public String getSnapshotDir() {
+        return snapshotDir;
+    }
+
+    public void setSnapshotDir(String snapshotDir) {
+        this.snapshotDir = snapshotDir;
+    }
+
+    public Boolean getWarmUpBlocking() {
+        return warmUpBlocking;
+    }
+
+    public void setWarmUpBlocking(Boolean warmUpBlocking) {
+        this.warmUpBlocking = warmUpBlocking;
+    }
 }
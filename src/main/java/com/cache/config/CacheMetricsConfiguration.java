@@ -0,0 +1,23 @@
+package com.cache.config;
+
+import com.cache.metrics.CacheMetricsBinder;
+import com.cache.server.CacheAttributeService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @author zhao tailen
+ * @description classpath中存在Micrometer时导出缓存指标
+ * @date 2026-10-17
+ */
+@Configuration
+@ConditionalOnClass(name="io.micrometer.core.instrument.binder.MeterBinder")
+public class CacheMetricsConfiguration {
+
+    @Bean
+    public CacheMetricsBinder cacheMetricsBinder(CacheManager cacheManager, CacheAttributeService cacheAttributeService) {
+        return new CacheMetricsBinder(cacheManager, cacheAttributeService.getCacheTaskExecutor());
+    }
+}
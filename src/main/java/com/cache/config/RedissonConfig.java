@@ -1,21 +1,96 @@
 package com.cache.config;
 
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
 import org.redisson.config.Config;
+import org.redisson.config.ReadMode;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 @Configuration
 public class RedissonConfig {
 
+    /**
+     * 主从部署，读取策略为读从节点的缓存空间使用从节点
+     */
+    public static final String MASTER_SLAVE = "masterSlave";
+
+    @Value("${cache.creater.redisTopology:single}")
+    private String redisTopology;
+
     @Bean
     public RedissonClient redisson() throws IOException {
+        if (MASTER_SLAVE.equals(redisTopology)) {
+            Config config = Config.fromYAML(RedissonConfig.class.getClassLoader().getResource("redisson-master-slave-config.yml"));
+            // the default client always reads from master, replica reads use their own clients
+            return Redisson.create(withReadMode(config, ReadMode.MASTER));
+        }
         Config config = Config.fromYAML(RedissonConfig.class.getClassLoader().getResource("redisson-config.yml"));
         return Redisson.create(config);
     }
-}
 
+    /**
+     * @param config   masterSlaveServersConfig的redisson配置
+     * @param readMode 读取的节点
+     * @return 使用指定读取节点的配置副本，写入总是发送到主节点
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public static Config withReadMode(Config config, ReadMode readMode) {
+        Config copy = new Config(config);
+        copy.useMasterSlaveServers().setReadMode(readMode);
+        return copy;
+    }
+
+    /**
+     * @param config redisson配置
+     * @return 配置的redis地址，用于识别节点是否变化：单节点为节点地址，主从为主节点地址，
+     * 哨兵为主节点名称及哨兵地址，集群为配置的节点地址【多个地址排序后用逗号连接】
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public static String addressOf(Config config) {
+        JsonNode json;
+        try {
+            json = new ObjectMapper().readTree(config.toJSON());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (json.hasNonNull("singleServerConfig")) {
+            return json.get("singleServerConfig").path("address").asText();
+        }
+        if (json.hasNonNull("masterSlaveServersConfig")) {
+            return json.get("masterSlaveServersConfig").path("masterAddress").asText();
+        }
+        if (json.hasNonNull("sentinelServersConfig")) {
+            JsonNode sentinel = json.get("sentinelServersConfig");
+            return sentinel.path("masterName").asText() + "@" + joinAddresses(sentinel.path("sentinelAddresses"));
+        }
+        if (json.hasNonNull("clusterServersConfig")) {
+            return joinAddresses(json.get("clusterServersConfig").path("nodeAddresses"));
+        }
+        if (json.hasNonNull("replicatedServersConfig")) {
+            return joinAddresses(json.get("replicatedServersConfig").path("nodeAddresses"));
+        }
+        throw new IllegalStateException("unsupported redisson config: no server address");
+    }
+
+    private static String joinAddresses(JsonNode addresses) {
+        List<String> values = new ArrayList<>();
+        for (JsonNode address : addresses) {
+            values.add(address.asText());
+        }
+        Collections.sort(values);
+        return String.join(",", values);
+    }
+}
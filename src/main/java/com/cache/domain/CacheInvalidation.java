@@ -0,0 +1,86 @@
+package com.cache.domain;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * @author zhao tailen
+ * @description 跨节点本地缓存失效消息
+ * @date 2026-10-17
+ */
+public class CacheInvalidation implements Serializable {
+
+    private static final long serialVersionUID=1L;
+
+    /**
+     * 发布消息的节点标识【用于过滤自己发出的消息】
+     * */
+    private String origin;
+
+    /**
+     * 需要失效的key
+     * */
+    private List<Object> keys;
+
+    /**
+     * 是否清空整个缓存空间
+     * */
+    private boolean clear;
+
+    /**
+     * 发布时间【毫秒】
+     * */
+    private long publishTime;
+
+    public CacheInvalidation() {
+    }
+
+    public CacheInvalidation(String origin, List<Object> keys, boolean clear, long publishTime) {
+        this.origin=origin;
+        this.keys=keys;
+        this.clear=clear;
+        this.publishTime=publishTime;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin=origin;
+    }
+
+    public List<Object> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(List<Object> keys) {
+        this.keys=keys;
+    }
+
+    public boolean isClear() {
+        return clear;
+    }
+
+    public void setClear(boolean clear) {
+        this.clear=clear;
+    }
+
+    public long getPublishTime() {
+        return publishTime;
+    }
+
+    public void setPublishTime(long publishTime) {
+        this.publishTime=publishTime;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheInvalidation{" +
+                "origin='" + origin + '\'' +
+                ", keys=" + keys +
+                ", clear=" + clear +
+                ", publishTime=" + publishTime +
+                '}';
+    }
+}
@@ -56,6 +56,271 @@ public class CacheSpace {
      * */
     private Long accessThreshold;
 
+    /**
+     * 是否开启跨节点本地缓存失效通道【两级缓存】
+     * */
+    private Boolean invalidationBus;
+
+    /**
+     * 失效通道单条消息最多携带的key数量
+     * */
+    private Integer invalidationBatchSize;
+
+    /**
+     * 失效通道批量发布的最长等待时间【毫秒】
+     * */
+    private Integer invalidationDelay;
+
+    /**
+     * 是否开启集群范围的加载锁【同一个key同时只有一个节点执行加载】
+     * */
+    private Boolean loadLock;
+
+    /**
+     * 等待加载锁的最长时间【毫秒】
+     * */
+    private Integer loadLockWait;
+
+    /**
+     * 加载锁的最长持有时间【毫秒】
+     * */
+    private Integer loadLockLease;
+
+    /**
+     * 等待写入远程的溢出缓存最大数量【先本地后远程】
+     * */
+    private Integer spillQueueSize;
+
+    /**
+     * 溢出缓存每批写入远程的数量
+     * */
+    private Integer spillBatchSize;
+
+    /**
+     * 溢出缓存不满一批时的最长等待时间【毫秒】
+     * */
+    private Integer spillFlushInterval;
+
+    /**
+     * 是否开启远程缓存的延迟写入【本地和远程、先远程后本地】
+     * */
+    private Boolean writeBehind;
+
+    /**
+     * 等待写入远程的key最大数量
+     * */
+    private Integer writeBehindQueueSize;
+
+    /**
+     * 延迟写入每批写入远程的数量
+     * */
+    private Integer writeBehindBatchSize;
+
+    /**
+     * 延迟写入不满一批时的最长等待时间【毫秒】
+     * */
+    private Integer writeBehindDelay;
+
+    /**
+     * 延迟写入队列满时的最长等待时间【毫秒】，超时后直接写入远程
+     * */
+    private Integer writeBehindWait;
+
+    /**
+     * 本地缓存的租约时长【秒】，大于0时开启，租约到期前批量校验远程版本号，版本未变化时只续约
+     * */
+    private Integer leaseTime;
+
+    /**
+     * 远程缓存的编码【default：redisson-config.yml中的编码，kryo：紧凑二进制编码，或Codec实现类的全限定名】
+     * */
+    private String codec;
+
+    /**
+     * kryo编码需要注册的类，逗号分隔【所有节点的顺序必须一致】
+     * */
+    private String codecClasses;
+
+    /**
+     * 本地缓存提前刷新的比例【0-1，经过有效时间的该比例后命中时异步刷新，0为关闭】
+     * */
+    private Float refreshAheadRatio;
+
+    /**
+     * 空结果的有效时间【秒，0为关闭，开启后未查到的key以标记的方式保存，不再每次加载】
+     * */
+    private Integer negativeTtl;
+
+    /**
+     * 空结果最多占用本地缓存数量的比例
+     * */
+    private Float negativeMaxRatio;
+
+    /**
+     * 是否开启远程缓存key的存在性过滤器【只远程、先远程后本地】
+     * */
+    private Boolean keyFilter;
+
+    /**
+     * 存在性过滤器的误判率
+     * */
+    private Float keyFilterFpp;
+
+    /**
+     * 存在性过滤器的重建间隔【秒，0为使用expireDate】
+     * */
+    private Integer keyFilterRebuildInterval;
+
+    /**
+     * 远程缓存的分片数量【大于1时按一致性哈希拆分为多个RMapCache，并分布到所有redis节点】
+     * */
+    private Integer remoteShards;
+
+    /**
+     * 远程缓存的读取策略【主从部署时有效】
+     * */
+    private ReadPolicy readPolicy;
+
+    /**
+     * 从节点允许落后的时间【毫秒】，超过时读主节点
+     * */
+    private Integer maxStaleness;
+
+    /**
+     * 是否开启远程缓存的熔断
+     * */
+    private Boolean circuitBreaker;
+
+    /**
+     * 开启熔断时每次远程调用的耗时上限【毫秒】，超出时按未命中处理
+     * */
+    private Integer remoteBudget;
+
+    /**
+     * 熔断统计最近多少次远程调用
+     * */
+    private Integer breakerWindow;
+
+    /**
+     * 熔断的失败率【超时也算失败】
+     * */
+    private Float breakerErrorRate;
+
+    /**
+     * 熔断统计的耗时分位数
+     * */
+    private Float breakerLatencyPercentile;
+
+    /**
+     * 耗时分位数达到多少时熔断【毫秒，0为使用remoteBudget】
+     * */
+    private Integer breakerLatencyThreshold;
+
+    /**
+     * 熔断后探测远程缓存的间隔【毫秒】
+     * */
+    private Integer breakerOpenTime;
+
+    /**
+     * 熔断期间的写入是否进入队列，恢复后写入远程缓存
+     * */
+    private Boolean breakerQueueWrites;
+
+    /**
+     * 堆外缓存的大小【MB，0为不开启】
+     * */
+    private Integer offHeapSize;
+
+    /**
+     * 是否定期写入本地缓存的快照，重启后从快照恢复
+     * */
+    private Boolean snapshot;
+
+    /**
+     * 本地缓存快照的间隔【秒】
+     * */
+    private Integer snapshotInterval;
+
+    /**
+     * 本地缓存快照文件所在的目录
+     * */
+    private String snapshotDir;
+
+    /**
+     * 启动时是否从远程缓存预热本地缓存
+     * */
+    private Boolean warmUp;
+
+    /**
+     * 最多预热的数量【0为本地缓存数量】
+     * */
+    private Integer warmUpSize;
+
+    /**
+     * 预热的时间上限【毫秒】
+     * */
+    private Integer warmUpTime;
+
+    /**
+     * 访问频率累加到远程的间隔【秒】
+     * */
+    private Integer hotnessInterval;
+
+    /**
+     * 本地缓存的内存上限【MB，0为按maxSize的数量限制】
+     * */
+    private Integer localMaxMemory;
+
+    /**
+     * 单个value的字节上限【0为不限制】
+     * */
+    private Integer maxValueBytes;
+
+    /**
+     * 超过maxValueBytes的value的处理方式
+     * */
+    private OversizePolicy oversizePolicy;
+
+    /**
+     * 是否在运行时按两级缓存的幽灵命中率调整twoLevelsRatio
+     * */
+    private Boolean adaptiveSplit;
+
+    /**
+     * 调整twoLevelsRatio的间隔【秒】
+     * */
+    private Integer adaptInterval;
+
+    /**
+     * 调整后twoLevelsRatio的下限
+     * */
+    private Float adaptMinRatio;
+
+    /**
+     * 调整后twoLevelsRatio的上限
+     * */
+    private Float adaptMaxRatio;
+
+    /**
+     * 统计热点key的计数器数量【0为不统计】
+     * */
+    private Integer hotKeyTopK;
+
+    /**
+     * 热点key的统计周期【秒】
+     * */
+    private Integer hotKeyWindow;
+
+    /**
+     * 访问速率达到多少时固定到本地【每秒，0为不固定】
+     * */
+    private Integer hotKeyPinRate;
+
+    /**
+     * 热点key固定到本地的时间【毫秒】
+     * */
+    private Integer hotKeyPinTtl;
+
     public String getName() {
         return name;
     }
@@ -128,6 +393,430 @@ public class CacheSpace {
         this.accessThreshold=accessThreshold;
     }
 
+    public Boolean getInvalidationBus() {
+        return invalidationBus;
+    }
+
+    public void setInvalidationBus(Boolean invalidationBus) {
+        this.invalidationBus=invalidationBus;
+    }
+
+    public Integer getInvalidationBatchSize() {
+        return invalidationBatchSize;
+    }
+
+    public void setInvalidationBatchSize(Integer invalidationBatchSize) {
+        this.invalidationBatchSize=invalidationBatchSize;
+    }
+
+    public Integer getInvalidationDelay() {
+        return invalidationDelay;
+    }
+
+    public void setInvalidationDelay(Integer invalidationDelay) {
+        this.invalidationDelay=invalidationDelay;
+    }
+
+    public Boolean getLoadLock() {
+        return loadLock;
+    }
+
+    public void setLoadLock(Boolean loadLock) {
+        this.loadLock=loadLock;
+    }
+
+    public Integer getLoadLockWait() {
+        return loadLockWait;
+    }
+
+    public void setLoadLockWait(Integer loadLockWait) {
+        this.loadLockWait=loadLockWait;
+    }
+
+    public Integer getLoadLockLease() {
+        return loadLockLease;
+    }
+
+    public void setLoadLockLease(Integer loadLockLease) {
+        this.loadLockLease=loadLockLease;
+    }
+
+    public Integer getSpillQueueSize() {
+        return spillQueueSize;
+    }
+
+    public void setSpillQueueSize(Integer spillQueueSize) {
+        this.spillQueueSize=spillQueueSize;
+    }
+
+    public Integer getSpillBatchSize() {
+        return spillBatchSize;
+    }
+
+    public void setSpillBatchSize(Integer spillBatchSize) {
+        this.spillBatchSize=spillBatchSize;
+    }
+
+    public Integer getSpillFlushInterval() {
+        return spillFlushInterval;
+    }
+
+    public void setSpillFlushInterval(Integer spillFlushInterval) {
+        this.spillFlushInterval=spillFlushInterval;
+    }
+
+    public Boolean getWriteBehind() {
+        return writeBehind;
+    }
+
+    public void setWriteBehind(Boolean writeBehind) {
+        this.writeBehind=writeBehind;
+    }
+
+    public Integer getWriteBehindQueueSize() {
+        return writeBehindQueueSize;
+    }
+
+    public void setWriteBehindQueueSize(Integer writeBehindQueueSize) {
+        this.writeBehindQueueSize=writeBehindQueueSize;
+    }
+
+    public Integer getWriteBehindBatchSize() {
+        return writeBehindBatchSize;
+    }
+
+    public void setWriteBehindBatchSize(Integer writeBehindBatchSize) {
+        this.writeBehindBatchSize=writeBehindBatchSize;
+    }
+
+    public Integer getWriteBehindDelay() {
+        return writeBehindDelay;
+    }
+
+    public void setWriteBehindDelay(Integer writeBehindDelay) {
+        this.writeBehindDelay=writeBehindDelay;
+    }
+
+    public Integer getWriteBehindWait() {
+        return writeBehindWait;
+    }
+
+    public void setWriteBehindWait(Integer writeBehindWait) {
+        this.writeBehindWait=writeBehindWait;
+    }
+
+    public Integer getLeaseTime() {
+        return leaseTime;
+    }
+
+    public void setLeaseTime(Integer leaseTime) {
+        this.leaseTime=leaseTime;
+    }
+
+    public String getCodec() {
+        return codec;
+    }
+
+    public void setCodec(String codec) {
+        this.codec=codec;
+    }
+
+    public String getCodecClasses() {
+        return codecClasses;
+    }
+
+    public void setCodecClasses(String codecClasses) {
+        this.codecClasses=codecClasses;
+    }
+
+    public Float getRefreshAheadRatio() {
+        return refreshAheadRatio;
+    }
+
+    public void setRefreshAheadRatio(Float refreshAheadRatio) {
+        this.refreshAheadRatio=refreshAheadRatio;
+    }
+
+    public Integer getNegativeTtl() {
+        return negativeTtl;
+    }
+
+    public void setNegativeTtl(Integer negativeTtl) {
+        this.negativeTtl=negativeTtl;
+    }
+
+    public Float getNegativeMaxRatio() {
+        return negativeMaxRatio;
+    }
+
+    public void setNegativeMaxRatio(Float negativeMaxRatio) {
+        this.negativeMaxRatio=negativeMaxRatio;
+    }
+
+    public Boolean getKeyFilter() {
+        return keyFilter;
+    }
+
+    public void setKeyFilter(Boolean keyFilter) {
+        this.keyFilter=keyFilter;
+    }
+
+    public Float getKeyFilterFpp() {
+        return keyFilterFpp;
+    }
+
+    public void setKeyFilterFpp(Float keyFilterFpp) {
+        this.keyFilterFpp=keyFilterFpp;
+    }
+
+    public Integer getKeyFilterRebuildInterval() {
+        return keyFilterRebuildInterval;
+    }
+
+    public void setKeyFilterRebuildInterval(Integer keyFilterRebuildInterval) {
+        this.keyFilterRebuildInterval=keyFilterRebuildInterval;
+    }
+
+    public Integer getRemoteShards() {
+        return remoteShards;
+    }
+
+    public void setRemoteShards(Integer remoteShards) {
+        this.remoteShards=remoteShards;
+    }
+
+    public ReadPolicy getReadPolicy() {
+        return readPolicy;
+    }
+
+    public void setReadPolicy(ReadPolicy readPolicy) {
+        this.readPolicy=readPolicy;
+    }
+
+    public Integer getMaxStaleness() {
+        return maxStaleness;
+    }
+
+    public void setMaxStaleness(Integer maxStaleness) {
+        this.maxStaleness=maxStaleness;
+    }
+
+    public Boolean getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public void setCircuitBreaker(Boolean circuitBreaker) {
+        this.circuitBreaker=circuitBreaker;
+    }
+
+    public Integer getRemoteBudget() {
+        return remoteBudget;
+    }
+
+    public void setRemoteBudget(Integer remoteBudget) {
+        this.remoteBudget=remoteBudget;
+    }
+
+    public Integer getBreakerWindow() {
+        return breakerWindow;
+    }
+
+    public void setBreakerWindow(Integer breakerWindow) {
+        this.breakerWindow=breakerWindow;
+    }
+
+    public Float getBreakerErrorRate() {
+        return breakerErrorRate;
+    }
+
+    public void setBreakerErrorRate(Float breakerErrorRate) {
+        this.breakerErrorRate=breakerErrorRate;
+    }
+
+    public Float getBreakerLatencyPercentile() {
+        return breakerLatencyPercentile;
+    }
+
+    public void setBreakerLatencyPercentile(Float breakerLatencyPercentile) {
+        this.breakerLatencyPercentile=breakerLatencyPercentile;
+    }
+
+    public Integer getBreakerLatencyThreshold() {
+        return breakerLatencyThreshold;
+    }
+
+    public void setBreakerLatencyThreshold(Integer breakerLatencyThreshold) {
+        this.breakerLatencyThreshold=breakerLatencyThreshold;
+    }
+
+    public Integer getBreakerOpenTime() {
+        return breakerOpenTime;
+    }
+
+    public void setBreakerOpenTime(Integer breakerOpenTime) {
+        this.breakerOpenTime=breakerOpenTime;
+    }
+
+    public Boolean getBreakerQueueWrites() {
+        return breakerQueueWrites;
+    }
+
+    public void setBreakerQueueWrites(Boolean breakerQueueWrites) {
+        this.breakerQueueWrites=breakerQueueWrites;
+    }
+
+    public Integer getOffHeapSize() {
+        return offHeapSize;
+    }
+
+    public void setOffHeapSize(Integer offHeapSize) {
+        this.offHeapSize=offHeapSize;
+    }
+
+    public Boolean getSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(Boolean snapshot) {
+        this.snapshot=snapshot;
+    }
+
+    public Integer getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    public void setSnapshotInterval(Integer snapshotInterval) {
+        this.snapshotInterval=snapshotInterval;
+    }
+
+    public String getSnapshotDir() {
+        return snapshotDir;
+    }
+
+    public void setSnapshotDir(String snapshotDir) {
+        this.snapshotDir=snapshotDir;
+    }
+
+    public Boolean getWarmUp() {
+        return warmUp;
+    }
+
+    public void setWarmUp(Boolean warmUp) {
+        this.warmUp=warmUp;
+    }
+
+    public Integer getWarmUpSize() {
+        return warmUpSize;
+    }
+
+    public void setWarmUpSize(Integer warmUpSize) {
+        this.warmUpSize=warmUpSize;
+    }
+
+    public Integer getWarmUpTime() {
+        return warmUpTime;
+    }
+
+    public void setWarmUpTime(Integer warmUpTime) {
+        this.warmUpTime=warmUpTime;
+    }
+
+    public Integer getHotnessInterval() {
+        return hotnessInterval;
+    }
+
+    public void setHotnessInterval(Integer hotnessInterval) {
+        this.hotnessInterval=hotnessInterval;
+    }
+
+    public Integer getLocalMaxMemory() {
+        return localMaxMemory;
+    }
+
+    public void setLocalMaxMemory(Integer localMaxMemory) {
+        this.localMaxMemory=localMaxMemory;
+    }
+
+    public Integer getMaxValueBytes() {
+        return maxValueBytes;
+    }
+
+    public void setMaxValueBytes(Integer maxValueBytes) {
+        this.maxValueBytes=maxValueBytes;
+    }
+
+    public OversizePolicy getOversizePolicy() {
+        return oversizePolicy;
+    }
+
+    public void setOversizePolicy(OversizePolicy oversizePolicy) {
+        this.oversizePolicy=oversizePolicy;
+    }
+
+    public Boolean getAdaptiveSplit() {
+        return adaptiveSplit;
+    }
+
+    public void setAdaptiveSplit(Boolean adaptiveSplit) {
+        this.adaptiveSplit=adaptiveSplit;
+    }
+
+    public Integer getAdaptInterval() {
+        return adaptInterval;
+    }
+
+    public void setAdaptInterval(Integer adaptInterval) {
+        this.adaptInterval=adaptInterval;
+    }
+
+    public Float getAdaptMinRatio() {
+        return adaptMinRatio;
+    }
+
+    public void setAdaptMinRatio(Float adaptMinRatio) {
+        this.adaptMinRatio=adaptMinRatio;
+    }
+
+    public Float getAdaptMaxRatio() {
+        return adaptMaxRatio;
+    }
+
+    public void setAdaptMaxRatio(Float adaptMaxRatio) {
+        this.adaptMaxRatio=adaptMaxRatio;
+    }
+
+    public Integer getHotKeyTopK() {
+        return hotKeyTopK;
+    }
+
+    public void setHotKeyTopK(Integer hotKeyTopK) {
+        this.hotKeyTopK=hotKeyTopK;
+    }
+
+    public Integer getHotKeyWindow() {
+        return hotKeyWindow;
+    }
+
+    public void setHotKeyWindow(Integer hotKeyWindow) {
+        this.hotKeyWindow=hotKeyWindow;
+    }
+
+    public Integer getHotKeyPinRate() {
+        return hotKeyPinRate;
+    }
+
+    public void setHotKeyPinRate(Integer hotKeyPinRate) {
+        this.hotKeyPinRate=hotKeyPinRate;
+    }
+
+    public Integer getHotKeyPinTtl() {
+        return hotKeyPinTtl;
+    }
+
+    public void setHotKeyPinTtl(Integer hotKeyPinTtl) {
+        this.hotKeyPinTtl=hotKeyPinTtl;
+    }
+
     @Override
     public String toString() {
         return "CacheSpace{" +
@@ -140,6 +829,59 @@ public class CacheSpace {
                 ", cacheChangeStrategy=" + cacheChangeStrategy +
                 ", twoLevelsRatio=" + twoLevelsRatio +
                 ", accessThreshold=" + accessThreshold +
+                ", invalidationBus=" + invalidationBus +
+                ", invalidationBatchSize=" + invalidationBatchSize +
+                ", invalidationDelay=" + invalidationDelay +
+                ", loadLock=" + loadLock +
+                ", loadLockWait=" + loadLockWait +
+                ", loadLockLease=" + loadLockLease +
+                ", spillQueueSize=" + spillQueueSize +
+                ", spillBatchSize=" + spillBatchSize +
+                ", spillFlushInterval=" + spillFlushInterval +
+                ", writeBehind=" + writeBehind +
+                ", writeBehindQueueSize=" + writeBehindQueueSize +
+                ", writeBehindBatchSize=" + writeBehindBatchSize +
+                ", writeBehindDelay=" + writeBehindDelay +
+                ", writeBehindWait=" + writeBehindWait +
+                ", leaseTime=" + leaseTime +
+                ", codec='" + codec + '\'' +
+                ", codecClasses='" + codecClasses + '\'' +
+                ", refreshAheadRatio=" + refreshAheadRatio +
+                ", negativeTtl=" + negativeTtl +
+                ", negativeMaxRatio=" + negativeMaxRatio +
+                ", keyFilter=" + keyFilter +
+                ", keyFilterFpp=" + keyFilterFpp +
+                ", keyFilterRebuildInterval=" + keyFilterRebuildInterval +
+                ", remoteShards=" + remoteShards +
+                ", readPolicy=" + readPolicy +
+                ", maxStaleness=" + maxStaleness +
+                ", circuitBreaker=" + circuitBreaker +
+                ", remoteBudget=" + remoteBudget +
+                ", breakerWindow=" + breakerWindow +
+                ", breakerErrorRate=" + breakerErrorRate +
+                ", breakerLatencyPercentile=" + breakerLatencyPercentile +
+                ", breakerLatencyThreshold=" + breakerLatencyThreshold +
+                ", breakerOpenTime=" + breakerOpenTime +
+                ", breakerQueueWrites=" + breakerQueueWrites +
+                ", offHeapSize=" + offHeapSize +
+                ", snapshot=" + snapshot +
+                ", snapshotInterval=" + snapshotInterval +
+                ", snapshotDir='" + snapshotDir + '\'' +
+                ", warmUp=" + warmUp +
+                ", warmUpSize=" + warmUpSize +
+                ", warmUpTime=" + warmUpTime +
+                ", hotnessInterval=" + hotnessInterval +
+                ", localMaxMemory=" + localMaxMemory +
+                ", maxValueBytes=" + maxValueBytes +
+                ", oversizePolicy=" + oversizePolicy +
+                ", adaptiveSplit=" + adaptiveSplit +
+                ", adaptInterval=" + adaptInterval +
+                ", adaptMinRatio=" + adaptMinRatio +
+                ", adaptMaxRatio=" + adaptMaxRatio +
+                ", hotKeyTopK=" + hotKeyTopK +
+                ", hotKeyWindow=" + hotKeyWindow +
+                ", hotKeyPinRate=" + hotKeyPinRate +
+                ", hotKeyPinTtl=" + hotKeyPinTtl +
                 '}';
     }
 }
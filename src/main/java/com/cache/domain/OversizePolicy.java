@@ -0,0 +1,17 @@
+package com.cache.domain;
+
+/**
+ * @author zhao tailen
+ * @description 超过maxValueBytes的value的处理方式
+ * @date 2026-10-17
+ */
+public enum OversizePolicy {
+    /**
+     * 不缓存，同时清理该key已有的缓存
+     */
+    SKIP,
+    /**
+     * 只写入远程缓存，不进入本地缓存【只本地缓存时同SKIP】
+     */
+    REMOTE_ONLY;
+}
@@ -0,0 +1,21 @@
+package com.cache.domain;
+
+/**
+ * @author zhao tailen
+ * @description 远程缓存的读取策略【主从部署时有效】
+ * @date 2026-10-17
+ */
+public enum ReadPolicy {
+    /**
+     * 只读主节点
+     */
+    MASTER,
+    /**
+     * 读从节点，从节点落后超过maxStaleness时读主节点
+     */
+    REPLICA,
+    /**
+     * 读从节点，从节点落后超过maxStaleness、未命中或读取失败时再读主节点
+     */
+    REPLICA_FALLBACK;
+}
@@ -0,0 +1,17 @@
+package com.cache.domain;
+
+/**
+ * @author zhao tailen
+ * @description 远程缓存中表示"该key不存在"的标记，只在缓存内部使用，不会作为value返回给调用方
+ * @date 2026-10-17
+ */
+public enum Tombstone {
+    /**
+     * 唯一实例
+     */
+    INSTANCE;
+
+    public static boolean isTombstone(Object value) {
+        return value == INSTANCE;
+    }
+}
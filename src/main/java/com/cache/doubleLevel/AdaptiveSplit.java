@@ -0,0 +1,323 @@
+package com.cache.doubleLevel;
+
+import com.cache.local.LocalValue;
+import com.cache.remote.CountingBloomFilter;
+import com.cache.server.CacheTaskExecutor;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author zhao tailen
+ * @description 运行时调整本地与远程缓存数量的比例【twoLevelsRatio】。
+ * 本地缓存按数量淘汰的key记录在本地幽灵集合中，本节点写入远程缓存的key记录在远程幽灵集合中，
+ * 本地未命中但在本地幽灵集合中，说明本地缓存再大一些就能命中；远程未命中但本节点最近写入过，说明远程缓存再大一些就能命中。
+ * 每个周期比较两者占请求的比例，差距超过阀值时把比例向收益更大的一侧调整一步，只修改本节点caffeine的数量上限；
+ * 远程缓存由所有节点共享，数量上限保持配置的大小。
+ * 幽灵集合使用计数布隆过滤器，分为两代，每个周期清空较旧的一代；写入时间可能已超过expireDate或idleDate的一代不计入远程幽灵命中，
+ * 本节点删除的key记录在删除集合中，之后的未命中也不计入
+ * @date 2026-10-17
+ */
+public class AdaptiveSplit {
+
+    private final Logger log=LoggerFactory.getLogger(AdaptiveSplit.class);
+
+    /**
+     * 每次调整比例的倍数
+     * */
+    private static final double STEP=1.25;
+
+    /**
+     * 两侧幽灵命中占请求的比例至少相差多少才调整
+     * */
+    private static final double MIN_DIFFERENCE=0.005;
+
+    /**
+     * 每个周期至少多少次请求才调整
+     * */
+    private static final long MIN_REQUESTS=1000;
+
+    /**
+     * 每代幽灵集合最多预期的key数量
+     * */
+    private static final int MAX_GHOSTS=1 << 20;
+
+    private static final double GHOST_FPP=0.01;
+
+    private final String name;
+
+    private final int maxSize;
+
+    private final double minRatio;
+
+    private final double maxRatio;
+
+    private final Cache<Object, LocalValue> localCache;
+
+    /**
+     * 远程缓存按expireDate或idleDate过期的最短时间【毫秒】，不过期时为Long.MAX_VALUE
+     * */
+    private final long expireMillis;
+
+    private final CountingBloomFilter[] localGhosts;
+
+    private final CountingBloomFilter[] remoteGhosts;
+
+    /**
+     * 本节点删除的远程幽灵，只增加不减少，随对应的一代一起清空
+     * */
+    private final CountingBloomFilter[] removedGhosts;
+
+    /**
+     * 每一代幽灵集合开始记录的时间
+     * */
+    private final long[] generationStart=new long[2];
+
+    /**
+     * 当前一代幽灵集合的下标
+     * */
+    private volatile int generation;
+
+    private final ScheduledFuture<?> adaptTask;
+
+    private volatile double ratio;
+
+    private volatile int localMaxSize;
+
+    private final int remoteMaxSize;
+
+    private final LongAdder localHits=new LongAdder();
+
+    private final LongAdder localMisses=new LongAdder();
+
+    private final LongAdder localGhostHits=new LongAdder();
+
+    private final LongAdder remoteHits=new LongAdder();
+
+    private final LongAdder remoteMisses=new LongAdder();
+
+    private final LongAdder remoteGhostHits=new LongAdder();
+
+    private final LongAdder adjustments=new LongAdder();
+
+    /**
+     * 上个周期结束时的累计值【本地命中、本地未命中、本地幽灵命中、远程命中、远程未命中、远程幽灵命中】
+     * */
+    private final long[] lastCounts=new long[6];
+
+    /**
+     * @param name         缓存空间名称
+     * @param maxSize      两级缓存的总数量
+     * @param ratio        初始比例
+     * @param minRatio     比例下限
+     * @param maxRatio     比例上限
+     * @param interval     调整的间隔【秒】
+     * @param expireDate   远程缓存有效时间【秒】
+     * @param idleDate     远程缓存空闲时间【秒】
+     * @param localCache   本地缓存
+     * @param taskExecutor 共享线程池
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    AdaptiveSplit(String name, int maxSize, double ratio, double minRatio, double maxRatio, int interval, int expireDate,
+                  int idleDate, Cache<Object, LocalValue> localCache, CacheTaskExecutor taskExecutor) {
+        this.name=name;
+        this.maxSize=maxSize;
+        this.minRatio=Math.min(minRatio, maxRatio);
+        this.maxRatio=Math.max(minRatio, maxRatio);
+        this.ratio=Math.min(Math.max(ratio, this.minRatio), this.maxRatio);
+        this.localCache=localCache;
+        this.expireMillis=expireMillis(expireDate, idleDate);
+        this.localMaxSize=localSize(maxSize, this.ratio);
+        this.remoteMaxSize=remoteSize(maxSize, this.ratio);
+        this.localGhosts=new CountingBloomFilter[]{newGhosts(localMaxSize), newGhosts(localMaxSize)};
+        this.remoteGhosts=new CountingBloomFilter[]{newGhosts(remoteMaxSize), newGhosts(remoteMaxSize)};
+        this.removedGhosts=new CountingBloomFilter[]{newGhosts(remoteMaxSize), newGhosts(remoteMaxSize)};
+        Arrays.fill(generationStart, System.currentTimeMillis());
+        this.adaptTask=taskExecutor.scheduleWithFixedDelay(() -> taskExecutor.tryExecute(name, this::adapt), interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return 本地缓存数量：maxSize*ratio/(1+ratio)
+     */
+    static int localSize(int maxSize, double ratio) {
+        return (int) (maxSize * ratio / (1 + ratio));
+    }
+
+    /**
+     * @return 远程缓存数量：maxSize/(1+ratio)
+     */
+    static int remoteSize(int maxSize, double ratio) {
+        return (int) (maxSize / (1 + ratio));
+    }
+
+    private static long expireMillis(int expireDate, int idleDate) {
+        long millis=Long.MAX_VALUE;
+        if (expireDate > 0) {
+            millis=TimeUnit.SECONDS.toMillis(expireDate);
+        }
+        if (idleDate > 0) {
+            millis=Math.min(millis, TimeUnit.SECONDS.toMillis(idleDate));
+        }
+        return millis;
+    }
+
+    private static CountingBloomFilter newGhosts(int size) {
+        return new CountingBloomFilter(Math.min(Math.max(size, 1), MAX_GHOSTS), GHOST_FPP);
+    }
+
+    /**
+     * @description 本地缓存因数量溢出淘汰了key
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    void onLocalEvict(Object key) {
+        localGhosts[generation].put(key);
+    }
+
+    /**
+     * @description 本节点向远程缓存写入了key
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    void onRemoteWrite(Object key) {
+        remoteGhosts[generation].put(key);
+    }
+
+    /**
+     * @description 删除的key之后在远程未命中不算作幽灵命中。只记录到删除集合中，不减少远程幽灵的计数，
+     * 避免误判的key或其他节点写入的key减掉共用计数器；删除后同一代中再次写入的key也不再计入
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    void onRemove(Object key) {
+        for (int i=0; i < remoteGhosts.length; i++) {
+            if (remoteGhosts[i].mightContain(key)) {
+                removedGhosts[i].put(key);
+            }
+        }
+    }
+
+    void recordLocal(Object key, boolean hit) {
+        if (hit) {
+            localHits.increment();
+            return;
+        }
+        localMisses.increment();
+        if (localGhosts[0].mightContain(key) || localGhosts[1].mightContain(key)) {
+            localGhostHits.increment();
+        }
+    }
+
+    void recordRemote(Object key, boolean hit) {
+        if (hit) {
+            remoteHits.increment();
+            return;
+        }
+        remoteMisses.increment();
+        long now=System.currentTimeMillis();
+        for (int i=0; i < remoteGhosts.length; i++) {
+            // keys of an older generation may have expired by expireDate or idleDate rather than been evicted
+            if (now - generationStart[i] < expireMillis && remoteGhosts[i].mightContain(key)
+                    && !removedGhosts[i].mightContain(key)) {
+                remoteGhostHits.increment();
+                return;
+            }
+        }
+    }
+
+    /**
+     * @description 按本周期两侧的幽灵命中率调整比例，然后清空较旧的一代幽灵集合
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    synchronized void adapt() {
+        long[] counts={localHits.sum(), localMisses.sum(), localGhostHits.sum(),
+                remoteHits.sum(), remoteMisses.sum(), remoteGhostHits.sum()};
+        long localHit=counts[0] - lastCounts[0];
+        long localMiss=counts[1] - lastCounts[1];
+        long localGhostHit=counts[2] - lastCounts[2];
+        long remoteHit=counts[3] - lastCounts[3];
+        long remoteMiss=counts[4] - lastCounts[4];
+        long remoteGhostHit=counts[5] - lastCounts[5];
+        System.arraycopy(counts, 0, lastCounts, 0, counts.length);
+        rotate();
+
+        long requests=localHit + localMiss;
+        if (requests < MIN_REQUESTS) {
+            return;
+        }
+        double localGhostRate=(double) localGhostHit / requests;
+        double remoteGhostRate=(double) remoteGhostHit / requests;
+        log.debug("AdaptiveSplit: {} local hit {}/{}, remote hit {}/{}, ghost rate local {} remote {}",
+                name, localHit, requests, remoteHit, remoteHit + remoteMiss, localGhostRate, remoteGhostRate);
+
+        double current=ratio;
+        double next=current;
+        if (localGhostRate - remoteGhostRate > MIN_DIFFERENCE) {
+            next=Math.min(current * STEP, maxRatio);
+        } else if (remoteGhostRate - localGhostRate > MIN_DIFFERENCE) {
+            next=Math.max(current / STEP, minRatio);
+        }
+        if (next == current) {
+            return;
+        }
+        resize(next);
+        log.info("AdaptiveSplit: {} twoLevelsRatio {} -> {}, localMaxSize {}, ghost rate local {} remote {}",
+                name, current, next, localMaxSize, localGhostRate, remoteGhostRate);
+    }
+
+    /**
+     * @description 只修改本节点的本地缓存数量，远程缓存由所有节点共享，不随单个节点的流量调整
+     */
+    private void resize(double next) {
+        int local=localSize(maxSize, next);
+        localCache.policy().eviction().ifPresent(eviction -> eviction.setMaximum(local));
+        ratio=next;
+        localMaxSize=local;
+        adjustments.increment();
+    }
+
+    private void rotate() {
+        int older=generation ^ 1;
+        localGhosts[older].clear();
+        remoteGhosts[older].clear();
+        removedGhosts[older].clear();
+        generationStart[older]=System.currentTimeMillis();
+        // the volatile write publishes the start time to the readers of the new generation
+        generation=older;
+    }
+
+    void destroy() {
+        adaptTask.cancel(false);
+    }
+
+    public double getRatio() {
+        return ratio;
+    }
+
+    public int getLocalMaxSize() {
+        return localMaxSize;
+    }
+
+    public int getRemoteMaxSize() {
+        return remoteMaxSize;
+    }
+
+    public long getAdjustments() {
+        return adjustments.sum();
+    }
+
+    public long getLocalGhostHits() {
+        return localGhostHits.sum();
+    }
+
+    public long getRemoteGhostHits() {
+        return remoteGhostHits.sum();
+    }
+}
@@ -1,34 +1,92 @@
 package com.cache.doubleLevel;
 
+import com.cache.batch.BatchCache;
+import com.cache.codec.CacheCodecs;
 import com.cache.domain.CacheChangeStrategy;
 import com.cache.domain.CachePriority;
 import com.cache.domain.CacheSpace;
-import com.cache.local.LocalCacheRemovalListener;
+import com.cache.domain.OversizePolicy;
+import com.cache.domain.Tombstone;
+import com.cache.loader.SingleFlight;
+import com.cache.local.FrequencySketch;
+import com.cache.local.LocalCacheWriter;
+import com.cache.local.LocalSnapshot;
+import com.cache.local.LocalValue;
+import com.cache.local.NegativeCache;
+import com.cache.local.OffHeapStore;
+import com.cache.local.ValueSizer;
+import com.cache.metrics.CacheMetrics;
+import com.cache.metrics.MeteredCache;
+import com.cache.remote.CacheInvalidationBus;
+import com.cache.remote.HotKeyTracker;
+import com.cache.remote.HotnessRecorder;
+import com.cache.remote.KeyExistenceFilter;
+import com.cache.remote.RemoteCircuitBreaker;
+import com.cache.remote.RemoteLoadLock;
+import com.cache.remote.RemoteMapRouter;
+import com.cache.remote.ReplicaReader;
+import com.cache.remote.RemoteSpillWriter;
+import com.cache.remote.WriteBehindQueue;
+import com.cache.server.CacheTaskExecutor;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.redisson.api.RFuture;
 import org.redisson.api.RMapCache;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.cache.support.NullValue;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.cache.remote.RemoteFutures.await;
+import static com.cache.remote.RemoteFutures.toFuture;
 
 /**
  * @author zhao tailen
  * @description 两级缓存实现
  * @date 2019-11-14
  */
-public class DoubleLevel extends AbstractValueAdaptingCache {
+public class DoubleLevel extends AbstractValueAdaptingCache implements BatchCache, MeteredCache {
 
     private final Logger log=LoggerFactory.getLogger(DoubleLevel.class);
 
     private RedissonClient redissonClient;
 
-    private RMapCache<Object, Object> remoteCache;
+    private Codec codec;
+
+    private List<RedissonClient> shardClients;
+
+    private List<RedissonClient> replicaClients;
+
+    private ReplicaReader replicaReader;
+
+    private RemoteMapRouter remoteCache;
+
+    private Cache<Object, LocalValue> localCache;
+
+    /**
+     * 本地缓存与远程缓存之间的堆外缓存，接收本地缓存溢出的缓存
+     * */
+    private OffHeapStore offHeapStore;
 
-    private Cache<Object, Object> localCache;
+    /**
+     * 本地缓存的快照，重启后从快照恢复本地缓存
+     * */
+    private LocalSnapshot snapshot;
 
     private volatile CacheSpace cacheSpace;
 
@@ -48,271 +106,1695 @@ public class DoubleLevel extends AbstractValueAdaptingCache {
 
     private CachePriority cachePriority;
 
-    private volatile ConcurrentHashMap<Object, Long> accessThresholdMap=null;
+    private WritePath writePath;
+
+    private FrequencySketch frequencySketch;
+
+    private final SingleFlight singleFlight=new SingleFlight();
+
+    private RemoteLoadLock remoteLoadLock;
+
+    private CacheTaskExecutor taskExecutor;
+
+    private CacheInvalidationBus invalidationBus;
+
+    private RemoteSpillWriter spillWriter;
+
+    private WriteBehindQueue writeBehindQueue;
+
+    private LeaseManager leaseManager;
+
+    private RefreshAhead refreshAhead;
+
+    private NegativeCache negativeCache;
+
+    private int negativeTtl;
+
+    private KeyExistenceFilter keyFilter;
+
+    private RemoteCircuitBreaker breaker;
+
+    /**
+     * 所有节点共同记录的访问频率，用于启动时预热
+     * */
+    private HotnessRecorder hotness;
+
+    private WarmUp warmUp;
+
+    /**
+     * 按字节估算缓存大小，没有设置localMaxMemory和maxValueBytes时为null
+     * */
+    private ValueSizer valueSizer;
+
+    /**
+     * 超过maxValueBytes的value的处理方式
+     * */
+    private OversizePolicy oversizePolicy;
+
+    /**
+     * 运行时调整本地与远程缓存数量的比例，没有开启时为null
+     * */
+    private AdaptiveSplit adaptiveSplit;
+
+    /**
+     * 远程缓存的热点key统计，没有开启时为null
+     * */
+    private HotKeyTracker hotKeys;
+
+    /**
+     * 熔断期间积压写入的队列，开启延迟写入时与延迟写入队列相同
+     * */
+    private WriteBehindQueue degradedQueue;
+
+    private final CacheMetrics metrics;
 
-    private ConcurrentHashMap<Object, Boolean> lockMap=null;
+    /**
+     * 已进入延迟写入队列的写入结果
+     */
+    private static final CompletableFuture<Void> WRITE_BEHIND=CompletableFuture.completedFuture(null);
+
+    /**
+     * 不需要等待远程写入的结果
+     */
+    private static final CompletableFuture<Void> DONE=CompletableFuture.completedFuture(null);
 
-    private final Long basiLocal=0L;
+    /**
+     * 熔断期间跳过的远程写入
+     */
+    private static final CompletableFuture<Void> DEGRADED=CompletableFuture.completedFuture(null);
 
-    private ThreadPoolExecutor executor;
+    /**
+     * 存在性过滤器确认远程缓存中没有该key或远程缓存熔断时的查询结果
+     */
+    private static final CompletableFuture<Object> ABSENT=CompletableFuture.completedFuture(null);
 
 
     /**
      * @param cacheSpace     缓存属性
      * @param redissonClient redission客户端
+     * @param taskExecutor   所有缓存空间共享的后台线程池
      * @description {@code AbstractValueAdaptingCache}创建一个二级缓存
      * @author zhao tailen
      * @date 2019-11-15 14:37
      */
-    public DoubleLevel(CacheSpace cacheSpace, RedissonClient redissonClient) {
+    public DoubleLevel(CacheSpace cacheSpace, RedissonClient redissonClient, CacheTaskExecutor taskExecutor) {
+        this(cacheSpace, redissonClient, Collections.singletonList(redissonClient), null, taskExecutor);
+    }
+
+    /**
+     * @param cacheSpace     缓存属性
+     * @param redissonClient redission客户端
+     * @param shardClients   远程缓存分片可以使用的redis节点【第一个为redissonClient】
+     * @param replicaClients 与shardClients一一对应的从节点客户端，不是主从部署时为null
+     * @param taskExecutor   所有缓存空间共享的后台线程池
+     * @description {@code AbstractValueAdaptingCache}创建一个远程缓存分片的二级缓存
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public DoubleLevel(CacheSpace cacheSpace, RedissonClient redissonClient, List<RedissonClient> shardClients,
+                       List<RedissonClient> replicaClients, CacheTaskExecutor taskExecutor) {
         super(cacheSpace.getAllowNullValues());
         log.debug("cacheSpace is {}", cacheSpace.toString());
         this.cacheSpace=cacheSpace;
         this.redissonClient=redissonClient;
+        this.shardClients=shardClients;
+        this.replicaClients=replicaClients;
+        this.taskExecutor=taskExecutor;
         this.name=cacheSpace.getName();
         this.expireDate=cacheSpace.getExpireDate();
         this.idleDate=cacheSpace.getIdleDate();
         this.cachePriority=cacheSpace.getCachePriority();
+        this.writePath=WritePath.of(cachePriority);
         this.cacheChangeStrategy=cacheSpace.getCacheChangeStrategy();
         this.accessThreshold=cacheSpace.getAccessThreshold();
+        this.metrics=new CacheMetrics(name);
         init();
 
     }
 
     public void init() {
-        // initing thread pool
-        executor=new ThreadPoolExecutor(
-                20, 20, 60, TimeUnit.SECONDS,
-                new LinkedBlockingDeque<Runnable>(1000), new ThreadPoolExecutor.CallerRunsPolicy());
-
         // initing remote cache if {twoLevelsCache} is true
         this.maxRemoteSize=getRemoteMaxSize();
         initRemoteCache();
 
+        // initing circuit breaker of remote cache
+        breaker=RemoteCircuitBreaker.of(cacheSpace, remoteCache, taskExecutor);
+
+        // initing key-existence filter of remote cache
+        initKeyFilter();
+
         // initing local cache
         this.maxLocalSize=getLocalMaxSize();
         initLocalCache();
-    }
 
+        // initing negative-result cache
+        initNegativeCache();
+
+        // initing lease of local cache
+        initLease();
+
+        // initing refresh-ahead of local cache
+        initRefreshAhead();
+
+        // initing warm-up of local cache from the hottest remote entries
+        initWarmUp();
+
+        // initing runtime tuning of the local/remote split
+        initAdaptiveSplit();
+
+        // initing heavy-hitter tracking of remote reads, pinned values bypass the lease
+        hotKeys=HotKeyTracker.of(cacheSpace, leaseManager == null, taskExecutor);
+
+        // initing invalidation bus that keeps other nodes' local cache fresh
+        initInvalidationBus();
+
+        // initing write-behind queue for remote writes
+        initWriteBehind();
+
+        // initing queue of the writes made while the remote cache is unavailable
+        initDegradedQueue();
+
+        bindMetrics();
+    }
 
     /**
-     * @description 初始化远程缓存
+     * @description 登记本地缓存及各个队列的指标
      * @author zhao tailen
-     * @date 2019-11-15 14:39
+     * @date 2026-10-17
      */
-    private void initRemoteCache() {
-        this.remoteCache=redissonClient.getMapCache(this.name);
-        remoteCache.trySetMaxSize(maxRemoteSize);
+    private void bindMetrics() {
+        metrics.bindLocalCache(localCache);
+        if (spillWriter != null) {
+            metrics.bindQueue("spill", spillWriter::getQueueSize);
+            metrics.bindCounter("spill.spilled", spillWriter::getSpilledEntries);
+            metrics.bindCounter("spill.dropped", spillWriter::getDroppedEntries);
+            metrics.bindCounter("spill.failed", spillWriter::getFailedEntries);
+        }
+        if (writeBehindQueue != null) {
+            metrics.bindQueue("writeBehind", writeBehindQueue::getQueueSize);
+            metrics.bindCounter("writeBehind.written", writeBehindQueue::getWrittenEntries);
+            metrics.bindCounter("writeBehind.coalesced", writeBehindQueue::getCoalescedWrites);
+            metrics.bindCounter("writeBehind.failed", writeBehindQueue::getFailedEntries);
+            metrics.bindCounter("writeBehind.overflow", writeBehindQueue::getOverflowWrites);
+        }
+        if (invalidationBus != null) {
+            metrics.bindQueue("invalidation", invalidationBus::getPendingCount);
+            metrics.bindCounter("invalidation.published", invalidationBus::getPublishedKeys);
+        }
+        if (leaseManager != null) {
+            metrics.bindCounter("lease.renewed", leaseManager::getRenewedLeases);
+            metrics.bindCounter("lease.revoked", leaseManager::getRevokedLeases);
+        }
+        if (refreshAhead != null) {
+            metrics.bindCounter("refresh.remote", refreshAhead::getRemoteRefreshes);
+            metrics.bindCounter("refresh.loader", refreshAhead::getLoaderRefreshes);
+            metrics.bindCounter("refresh.failed", refreshAhead::getFailedRefreshes);
+            metrics.bindCounter("refresh.dropped", refreshAhead::getDroppedRefreshes);
+        }
+        if (remoteCache.getShardCount() > 1 || remoteCache.isRebalancing()) {
+            metrics.bindCounter("rebalance.moved", remoteCache::getMovedEntries);
+        }
+        if (replicaReader != null) {
+            metrics.bindCounter("replica.reads", replicaReader::getReplicaReads);
+            metrics.bindCounter("replica.stale", replicaReader::getStaleReads);
+            metrics.bindCounter("replica.masterFallbacks", replicaReader::getMasterFallbacks);
+        }
+        if (keyFilter != null) {
+            metrics.bindCounter("keyFilter.skipped", keyFilter::getSkippedLookups);
+            metrics.bindCounter("keyFilter.rebuilds", keyFilter::getRebuilds);
+            metrics.bindCounter("keyFilter.failedRebuilds", keyFilter::getFailedRebuilds);
+        }
+        if (breaker != null) {
+            metrics.bindGauge("breaker.state", () -> breaker.getState().ordinal());
+            metrics.bindCounter("breaker.timeouts", breaker::getTimeouts);
+            metrics.bindCounter("breaker.rejected", breaker::getRejectedCalls);
+            metrics.bindCounter("breaker.droppedWrites", breaker::getDroppedWrites);
+            metrics.bindCounter("breaker.opened", breaker::getOpened);
+            metrics.bindCounter("breaker.recovered", breaker::getRecovered);
+        }
+        if (degradedQueue != null && degradedQueue != writeBehindQueue) {
+            metrics.bindQueue("degraded", degradedQueue::getQueueSize);
+            metrics.bindCounter("degraded.written", degradedQueue::getWrittenEntries);
+        }
+        if (negativeCache != null) {
+            metrics.bindQueue("negative", negativeCache::getSize);
+            metrics.bindCounter("negative.stored", negativeCache::getStored);
+            metrics.bindCounter("negative.localHits", negativeCache::getLocalHits);
+            metrics.bindCounter("negative.remoteHits", negativeCache::getRemoteHits);
+        }
+        if (valueSizer != null) {
+            metrics.bindCounter("oversized", valueSizer::getOversized);
+        }
+        if (hotKeys != null) {
+            metrics.bindGauge("hotKeys.topRate", hotKeys::getTopRate);
+            metrics.bindGauge("hotKeys.pinned", hotKeys::getPinnedKeys);
+            metrics.bindCounter("hotKeys.pinHits", hotKeys::getPinHits);
+            metrics.bindCounter("hotKeys.dropped", hotKeys::getDroppedRecords);
+        }
+        if (adaptiveSplit != null) {
+            metrics.bindGauge("split.localMaxSize", adaptiveSplit::getLocalMaxSize);
+            metrics.bindGauge("split.remoteMaxSize", adaptiveSplit::getRemoteMaxSize);
+            metrics.bindCounter("split.adjustments", adaptiveSplit::getAdjustments);
+            metrics.bindCounter("split.localGhostHits", adaptiveSplit::getLocalGhostHits);
+            metrics.bindCounter("split.remoteGhostHits", adaptiveSplit::getRemoteGhostHits);
+        }
+        if (warmUp != null) {
+            metrics.bindGauge("warmUp.loaded", warmUp::getLoaded);
+            metrics.bindGauge("warmUp.target", warmUp::getTarget);
+            metrics.bindCounter("hotness.flushed", hotness::getFlushedKeys);
+            metrics.bindCounter("hotness.skipped", hotness::getSkippedKeys);
+        }
+        if (snapshot != null) {
+            metrics.bindQueue("snapshot.pending", snapshot::getPendingSize);
+            metrics.bindGauge("snapshot.loaded", snapshot::getLoadedEntries);
+            metrics.bindGauge("snapshot.written", snapshot::getWrittenEntries);
+            metrics.bindCounter("snapshot.restored", snapshot::getRestoredEntries);
+            metrics.bindCounter("snapshot.failed", snapshot::getFailedSnapshots);
+        }
+        if (offHeapStore != null) {
+            metrics.bindQueue("offHeap", offHeapStore::getSize);
+            metrics.bindGauge("offHeap.usedBytes", offHeapStore::getUsedBytes);
+            metrics.bindGauge("offHeap.allocatedBytes", offHeapStore::getAllocatedBytes);
+            metrics.bindCounter("offHeap.hits", offHeapStore::getHits);
+            metrics.bindCounter("offHeap.misses", offHeapStore::getMisses);
+            metrics.bindCounter("offHeap.evictions", offHeapStore::getEvictions);
+            metrics.bindCounter("offHeap.rejected", offHeapStore::getRejected);
+        }
     }
 
     /**
-     * @description 初始化本地缓存
+     * @description 初始化远程缓存的延迟写入队列【本地和远程、先远程后本地】
      * @author zhao tailen
-     * @date 2019-11-15 14:39
+     * @date 2026-10-17
      */
-    private void initLocalCache() {
-        lockMap=new ConcurrentHashMap<Object, Boolean>();
-        accessThresholdMap=new ConcurrentHashMap<Object, Long>(maxLocalSize);
-
-        if (CacheChangeStrategy.OVERFLOW_MAX_SIZE.equals(cacheChangeStrategy)) {
-            log.debug("先本地后远程");
-            localCache=Caffeine.newBuilder()
-                    .initialCapacity(maxLocalSize)
-                    .maximumSize(maxLocalSize)
-                    .expireAfterAccess(idleDate, TimeUnit.SECONDS)
-                    .expireAfterWrite(expireDate, TimeUnit.SECONDS)
-                    // set remova lListener that overflow maxSize
-                    .removalListener(new LocalCacheRemovalListener(remoteCache, expireDate, idleDate))
-                    .build();
+    private void initWriteBehind() {
+        if (!Boolean.TRUE.equals(cacheSpace.getWriteBehind())
+                || !(CachePriority.LOCAL_REMOTE.equals(cachePriority) || CachePriority.FIRST_REMOTE.equals(cachePriority))) {
             return;
         }
-
-        localCache=Caffeine.newBuilder()
-                .initialCapacity(maxLocalSize)
-                .maximumSize(maxLocalSize)
-                .expireAfterAccess(idleDate, TimeUnit.SECONDS)
-                .expireAfterWrite(expireDate, TimeUnit.SECONDS)
-                .build();
+        writeBehindQueue=new WriteBehindQueue(name, remoteCache, cacheSpace.getWriteBehindQueueSize(),
+                cacheSpace.getWriteBehindBatchSize(), cacheSpace.getWriteBehindDelay(), cacheSpace.getWriteBehindWait(),
+                expireDate, idleDate, this::afterFlush, taskExecutor);
+        if (leaseManager != null) {
+            writeBehindQueue.writeAlong(leaseManager::stage);
+        }
     }
 
-    @Override
-    protected Object lookup(Object key) {
-        Object value=localCache.getIfPresent(key);
-        if (value != null) {
-            log.debug("DoubleLevel: get cache from localCache >>>>>>>>>> the key is {} and value is {}", key, value);
-            return value;
+    /**
+     * @description 熔断期间暂停所有后台写入；开启熔断写入队列时，熔断期间的写入进入队列，恢复后写入远程缓存
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private void initDegradedQueue() {
+        if (breaker == null) {
+            return;
         }
-
-        log.debug("DoubleLevel: getn't cache from localCache,the key is {}", key);
-        value=remoteCache.get(key);
-        log.debug("DoubleLevel: get cache from remoteCache >>>>>>>>>> the key is {} and value is {}", key, value);
-
-        if (value != null && CacheChangeStrategy.ACCESS_THRESHOLD.equals(cacheChangeStrategy)) {
-            final Object v=value;
-            executor.execute(new Runnable() {
-                @Override
-                public void run() {
-                    changeCacheStrategy(key, v);
-                }
-            });
+        if (writeBehindQueue != null) {
+            degradedQueue=writeBehindQueue;
+        } else if (Boolean.TRUE.equals(cacheSpace.getBreakerQueueWrites()) && writePath.remote) {
+            degradedQueue=new WriteBehindQueue(name, remoteCache, cacheSpace.getWriteBehindQueueSize(),
+                    cacheSpace.getWriteBehindBatchSize(), cacheSpace.getWriteBehindDelay(), cacheSpace.getWriteBehindWait(),
+                    expireDate, idleDate, this::afterFlush, taskExecutor);
         }
-        return value;
-    }
-
-    public void changeCacheStrategy(Object key, Object value) {
-        Long v=accessThresholdMap.get(key);
-        synchronized (v == null ? basiLocal : v) {
-            if (v == null) {
-                accessThresholdMap.put(key, 1L);
-                return;
-            }
-            long oldAccessThreshold=accessThresholdMap.get(key);
-            long newAccessThreshold=oldAccessThreshold + 1;
-            log.debug("oldAccessThreshold is {}", oldAccessThreshold);
-            log.debug("newAccessThreshold is {}", newAccessThreshold);
-            accessThresholdMap.put(key, newAccessThreshold);
-            if (newAccessThreshold > accessThreshold) {
-                localCache.put(key, value);
+        if (degradedQueue != null) {
+            degradedQueue.pauseWhile(breaker::isOpen);
+            if (leaseManager != null) {
+                degradedQueue.writeAlong(leaseManager::stage);
             }
         }
+        if (spillWriter != null) {
+            spillWriter.pauseWhile(breaker::isOpen);
+        }
     }
 
-    @Override
-    public String getName() {
-        return this.name;
+    private void afterFlush(List<Object> keys) {
+        if (keyFilter != null) {
+            // a rebuild may have scanned the shards while the keys were queued
+            keyFilter.addAll(keys);
+        }
+        for (Object key : keys) {
+            publishInvalidation(key);
+        }
     }
 
-    @Override
-    public Object getNativeCache() {
-        return this;
+    /**
+     * @description 初始化本地缓存的租约【本地和远程、先远程后本地】
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private void initLease() {
+        if (cacheSpace.getLeaseTime() == null || cacheSpace.getLeaseTime() <= 0
+                || !(CachePriority.LOCAL_REMOTE.equals(cachePriority) || CachePriority.FIRST_REMOTE.equals(cachePriority))) {
+            return;
+        }
+        leaseManager=new LeaseManager(name, remoteCache, localCache, maxLocalSize, cacheSpace.getLeaseTime(),
+                expireDate, idleDate, CachePriority.LOCAL_REMOTE.equals(cachePriority), taskExecutor);
     }
 
-    @Override
-    public ValueWrapper get(Object key) {
-        log.debug("DoubleLevel: get cache.......ValueWrapper");
-        Object value=lookup(key);
-        return toValueWrapper(value);
+    /**
+     * @description 初始化远程缓存key的存在性过滤器【先远程后本地，需要开启失效通道】
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private void initKeyFilter() {
+        if (!Boolean.TRUE.equals(cacheSpace.getKeyFilter()) || !CachePriority.FIRST_REMOTE.equals(cachePriority)) {
+            return;
+        }
+        if (!Boolean.TRUE.equals(cacheSpace.getInvalidationBus())) {
+            // the writes of other nodes only reach a node-local filter through the bus, without it keys are missed
+            log.warn("DoubleLevel: keyFilter of {} is ignored, it needs invalidationBus", name);
+            return;
+        }
+        int rebuildInterval=cacheSpace.getKeyFilterRebuildInterval() == null || cacheSpace.getKeyFilterRebuildInterval() <= 0
+                ? expireDate : cacheSpace.getKeyFilterRebuildInterval();
+        keyFilter=new KeyExistenceFilter(name, remoteCache, maxRemoteSize, cacheSpace.getKeyFilterFpp(), rebuildInterval, taskExecutor);
     }
 
-    @SuppressWarnings("unchecked")
-    @Override
-    public <T> T get(Object key, Callable<T> valueLoader) {
-        log.debug("DoubleLevel: get cache.......<T> ");
-        Object value=lookup(key);
-        if (value != null) {
-            return (T) value;
+    /**
+     * @description 初始化空结果缓存，远程缓存中的空结果标记使用同样的有效时间
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private void initNegativeCache() {
+        if (cacheSpace.getNegativeTtl() == null || cacheSpace.getNegativeTtl() <= 0) {
+            return;
         }
+        this.negativeTtl=cacheSpace.getNegativeTtl();
+        float ratio=cacheSpace.getNegativeMaxRatio() == null ? 0f : cacheSpace.getNegativeMaxRatio();
+        negativeCache=new NegativeCache((int) (maxLocalSize * ratio), negativeTtl);
+    }
 
-        value=lookup(key);
-        if (value != null) {
-            return (T) value;
+    /**
+     * @description 初始化启动预热及访问频率的记录【本地和远程、先远程后本地】，持有租约的本地缓存需要逐个取得租约，不预热
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private void initWarmUp() {
+        if (!Boolean.TRUE.equals(cacheSpace.getWarmUp())
+                || !(CachePriority.LOCAL_REMOTE.equals(cachePriority) || CachePriority.FIRST_REMOTE.equals(cachePriority))) {
+            return;
         }
-        try {
-            value=valueLoader.call();
-        } catch (Exception e) {
-            e.printStackTrace();
+        if (leaseManager != null) {
+            log.warn("DoubleLevel: {} is not warmed up, local cache with leaseTime needs a lease per key", name);
+            return;
         }
-        Object storeValue=toStoreValue(value);
-        put(key, storeValue);
-        return (T) value;
+        int size=cacheSpace.getWarmUpSize() == null || cacheSpace.getWarmUpSize() <= 0
+                ? maxLocalSize : Math.min(cacheSpace.getWarmUpSize(), maxLocalSize);
+        hotness=new HotnessRecorder(name, redissonClient, codec, maxLocalSize, cacheSpace.getHotnessInterval(), taskExecutor);
+        warmUp=new WarmUp(name, hotness, remoteCache, localCache, valueSizer, size, cacheSpace.getWarmUpTime(), taskExecutor);
+    }
 
+    /**
+     * @return 是否运行时调整本地与远程缓存数量的比例【两级缓存都使用、本地缓存按数量淘汰时有效】
+     */
+    private boolean isAdaptiveSplit() {
+        return Boolean.TRUE.equals(cacheSpace.getAdaptiveSplit())
+                && !CachePriority.ONLY_REMOTE.equals(cachePriority) && !CachePriority.ONLY_LOCAL.equals(cachePriority)
+                && (valueSizer == null || valueSizer.getMaxBytes() <= 0);
     }
 
-    @Override
-    public void put(Object key, Object value) {
-        if (!super.isAllowNullValues() && value == null) {
-            this.evict(key);
+    /**
+     * @description 初始化本地与远程缓存比例的运行时调整
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private void initAdaptiveSplit() {
+        if (!isAdaptiveSplit()) {
             return;
         }
+        adaptiveSplit=new AdaptiveSplit(name, cacheSpace.getMaxSize(), cacheSpace.getTwoLevelsRatio(),
+                cacheSpace.getAdaptMinRatio(), cacheSpace.getAdaptMaxRatio(), cacheSpace.getAdaptInterval(),
+                expireDate, idleDate, localCache, taskExecutor);
+    }
+
+    /**
+     * @return 上个统计周期读取远程缓存最多的key，没有开启时为空
+     */
+    public List<HotKeyTracker.HotKey> getHotKeys() {
+        return hotKeys == null ? Collections.emptyList() : hotKeys.getHotKeys();
+    }
+
+    /**
+     * @return 本地与远程缓存比例的调整，没有开启时为null
+     */
+    public AdaptiveSplit getAdaptiveSplit() {
+        return adaptiveSplit;
+    }
+
+    /**
+     * @return 开始预热本地缓存，所有预热任务结束后完成，没有开启预热时返回null
+     */
+    public CompletableFuture<Void> warmUp() {
+        return warmUp == null ? null : warmUp.start();
+    }
 
-        log.debug("{}.equals({}) {}",
-                CachePriority.FIRST_REMOTE.toString(),
-                cachePriority.toString(),
-                CachePriority.FIRST_REMOTE.toString().equals(cachePriority.toString()));
+    /**
+     * @return 预热的进度，没有开启预热时为null
+     */
+    public WarmUp getWarmUp() {
+        return warmUp;
+    }
 
-        log.debug("1 {}.equals({}) {}",
-                CachePriority.FIRST_REMOTE,
-                cachePriority,
-                CachePriority.FIRST_REMOTE.equals(cachePriority));
-        if (CachePriority.LOCAL_REMOTE.equals(cachePriority)) {
-            log.debug("DoubleLevel: put local & remote >>>>>>>>>>>> key is {} value is {}", key, value);
-            localCache.put(key, value);
-            remoteCache.putIfAbsent(key, value, expireDate, TimeUnit.SECONDS, idleDate, TimeUnit.SECONDS);
+    /**
+     * @description 初始化本地缓存的提前刷新
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private void initRefreshAhead() {
+        Float ratio=cacheSpace.getRefreshAheadRatio();
+        if (ratio == null || ratio <= 0 || ratio >= 1) {
+            return;
         }
+        refreshAhead=new RefreshAhead(name, ratio, expireDate, maxLocalSize, localCache, valueSizer, this::readForRefresh,
+                (key, value) -> writePath.remote ? afterRemote(key, writeRemote(key, value, -1, false)) : DONE, taskExecutor);
+    }
 
-        if (CachePriority.FIRST_LOCAL.equals(cachePriority)) {
-            log.debug("put local >>>>>>>>>>>> key is {} value is {}", key, value);
-            localCache.put(key, value);
+    /**
+     * @description 提前刷新时读取远程缓存：有尚未写入的延迟写入时使用队列中的value，否则经过熔断读取主节点
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private CompletableFuture<Object> readForRefresh(Object key) {
+        WriteBehindQueue queue=queueOf(key);
+        WriteBehindQueue.PendingWrite pendingWrite=queue == null ? null : queue.pending(key);
+        if (pendingWrite != null) {
+            return CompletableFuture.completedFuture(pendingWrite.isRemove() ? null : pendingWrite.getValue());
         }
+        return callRemote(() -> remoteCache.getAsync(key));
+    }
 
-        if (CachePriority.FIRST_REMOTE.equals(cachePriority)) {
-            log.debug("DoubleLevel: put remote >>>>>>>>>>>> key is {} value is {}", key, value);
-            remoteCache.putIfAbsent(key, value, expireDate, TimeUnit.SECONDS, idleDate, TimeUnit.SECONDS);
+    /**
+     * @description 初始化跨节点失效通道
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private void initInvalidationBus() {
+        if (!Boolean.TRUE.equals(cacheSpace.getInvalidationBus())) {
+            return;
         }
+        invalidationBus=new CacheInvalidationBus(name, redissonClient,
+                cacheSpace.getInvalidationBatchSize(), cacheSpace.getInvalidationDelay(),
+                new CacheInvalidationBus.Listener() {
+                    @Override
+                    public void invalidate(Collection<Object> keys) {
+                        // the cold tiers and the warm-up first, a load of these keys running now waits for the local invalidation
+                        if (warmUp != null) {
+                            warmUp.invalidateAll(keys);
+                        }
+                        if (offHeapStore != null) {
+                            offHeapStore.invalidateAll(keys);
+                        }
+                        if (snapshot != null) {
+                            snapshot.invalidateAll(keys);
+                        }
+                        localCache.invalidateAll(keys);
+                        if (keyFilter != null) {
+                            // another node wrote or removed these keys, both keep them in the filter
+                            keyFilter.addAll(keys);
+                        }
+                        if (negativeCache != null) {
+                            negativeCache.invalidateAll(keys);
+                        }
+                        if (leaseManager != null) {
+                            leaseManager.invalidateAll(keys);
+                        }
+                        if (hotKeys != null) {
+                            hotKeys.invalidateAll(keys);
+                        }
+                    }
 
+                    @Override
+                    public void invalidateAll() {
+                        if (warmUp != null) {
+                            warmUp.clear();
+                        }
+                        if (offHeapStore != null) {
+                            offHeapStore.invalidateAll();
+                        }
+                        if (snapshot != null) {
+                            snapshot.clear();
+                        }
+                        localCache.invalidateAll();
+                        if (negativeCache != null) {
+                            negativeCache.invalidateAll();
+                        }
+                        if (leaseManager != null) {
+                            leaseManager.invalidateAll();
+                        }
+                        if (hotKeys != null) {
+                            hotKeys.invalidateAll();
+                        }
+                    }
+                }, taskExecutor);
     }
 
-    @Override
-    public ValueWrapper putIfAbsent(Object key, Object value) {
-
-        if (CachePriority.LOCAL_REMOTE.equals(cachePriority)) {
-            log.debug("DoubleLevel: putIfAbsent local & remote >>>>>>>>>>>> key is {} value is {}", key, value);
-            localCache.put(key, value);
-            remoteCache.putIfAbsent(key, value, expireDate, TimeUnit.SECONDS, idleDate, TimeUnit.SECONDS);
+    /**
+     * @description 写入本地缓存的快照、剩余的延迟写入和溢出缓存并关闭失效通道
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void destroy() {
+        if (snapshot != null) {
+            snapshot.destroy();
         }
-
-        if (CachePriority.FIRST_LOCAL.equals(cachePriority)) {
-            log.debug("DoubleLevel: putIfAbsent local >>>>>>>>>>>> key is {} value is {}", key, value);
-            localCache.put(key, value);
+        if (writeBehindQueue != null) {
+            writeBehindQueue.destroy();
         }
-
-        if (CachePriority.FIRST_REMOTE.equals(cachePriority)) {
-            log.debug("DoubleLevel: putIfAbsent remote >>>>>>>>>>>> key is {} value is {}", key, value);
-            remoteCache.putIfAbsent(key, value, expireDate, TimeUnit.SECONDS, idleDate, TimeUnit.SECONDS);
+        if (degradedQueue != null && degradedQueue != writeBehindQueue) {
+            degradedQueue.destroy();
         }
-        return toValueWrapper(value);
+        if (breaker != null) {
+            breaker.destroy();
+        }
+        if (leaseManager != null) {
+            leaseManager.destroy();
+        }
+        if (invalidationBus != null) {
+            invalidationBus.destroy();
+        }
+        if (spillWriter != null) {
+            spillWriter.destroy();
+        }
+        if (keyFilter != null) {
+            keyFilter.destroy();
+        }
+        if (offHeapStore != null) {
+            offHeapStore.destroy();
+        }
+        if (hotness != null) {
+            hotness.destroy();
+        }
+        if (adaptiveSplit != null) {
+            adaptiveSplit.destroy();
+        }
+        if (hotKeys != null) {
+            hotKeys.destroy();
+        }
+        remoteCache.destroy();
     }
 
-    @Override
-    public void evict(Object key) {
-        clearLocal(key);
-        clearRemote(key);
-        accessThresholdMap.remove(key);
-        lockMap.remove(key);
+    public CacheInvalidationBus getInvalidationBus() {
+        return invalidationBus;
     }
 
-    @Override
-    public void clear() {
-        log.debug("DoubleLevel: clear all {}'cache ", cacheSpace.getName());
-        remoteCache.deleteAsync();
-        localCache.invalidateAll();
-        accessThresholdMap.clear();
-        lockMap.clear();
+    public RemoteSpillWriter getSpillWriter() {
+        return spillWriter;
     }
 
-    private void clearLocal(Object key) {
-        log.debug("DoubleLevel: clear local cache, the key is : {}", key);
-        localCache.invalidate(key);
+    /**
+     * @return 堆外缓存，没有开启时为null
+     */
+    public OffHeapStore getOffHeapStore() {
+        return offHeapStore;
     }
 
-    private void clearRemote(Object key) {
-        remoteCache.remove(key);
-        log.debug("DoubleLevel: clear remotr cache, the key is : {}", key);
+    public WriteBehindQueue getWriteBehindQueue() {
+        return writeBehindQueue;
     }
 
-    private int getRemoteMaxSize() {
-        BigDecimal bigDecimalMaxSize=new BigDecimal(cacheSpace.getMaxSize());
-        BigDecimal bigDecimalRatio=new BigDecimal(cacheSpace.getTwoLevelsRatio());
-        BigDecimal bigDecimal1=new BigDecimal(1);
-        BigDecimal size=bigDecimalMaxSize.divide(bigDecimalRatio.add(bigDecimal1));
-        return size.intValue();
+    /**
+     * @return 远程缓存的熔断器【可登记状态变化的回调】，没有开启熔断时为null
+     */
+    public RemoteCircuitBreaker getCircuitBreaker() {
+        return breaker;
     }
 
-    private int getLocalMaxSize() {
-        BigDecimal bigDecimalMaxSize=new BigDecimal(cacheSpace.getMaxSize());
-        BigDecimal bigDecimalRatio=new BigDecimal(cacheSpace.getTwoLevelsRatio());
-        BigDecimal bigDecimal1=new BigDecimal(1);
-        BigDecimal size=bigDecimalMaxSize.multiply(bigDecimalRatio).divide(bigDecimalRatio.add(bigDecimal1));
-        return size.intValue();
+    @Override
+    public CacheMetrics getMetrics() {
+        return metrics;
+    }
+
+
+    /**
+     * @description 初始化远程缓存
+     * @author zhao tailen
+     * @date 2019-11-15 14:39
+     */
+    private void initRemoteCache() {
+        this.codec=CacheCodecs.resolve(cacheSpace, redissonClient);
+        int shards=cacheSpace.getRemoteShards() == null ? 1 : cacheSpace.getRemoteShards();
+        this.remoteCache=new RemoteMapRouter(name, shardClients, codec, shards, expireDate, idleDate, taskExecutor);
+        remoteCache.trySetMaxSize(maxRemoteSize);
+        replicaReader=ReplicaReader.of(cacheSpace, replicaClients, codec);
+        if (replicaReader != null) {
+            remoteCache.useReplicaReads(replicaReader);
+        }
+        // a loaded value that is only written locally is never visible to other nodes, the lock would not save a load
+        if (Boolean.TRUE.equals(cacheSpace.getLoadLock()) && writePath.remote) {
+            remoteLoadLock=new RemoteLoadLock(name, redissonClient, cacheSpace.getLoadLockWait(), cacheSpace.getLoadLockLease());
+        }
+    }
+
+    /**
+     * @description 初始化本地缓存
+     * @author zhao tailen
+     * @date 2019-11-15 14:39
+     */
+    private void initLocalCache() {
+        if (CacheChangeStrategy.ACCESS_THRESHOLD.equals(cacheChangeStrategy)) {
+            frequencySketch=new FrequencySketch(maxLocalSize, accessThreshold * 10);
+        }
+
+        if (CacheChangeStrategy.OVERFLOW_MAX_SIZE.equals(cacheChangeStrategy)) {
+            log.debug("先本地后远程");
+            spillWriter=new RemoteSpillWriter(name, remoteCache, cacheSpace.getSpillQueueSize(),
+                    cacheSpace.getSpillBatchSize(), cacheSpace.getSpillFlushInterval(), taskExecutor);
+        }
+        if (cacheSpace.getOffHeapSize() != null && cacheSpace.getOffHeapSize() > 0) {
+            // off-heap evictions continue to the remote cache only when the local tier spills
+            offHeapStore=new OffHeapStore(name, (long) cacheSpace.getOffHeapSize() * 1024 * 1024, codec,
+                    spillWriter == null ? null : spillWriter::offer);
+        }
+
+        snapshot=LocalSnapshot.of(cacheSpace, codec, taskExecutor);
+
+        valueSizer=ValueSizer.of(cacheSpace);
+        oversizePolicy=cacheSpace.getOversizePolicy() == null ? OversizePolicy.SKIP : cacheSpace.getOversizePolicy();
+
+        if (spillWriter != null || offHeapStore != null || snapshot != null) {
+            LocalCacheWriter cacheWriter=new LocalCacheWriter(spillWriter, offHeapStore, expireDate, idleDate);
+            localCache=localCacheBuilder()
+                    // set remova lListener that overflow maxSize
+                    .writer(cacheWriter)
+                    .build();
+            cacheWriter.setLocalCache(localCache);
+            if (snapshot != null) {
+                cacheWriter.setSnapshot(snapshot);
+                snapshot.setLocalCache(localCache);
+            }
+            return;
+        }
+
+        localCache=localCacheBuilder().build();
+    }
+
+    /**
+     * @description 设置localMaxMemory时本地缓存按估算的字节数淘汰，否则按数量淘汰
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private Caffeine<Object, Object> localCacheBuilder() {
+        Caffeine<Object, Object> builder=Caffeine.newBuilder()
+                .initialCapacity(maxLocalSize)
+                .expireAfterAccess(idleDate, TimeUnit.SECONDS)
+                .expireAfterWrite(expireDate, TimeUnit.SECONDS)
+                .recordStats();
+        if (valueSizer != null && valueSizer.getMaxBytes() > 0) {
+            return builder.maximumWeight(valueSizer.getMaxBytes()).weigher(valueSizer);
+        }
+        if (isAdaptiveSplit()) {
+            // keys evicted by size are the local ghosts of the adaptive split
+            builder.removalListener((Object key, Object value, RemovalCause cause) -> {
+                if (cause == RemovalCause.SIZE && adaptiveSplit != null) {
+                    adaptiveSplit.onLocalEvict(key);
+                }
+            });
+        }
+        return builder.maximumSize(maxLocalSize);
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        LocalValue localValue=getLocal(key);
+        if (localValue != null) {
+            return localValue.getStoreValue();
+        }
+        return await(getRemoteAsync(key));
+    }
+
+    /**
+     * @description 读取本地缓存【及堆外缓存、快照】，持有租约时需要租约有效，未命中时读取空结果缓存
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private LocalValue getLocal(Object key) {
+        LocalValue localValue=offHeapStore == null && snapshot == null
+                ? localCache.getIfPresent(key) : localCache.get(key, this::getColdLocal);
+        if (localValue != null && localValue.isExpired()) {
+            // a value restored from the off-heap store or a snapshot keeps the expiry it had there
+            localCache.asMap().remove(key, localValue);
+            localValue=null;
+        }
+        if (localValue != null && (leaseManager == null || leaseManager.isValid(key))) {
+            log.debug("DoubleLevel: get cache from localCache >>>>>>>>>> the key is {} and value is {}", key, localValue);
+            if (refreshAhead != null && (breaker == null || !breaker.isOpen())) {
+                refreshAhead.onHit(key, localValue);
+            }
+            if (hotness != null) {
+                hotness.record(key);
+            }
+            if (adaptiveSplit != null) {
+                adaptiveSplit.recordLocal(key, true);
+            }
+            return localValue;
+        }
+        if (adaptiveSplit != null) {
+            adaptiveSplit.recordLocal(key, false);
+        }
+        return negativeCache == null ? null : negativeCache.get(key);
+    }
+
+    /**
+     * @description 本地缓存未命中时读取堆外缓存，再从快照恢复尚未访问的缓存，作为本地缓存的加载函数，命中的value放回本地缓存。
+     * 加载与该key的写入、失效互斥，失效时先清除堆外缓存及快照再清除本地缓存，不会放回失效前读到的旧值
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private LocalValue getColdLocal(Object key) {
+        LocalValue localValue=offHeapStore == null ? null : offHeapStore.get(key);
+        if (localValue != null) {
+            // the promoted value leaves the off-heap store, the next eviction writes it back
+            offHeapStore.invalidate(key);
+            return localValue;
+        }
+        return snapshot == null ? null : snapshot.restore(key);
+    }
+
+    /**
+     * @description 开启堆外缓存或快照时逐个加载本地缓存，未命中的key从堆外缓存或快照放回本地缓存
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private Map<Object, LocalValue> getAllLocal(Collection<?> keys) {
+        if (offHeapStore == null && snapshot == null) {
+            return localCache.getAllPresent(keys);
+        }
+        Map<Object, LocalValue> localValues=new HashMap<>(Math.max(16, keys.size() * 4 / 3 + 1));
+        for (Object key : keys) {
+            LocalValue localValue=localCache.get(key, this::getColdLocal);
+            if (localValue != null) {
+                localValues.put(key, localValue);
+            }
+        }
+        return localValues;
+    }
+
+    /**
+     * @param key 缓存key
+     * @description 异步获取缓存，本地命中时直接返回，否则异步查询远程缓存，空结果返回null
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public CompletableFuture<Object> getAsync(Object key) {
+        LocalValue localValue=getLocal(key);
+        if (localValue != null) {
+            return CompletableFuture.completedFuture(localValue.get());
+        }
+        return getRemoteAsync(key).thenApply(this::fromStoreValue);
+    }
+
+    /**
+     * @description 与{@link #getAsync(Object)}相同，空结果返回{@code NullValue}以区分未命中
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private CompletableFuture<Object> lookupAsync(Object key) {
+        LocalValue localValue=getLocal(key);
+        if (localValue != null) {
+            return CompletableFuture.completedFuture(localValue.getStoreValue());
+        }
+        return getRemoteAsync(key);
+    }
+
+    /**
+     * @description 本地未命中时，先读取尚未写入的延迟写入，再按读取策略异步查询远程缓存
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private CompletableFuture<Object> getRemoteAsync(Object key) {
+        log.debug("DoubleLevel: getn't cache from localCache,the key is {}", key);
+        WriteBehindQueue queue=queueOf(key);
+        WriteBehindQueue.PendingWrite pendingWrite=queue == null ? null : queue.pending(key);
+        if (pendingWrite != null) {
+            return CompletableFuture.completedFuture(pendingWrite.isRemove() ? null : pendingWrite.getValue());
+        }
+        if (hotKeys != null) {
+            // pinned reads are still counted, a key stays pinned as long as it stays hot
+            hotKeys.record(key);
+            Object pinned=hotKeys.getPinned(key);
+            if (pinned != null) {
+                return CompletableFuture.completedFuture(pinned);
+            }
+        }
+        if (keyFilter != null && !keyFilter.mightContain(key)) {
+            return ABSENT;
+        }
+        if (breaker != null && !breaker.allowRequest()) {
+            return ABSENT;
+        }
+        // taken before the read, a value read before a concurrent write must not be pinned after it
+        long pinStamp=hotKeys == null ? 0 : hotKeys.stamp();
+        long start=System.nanoTime();
+        CompletableFuture<Object> future=callRemote(() -> remoteCache.readAsync(key))
+                .whenComplete((v, e) -> metrics.recordRemoteGet(start, v, e)).thenApply(v -> {
+            log.debug("DoubleLevel: get cache from remoteCache >>>>>>>>>> the key is {} and value is {}", key, v);
+            if (hotKeys != null) {
+                hotKeys.onRemoteValue(key, v, pinStamp);
+            }
+            if (adaptiveSplit != null) {
+                adaptiveSplit.recordRemote(key, v != null);
+            }
+            if (Tombstone.isTombstone(v)) {
+                // a remote negative is cached locally with its own ttl, never promoted
+                if (negativeCache != null) {
+                    negativeCache.putRemoteHit(key);
+                }
+                return NullValue.INSTANCE;
+            }
+            if (v != null && hotness != null) {
+                hotness.record(key);
+            }
+            if (v != null && frequencySketch != null) {
+                changeCacheStrategy(key, v);
+            }
+            return v;
+        });
+        if (breaker == null) {
+            return future;
+        }
+        // within the latency budget a slow or failed remote read is a miss, the caller is never held longer
+        return future.exceptionally(e -> {
+            log.debug("DoubleLevel: get {} from remoteCache failed, treat as miss", key, e);
+            return null;
+        });
+    }
+
+    /**
+     * @description 开启熔断时在耗时上限内调用远程缓存并记录结果
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private <T> CompletableFuture<T> callRemote(Supplier<CompletableFuture<T>> call) {
+        return breaker == null ? call.get() : breaker.execute(call);
+    }
+
+    /**
+     * @return 该key有尚未写入远程缓存的延迟写入或熔断期间的积压写入时，返回所在的队列
+     */
+    private WriteBehindQueue queueOf(Object key) {
+        if (writeBehindQueue != null && writeBehindQueue.pending(key) != null) {
+            return writeBehindQueue;
+        }
+        if (degradedQueue != null && degradedQueue != writeBehindQueue && degradedQueue.pending(key) != null) {
+            return degradedQueue;
+        }
+        return null;
+    }
+
+    /**
+     * @return 远程缓存熔断中，或该key还有熔断期间积压的写入【之后的写入也进入队列以保持顺序】
+     */
+    private boolean degraded(Object key) {
+        if (breaker == null) {
+            return false;
+        }
+        return breaker.isOpen() || (degradedQueue != null && degradedQueue != writeBehindQueue && degradedQueue.pending(key) != null);
+    }
+
+    /**
+     * @param value 为null时为删除
+     * @param size  value估算的字节数【-1为未估算】
+     * @description 熔断期间的写入：只远程写入的缓存改为写入本地；有积压队列时进入队列，恢复后写入远程缓存，否则丢弃远程写入
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private CompletableFuture<Void> writeDegraded(Object key, Object value, long size, boolean ifAbsent) {
+        if (value != null && !writePath.local && (valueSizer == null || valueSizer.fits(size))) {
+            putLocal(key, value, size);
+        }
+        if (degradedQueue != null) {
+            boolean queued=value == null ? degradedQueue.remove(key)
+                    : ifAbsent ? degradedQueue.putIfAbsent(key, value) : degradedQueue.put(key, value);
+            if (queued) {
+                return DEGRADED;
+            }
+        }
+        breaker.recordDroppedWrite();
+        return DEGRADED;
+    }
+
+    /**
+     * @param key         缓存key
+     * @param valueLoader 未命中时的加载逻辑，在线程池中执行
+     * @description 异步获取缓存，两级均未命中时合并加载并写入缓存。
+     * 回调可能在redisson的IO线程中执行，因此只有加载逻辑提交到线程池，线程池饱和时加载失败而不是在IO线程中阻塞
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> getAsync(Object key, Callable<T> valueLoader) {
+        return lookupAsync(key).thenCompose(value -> {
+            if (value != null) {
+                return CompletableFuture.completedFuture((T) fromStoreValue(value));
+            }
+            return singleFlight.executeAsync(key, () -> loadAsync(key, valueLoader)).handle((loaded, e) -> {
+                if (e != null) {
+                    Throwable cause=e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    throw new CompletionException(new ValueRetrievalException(key, valueLoader, cause));
+                }
+                return (T) loaded;
+            });
+        });
+    }
+
+    /**
+     * @description {@link #load}的异步版本：再次检查缓存，未命中时在线程池中加载，写入缓存不占用线程
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private CompletableFuture<Object> loadAsync(Object key, Callable<?> valueLoader) {
+        return lookupAsync(key).thenCompose(value -> {
+            if (value != null) {
+                return CompletableFuture.completedFuture(fromStoreValue(value));
+            }
+            if (remoteLoadLock != null && (breaker == null || !breaker.isOpen())) {
+                // the cluster lock belongs to the thread, the locked load and its write stay on one task thread
+                return taskExecutor.submit(() -> fromStoreValue(remoteLoadLock.load(key, () -> await(getRemoteAsync(key)), () -> loadAndPut(key, valueLoader))));
+            }
+            return taskExecutor.submit(() -> callLoader(key, valueLoader))
+                    .thenCompose(loaded -> putAsync(key, toStoreValue(loaded)).thenApply(v -> loaded));
+        });
+    }
+
+    /**
+     * @description 记录远程缓存的一次命中，访问次数突破阀值后放入本地缓存
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void changeCacheStrategy(Object key, Object value) {
+        if (frequencySketch.increment(key) > accessThreshold) {
+            long size=sizeOf(value);
+            if (isOversized(size)) {
+                return;
+            }
+            log.debug("DoubleLevel: key {} break through accessThreshold {}", key, accessThreshold);
+            metrics.recordPromotion();
+            if (leaseManager != null) {
+                leaseManager.promote(key);
+                return;
+            }
+            localCache.put(key, new LocalValue(value, size));
+        }
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    /**
+     * @description 空结果【{@code NullValue}】总是以null返回给调用方
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    @Override
+    protected Object fromStoreValue(Object storeValue) {
+        return storeValue == NullValue.INSTANCE ? null : storeValue;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        // a local hit hands out the stored wrapper, no allocation
+        LocalValue localValue=getLocal(key);
+        if (localValue != null) {
+            return localValue;
+        }
+        return toValueWrapper(await(getRemoteAsync(key)));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        LocalValue localValue=getLocal(key);
+        if (localValue != null) {
+            return (T) localValue.get();
+        }
+        // the loader stays on the caller thread, only the lookup goes through the async core
+        Object value=await(getRemoteAsync(key));
+        if (value != null) {
+            return (T) fromStoreValue(value);
+        }
+
+        try {
+            return (T) singleFlight.execute(key, () -> load(key, valueLoader));
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    /**
+     * @description 在合并后的加载中再次检查缓存，未命中时【按需持有集群锁】执行加载并写入缓存
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private Object load(Object key, Callable<?> valueLoader) throws Exception {
+        Object value=lookup(key);
+        if (value != null) {
+            return fromStoreValue(value);
+        }
+        if (remoteLoadLock != null && (breaker == null || !breaker.isOpen())) {
+            return fromStoreValue(remoteLoadLock.load(key, () -> await(getRemoteAsync(key)), () -> loadAndPut(key, valueLoader)));
+        }
+        return loadAndPut(key, valueLoader);
+    }
+
+    private Object loadAndPut(Object key, Callable<?> valueLoader) throws Exception {
+        Object value=callLoader(key, valueLoader);
+        put(key, toStoreValue(value));
+        return value;
+    }
+
+    private Object callLoader(Object key, Callable<?> valueLoader) throws Exception {
+        if (refreshAhead != null) {
+            refreshAhead.registerLoader(key, valueLoader);
+        }
+        long start=System.nanoTime();
+        Object value;
+        try {
+            value=valueLoader.call();
+        } catch (Exception e) {
+            metrics.recordLoad(start, false);
+            throw e;
+        }
+        metrics.recordLoad(start, true);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        await(putAsync(key, value));
+    }
+
+    /**
+     * @param key   缓存key
+     * @param value 缓存value，不允许null时清理该key
+     * @description 按缓存优先级写入，本地同步写入，远程异步写入，远程写入完成后通知其他节点失效
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public CompletableFuture<Void> putAsync(Object key, Object value) {
+        if (negativeCache != null && (value == null || value == NullValue.INSTANCE)) {
+            return putNegativeAsync(key);
+        }
+        if (!super.isAllowNullValues() && value == null) {
+            return evictAsync(key);
+        }
+
+        long size=sizeOf(value);
+        if (isOversized(size)) {
+            return putOversizedAsync(key, value, size, false);
+        }
+
+        if (negativeCache != null) {
+            negativeCache.invalidate(key);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("DoubleLevel: put {} >>>>>>>>>>>> key is {} value is {}", writePath, key, value);
+        }
+        return afterRemote(key, writePath.write(this, key, value, size, false));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        await(putIfAbsentAsync(key, value));
+        return toValueWrapper(value);
+    }
+
+    /**
+     * @description 按缓存优先级写入，远程缓存已存在该key时不覆盖
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public CompletableFuture<Void> putIfAbsentAsync(Object key, Object value) {
+        long size=sizeOf(value);
+        if (isOversized(size)) {
+            return putOversizedAsync(key, value, size, true);
+        }
+        if (negativeCache != null) {
+            negativeCache.invalidate(key);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("DoubleLevel: putIfAbsent {} >>>>>>>>>>>> key is {} value is {}", writePath, key, value);
+        }
+        return afterRemote(key, writePath.write(this, key, value, size, true));
+    }
+
+    /**
+     * @return value估算的字节数，没有字节上限时为-1；每次写入只估算一次，判断上限及本地缓存的weigher共用
+     */
+    private long sizeOf(Object value) {
+        return valueSizer == null ? -1 : valueSizer.estimate(value);
+    }
+
+    private boolean isOversized(long size) {
+        return valueSizer != null && valueSizer.isOversized(size);
+    }
+
+    private void putLocal(Object key, Object value, long size) {
+        localCache.put(key, new LocalValue(value, size));
+    }
+
+    /**
+     * @description 写入超过maxValueBytes的value：REMOTE_ONLY时清理本地缓存后只写入远程缓存，否则不缓存并清理已有的缓存
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private CompletableFuture<Void> putOversizedAsync(Object key, Object value, long size, boolean ifAbsent) {
+        if (OversizePolicy.REMOTE_ONLY.equals(oversizePolicy)) {
+            log.debug("DoubleLevel: put oversized value to remoteCache only, the key is {}", key);
+            clearLocal(key);
+            return afterRemote(key, writeRemote(key, value, size, ifAbsent));
+        }
+        log.debug("DoubleLevel: skip oversized value, the key is {}", key);
+        return evictAsync(key);
+    }
+
+    /**
+     * @description 保存空结果：本地记录到空结果缓存，写入远程的缓存优先级在远程写入使用空结果有效时间的标记，
+     * 标记不进入延迟写入队列，也不会被溢出写入、提升或提前刷新
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private CompletableFuture<Void> putNegativeAsync(Object key) {
+        clearLocal(key);
+        forgetLoader(key);
+        negativeCache.put(key);
+        log.debug("DoubleLevel: put negative result, the key is {}", key);
+        WriteBehindQueue queue=queueOf(key);
+        if (queue != null) {
+            // replace the queued value with a remove, the local negative covers the key meanwhile
+            queue.remove(key);
+            return WRITE_BEHIND;
+        }
+        if (!writePath.remote) {
+            // positive writes of a local-only space never reach the remote cache, a tombstone there would hide them on other nodes
+            return afterRemote(key, null);
+        }
+        if (breaker != null && breaker.isOpen()) {
+            // the local negative is enough while the remote cache is unavailable
+            breaker.recordDroppedWrite();
+            return DEGRADED;
+        }
+        long filterStamp=addKey(key);
+        if (leaseManager != null) {
+            return afterRemote(key, afterKeyWrite(key, filterStamp, writeLeased(batch -> {
+                batch.map(key).fastPutAsync(key, Tombstone.INSTANCE, negativeTtl, TimeUnit.SECONDS, 0, TimeUnit.SECONDS);
+                return leaseManager.stageWrite(batch, key, false);
+            })));
+        }
+        return afterRemote(key, afterKeyWrite(key, filterStamp, callRemote(() -> toFuture(remoteCache.map(key)
+                .fastPutAsync(key, Tombstone.INSTANCE, negativeTtl, TimeUnit.SECONDS, 0, TimeUnit.SECONDS).thenAccept(r -> { })))));
+    }
+
+    /**
+     * @description 写入远程缓存，开启延迟写入时进入队列，写入完成后由队列通知其他节点失效
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private CompletableFuture<Void> writeRemote(Object key, Object value, long size, boolean ifAbsent) {
+        long filterStamp=addKey(key);
+        if (adaptiveSplit != null) {
+            adaptiveSplit.onRemoteWrite(key);
+        }
+        return afterKeyWrite(key, filterStamp, sendRemote(key, value, size, ifAbsent));
+    }
+
+    /**
+     * @description 写入远程缓存：熔断期间进入积压队列，开启延迟写入时进入队列，否则直接写入
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private CompletableFuture<Void> sendRemote(Object key, Object value, long size, boolean ifAbsent) {
+        if (degraded(key)) {
+            return writeDegraded(key, value, size, ifAbsent);
+        }
+        RMapCache<Object, Object> map=remoteCache.map(key);
+        if (ifAbsent && negativeCache != null && queueOf(key) == null) {
+            // a tombstone stands for an absent key and must not block the conditional write
+            if (leaseManager != null) {
+                return writeLeased(batch -> {
+                    batch.map(key).removeAsync(key, Tombstone.INSTANCE);
+                    batch.map(key).putIfAbsentAsync(key, value, expireDate, TimeUnit.SECONDS, idleDate, TimeUnit.SECONDS);
+                    return leaseManager.stageWrite(batch, key, false);
+                });
+            }
+            return callRemote(() -> toFuture(map.removeAsync(key, Tombstone.INSTANCE)
+                    .thenCompose(r -> map.putIfAbsentAsync(key, value, expireDate, TimeUnit.SECONDS, idleDate, TimeUnit.SECONDS))
+                    .thenAccept(r -> { })));
+        }
+        if (writeBehindQueue != null
+                && (ifAbsent ? writeBehindQueue.putIfAbsent(key, value) : writeBehindQueue.put(key, value))) {
+            return WRITE_BEHIND;
+        }
+        if (leaseManager != null) {
+            return writeLeased(batch -> {
+                if (ifAbsent) {
+                    batch.map(key).putIfAbsentAsync(key, value, expireDate, TimeUnit.SECONDS, idleDate, TimeUnit.SECONDS);
+                } else {
+                    batch.map(key).fastPutAsync(key, value, expireDate, TimeUnit.SECONDS, idleDate, TimeUnit.SECONDS);
+                }
+                // a conditional write may lose to the present value, only the version changes
+                return leaseManager.stageWrite(batch, key, !ifAbsent);
+            });
+        }
+        if (ifAbsent) {
+            return callRemote(() -> toFuture(map.putIfAbsentAsync(key, value, expireDate, TimeUnit.SECONDS, idleDate, TimeUnit.SECONDS).thenAccept(r -> { })));
+        }
+        return callRemote(() -> toFuture(map.fastPutAsync(key, value, expireDate, TimeUnit.SECONDS, idleDate, TimeUnit.SECONDS).thenAccept(r -> { })));
+    }
+
+    /**
+     * @return 写入前在存在性过滤器中登记key，返回登记前的重建标记
+     */
+    private long addKey(Object key) {
+        if (keyFilter == null) {
+            return 0;
+        }
+        long filterStamp=keyFilter.stamp();
+        keyFilter.add(key);
+        return filterStamp;
+    }
+
+    /**
+     * @description 直接写入完成后再次确认过滤器中的key，写入前登记之后开始的重建扫描不到尚未写入的key；
+     * 进入队列的写入在队列写入后确认
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private CompletableFuture<Void> afterKeyWrite(Object key, long filterStamp, CompletableFuture<Void> remoteFuture) {
+        if (keyFilter == null || remoteFuture == WRITE_BEHIND || remoteFuture == DEGRADED) {
+            return remoteFuture;
+        }
+        return remoteFuture.thenRun(() -> keyFilter.afterWrite(key, filterStamp));
+    }
+
+    private CompletableFuture<Void> afterRemote(Object key, CompletableFuture<Void> remoteFuture) {
+        if (remoteFuture == WRITE_BEHIND || remoteFuture == DEGRADED) {
+            return remoteFuture;
+        }
+        if (remoteFuture == null) {
+            publishInvalidation(key);
+            return DONE;
+        }
+        return remoteFuture.thenRun(() -> publishInvalidation(key));
+    }
+
+    /**
+     * @description 开启租约时，value与版本号在所在节点的一个事务中写入，校验租约时不会把旧value的版本当作最新版本
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private CompletableFuture<Void> writeLeased(Function<RemoteMapRouter.Batch, Runnable> write) {
+        return callRemote(() -> {
+            RemoteMapRouter.Batch batch=remoteCache.atomicBatch();
+            Runnable granted=write.apply(batch);
+            return batch.executeAsync().thenRun(granted);
+        });
+    }
+
+    /**
+     * @description 先从本地缓存批量获取，有尚未写入远程的延迟写入或积压写入的key直接使用队列中的写入，
+     * 其余未命中的key按远程分片分组批量从远程缓存获取
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    @Override
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        Map<Object, LocalValue> localValues=getAllLocal(keys);
+        Map<Object, Object> values=new HashMap<>(Math.max(16, keys.size() * 4 / 3 + 1));
+        for (Map.Entry<Object, LocalValue> entry : localValues.entrySet()) {
+            if (!entry.getValue().isExpired() && (leaseManager == null || leaseManager.isValid(entry.getKey()))) {
+                values.put(entry.getKey(), entry.getValue().getStoreValue());
+            }
+        }
+        if (values.size() == keys.size()) {
+            log.debug("DoubleLevel: getAll from localCache, the size of keys is {}", keys.size());
+            return values;
+        }
+
+        Set<Object> missKeys=new HashSet<>(keys.size() - values.size());
+        for (Object key : keys) {
+            if (values.containsKey(key)) {
+                continue;
+            }
+            // a write not yet in the remote cache answers the key, as in getRemoteAsync
+            WriteBehindQueue queue=queueOf(key);
+            WriteBehindQueue.PendingWrite pendingWrite=queue == null ? null : queue.pending(key);
+            if (pendingWrite != null) {
+                if (!pendingWrite.isRemove()) {
+                    values.put(key, pendingWrite.getValue());
+                }
+                continue;
+            }
+            // known negative results are absent from the result without a remote read
+            if ((negativeCache == null || negativeCache.get(key) == null)
+                    && (keyFilter == null || keyFilter.mightContain(key))) {
+                if (hotKeys != null) {
+                    hotKeys.record(key);
+                }
+                missKeys.add(key);
+            }
+        }
+        if (missKeys.isEmpty() || (breaker != null && !breaker.allowRequest())) {
+            return values;
+        }
+        Map<Object, Object> remoteValues;
+        try {
+            remoteValues=breaker == null ? remoteCache.getAll(missKeys) : breaker.call(() -> remoteCache.getAll(missKeys));
+        } catch (RuntimeException e) {
+            if (breaker == null) {
+                throw e;
+            }
+            log.debug("DoubleLevel: getAll from remoteCache failed, return local values only", e);
+            return values;
+        }
+        remoteValues.entrySet().removeIf(entry -> {
+            if (!Tombstone.isTombstone(entry.getValue())) {
+                return false;
+            }
+            if (negativeCache != null) {
+                negativeCache.putRemoteHit(entry.getKey());
+            }
+            return true;
+        });
+        log.debug("DoubleLevel: getAll local hit {}, remote hit {} of {}", values.size(), remoteValues.size(), keys.size());
+
+        if (frequencySketch != null) {
+            for (Map.Entry<Object, Object> entry : remoteValues.entrySet()) {
+                changeCacheStrategy(entry.getKey(), entry.getValue());
+            }
+        }
+        values.putAll(remoteValues);
+        return values;
+    }
+
+    /**
+     * @description 按缓存优先级批量写入，远程缓存通过{@code RBatch}一次提交
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    @Override
+    public void putAll(Map<?, ?> entries) {
+        log.debug("DoubleLevel: putAll {} entries, {}", entries.size(), writePath);
+
+        RemoteMapRouter.Batch batch=leaseManager == null ? remoteCache.batch() : remoteCache.atomicBatch();
+        List<Runnable> granted=new ArrayList<>();
+        long filterStamp=keyFilter == null ? 0 : keyFilter.stamp();
+        List<Object> filterKeys=new ArrayList<>();
+        // published only after the batch is written, a peer re-reading earlier could cache the old remote value again
+        List<Object> writtenKeys=new ArrayList<>(entries.size());
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+            Object key=entry.getKey();
+            Object value=entry.getValue();
+            long size=value == null ? -1 : sizeOf(value);
+            OversizePolicy oversize=value != null && isOversized(size) ? oversizePolicy : null;
+            if (negativeCache != null && value == null) {
+                clearLocal(key);
+                negativeCache.put(key);
+                WriteBehindQueue queue=queueOf(key);
+                if (queue != null) {
+                    queue.remove(key);
+                    continue;
+                }
+                if (writePath.remote) {
+                    if (breaker != null && breaker.isOpen()) {
+                        breaker.recordDroppedWrite();
+                        continue;
+                    }
+                    if (keyFilter != null) {
+                        keyFilter.add(key);
+                        filterKeys.add(key);
+                    }
+                    batch.map(key).fastPutAsync(key, Tombstone.INSTANCE, negativeTtl, TimeUnit.SECONDS, 0, TimeUnit.SECONDS);
+                    if (leaseManager != null) {
+                        granted.add(leaseManager.stageWrite(batch, key, false));
+                    }
+                }
+            } else if ((!super.isAllowNullValues() && value == null) || OversizePolicy.SKIP.equals(oversize)) {
+                clearLocal(key);
+                // a queued put of the key would otherwise be flushed after the remove and bring the value back
+                if (writeBehindQueue != null && writeBehindQueue.remove(key)) {
+                    continue;
+                }
+                if (degraded(key)) {
+                    writeDegraded(key, null, -1, false);
+                    continue;
+                }
+                batch.fastRemove(key);
+                if (leaseManager != null) {
+                    granted.add(leaseManager.stageRemove(batch, key));
+                }
+            } else {
+                if (negativeCache != null) {
+                    negativeCache.invalidate(key);
+                }
+                if (writePath.local && oversize == null) {
+                    putLocal(key, value, size);
+                } else if (writePath == WritePath.FIRST_REMOTE || oversize != null) {
+                    clearLocal(key);
+                }
+                if (writePath.remote || oversize != null) {
+                    if (keyFilter != null) {
+                        keyFilter.add(key);
+                        filterKeys.add(key);
+                    }
+                    if (adaptiveSplit != null) {
+                        adaptiveSplit.onRemoteWrite(key);
+                    }
+                    if (degraded(key)) {
+                        writeDegraded(key, value, size, false);
+                        continue;
+                    }
+                    if (writeBehindQueue != null && writeBehindQueue.put(key, value)) {
+                        continue;
+                    }
+                    batch.map(key).fastPutAsync(key, value, expireDate, TimeUnit.SECONDS, idleDate, TimeUnit.SECONDS);
+                    if (leaseManager != null) {
+                        granted.add(leaseManager.stageWrite(batch, key, true));
+                    }
+                }
+            }
+            writtenKeys.add(key);
+        }
+        if (breaker == null) {
+            batch.execute();
+        } else {
+            breaker.call(() -> {
+                batch.execute();
+                return null;
+            });
+        }
+        granted.forEach(Runnable::run);
+        for (Object key : filterKeys) {
+            keyFilter.afterWrite(key, filterStamp);
+        }
+        writtenKeys.forEach(this::publishInvalidation);
+    }
+
+    @Override
+    public void evict(Object key) {
+        await(evictAsync(key));
+    }
+
+    /**
+     * @description 清理本地缓存后异步清理远程缓存，完成后通知其他节点失效
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public CompletableFuture<Void> evictAsync(Object key) {
+        clearLocal(key);
+        forgetLoader(key);
+        if (adaptiveSplit != null) {
+            adaptiveSplit.onRemove(key);
+        }
+        log.debug("DoubleLevel: clear remotr cache, the key is : {}", key);
+        if (writeBehindQueue != null && writeBehindQueue.remove(key)) {
+            return WRITE_BEHIND;
+        }
+        if (degraded(key)) {
+            return writeDegraded(key, null, -1, false);
+        }
+        CompletableFuture<Long> removeFuture;
+        if (leaseManager == null) {
+            removeFuture=callRemote(() -> remoteCache.fastRemoveAsync(key));
+        } else {
+            // the version goes with the value, a lease on the removed value can no longer be renewed
+            removeFuture=callRemote(() -> {
+                RemoteMapRouter.Batch batch=remoteCache.atomicBatch();
+                RFuture<Long> removed=batch.fastRemove(key);
+                leaseManager.stageRemove(batch, key);
+                return batch.executeAsync().thenCompose(r -> toFuture(removed));
+            });
+        }
+        CompletableFuture<Void> remoteFuture=removeFuture.thenAccept(removed -> {
+            // only a confirmed remove is taken out of the filter, the counters of other keys stay intact
+            if (keyFilter != null && removed > 0) {
+                keyFilter.remove(key);
+            }
+        });
+        return remoteFuture.thenRun(() -> publishInvalidation(key));
+    }
+
+    @Override
+    public void clear() {
+        log.debug("DoubleLevel: clear all {}'cache ", cacheSpace.getName());
+        if (writeBehindQueue != null) {
+            writeBehindQueue.discard();
+        }
+        if (degradedQueue != null) {
+            degradedQueue.discard();
+        }
+        remoteCache.deleteAsync();
+        if (keyFilter != null) {
+            keyFilter.clear();
+        }
+        if (warmUp != null) {
+            warmUp.clear();
+        }
+        if (offHeapStore != null) {
+            offHeapStore.invalidateAll();
+        }
+        if (snapshot != null) {
+            snapshot.clear();
+        }
+        localCache.invalidateAll();
+        if (negativeCache != null) {
+            negativeCache.invalidateAll();
+        }
+        if (leaseManager != null) {
+            leaseManager.invalidateAll();
+        }
+        if (frequencySketch != null) {
+            frequencySketch.clear();
+        }
+        if (refreshAhead != null) {
+            refreshAhead.invalidateAll();
+        }
+        if (hotKeys != null) {
+            hotKeys.invalidateAll();
+        }
+        if (invalidationBus != null) {
+            invalidationBus.publishClear();
+        }
+    }
+
+    private void publishInvalidation(Object key) {
+        if (invalidationBus != null) {
+            invalidationBus.publish(key);
+        }
+    }
+
+    private void clearLocal(Object key) {
+        log.debug("DoubleLevel: clear local cache, the key is : {}", key);
+        // the cold tiers and the warm-up first, a load of this key running now waits for the local invalidation
+        if (warmUp != null) {
+            warmUp.invalidate(key);
+        }
+        if (offHeapStore != null) {
+            offHeapStore.invalidate(key);
+        }
+        if (snapshot != null) {
+            snapshot.invalidate(key);
+        }
+        localCache.invalidate(key);
+        if (negativeCache != null) {
+            negativeCache.invalidate(key);
+        }
+        if (leaseManager != null) {
+            leaseManager.invalidate(key);
+        }
+        if (hotKeys != null) {
+            hotKeys.invalidate(key);
+        }
+    }
+
+    /**
+     * @description 删除key时不再使用该key的valueLoader刷新
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private void forgetLoader(Object key) {
+        if (refreshAhead != null) {
+            refreshAhead.invalidate(key);
+        }
+    }
+
+    private int getRemoteMaxSize() {
+        return AdaptiveSplit.remoteSize(cacheSpace.getMaxSize(), cacheSpace.getTwoLevelsRatio());
+    }
+
+    private int getLocalMaxSize() {
+        return AdaptiveSplit.localSize(cacheSpace.getMaxSize(), cacheSpace.getTwoLevelsRatio());
+    }
+
+    /**
+     * @author zhao tailen
+     * @description 创建缓存空间时按缓存优先级确定的写入路径，写入时不再逐个比较优先级
+     * @date 2026-10-17
+     */
+    private enum WritePath {
+
+        LOCAL_REMOTE(true, true) {
+            @Override
+            CompletableFuture<Void> write(DoubleLevel cache, Object key, Object value, long size, boolean ifAbsent) {
+                cache.putLocal(key, value, size);
+                return cache.writeRemote(key, value, size, ifAbsent);
+            }
+        },
+
+        FIRST_LOCAL(true, false) {
+            @Override
+            CompletableFuture<Void> write(DoubleLevel cache, Object key, Object value, long size, boolean ifAbsent) {
+                cache.putLocal(key, value, size);
+                return null;
+            }
+        },
+
+        FIRST_REMOTE(false, true) {
+            @Override
+            CompletableFuture<Void> write(DoubleLevel cache, Object key, Object value, long size, boolean ifAbsent) {
+                if (!ifAbsent) {
+                    // drop the promoted copy, it is older than the remote value now
+                    cache.clearLocal(key);
+                }
+                return cache.writeRemote(key, value, size, ifAbsent);
+            }
+        };
+
+        /**
+         * 是否写入本地缓存
+         */
+        final boolean local;
+
+        /**
+         * 是否写入远程缓存
+         */
+        final boolean remote;
+
+        WritePath(boolean local, boolean remote) {
+            this.local=local;
+            this.remote=remote;
+        }
+
+        /**
+         * @param size value估算的字节数【-1为未估算】
+         * @return 远程写入结果，不写入远程时为null
+         */
+        abstract CompletableFuture<Void> write(DoubleLevel cache, Object key, Object value, long size, boolean ifAbsent);
+
+        static WritePath of(CachePriority cachePriority) {
+            if (CachePriority.LOCAL_REMOTE.equals(cachePriority)) {
+                return LOCAL_REMOTE;
+            }
+            if (CachePriority.FIRST_REMOTE.equals(cachePriority) || CachePriority.ONLY_REMOTE.equals(cachePriority)) {
+                return FIRST_REMOTE;
+            }
+            return FIRST_LOCAL;
+        }
     }
 }
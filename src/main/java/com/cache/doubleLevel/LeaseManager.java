@@ -0,0 +1,259 @@
+package com.cache.doubleLevel;
+
+import com.cache.domain.Tombstone;
+import com.cache.local.LocalValue;
+import com.cache.remote.RemoteMapRouter;
+import com.cache.remote.WriteBehindQueue;
+import com.cache.server.CacheTaskExecutor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.cache.remote.RemoteFutures.toFuture;
+
+/**
+ * @author zhao tailen
+ * @description 本地缓存的租约。每次写入远程缓存时更新该key的版本号【保存在value所在分片的{分片}:version中，
+ * 与value在同一个事务中写入】，本地缓存持有一个带版本号的租约，租约到期前批量校验版本号，版本未变化时只续约不重新获取value
+ * @date 2026-10-17
+ */
+class LeaseManager {
+
+    private final Logger log=LoggerFactory.getLogger(LeaseManager.class);
+
+    private static final String VERSION_SUFFIX=":version";
+
+    private static final int REVALIDATE_BATCH_SIZE=1000;
+
+    private static final Runnable NOTHING=() -> { };
+
+    private final String name;
+
+    private final RemoteMapRouter remoteCache;
+
+    private final Cache<Object, LocalValue> localCache;
+
+    private final Cache<Object, Lease> leases;
+
+    private final long leaseMillis;
+
+    private final long revalidateInterval;
+
+    private final int expireDate;
+
+    private final int idleDate;
+
+    private final boolean grantOnWrite;
+
+    private final CacheTaskExecutor taskExecutor;
+
+    private final ScheduledFuture<?> revalidateTask;
+
+    private final LongAdder renewedLeases=new LongAdder();
+
+    private final LongAdder revokedLeases=new LongAdder();
+
+    /**
+     * @param name           缓存空间名称
+     * @param remoteCache    远程缓存
+     * @param localCache     本地缓存
+     * @param maxLocalSize   本地缓存数量
+     * @param leaseTime      租约时长【秒】
+     * @param expireDate     缓存有效时间【秒】
+     * @param idleDate       缓存空闲时间【秒】
+     * @param grantOnWrite   写入远程后本地是否持有该value【本地和远程】
+     * @param taskExecutor   共享线程池
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    LeaseManager(String name, RemoteMapRouter remoteCache, Cache<Object, LocalValue> localCache, int maxLocalSize,
+                 int leaseTime, int expireDate, int idleDate, boolean grantOnWrite, CacheTaskExecutor taskExecutor) {
+        this.name=name;
+        this.remoteCache=remoteCache;
+        this.localCache=localCache;
+        this.leaseMillis=TimeUnit.SECONDS.toMillis(leaseTime);
+        this.revalidateInterval=Math.max(1000, leaseMillis / 2);
+        this.expireDate=expireDate;
+        this.idleDate=idleDate;
+        this.grantOnWrite=grantOnWrite;
+        this.taskExecutor=taskExecutor;
+        this.leases=Caffeine.newBuilder()
+                .maximumSize(maxLocalSize)
+                .expireAfterWrite(expireDate, TimeUnit.SECONDS)
+                .build();
+        this.revalidateTask=taskExecutor.scheduleWithFixedDelay(
+                () -> taskExecutor.tryExecute(name, this::revalidate), revalidateInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @description 本地缓存的租约是否有效，无效时应按未命中处理
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    boolean isValid(Object key) {
+        Lease lease=leases.getIfPresent(key);
+        return lease != null && lease.expireTime > System.currentTimeMillis();
+    }
+
+    /**
+     * @return 在value所在节点的同一个事务中写入新的版本号，事务提交后执行返回的回调
+     * @param grant 写入是否一定生效，不一定生效的条件写入【putIfAbsent、空结果标记】只更新版本号，不持有租约
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    Runnable stageWrite(RemoteMapRouter.Batch batch, Object key, boolean grant) {
+        String version=newVersion();
+        leases.invalidate(key);
+        batch.sibling(key, VERSION_SUFFIX).fastPutAsync(key, version, expireDate, TimeUnit.SECONDS, idleDate, TimeUnit.SECONDS);
+        return grant ? () -> grant(key, version) : NOTHING;
+    }
+
+    /**
+     * @return 在value所在节点的同一个事务中删除版本号
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    Runnable stageRemove(RemoteMapRouter.Batch batch, Object key) {
+        leases.invalidate(key);
+        batch.sibling(key, VERSION_SUFFIX).fastRemoveAsync(key);
+        return NOTHING;
+    }
+
+    /**
+     * @description 延迟写入队列中的一次写入，与value在同一个事务中更新版本号
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    Runnable stage(RemoteMapRouter.Batch batch, Object key, WriteBehindQueue.PendingWrite write) {
+        return write.isRemove() ? stageRemove(batch, key) : stageWrite(batch, key, !write.isConditional());
+    }
+
+    /**
+     * @description 把远程缓存放入本地，先读取版本号再读取value，保证租约的版本不会比value新；
+     * 没有版本号的key【开启租约前写入或版本号已过期】在首次提升时创建版本号，之后的写入会替换它
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    void promote(Object key) {
+        String created=newVersion();
+        toFuture(remoteCache.sibling(key, VERSION_SUFFIX)
+                .putIfAbsentAsync(key, created, expireDate, TimeUnit.SECONDS, idleDate, TimeUnit.SECONDS))
+                .thenCompose(existing -> {
+                    Object version=existing == null ? created : existing;
+                    return remoteCache.getAsync(key).thenAccept(value -> {
+                        // a tombstone written since the hit is never promoted
+                        if (value != null && !Tombstone.isTombstone(value)) {
+                            localCache.put(key, new LocalValue(value));
+                            leases.put(key, new Lease(version, System.currentTimeMillis() + leaseMillis));
+                        }
+                    });
+                });
+    }
+
+    void invalidate(Object key) {
+        leases.invalidate(key);
+    }
+
+    void invalidateAll(Iterable<?> keys) {
+        leases.invalidateAll(keys);
+    }
+
+    void invalidateAll() {
+        leases.invalidateAll();
+    }
+
+    private static String newVersion() {
+        return Long.toHexString(ThreadLocalRandom.current().nextLong());
+    }
+
+    void grant(Object key, Object version) {
+        if (grantOnWrite) {
+            leases.put(key, new Lease(version, System.currentTimeMillis() + leaseMillis));
+        }
+    }
+
+    /**
+     * @description 批量校验即将到期的租约，版本未变化的续约，变化的从本地缓存中清理
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    void revalidate() {
+        long deadline=System.currentTimeMillis() + revalidateInterval;
+        Set<Object> keys=new HashSet<>();
+        for (Map.Entry<Object, Lease> entry : leases.asMap().entrySet()) {
+            if (entry.getValue().expireTime <= deadline) {
+                keys.add(entry.getKey());
+            }
+            if (keys.size() >= REVALIDATE_BATCH_SIZE) {
+                revalidate(keys);
+                keys=new HashSet<>();
+            }
+        }
+        if (!keys.isEmpty()) {
+            revalidate(keys);
+        }
+    }
+
+    private void revalidate(Set<Object> keys) {
+        renew(keys, remoteCache.getAllSiblings(VERSION_SUFFIX, keys));
+    }
+
+    /**
+     * @description 按远程缓存中的版本号处理租约：版本未变化的续约，变化或不存在的撤销并清理本地缓存
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    void renew(Set<Object> keys, Map<Object, Object> versions) {
+        long expireTime=System.currentTimeMillis() + leaseMillis;
+        int renewed=0;
+        for (Object key : keys) {
+            Lease lease=leases.getIfPresent(key);
+            if (lease == null) {
+                continue;
+            }
+            Object version=versions.get(key);
+            if (version != null && version.equals(lease.version)) {
+                // only replace the lease we checked, a concurrent write may have granted a newer one
+                leases.asMap().replace(key, lease, new Lease(version, expireTime));
+                renewed++;
+            } else if (leases.asMap().remove(key, lease)) {
+                localCache.invalidate(key);
+                revokedLeases.increment();
+            }
+        }
+        renewedLeases.add(renewed);
+        log.debug("LeaseManager: {} revalidate {} leases, renewed {}", name, keys.size(), renewed);
+    }
+
+    void destroy() {
+        revalidateTask.cancel(false);
+    }
+
+    long getRenewedLeases() {
+        return renewedLeases.sum();
+    }
+
+    long getRevokedLeases() {
+        return revokedLeases.sum();
+    }
+
+    private static final class Lease {
+        private final Object version;
+        private final long expireTime;
+
+        private Lease(Object version, long expireTime) {
+            this.version=version;
+            this.expireTime=expireTime;
+        }
+    }
+}
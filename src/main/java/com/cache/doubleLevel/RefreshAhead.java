@@ -0,0 +1,220 @@
+package com.cache.doubleLevel;
+
+import com.cache.domain.Tombstone;
+import com.cache.local.LocalValue;
+import com.cache.local.ValueSizer;
+import com.cache.server.CacheTaskExecutor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * @author zhao tailen
+ * @description 本地缓存的提前刷新。本地缓存存在的时间超过有效时间的一定比例后，命中时照常返回，
+ * 同时在共享线程池中重新加载：先读取远程缓存并只替换本地value，远程没有时使用该key加载时的valueLoader，
+ * 加载结果写入本地并写入远程缓存。刷新不经过putAsync，只远程写入的缓存也不会清理正在刷新的本地value
+ * @date 2026-10-17
+ */
+class RefreshAhead {
+
+    private final Logger log=LoggerFactory.getLogger(RefreshAhead.class);
+
+    private final String name;
+
+    /**
+     * 写入多久之后开始刷新【毫秒】
+     * */
+    private final long refreshAfter;
+
+    private final Cache<Object, LocalValue> localCache;
+
+    /**
+     * 按字节限制本地缓存时判断刷新的value是否超过上限，没有时为null
+     * */
+    private final ValueSizer valueSizer;
+
+    /**
+     * 每个key最近一次加载时使用的valueLoader
+     * */
+    private final Cache<Object, Callable<?>> loaders;
+
+    /**
+     * 读取远程缓存【经过熔断，有尚未写入的延迟写入时返回队列中的value】
+     * */
+    private final Function<Object, CompletableFuture<Object>> remoteReader;
+
+    /**
+     * 使用valueLoader重新加载后写入远程缓存【只本地缓存时直接完成】
+     * */
+    private final BiFunction<Object, Object, CompletableFuture<Void>> remoteWriter;
+
+    private final CacheTaskExecutor taskExecutor;
+
+    private final LongAdder remoteRefreshes=new LongAdder();
+
+    private final LongAdder loaderRefreshes=new LongAdder();
+
+    private final LongAdder failedRefreshes=new LongAdder();
+
+    private final LongAdder droppedRefreshes=new LongAdder();
+
+    /**
+     * @param name         缓存空间名称
+     * @param ratio        经过有效时间的多少比例后开始刷新
+     * @param expireDate   缓存有效时间【秒】
+     * @param maxLocalSize 本地缓存数量
+     * @param localCache   本地缓存
+     * @param valueSizer   按字节限制本地缓存时的估算，没有时为null
+     * @param remoteReader 读取远程缓存
+     * @param remoteWriter 使用valueLoader重新加载后写入远程缓存
+     * @param taskExecutor 共享线程池
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    RefreshAhead(String name, float ratio, int expireDate, int maxLocalSize, Cache<Object, LocalValue> localCache, ValueSizer valueSizer,
+                 Function<Object, CompletableFuture<Object>> remoteReader, BiFunction<Object, Object, CompletableFuture<Void>> remoteWriter,
+                 CacheTaskExecutor taskExecutor) {
+        this.name=name;
+        this.refreshAfter=(long) (TimeUnit.SECONDS.toMillis(expireDate) * ratio);
+        this.localCache=localCache;
+        this.valueSizer=valueSizer;
+        this.remoteReader=remoteReader;
+        this.remoteWriter=remoteWriter;
+        this.taskExecutor=taskExecutor;
+        this.loaders=Caffeine.newBuilder()
+                .maximumSize(maxLocalSize)
+                .expireAfterWrite(expireDate, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * @description 登记key的valueLoader，远程缓存没有该key时用于刷新
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    void registerLoader(Object key, Callable<?> valueLoader) {
+        loaders.put(key, valueLoader);
+    }
+
+    /**
+     * @description 本地命中后检查是否需要刷新，每个value只提交一次刷新
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    void onHit(Object key, LocalValue localValue) {
+        if (System.currentTimeMillis() - localValue.getWriteTime() < refreshAfter || !localValue.startRefresh()) {
+            return;
+        }
+        if (!taskExecutor.tryExecute(name, () -> refresh(key, localValue))) {
+            droppedRefreshes.increment();
+            localValue.cancelRefresh();
+        }
+    }
+
+    private void refresh(Object key, LocalValue localValue) {
+        // a newer write or an invalidation since the hit makes the refresh unnecessary
+        if (localCache.getIfPresent(key) != localValue) {
+            return;
+        }
+        remoteReader.apply(key).whenComplete((value, e) -> {
+            if (e != null) {
+                failedRefreshes.increment();
+                log.warn("RefreshAhead: read {} from remote cache failed, the key is {}", name, key, e);
+                return;
+            }
+            if (Tombstone.isTombstone(value)) {
+                // the key is known absent now, drop the stale value instead of refreshing it
+                localCache.asMap().remove(key, localValue);
+                return;
+            }
+            if (value != null) {
+                if (replaceLocal(key, localValue, value)) {
+                    remoteRefreshes.increment();
+                    log.debug("RefreshAhead: refresh {} from remote cache, the key is {}", name, key);
+                }
+                return;
+            }
+            if (!taskExecutor.tryExecute(name, () -> refreshByLoader(key, localValue))) {
+                droppedRefreshes.increment();
+            }
+        });
+    }
+
+    /**
+     * @description 远程缓存没有该key时使用valueLoader重新加载，写入本地后写入远程缓存；没有valueLoader的key到期后正常失效
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private void refreshByLoader(Object key, LocalValue localValue) {
+        Callable<?> valueLoader=loaders.getIfPresent(key);
+        if (valueLoader == null || localCache.getIfPresent(key) != localValue) {
+            return;
+        }
+        Object value;
+        try {
+            value=valueLoader.call();
+        } catch (Exception e) {
+            failedRefreshes.increment();
+            log.warn("RefreshAhead: refresh {} failed, the key is {}", name, key, e);
+            return;
+        }
+        if (value == null || !replaceLocal(key, localValue, value)) {
+            // an absent or oversized result goes through the normal load path on the next miss
+            localCache.asMap().remove(key, localValue);
+            return;
+        }
+        remoteWriter.apply(key, value).whenComplete((r, e) -> {
+            if (e != null) {
+                failedRefreshes.increment();
+                log.warn("RefreshAhead: write refreshed value of {} failed, the key is {}", name, key, e);
+                return;
+            }
+            loaderRefreshes.increment();
+            log.debug("RefreshAhead: refresh {} by valueLoader, the key is {}", name, key);
+        });
+    }
+
+    /**
+     * @return 是否替换了触发刷新的本地value，期间有更新的写入或失效时不替换；超过maxValueBytes时清理该value
+     */
+    private boolean replaceLocal(Object key, LocalValue localValue, Object value) {
+        long size=valueSizer == null ? -1 : valueSizer.estimate(value);
+        if (valueSizer != null && valueSizer.isOversized(size)) {
+            localCache.asMap().remove(key, localValue);
+            return false;
+        }
+        return localCache.asMap().replace(key, localValue, new LocalValue(value, size));
+    }
+
+    void invalidate(Object key) {
+        loaders.invalidate(key);
+    }
+
+    void invalidateAll() {
+        loaders.invalidateAll();
+    }
+
+    long getRemoteRefreshes() {
+        return remoteRefreshes.sum();
+    }
+
+    long getLoaderRefreshes() {
+        return loaderRefreshes.sum();
+    }
+
+    long getFailedRefreshes() {
+        return failedRefreshes.sum();
+    }
+
+    long getDroppedRefreshes() {
+        return droppedRefreshes.sum();
+    }
+}
@@ -0,0 +1,249 @@
+package com.cache.doubleLevel;
+
+import com.cache.domain.Tombstone;
+import com.cache.local.LocalValue;
+import com.cache.local.ValueSizer;
+import com.cache.remote.HotnessRecorder;
+import com.cache.remote.RemoteMapRouter;
+import com.cache.server.CacheTaskExecutor;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author zhao tailen
+ * @description 启动时预热本地缓存：按{@link HotnessRecorder}记录的访问频率从高到低取出key，没有记录时分批扫描远程缓存的key，
+ * 多个任务并行从远程缓存批量读取并放入本地缓存，直到达到数量上限、时间上限或没有更多的key。
+ * 预热期间失效的key【其他节点写入、删除】记录下来，读到的旧值不再放入本地缓存
+ * @date 2026-10-17
+ */
+public class WarmUp {
+
+    private final Logger log=LoggerFactory.getLogger(WarmUp.class);
+
+    private static final int BATCH_SIZE=100;
+
+    private static final int PARALLELISM=4;
+
+    private final String name;
+
+    private final HotnessRecorder hotness;
+
+    private final RemoteMapRouter remoteCache;
+
+    private final Cache<Object, LocalValue> localCache;
+
+    /**
+     * 超过maxValueBytes的value不预热，没有限制时为null
+     * */
+    private final ValueSizer valueSizer;
+
+    /**
+     * 最多预热的数量
+     * */
+    private final int maxSize;
+
+    /**
+     * 预热的时间上限【毫秒】
+     * */
+    private final long timeBudget;
+
+    private final CacheTaskExecutor taskExecutor;
+
+    private final LongAdder loaded=new LongAdder();
+
+    private final LongAdder requested=new LongAdder();
+
+    /**
+     * 预热期间失效的key，预热结束后不再记录
+     * */
+    private final Set<Object> invalidated=ConcurrentHashMap.newKeySet();
+
+    /**
+     * 预热期间是否清空过缓存空间，清空后不再预热
+     * */
+    private volatile boolean cleared;
+
+    private volatile long target;
+
+    private volatile long elapsed;
+
+    private volatile boolean done;
+
+    /**
+     * @param name         缓存空间名称
+     * @param hotness      访问频率
+     * @param remoteCache  远程缓存
+     * @param localCache   本地缓存
+     * @param valueSizer   估算value的大小，没有限制时为null
+     * @param maxSize      最多预热的数量
+     * @param timeBudget   预热的时间上限【毫秒】
+     * @param taskExecutor 共享线程池
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    WarmUp(String name, HotnessRecorder hotness, RemoteMapRouter remoteCache, Cache<Object, LocalValue> localCache,
+           ValueSizer valueSizer, int maxSize, long timeBudget, CacheTaskExecutor taskExecutor) {
+        this.name=name;
+        this.hotness=hotness;
+        this.remoteCache=remoteCache;
+        this.localCache=localCache;
+        this.valueSizer=valueSizer;
+        this.maxSize=maxSize;
+        this.timeBudget=timeBudget;
+        this.taskExecutor=taskExecutor;
+    }
+
+    /**
+     * @return 所有预热任务结束后完成，不会异常完成
+     */
+    CompletableFuture<Void> start() {
+        long start=System.currentTimeMillis();
+        long deadline=start + timeBudget;
+        Iterator<Object> keys;
+        try {
+            Collection<Object> hottest=hotness.hottest(maxSize);
+            if (hottest.isEmpty()) {
+                // nothing recorded yet, any maxSize keys are better than a cold start
+                keys=remoteCache.keys().iterator();
+                target=maxSize;
+                log.info("WarmUp: no hotness recorded for {}, scan up to {} keys", name, maxSize);
+            } else {
+                keys=hottest.iterator();
+                target=hottest.size();
+                log.info("WarmUp: warm up {} with {} hottest keys", name, target);
+            }
+        } catch (RuntimeException e) {
+            log.warn("WarmUp: warm up {} failed, start cold", name, e);
+            done=true;
+            return CompletableFuture.completedFuture(null);
+        }
+        List<CompletableFuture<Void>> workers=new ArrayList<>(PARALLELISM);
+        for (int i=0; i < PARALLELISM; i++) {
+            workers.add(CompletableFuture.runAsync(() -> work(keys, deadline), taskExecutor.getExecutor()));
+        }
+        return CompletableFuture.allOf(workers.toArray(new CompletableFuture[0])).handle((r, e) -> {
+            elapsed=System.currentTimeMillis() - start;
+            done=true;
+            invalidated.clear();
+            if (e != null) {
+                log.warn("WarmUp: warm up {} failed after {} entries", name, loaded.sum(), e);
+            }
+            log.info("WarmUp: {} loaded {} of {} requested entries in {} ms{}", name, loaded.sum(), requested.sum(), elapsed,
+                    System.currentTimeMillis() >= deadline ? ", time budget exhausted" : "");
+            return null;
+        });
+    }
+
+    private void work(Iterator<Object> keys, long deadline) {
+        while (!cleared && System.currentTimeMillis() < deadline && loaded.sum() < maxSize) {
+            Set<Object> batch=nextBatch(keys);
+            if (batch.isEmpty()) {
+                return;
+            }
+            requested.add(batch.size());
+            Map<Object, Object> values=remoteCache.getAll(batch);
+            for (Map.Entry<Object, Object> entry : values.entrySet()) {
+                Object key=entry.getKey();
+                if (Tombstone.isTombstone(entry.getValue()) || invalidated.contains(key)) {
+                    continue;
+                }
+                long size=valueSizer == null ? -1 : valueSizer.estimate(entry.getValue());
+                if (valueSizer != null && valueSizer.isOversized(size)) {
+                    continue;
+                }
+                // a value written since the start is newer than the warmed one
+                LocalValue localValue=new LocalValue(entry.getValue(), size);
+                if (localCache.asMap().putIfAbsent(key, localValue) != null) {
+                    continue;
+                }
+                // invalidations are recorded before the local cache is cleared, one that missed the put is seen here
+                if (cleared || invalidated.contains(key)) {
+                    localCache.asMap().remove(key, localValue);
+                    continue;
+                }
+                loaded.increment();
+            }
+            log.debug("WarmUp: {} progress {}/{}", name, loaded.sum(), target);
+        }
+    }
+
+    /**
+     * @description 预热期间该key被写入或删除，已经读到的旧值不再放入本地缓存；需要在清除本地缓存之前调用
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    void invalidate(Object key) {
+        if (!done) {
+            invalidated.add(key);
+        }
+    }
+
+    void invalidateAll(Collection<?> keys) {
+        if (!done) {
+            invalidated.addAll(keys);
+        }
+    }
+
+    /**
+     * @description 预热期间清空了缓存空间，停止预热
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    void clear() {
+        if (!done) {
+            cleared=true;
+        }
+    }
+
+    /**
+     * @description 扫描远程缓存时由取批次的任务推进游标
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private Set<Object> nextBatch(Iterator<Object> keys) {
+        Set<Object> batch=new HashSet<>(BATCH_SIZE * 4 / 3 + 1);
+        synchronized (keys) {
+            while (batch.size() < BATCH_SIZE && keys.hasNext()) {
+                batch.add(keys.next());
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * 已放入本地缓存的数量
+     */
+    public long getLoaded() {
+        return loaded.sum();
+    }
+
+    /**
+     * 计划预热的数量【按访问频率时为记录的key数量，扫描时为数量上限】
+     */
+    public long getTarget() {
+        return target;
+    }
+
+    /**
+     * 预热耗时【毫秒】，结束前为0
+     */
+    public long getElapsed() {
+        return elapsed;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+}
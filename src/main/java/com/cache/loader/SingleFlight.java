@@ -0,0 +1,119 @@
+package com.cache.loader;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * @author zhao tailen
+ * @description 进程内按key合并并发加载，同一个key同时只有一个线程执行加载，其余线程等待并共享结果。
+ * 加载逻辑在同一个线程中再次加载同一个key时抛出异常，不再等待自己而死锁
+ * @date 2026-10-17
+ */
+public class SingleFlight {
+
+    private final ConcurrentHashMap<Object, Flight> flights=new ConcurrentHashMap<>();
+
+    /**
+     * @param key    缓存key
+     * @param loader 加载逻辑
+     * @return 加载结果【并发的调用者共享同一个结果或异常】
+     * @throws IllegalStateException 当前线程正在加载同一个key【加载逻辑递归读取了自己的key】
+     * @description 执行或加入key正在进行的加载
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public Object execute(Object key, Callable<?> loader) throws Exception {
+        Flight flight=new Flight(Thread.currentThread());
+        Flight inFlight=flights.putIfAbsent(key, flight);
+        if (inFlight != null) {
+            if (inFlight.owner == Thread.currentThread()) {
+                throw new IllegalStateException("Recursive load of key " + key + ", the loader reads its own key");
+            }
+            return await(inFlight);
+        }
+
+        try {
+            Object value=loader.call();
+            flight.complete(value);
+            return value;
+        } catch (Throwable e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * @param key    缓存key
+     * @param loader 开始异步加载
+     * @return 加载结果【并发的调用者共享同一个future，加入时不阻塞】
+     * @description 执行或加入key正在进行的加载，异步版本
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public CompletableFuture<Object> executeAsync(Object key, Supplier<CompletableFuture<Object>> loader) {
+        Flight flight=new Flight(null);
+        Flight inFlight=flights.putIfAbsent(key, flight);
+        if (inFlight != null) {
+            return inFlight;
+        }
+
+        CompletableFuture<Object> load;
+        try {
+            load=loader.get();
+        } catch (Throwable e) {
+            load=new CompletableFuture<>();
+            load.completeExceptionally(e);
+        }
+        load.whenComplete((value, e) -> {
+            flights.remove(key, flight);
+            if (e != null) {
+                flight.completeExceptionally(e);
+            } else {
+                flight.complete(value);
+            }
+        });
+        return flight;
+    }
+
+    /**
+     * 正在加载的key数量
+     */
+    public int inFlightCount() {
+        return flights.size();
+    }
+
+    private Object await(CompletableFuture<Object> inFlight) throws Exception {
+        try {
+            return inFlight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause=e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @description 一次正在进行的加载，记录执行加载的线程【异步加载为null】
+     */
+    private static final class Flight extends CompletableFuture<Object> {
+
+        private final Thread owner;
+
+        Flight(Thread owner) {
+            this.owner=owner;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.cache.local;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author zhao tailen
+ * @description 固定大小、无锁的访问频率统计【count-min sketch】，
+ * 累计访问次数达到采样数后所有计数减半，使旧的热点逐渐老化，占用内存与key的数量无关
+ * @date 2026-10-17
+ */
+public class FrequencySketch {
+
+    private static final int DEPTH=4;
+
+    private static final int MAX_WIDTH=1 << 20;
+
+    private static final long[] SEEDS={
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+    private final AtomicIntegerArray table;
+
+    private final int width;
+
+    private final int mask;
+
+    private final long sampleSize;
+
+    private final AtomicLong additions=new AtomicLong();
+
+    private final AtomicBoolean resetting=new AtomicBoolean();
+
+    /**
+     * @param expectedSize  预期需要区分的热点key数量，决定每行计数器个数
+     * @param minSampleSize 计数减半前的最少访问次数，应明显大于访问次数阀值
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public FrequencySketch(long expectedSize, long minSampleSize) {
+        this.width=ceilingPowerOfTwo((int) Math.min(Math.max(expectedSize, 16), MAX_WIDTH));
+        this.mask=width - 1;
+        this.table=new AtomicIntegerArray(DEPTH * width);
+        this.sampleSize=Math.max(10L * width, minSampleSize);
+    }
+
+    /**
+     * @param key 缓存key
+     * @return 记录本次访问后的估算访问次数
+     * @description 记录一次访问
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public int increment(Object key) {
+        int hash=spread(key.hashCode());
+        int frequency=Integer.MAX_VALUE;
+        for (int i=0; i < DEPTH; i++) {
+            int index=indexOf(hash, i);
+            int count=table.get(index);
+            if (count < Integer.MAX_VALUE) {
+                count=table.incrementAndGet(index);
+            }
+            frequency=Math.min(frequency, count);
+        }
+        if (additions.incrementAndGet() >= sampleSize) {
+            reset();
+        }
+        return frequency;
+    }
+
+    /**
+     * @param key 缓存key
+     * @return 估算访问次数
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public int frequency(Object key) {
+        int hash=spread(key.hashCode());
+        int frequency=Integer.MAX_VALUE;
+        for (int i=0; i < DEPTH; i++) {
+            frequency=Math.min(frequency, table.get(indexOf(hash, i)));
+        }
+        return frequency;
+    }
+
+    /**
+     * @description 清空所有计数
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void clear() {
+        for (int i=0; i < table.length(); i++) {
+            table.set(i, 0);
+        }
+        additions.set(0);
+    }
+
+    /**
+     * 占用的计数器数量
+     */
+    public int capacity() {
+        return table.length();
+    }
+
+    private void reset() {
+        if (!resetting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (int i=0; i < table.length(); i++) {
+                int count;
+                do {
+                    count=table.get(i);
+                } while (count != 0 && !table.compareAndSet(i, count, count >>> 1));
+            }
+            additions.addAndGet(-(sampleSize >>> 1));
+        } finally {
+            resetting.set(false);
+        }
+    }
+
+    private int indexOf(int hash, int row) {
+        long h=(hash + SEEDS[row]) * SEEDS[row];
+        h+=h >>> 32;
+        return row * width + ((int) h & mask);
+    }
+
+    private static int spread(int hash) {
+        hash=((hash >>> 16) ^ hash) * 0x45d9f3b;
+        hash=((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+
+    private static int ceilingPowerOfTwo(int x) {
+        return 1 << -Integer.numberOfLeadingZeros(x - 1);
+    }
+}
@@ -1,12 +1,22 @@
 package com.cache.local;
 
+import com.cache.batch.BatchCache;
 import com.cache.domain.CacheSpace;
+import com.cache.loader.SingleFlight;
+import com.cache.metrics.CacheMetrics;
+import com.cache.metrics.MeteredCache;
+import com.cache.server.CacheTaskExecutor;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import org.redisson.client.codec.Codec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.cache.support.NullValue;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 
@@ -15,11 +25,27 @@ import java.util.concurrent.TimeUnit;
  * @description caffeine for local cache
  * @date 2019-11-18
  */
-public class LocalCacha extends AbstractValueAdaptingCache {
+public class LocalCacha extends AbstractValueAdaptingCache implements BatchCache, MeteredCache {
 
     private final Logger log=LoggerFactory.getLogger(LocalCacha.class);
 
-    private Cache<Object, Object> localCache;
+    private Cache<Object, LocalValue> localCache;
+
+    private NegativeCache negativeCache;
+
+    /**
+     * 本地缓存的快照，重启后从快照恢复本地缓存
+     * */
+    private LocalSnapshot snapshot;
+
+    /**
+     * 按字节估算缓存大小，没有设置localMaxMemory和maxValueBytes时为null
+     * */
+    private ValueSizer valueSizer;
+
+    private Codec codec;
+
+    private CacheTaskExecutor taskExecutor;
 
     private volatile CacheSpace cacheSpace;
 
@@ -31,6 +57,10 @@ public class LocalCacha extends AbstractValueAdaptingCache {
 
     private String name;
 
+    private final SingleFlight singleFlight=new SingleFlight();
+
+    private final CacheMetrics metrics;
+
     /**
      * @param cacheSpace     缓存属性
      * @description {@code AbstractValueAdaptingCache}创建一个本地缓存
@@ -38,12 +68,27 @@ public class LocalCacha extends AbstractValueAdaptingCache {
      * @date 2019-11-15 14:37
      */
     public LocalCacha(CacheSpace cacheSpace) {
+        this(cacheSpace, null, null);
+    }
+
+    /**
+     * @param cacheSpace   缓存属性
+     * @param codec        快照使用的编码
+     * @param taskExecutor 所有缓存空间共享的后台线程池
+     * @description {@code AbstractValueAdaptingCache}创建一个可以写入快照的本地缓存
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public LocalCacha(CacheSpace cacheSpace, Codec codec, CacheTaskExecutor taskExecutor) {
         super(cacheSpace.getAllowNullValues());
         this.cacheSpace=cacheSpace;
+        this.codec=codec;
+        this.taskExecutor=taskExecutor;
         this.name=cacheSpace.getName();
         this.expireDate=cacheSpace.getExpireDate();
         this.idleDate=cacheSpace.getIdleDate();
         this.maxSize=cacheSpace.getMaxSize();
+        this.metrics=new CacheMetrics(name);
         init();
     }
 
@@ -54,19 +99,101 @@ public class LocalCacha extends AbstractValueAdaptingCache {
      */
     private void init() {
 
-        localCache=Caffeine.newBuilder()
+        snapshot=LocalSnapshot.of(cacheSpace, codec, taskExecutor);
+        valueSizer=ValueSizer.of(cacheSpace);
+        if (snapshot != null) {
+            LocalCacheWriter cacheWriter=new LocalCacheWriter(null, expireDate, idleDate);
+            cacheWriter.setSnapshot(snapshot);
+            localCache=localCacheBuilder()
+                    .writer(cacheWriter)
+                    .build();
+            cacheWriter.setLocalCache(localCache);
+            snapshot.setLocalCache(localCache);
+            metrics.bindQueue("snapshot.pending", snapshot::getPendingSize);
+            metrics.bindGauge("snapshot.loaded", snapshot::getLoadedEntries);
+            metrics.bindGauge("snapshot.written", snapshot::getWrittenEntries);
+            metrics.bindCounter("snapshot.restored", snapshot::getRestoredEntries);
+            metrics.bindCounter("snapshot.failed", snapshot::getFailedSnapshots);
+        } else {
+            localCache=localCacheBuilder().build();
+        }
+        metrics.bindLocalCache(localCache);
+        if (valueSizer != null) {
+            metrics.bindCounter("oversized", valueSizer::getOversized);
+        }
+
+        if (cacheSpace.getNegativeTtl() != null && cacheSpace.getNegativeTtl() > 0) {
+            float ratio=cacheSpace.getNegativeMaxRatio() == null ? 0f : cacheSpace.getNegativeMaxRatio();
+            negativeCache=new NegativeCache((int) (maxSize * ratio), cacheSpace.getNegativeTtl());
+            metrics.bindQueue("negative", negativeCache::getSize);
+            metrics.bindCounter("negative.stored", negativeCache::getStored);
+            metrics.bindCounter("negative.localHits", negativeCache::getLocalHits);
+        }
+    }
+
+    /**
+     * @description 设置localMaxMemory时本地缓存按估算的字节数淘汰，否则按数量淘汰
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private Caffeine<Object, Object> localCacheBuilder() {
+        Caffeine<Object, Object> builder=Caffeine.newBuilder()
                 .initialCapacity(maxSize)
-                .maximumSize(maxSize)
                 .expireAfterAccess(idleDate, TimeUnit.SECONDS)
                 .expireAfterWrite(expireDate, TimeUnit.SECONDS)
-                .build();
+                .recordStats();
+        if (valueSizer != null && valueSizer.getMaxBytes() > 0) {
+            return builder.maximumWeight(valueSizer.getMaxBytes()).weigher(valueSizer);
+        }
+        return builder.maximumSize(maxSize);
     }
 
     @Override
     protected Object lookup(Object key) {
-        Object value=localCache.getIfPresent(key);
-        log.debug("LocalCacha:get cache from localCache >>>>>>>>>> the key is {} and value is {}", key, value);
-        return value;
+        LocalValue localValue=getLocal(key);
+        log.debug("LocalCacha:get cache from localCache >>>>>>>>>> the key is {} and value is {}", key, localValue);
+        return localValue == null ? null : localValue.getStoreValue();
+    }
+
+    /**
+     * @description 读取本地缓存，未命中时从快照恢复，再读取空结果缓存
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private LocalValue getLocal(Object key) {
+        LocalValue localValue=localCache.getIfPresent(key);
+        if (localValue != null && localValue.isExpired()) {
+            // a value restored from a snapshot keeps the expiry it had before the restart
+            localCache.asMap().remove(key, localValue);
+            localValue=null;
+        }
+        if (localValue == null) {
+            localValue=restore(key);
+        }
+        if (localValue != null || negativeCache == null) {
+            return localValue;
+        }
+        return negativeCache.get(key);
+    }
+
+    private LocalValue restore(Object key) {
+        LocalValue localValue=snapshot == null ? null : snapshot.restore(key);
+        if (localValue == null) {
+            return null;
+        }
+        LocalValue current=localCache.asMap().putIfAbsent(key, localValue);
+        return current == null ? localValue : current;
+    }
+
+    /**
+     * @description 写入最后一次快照
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void destroy() {
+        if (snapshot != null) {
+            snapshot.destroy();
+        }
     }
 
 
@@ -80,62 +207,159 @@ public class LocalCacha extends AbstractValueAdaptingCache {
         return this;
     }
 
+    @Override
+    public CacheMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @description 空结果【{@code NullValue}】总是以null返回给调用方
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    @Override
+    protected Object fromStoreValue(Object storeValue) {
+        return storeValue == NullValue.INSTANCE ? null : storeValue;
+    }
+
     @Override
     public ValueWrapper get(Object key) {
-        log.debug("LocalCacha:get cache by ValueWrapper;");
-        Object value=lookup(key);
-        return toValueWrapper(value);
+        // the stored wrapper is handed out as is, a hit allocates nothing
+        LocalValue localValue=getLocal(key);
+        log.debug("LocalCacha:get cache from localCache >>>>>>>>>> the key is {} and value is {}", key, localValue);
+        return localValue;
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public <T> T get(Object key, Callable<T> valueLoader) {
-        log.debug("LocalCacha:get cache by <T> ");
+        LocalValue localValue=getLocal(key);
+        if (localValue != null) {
+            return (T) localValue.get();
+        }
+
+        try {
+            return (T) singleFlight.execute(key, () -> load(key, valueLoader));
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    /**
+     * @description 在合并后的加载中再次检查缓存，未命中时执行加载并写入缓存
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private Object load(Object key, Callable<?> valueLoader) throws Exception {
         Object value=lookup(key);
         if (value != null) {
-            return (T) value;
+            return fromStoreValue(value);
         }
-
+        long start=System.nanoTime();
         try {
             value=valueLoader.call();
         } catch (Exception e) {
-            e.printStackTrace();
+            metrics.recordLoad(start, false);
+            throw e;
         }
-        Object storeValue=toStoreValue(value);
-        put(key, storeValue);
-        return (T) value;
-
+        metrics.recordLoad(start, true);
+        put(key, toStoreValue(value));
+        return value;
     }
 
     @Override
     public void put(Object key, Object value) {
+        if (negativeCache != null && (value == null || value == NullValue.INSTANCE)) {
+            log.debug("LocalCacha:put negative result, the key is {}", key);
+            localCache.invalidate(key);
+            if (snapshot != null) {
+                snapshot.invalidate(key);
+            }
+            negativeCache.put(key);
+            return;
+        }
         if (!super.isAllowNullValues() && value == null) {
             this.evict(key);
             return;
         }
 
         log.debug("LocalCacha:put local cache >>>>>>>>>>>> key is {} value is {}", key, value);
-        localCache.put(key, value);
+        putLocal(key, value);
     }
 
     @Override
     public ValueWrapper putIfAbsent(Object key, Object value) {
 
         log.debug("LocalCacha:putIfAbsent local cache >>>>>>>>>>>> key is {} value is {}", key, value);
-        localCache.put(key, value);
+        putLocal(key, value);
         return toValueWrapper(value);
     }
 
+    private void putLocal(Object key, Object value) {
+        long size=valueSizer == null ? -1 : valueSizer.estimate(value);
+        if (valueSizer != null && valueSizer.isOversized(size)) {
+            // only the local tier exists, an oversized value is never cached
+            log.debug("LocalCacha:skip oversized value, the key is {}", key);
+            evict(key);
+            return;
+        }
+        if (negativeCache != null) {
+            negativeCache.invalidate(key);
+        }
+        localCache.put(key, new LocalValue(value, size));
+    }
+
+    @Override
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        log.debug("LocalCacha:getAll local cache, the size of keys is {}", keys.size());
+        Map<Object, LocalValue> localValues=localCache.getAllPresent(keys);
+        Map<Object, Object> values=new HashMap<>(Math.max(16, localValues.size() * 4 / 3 + 1));
+        for (Map.Entry<Object, LocalValue> entry : localValues.entrySet()) {
+            if (!entry.getValue().isExpired()) {
+                values.put(entry.getKey(), entry.getValue().getStoreValue());
+            }
+        }
+        if (snapshot != null && values.size() < keys.size()) {
+            for (Object key : keys) {
+                LocalValue localValue=values.containsKey(key) ? null : restore(key);
+                if (localValue != null) {
+                    values.put(key, localValue.getStoreValue());
+                }
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public void putAll(Map<?, ?> entries) {
+        log.debug("LocalCacha:putAll local cache, the size of entries is {}", entries.size());
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
     @Override
     public void evict(Object key) {
         log.debug("LocalCacha:clear local cache, the key is : {}", key);
         localCache.invalidate(key);
+        if (snapshot != null) {
+            snapshot.invalidate(key);
+        }
+        if (negativeCache != null) {
+            negativeCache.invalidate(key);
+        }
     }
 
     @Override
     public void clear() {
         log.debug("LocalCacha:clear all {}'cache ", cacheSpace.getName());
         localCache.invalidateAll();
+        if (snapshot != null) {
+            snapshot.clear();
+        }
+        if (negativeCache != null) {
+            negativeCache.invalidateAll();
+        }
     }
 
 }
@@ -0,0 +1,124 @@
+package com.cache.local;
+
+import com.cache.remote.RemoteSpillWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheWriter;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author zhao tailen
+ * @description caffeine'cache writer。
+ * 写入时使堆外缓存及快照中的旧值失效；在缓存被驱逐前从过期策略中读取剩余有效时间，开启堆外缓存时先写入{@link OffHeapStore}，
+ * 否则【或堆外缓存无法写入时】交给{@link RemoteSpillWriter}异步写入远程缓存
+ * @date 2019-11-15
+ */
+public class LocalCacheWriter implements CacheWriter<Object, LocalValue> {
+    private final Logger log=LoggerFactory.getLogger(LocalCacheWriter.class);
+
+    private RemoteSpillWriter spillWriter;
+    private OffHeapStore offHeapStore;
+    private volatile LocalSnapshot snapshot;
+    private long expireMillis;
+    private long idleMillis;
+    private volatile Cache<Object, LocalValue> localCache;
+
+    public LocalCacheWriter(RemoteSpillWriter spillWriter, int expireDate, int idleDate) {
+        this(spillWriter, null, expireDate, idleDate);
+    }
+
+    /**
+     * @param spillWriter  溢出写入远程缓存，为null时不写入远程
+     * @param offHeapStore 堆外缓存，为null时直接溢出写入远程
+     * @param expireDate   有效时间【秒】
+     * @param idleDate     空闲时间【秒】
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public LocalCacheWriter(RemoteSpillWriter spillWriter, OffHeapStore offHeapStore, int expireDate, int idleDate) {
+        this.spillWriter=spillWriter;
+        this.offHeapStore=offHeapStore;
+        this.expireMillis=TimeUnit.SECONDS.toMillis(expireDate);
+        this.idleMillis=TimeUnit.SECONDS.toMillis(idleDate);
+    }
+
+    /**
+     * @description 绑定监听的本地缓存，用于读取缓存的剩余有效时间
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void setLocalCache(Cache<Object, LocalValue> localCache) {
+        this.localCache=localCache;
+    }
+
+    /**
+     * @description 绑定本地缓存的快照，写入本地缓存的key不再从快照恢复
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void setSnapshot(LocalSnapshot snapshot) {
+        this.snapshot=snapshot;
+    }
+
+    @Override
+    public void write(Object key, LocalValue value) {
+        // the new value shadows the off-heap copy, which must not come back once this one expires
+        if (offHeapStore != null) {
+            offHeapStore.invalidate(key);
+        }
+        LocalSnapshot current=snapshot;
+        if (current != null) {
+            current.invalidate(key);
+        }
+    }
+
+    @Override
+    public void delete(Object o, LocalValue o2, RemovalCause removalCause) {
+        //只监听缓存溢出maxSize时的驱逐
+        if (RemovalCause.SIZE == removalCause) {
+            long ttl=remainingTimeToLive(o);
+            if (o2.getExpireTime() != 0) {
+                // a value restored from a snapshot keeps its original expiry
+                ttl=Math.min(ttl, o2.getExpireTime() - System.currentTimeMillis());
+            }
+            if (ttl <= 0) {
+                return;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug(" {} :  remove  key {} &  value is  {} & ttl is {}", removalCause.name(), o, o2, ttl);
+            }
+            if (offHeapStore != null && offHeapStore.put(o, o2.getStoreValue(), o2.getWriteTime(), ttl, idleMillis)) {
+                return;
+            }
+            if (spillWriter != null) {
+                spillWriter.offer(o, o2.getStoreValue(), ttl, idleMillis);
+            }
+        }
+    }
+
+    /**
+     * @return 剩余有效时间与剩余空闲时间中较小的一个【毫秒】，本地缓存中再过这么久也会过期
+     */
+    private long remainingTimeToLive(Object key) {
+        Cache<Object, LocalValue> cache=localCache;
+        if (cache == null) {
+            return Math.min(expireMillis, idleMillis);
+        }
+        return Math.min(remaining(cache.policy().expireAfterWrite(), key, expireMillis),
+                remaining(cache.policy().expireAfterAccess(), key, idleMillis));
+    }
+
+    private static long remaining(Optional<Policy.Expiration<Object, LocalValue>> expiration, Object key, long limit) {
+        if (!expiration.isPresent()) {
+            return limit;
+        }
+        OptionalLong age=expiration.get().ageOf(key, TimeUnit.MILLISECONDS);
+        return age.isPresent() ? limit - age.getAsLong() : 0;
+    }
+}
@@ -0,0 +1,439 @@
+package com.cache.local;
+
+import com.cache.domain.CacheSpace;
+import com.cache.server.CacheTaskExecutor;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.apache.commons.lang3.StringUtils;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.protocol.Decoder;
+import org.redisson.client.protocol.Encoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.support.NullValue;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author zhao tailen
+ * @description 本地缓存的快照，定期把本地缓存的key、编码后的value及过期时间写入快照文件【先写临时文件再替换】，
+ * 启动时在共享线程池中通过内存映射读取快照：只解码key并记录value的位置，跳过已过期的缓存，
+ * 本地未命中时再解码该key的value放回本地缓存。尚未访问的缓存在下次快照时按原始字节写入，不解码
+ * @date 2026-10-17
+ */
+public class LocalSnapshot {
+
+    private final Logger log=LoggerFactory.getLogger(LocalSnapshot.class);
+
+    private static final int MAGIC=0x44534e50;
+
+    private static final int VERSION=1;
+
+    private static final int HEADER_SIZE=8;
+
+    /**
+     * 每个缓存除key和value以外的长度【key长度、写入时间、过期时间、value长度】
+     * */
+    private static final int ENTRY_OVERHEAD=24;
+
+    private final String name;
+
+    private final Path file;
+
+    private final Codec codec;
+
+    private final long expireMillis;
+
+    private final CacheTaskExecutor taskExecutor;
+
+    private final ScheduledFuture<?> snapshotTask;
+
+    private volatile Cache<Object, LocalValue> localCache;
+
+    /**
+     * 快照中尚未访问的缓存
+     * */
+    private final ConcurrentHashMap<Object, Entry> pending=new ConcurrentHashMap<>();
+
+    /**
+     * 快照文件的内存映射，所有缓存都被访问或失效后释放
+     * */
+    private volatile MappedByteBuffer mapped;
+
+    /**
+     * 快照是否读取完成，完成前失效的key在完成后从pending中移除
+     * */
+    private volatile boolean loaded;
+
+    private volatile boolean clearedDuringLoad;
+
+    private final Set<Object> invalidatedDuringLoad=ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean writing=new AtomicBoolean();
+
+    private final LongAdder restoredEntries=new LongAdder();
+
+    private final LongAdder failedSnapshots=new LongAdder();
+
+    private volatile long loadedEntries;
+
+    private volatile long writtenEntries;
+
+    /**
+     * @param name         缓存空间名称
+     * @param dir          快照文件所在目录
+     * @param interval     快照间隔【秒】
+     * @param expireDate   缓存有效时间【秒】
+     * @param codec        key和value的编码
+     * @param taskExecutor 共享线程池
+     * @throws IOException 无法创建快照目录
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public LocalSnapshot(String name, String dir, int interval, int expireDate, Codec codec,
+                         CacheTaskExecutor taskExecutor) throws IOException {
+        this.name=name;
+        this.file=Files.createDirectories(Paths.get(dir)).resolve(name.replaceAll("[^A-Za-z0-9._@-]", "_") + ".snapshot");
+        this.codec=codec;
+        this.expireMillis=TimeUnit.SECONDS.toMillis(expireDate);
+        this.taskExecutor=taskExecutor;
+        if (!taskExecutor.tryExecute(name, this::load)) {
+            load();
+        }
+        this.snapshotTask=taskExecutor.scheduleWithFixedDelay(this::scheduleWrite, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param cacheSpace   缓存属性
+     * @param codec        key和value的编码
+     * @param taskExecutor 共享线程池
+     * @return 没有开启快照或无法创建快照目录时返回null
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public static LocalSnapshot of(CacheSpace cacheSpace, Codec codec, CacheTaskExecutor taskExecutor) {
+        if (!Boolean.TRUE.equals(cacheSpace.getSnapshot()) || codec == null || taskExecutor == null) {
+            return null;
+        }
+        String dir=StringUtils.defaultIfBlank(cacheSpace.getSnapshotDir(), System.getProperty("java.io.tmpdir"));
+        try {
+            return new LocalSnapshot(cacheSpace.getName(), dir, cacheSpace.getSnapshotInterval(), cacheSpace.getExpireDate(), codec, taskExecutor);
+        } catch (IOException e) {
+            LoggerFactory.getLogger(LocalSnapshot.class).warn("LocalSnapshot: {} starts cold, snapshotDir {} is not writable",
+                    cacheSpace.getName(), dir, e);
+            return null;
+        }
+    }
+
+    /**
+     * @description 绑定写入快照的本地缓存
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void setLocalCache(Cache<Object, LocalValue> localCache) {
+        this.localCache=localCache;
+    }
+
+    /**
+     * @return 快照中该key尚未过期时解码并返回，每个key只恢复一次
+     */
+    public LocalValue restore(Object key) {
+        if (pending.isEmpty()) {
+            return null;
+        }
+        Entry entry=pending.remove(key);
+        MappedByteBuffer buffer=mapped;
+        if (pending.isEmpty()) {
+            mapped=null;
+        }
+        if (entry == null || buffer == null || entry.expireTime <= System.currentTimeMillis()) {
+            return null;
+        }
+        Object value=decode(codec.getMapValueDecoder(), buffer, entry.valueOffset, entry.valueLength);
+        if (value == null) {
+            return null;
+        }
+        restoredEntries.increment();
+        return new LocalValue(value, entry.writeTime, entry.expireTime);
+    }
+
+    /**
+     * @description 本地缓存写入或删除该key后，快照中的旧值不再恢复
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void invalidate(Object key) {
+        if (!loaded) {
+            invalidatedDuringLoad.add(key);
+        } else if (pending.isEmpty()) {
+            return;
+        }
+        pending.remove(key);
+    }
+
+    public void invalidateAll(Iterable<?> keys) {
+        for (Object key : keys) {
+            invalidate(key);
+        }
+    }
+
+    public void clear() {
+        if (!loaded) {
+            clearedDuringLoad=true;
+        }
+        pending.clear();
+        mapped=null;
+    }
+
+    /**
+     * @description 停止定时快照并写入最后一次快照
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void destroy() {
+        snapshotTask.cancel(false);
+        if (writing.compareAndSet(false, true)) {
+            write();
+        }
+    }
+
+    private void scheduleWrite() {
+        if (writing.compareAndSet(false, true) && !taskExecutor.tryExecute(name, this::write)) {
+            writing.set(false);
+        }
+    }
+
+    private void load() {
+        try {
+            if (!Files.exists(file)) {
+                return;
+            }
+            try (FileChannel channel=FileChannel.open(file, StandardOpenOption.READ)) {
+                if (channel.size() > Integer.MAX_VALUE) {
+                    log.warn("LocalSnapshot: {}'snapshot {} is larger than 2GB, skip it", name, file);
+                    return;
+                }
+                MappedByteBuffer buffer=channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                    log.warn("LocalSnapshot: {} is not a snapshot of this version, skip it", file);
+                    return;
+                }
+                mapped=buffer;
+                long now=System.currentTimeMillis();
+                while (buffer.remaining() >= ENTRY_OVERHEAD) {
+                    int keyLength=buffer.getInt();
+                    int keyOffset=buffer.position();
+                    buffer.position(keyOffset + keyLength);
+                    long writeTime=buffer.getLong();
+                    long expireTime=buffer.getLong();
+                    int valueLength=buffer.getInt();
+                    int valueOffset=buffer.position();
+                    buffer.position(valueOffset + valueLength);
+                    if (expireTime <= now) {
+                        continue;
+                    }
+                    Object key=decode(codec.getMapKeyDecoder(), buffer, keyOffset, keyLength);
+                    if (key != null) {
+                        pending.put(key, new Entry(keyOffset, keyLength, writeTime, expireTime, valueOffset, valueLength));
+                    }
+                }
+                loadedEntries=pending.size();
+                log.info("LocalSnapshot: {} load {} entries from {}", name, loadedEntries, file);
+            }
+        } catch (IOException | RuntimeException e) {
+            pending.clear();
+            mapped=null;
+            log.warn("LocalSnapshot: {} load snapshot {} failed, start cold", name, file, e);
+        } finally {
+            loaded=true;
+            // writes and invalidations that raced with the load must not be undone by it
+            if (clearedDuringLoad) {
+                pending.clear();
+            }
+            for (Object key : invalidatedDuringLoad) {
+                pending.remove(key);
+            }
+            invalidatedDuringLoad.clear();
+            if (pending.isEmpty()) {
+                mapped=null;
+            }
+        }
+    }
+
+    /**
+     * @description 写入本地缓存中尚未过期的缓存，以及快照中尚未访问的缓存【原始字节】
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private void write() {
+        Cache<Object, LocalValue> cache=localCache;
+        try {
+            if (cache == null || !loaded) {
+                return;
+            }
+            Path temp=file.resolveSibling(file.getFileName() + ".tmp");
+            long now=System.currentTimeMillis();
+            long size=HEADER_SIZE;
+            long entries=0;
+            try (DataOutputStream out=new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                for (Map.Entry<Object, LocalValue> entry : cache.asMap().entrySet()) {
+                    LocalValue localValue=entry.getValue();
+                    long expireTime=localValue.getExpireTime() != 0 ? localValue.getExpireTime() : localValue.getWriteTime() + expireMillis;
+                    if (expireTime <= now || localValue.getStoreValue() == NullValue.INSTANCE) {
+                        continue;
+                    }
+                    byte[] key=encode(codec.getMapKeyEncoder(), entry.getKey());
+                    byte[] value=encode(codec.getMapValueEncoder(), localValue.getStoreValue());
+                    if (key == null || value == null) {
+                        continue;
+                    }
+                    size+=ENTRY_OVERHEAD + key.length + value.length;
+                    if (size > Integer.MAX_VALUE) {
+                        break;
+                    }
+                    writeEntry(out, key, localValue.getWriteTime(), expireTime, value);
+                    entries++;
+                }
+                MappedByteBuffer buffer=mapped;
+                if (buffer != null) {
+                    for (Entry entry : pending.values()) {
+                        if (entry.expireTime <= now) {
+                            continue;
+                        }
+                        size+=ENTRY_OVERHEAD + entry.keyLength + entry.valueLength;
+                        if (size > Integer.MAX_VALUE) {
+                            break;
+                        }
+                        writeEntry(out, bytes(buffer, entry.keyOffset, entry.keyLength), entry.writeTime, entry.expireTime,
+                                bytes(buffer, entry.valueOffset, entry.valueLength));
+                        entries++;
+                    }
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            writtenEntries=entries;
+            log.debug("LocalSnapshot: {} write {} entries to {}", name, entries, file);
+        } catch (IOException | RuntimeException e) {
+            failedSnapshots.increment();
+            log.warn("LocalSnapshot: {} write snapshot {} failed", name, file, e);
+        } finally {
+            writing.set(false);
+        }
+    }
+
+    private static void writeEntry(DataOutputStream out, byte[] key, long writeTime, long expireTime, byte[] value) throws IOException {
+        out.writeInt(key.length);
+        out.write(key);
+        out.writeLong(writeTime);
+        out.writeLong(expireTime);
+        out.writeInt(value.length);
+        out.write(value);
+    }
+
+    private byte[] encode(Encoder encoder, Object object) {
+        ByteBuf buf=null;
+        try {
+            buf=encoder.encode(object);
+            byte[] bytes=new byte[buf.readableBytes()];
+            buf.getBytes(buf.readerIndex(), bytes);
+            return bytes;
+        } catch (IOException | RuntimeException e) {
+            log.debug("LocalSnapshot: {} skip {}, it can not be encoded", name, object, e);
+            return null;
+        } finally {
+            if (buf != null) {
+                buf.release();
+            }
+        }
+    }
+
+    private Object decode(Decoder<Object> decoder, ByteBuffer buffer, int offset, int length) {
+        ByteBuffer slice=buffer.duplicate();
+        slice.position(offset);
+        slice.limit(offset + length);
+        try {
+            return decoder.decode(Unpooled.wrappedBuffer(slice), null);
+        } catch (IOException | RuntimeException e) {
+            log.debug("LocalSnapshot: {} skip an entry, it can not be decoded", name, e);
+            return null;
+        }
+    }
+
+    private static byte[] bytes(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes=new byte[length];
+        ByteBuffer slice=buffer.duplicate();
+        slice.position(offset);
+        slice.get(bytes);
+        return bytes;
+    }
+
+    public long getPendingSize() {
+        return pending.size();
+    }
+
+    /**
+     * 启动时从快照读取的缓存数量
+     */
+    public long getLoadedEntries() {
+        return loadedEntries;
+    }
+
+    /**
+     * 访问时从快照恢复的缓存数量
+     */
+    public long getRestoredEntries() {
+        return restoredEntries.sum();
+    }
+
+    /**
+     * 最近一次快照写入的缓存数量
+     */
+    public long getWrittenEntries() {
+        return writtenEntries;
+    }
+
+    public long getFailedSnapshots() {
+        return failedSnapshots.sum();
+    }
+
+    /**
+     * 快照中一个缓存的位置
+     */
+    private static final class Entry {
+        private final int keyOffset;
+        private final int keyLength;
+        private final long writeTime;
+        private final long expireTime;
+        private final int valueOffset;
+        private final int valueLength;
+
+        private Entry(int keyOffset, int keyLength, long writeTime, long expireTime, int valueOffset, int valueLength) {
+            this.keyOffset=keyOffset;
+            this.keyLength=keyLength;
+            this.writeTime=writeTime;
+            this.expireTime=expireTime;
+            this.valueOffset=valueOffset;
+            this.valueLength=valueLength;
+        }
+    }
+}
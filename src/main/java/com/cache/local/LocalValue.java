@@ -0,0 +1,122 @@
+package com.cache.local;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * @author zhao tailen
+ * @description 本地缓存中保存的value，本身就是{@code ValueWrapper}，本地命中时直接返回给调用方，不再为每次get创建包装对象
+ * @date 2026-10-17
+ */
+public final class LocalValue implements Cache.ValueWrapper {
+
+    private static final AtomicIntegerFieldUpdater<LocalValue> REFRESHING=
+            AtomicIntegerFieldUpdater.newUpdater(LocalValue.class, "refreshing");
+
+    /**
+     * 缓存value【允许null时为NullValue】
+     * */
+    private final Object storeValue;
+
+    /**
+     * 写入本地缓存的时间【毫秒】
+     * */
+    private final long writeTime;
+
+    /**
+     * 过期时间【毫秒，0为按本地缓存的有效时间】，从快照恢复的value保留重启前的过期时间
+     * */
+    private final long expireTime;
+
+    /**
+     * value估算的字节数【-1为尚未估算，由本地缓存的weigher估算】
+     * */
+    private final long valueSize;
+
+    /**
+     * 是否已经开始提前刷新【0：否，1：是】
+     * */
+    private volatile int refreshing;
+
+    public LocalValue(Object storeValue) {
+        this(storeValue, System.currentTimeMillis(), 0);
+    }
+
+    /**
+     * @param storeValue 缓存value
+     * @param valueSize  写入前已经估算的value字节数【-1为尚未估算】，本地缓存按字节限制时不再重复估算
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public LocalValue(Object storeValue, long valueSize) {
+        this.storeValue=storeValue;
+        this.writeTime=System.currentTimeMillis();
+        this.expireTime=0;
+        this.valueSize=valueSize;
+    }
+
+    /**
+     * @param storeValue 缓存value
+     * @param writeTime  写入时间【毫秒】
+     * @param expireTime 过期时间【毫秒，0为按本地缓存的有效时间】
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public LocalValue(Object storeValue, long writeTime, long expireTime) {
+        this.storeValue=storeValue;
+        this.writeTime=writeTime;
+        this.expireTime=expireTime;
+        this.valueSize=-1;
+    }
+
+    @Override
+    public Object get() {
+        return storeValue == NullValue.INSTANCE ? null : storeValue;
+    }
+
+    public Object getStoreValue() {
+        return storeValue;
+    }
+
+    public long getWriteTime() {
+        return writeTime;
+    }
+
+    public long getExpireTime() {
+        return expireTime;
+    }
+
+    public long getValueSize() {
+        return valueSize;
+    }
+
+    /**
+     * @return 是否已超过自身的过期时间，只有从快照恢复的value需要检查
+     */
+    public boolean isExpired() {
+        return expireTime != 0 && System.currentTimeMillis() >= expireTime;
+    }
+
+    /**
+     * @return 是否由当前线程负责刷新【每个value只会刷新一次】
+     */
+    public boolean startRefresh() {
+        return refreshing == 0 && REFRESHING.compareAndSet(this, 0, 1);
+    }
+
+    /**
+     * @description 刷新任务没有执行时允许再次刷新
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void cancelRefresh() {
+        refreshing=0;
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(storeValue);
+    }
+}
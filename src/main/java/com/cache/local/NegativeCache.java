@@ -0,0 +1,97 @@
+package com.cache.local;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.support.NullValue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author zhao tailen
+ * @description 本地的空结果缓存，与正常的本地缓存分开保存，使用自己的数量上限和较短的有效时间，
+ * 不参与溢出写入、提升及提前刷新。命中时返回value为null的{@link #NEGATIVE}
+ * @date 2026-10-17
+ */
+public class NegativeCache {
+
+    /**
+     * 空结果，{@code get()}返回null
+     * */
+    public static final LocalValue NEGATIVE=new LocalValue(NullValue.INSTANCE);
+
+    private final Cache<Object, Boolean> keys;
+
+    private final LongAdder localHits=new LongAdder();
+
+    private final LongAdder remoteHits=new LongAdder();
+
+    private final LongAdder stored=new LongAdder();
+
+    /**
+     * @param maxSize 空结果的最大数量
+     * @param ttl     空结果的有效时间【秒】
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public NegativeCache(int maxSize, int ttl) {
+        this.keys=Caffeine.newBuilder()
+                .maximumSize(Math.max(1, maxSize))
+                .expireAfterWrite(ttl, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * @return 命中时返回{@link #NEGATIVE}，否则返回null
+     */
+    public LocalValue get(Object key) {
+        if (keys.getIfPresent(key) == null) {
+            return null;
+        }
+        localHits.increment();
+        return NEGATIVE;
+    }
+
+    public void put(Object key) {
+        keys.put(key, Boolean.TRUE);
+        stored.increment();
+    }
+
+    /**
+     * @description 记录一次远程缓存中的空结果命中，并保存到本地
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void putRemoteHit(Object key) {
+        remoteHits.increment();
+        keys.put(key, Boolean.TRUE);
+    }
+
+    public void invalidate(Object key) {
+        keys.invalidate(key);
+    }
+
+    public void invalidateAll(Iterable<?> keys) {
+        this.keys.invalidateAll(keys);
+    }
+
+    public void invalidateAll() {
+        keys.invalidateAll();
+    }
+
+    public long getSize() {
+        return keys.estimatedSize();
+    }
+
+    public long getLocalHits() {
+        return localHits.sum();
+    }
+
+    public long getRemoteHits() {
+        return remoteHits.sum();
+    }
+
+    public long getStored() {
+        return stored.sum();
+    }
+}
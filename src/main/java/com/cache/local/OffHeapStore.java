@@ -0,0 +1,493 @@
+package com.cache.local;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.redisson.client.codec.Codec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.support.NullValue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author zhao tailen
+ * @description 本地缓存与远程缓存之间的堆外缓存，value按缓存空间的编码序列化后保存在直接内存中，不占用堆也不参与GC。
+ * 直接内存按页【1MB】分配，每页切分为同一规格的块【64字节起，按1.25倍递增】，value写入不小于自身长度的最小规格，
+ * 每个规格有自己的锁及LRU，不同规格的读写互不阻塞，内存用完后淘汰同规格最久未访问的缓存。页分配给某个规格后不再转给其他规格，
+ * value大小分布变化较大时部分规格可能分不到内存，这些value不进入堆外缓存。key及位置信息保存在堆上
+ * @date 2026-10-17
+ */
+public class OffHeapStore {
+
+    private final Logger log=LoggerFactory.getLogger(OffHeapStore.class);
+
+    /**
+     * 每页的大小，同时也是单个value的上限
+     * */
+    public static final int PAGE_SIZE=1024 * 1024;
+
+    private static final int MIN_CHUNK_SIZE=64;
+
+    private static final float CHUNK_GROWTH_FACTOR=1.25f;
+
+    private final String name;
+
+    private final Codec codec;
+
+    /**
+     * 被淘汰的缓存的去向，为null时直接丢弃
+     * */
+    private final EvictionListener evictionListener;
+
+    private final ByteBuffer[] pages;
+
+    private final SizeClass[] sizeClasses;
+
+    /**
+     * 块的分配、释放及LRU的修改都在所属规格的锁中进行，key与块的对应关系不加锁
+     * */
+    private final ConcurrentHashMap<Object, Slot> slots=new ConcurrentHashMap<>();
+
+    private final AtomicInteger allocatedPages=new AtomicInteger();
+
+    private final LongAdder usedBytes=new LongAdder();
+
+    private final LongAdder hits=new LongAdder();
+
+    private final LongAdder misses=new LongAdder();
+
+    private final LongAdder evictions=new LongAdder();
+
+    private final LongAdder rejected=new LongAdder();
+
+    /**
+     * @param name             缓存空间名称
+     * @param maxBytes         直接内存的上限【字节，不足一页时按一页】
+     * @param codec            value的编码，与远程缓存相同
+     * @param evictionListener 被淘汰的缓存的去向，为null时直接丢弃
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public OffHeapStore(String name, long maxBytes, Codec codec, EvictionListener evictionListener) {
+        this.name=name;
+        this.codec=codec;
+        this.evictionListener=evictionListener;
+        this.pages=new ByteBuffer[(int) Math.min(Math.max(maxBytes / PAGE_SIZE, 1), Integer.MAX_VALUE - 8)];
+        this.sizeClasses=createSizeClasses();
+    }
+
+    /**
+     * @return 命中时返回本地缓存的value【保留写入时间及过期时间】，未命中或已过期时返回null
+     */
+    public LocalValue get(Object key) {
+        Slot slot=slots.get(key);
+        if (slot == null) {
+            misses.increment();
+            return null;
+        }
+        byte[] bytes;
+        SizeClass sizeClass=sizeClasses[slot.sizeClass];
+        synchronized (sizeClass) {
+            long now=System.currentTimeMillis();
+            if (!slot.linked || slot.isExpired(now)) {
+                // freed by an eviction that raced with the put, or expired
+                slots.remove(key, slot);
+                free(slot);
+                misses.increment();
+                return null;
+            }
+            slot.accessTime=now;
+            sizeClass.unlink(slot);
+            sizeClass.linkFirst(slot);
+            bytes=read(slot);
+        }
+        Object value=decode(key, bytes);
+        if (value == null) {
+            release(slot);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return new LocalValue(value, slot.writeTime, slot.expireTime);
+    }
+
+    /**
+     * @param key       缓存key
+     * @param value     缓存value，空结果不进入堆外缓存
+     * @param writeTime 写入本地缓存的时间【毫秒】
+     * @param ttl       剩余有效时间【毫秒】
+     * @param idleTime  空闲时间【毫秒，0为不限】
+     * @return 是否写入，value超出页大小、没有可用内存或编码失败时返回false
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public boolean put(Object key, Object value, long writeTime, long ttl, long idleTime) {
+        if (ttl <= 0 || value == null || value == NullValue.INSTANCE) {
+            return false;
+        }
+        ByteBuf buf;
+        try {
+            buf=codec.getValueEncoder().encode(value);
+        } catch (IOException | RuntimeException e) {
+            rejected.increment();
+            log.warn("OffHeapStore: encode {}'value failed, the key is {}", name, key, e);
+            return false;
+        }
+        List<Evicted> evicted=null;
+        Slot slot;
+        try {
+            int length=buf.readableBytes();
+            int sizeClassIndex=sizeClassOf(length);
+            if (sizeClassIndex < 0) {
+                invalidate(key);
+                rejected.increment();
+                return false;
+            }
+            SizeClass sizeClass=sizeClasses[sizeClassIndex];
+            synchronized (sizeClass) {
+                long address=allocate(sizeClass);
+                long now=System.currentTimeMillis();
+                while (address < 0) {
+                    Slot victim=sizeClass.tail;
+                    if (victim == null) {
+                        rejected.increment();
+                        break;
+                    }
+                    // an expired victim is only freed, a live one goes on to the next tier
+                    if (evictionListener != null && !victim.isExpired(now)) {
+                        if (evicted == null) {
+                            evicted=new ArrayList<>();
+                        }
+                        evicted.add(new Evicted(victim.key, read(victim), victim.expireTime - now, victim.idleTime));
+                    }
+                    slots.remove(victim.key, victim);
+                    free(victim);
+                    evictions.increment();
+                    address=allocate(sizeClass);
+                }
+                if (address < 0) {
+                    slot=null;
+                } else {
+                    slot=new Slot(key, sizeClassIndex, address, length, writeTime, now + ttl, idleTime, now);
+                    ByteBuffer page=pages[pageOf(address)].duplicate();
+                    page.position(offsetOf(address));
+                    page.limit(offsetOf(address) + length);
+                    buf.getBytes(buf.readerIndex(), page);
+                    sizeClass.linkFirst(slot);
+                    slot.linked=true;
+                    usedBytes.add(sizeClass.chunkSize);
+                }
+            }
+        } finally {
+            buf.release();
+        }
+        // the replaced value may sit in another size class, it is freed outside this one's lock
+        Slot previous=slot == null ? slots.remove(key) : slots.put(key, slot);
+        if (previous != null) {
+            discard(previous);
+        }
+        if (evicted != null) {
+            notifyEvicted(evicted);
+        }
+        return slot != null;
+    }
+
+    public void invalidate(Object key) {
+        release(slots.get(key));
+    }
+
+    public void invalidateAll(Iterable<?> keys) {
+        for (Object key : keys) {
+            invalidate(key);
+        }
+    }
+
+    public void invalidateAll() {
+        for (Slot slot : slots.values()) {
+            release(slot);
+        }
+    }
+
+    /**
+     * @description 释放所有缓存，直接内存在页不再被引用后由JVM回收
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void destroy() {
+        // no page is handed out any more, a put racing with the destroy finds no free chunk
+        allocatedPages.set(pages.length);
+        for (SizeClass sizeClass : sizeClasses) {
+            synchronized (sizeClass) {
+                for (Slot slot=sizeClass.head; slot != null; slot=sizeClass.head) {
+                    slots.remove(slot.key, slot);
+                    free(slot);
+                }
+                sizeClass.freeCount=0;
+            }
+        }
+        Arrays.fill(pages, null);
+    }
+
+    public long getSize() {
+        return slots.size();
+    }
+
+    /**
+     * 缓存占用的字节数【按块大小计算】
+     */
+    public long getUsedBytes() {
+        return usedBytes.sum();
+    }
+
+    /**
+     * 已分配的直接内存字节数
+     */
+    public long getAllocatedBytes() {
+        return (long) Math.min(allocatedPages.get(), pages.length) * PAGE_SIZE;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return 块的地址【页序号在高32位，页内偏移在低32位】，没有可用的块时返回-1；调用方持有该规格的锁
+     */
+    private long allocate(SizeClass sizeClass) {
+        if (sizeClass.freeCount == 0) {
+            int page=allocatedPages.getAndUpdate(n -> n < pages.length ? n + 1 : n);
+            if (page < pages.length) {
+                // a page is only read under the lock of the size class it was given to
+                pages[page]=ByteBuffer.allocateDirect(PAGE_SIZE);
+                for (int offset=PAGE_SIZE / sizeClass.chunkSize * sizeClass.chunkSize - sizeClass.chunkSize; offset >= 0; offset-=sizeClass.chunkSize) {
+                    sizeClass.push(((long) page << 32) | offset);
+                }
+                log.debug("OffHeapStore: {} allocate page {} for chunk size {}", name, page, sizeClass.chunkSize);
+            }
+        }
+        return sizeClass.freeCount == 0 ? -1 : sizeClass.free[--sizeClass.freeCount];
+    }
+
+    /**
+     * @description 删除key对应的块并释放，key已对应其他块时不处理
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private void release(Slot slot) {
+        if (slot != null && slots.remove(slot.key, slot)) {
+            discard(slot);
+        }
+    }
+
+    /**
+     * @description 释放已经不在key对应关系中的块
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private void discard(Slot slot) {
+        synchronized (sizeClasses[slot.sizeClass]) {
+            free(slot);
+        }
+    }
+
+    /**
+     * @description 块归还给所属规格，重复释放时不处理；调用方持有该规格的锁
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private void free(Slot slot) {
+        if (!slot.linked) {
+            return;
+        }
+        SizeClass sizeClass=sizeClasses[slot.sizeClass];
+        sizeClass.unlink(slot);
+        sizeClass.push(slot.address);
+        slot.linked=false;
+        usedBytes.add(-sizeClass.chunkSize);
+    }
+
+    private byte[] read(Slot slot) {
+        byte[] bytes=new byte[slot.length];
+        ByteBuffer page=pages[pageOf(slot.address)].duplicate();
+        page.position(offsetOf(slot.address));
+        page.get(bytes);
+        return bytes;
+    }
+
+    private Object decode(Object key, byte[] bytes) {
+        try {
+            return codec.getValueDecoder().decode(Unpooled.wrappedBuffer(bytes), null);
+        } catch (IOException | RuntimeException e) {
+            log.warn("OffHeapStore: decode {}'value failed, the key is {}", name, key, e);
+            return null;
+        }
+    }
+
+    private void notifyEvicted(List<Evicted> evicted) {
+        for (Evicted entry : evicted) {
+            Object value=decode(entry.key, entry.bytes);
+            if (value != null) {
+                evictionListener.onEvict(entry.key, value, entry.ttl, entry.idleTime);
+            }
+        }
+    }
+
+    private int sizeClassOf(int length) {
+        for (int i=0; i < sizeClasses.length; i++) {
+            if (sizeClasses[i].chunkSize >= length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static SizeClass[] createSizeClasses() {
+        List<SizeClass> classes=new ArrayList<>();
+        int chunkSize=MIN_CHUNK_SIZE;
+        while (chunkSize < PAGE_SIZE / 2) {
+            classes.add(new SizeClass(chunkSize));
+            chunkSize=((int) (chunkSize * CHUNK_GROWTH_FACTOR) + 7) & ~7;
+        }
+        classes.add(new SizeClass(PAGE_SIZE / 2));
+        classes.add(new SizeClass(PAGE_SIZE));
+        return classes.toArray(new SizeClass[0]);
+    }
+
+    private static int pageOf(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int offsetOf(long address) {
+        return (int) address;
+    }
+
+    /**
+     * @author zhao tailen
+     * @description 堆外缓存淘汰时的回调，参数与{@code RemoteSpillWriter#offer}相同
+     * @date 2026-10-17
+     */
+    public interface EvictionListener {
+
+        /**
+         * @param key      缓存key
+         * @param value    缓存value
+         * @param ttl      剩余有效时间【毫秒】
+         * @param idleTime 空闲时间【毫秒】
+         */
+        void onEvict(Object key, Object value, long ttl, long idleTime);
+    }
+
+    /**
+     * 一种规格的块，空闲块的地址保存在栈中，已使用的块按访问顺序链接【head为最近访问】
+     */
+    private static final class SizeClass {
+        private final int chunkSize;
+        private long[] free=new long[16];
+        private int freeCount;
+        private Slot head;
+        private Slot tail;
+
+        private SizeClass(int chunkSize) {
+            this.chunkSize=chunkSize;
+        }
+
+        private void push(long address) {
+            if (freeCount == free.length) {
+                free=Arrays.copyOf(free, freeCount * 2);
+            }
+            free[freeCount++]=address;
+        }
+
+        private void linkFirst(Slot slot) {
+            slot.prev=null;
+            slot.next=head;
+            if (head != null) {
+                head.prev=slot;
+            }
+            head=slot;
+            if (tail == null) {
+                tail=slot;
+            }
+        }
+
+        private void unlink(Slot slot) {
+            if (slot.prev != null) {
+                slot.prev.next=slot.next;
+            } else {
+                head=slot.next;
+            }
+            if (slot.next != null) {
+                slot.next.prev=slot.prev;
+            } else {
+                tail=slot.prev;
+            }
+            slot.prev=null;
+            slot.next=null;
+        }
+    }
+
+    /**
+     * 一个已使用的块，linked及链表指针由所属规格的锁保护，释放后不再读取块中的内容
+     */
+    private static final class Slot {
+        private final Object key;
+        private final int sizeClass;
+        private final long address;
+        private final int length;
+        private final long writeTime;
+        private final long expireTime;
+        private final long idleTime;
+        private long accessTime;
+        private boolean linked;
+        private Slot prev;
+        private Slot next;
+
+        private Slot(Object key, int sizeClass, long address, int length, long writeTime, long expireTime, long idleTime, long accessTime) {
+            this.key=key;
+            this.sizeClass=sizeClass;
+            this.address=address;
+            this.length=length;
+            this.writeTime=writeTime;
+            this.expireTime=expireTime;
+            this.idleTime=idleTime;
+            this.accessTime=accessTime;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expireTime || (idleTime > 0 && now - accessTime >= idleTime);
+        }
+    }
+
+    private static final class Evicted {
+        private final Object key;
+        private final byte[] bytes;
+        private final long ttl;
+        private final long idleTime;
+
+        private Evicted(Object key, byte[] bytes, long ttl, long idleTime) {
+            this.key=key;
+            this.bytes=bytes;
+            this.ttl=ttl;
+            this.idleTime=idleTime;
+        }
+    }
+}
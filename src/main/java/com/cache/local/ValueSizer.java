@@ -0,0 +1,301 @@
+package com.cache.local;
+
+import com.cache.domain.CacheSpace;
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.springframework.cache.support.NullValue;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author zhao tailen
+ * @description 估算缓存占用的字节数：字符串、数组、包装类型及集合按结构估算【集合只抽样前几个元素】，
+ * 其他对象按字段估算【每个类的字段只反射一次，引用字段向下估算几层】，不编码value。作为本地缓存的{@link Weigher}按字节限制本地缓存的大小，
+ * 同时判断单个value是否超过maxValueBytes。每次写入只估算一次，结果保存在{@link LocalValue}中供weigher使用
+ * @date 2026-10-17
+ */
+public class ValueSizer implements Weigher<Object, Object> {
+
+    /**
+     * 对象头及引用的大致开销
+     * */
+    private static final int OBJECT_OVERHEAD=16;
+
+    /**
+     * caffeine节点及LocalValue的开销
+     * */
+    private static final int ENTRY_OVERHEAD=96;
+
+    /**
+     * 超过估算层数的对象的大小
+     * */
+    private static final int DEFAULT_SIZE=64;
+
+    /**
+     * 引用字段的大小【压缩指针】
+     * */
+    private static final int REFERENCE_SIZE=4;
+
+    /**
+     * 集合抽样的元素数量
+     * */
+    private static final int SAMPLE_SIZE=8;
+
+    /**
+     * 集合元素及引用字段向下估算的层数，更深的对象按固定大小估算
+     * */
+    private static final int MAX_DEPTH=3;
+
+    /**
+     * 每个类的实例字段【包括父类】，无法访问时只按字段数量估算
+     * */
+    private static final ClassValue<Layout> LAYOUTS=new ClassValue<Layout>() {
+        @Override
+        protected Layout computeValue(Class<?> type) {
+            return Layout.of(type);
+        }
+    };
+
+    /**
+     * 本地缓存的字节上限【0为按数量限制】
+     * */
+    private final long maxBytes;
+
+    /**
+     * 单个value的字节上限【0为不限制】
+     * */
+    private final int maxValueBytes;
+
+    private final LongAdder oversized=new LongAdder();
+
+    /**
+     * @param maxBytes      本地缓存的字节上限【0为按数量限制】
+     * @param maxValueBytes 单个value的字节上限【0为不限制】
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public ValueSizer(long maxBytes, int maxValueBytes) {
+        this.maxBytes=maxBytes;
+        this.maxValueBytes=maxValueBytes;
+    }
+
+    /**
+     * @return 没有设置localMaxMemory和maxValueBytes时返回null
+     */
+    public static ValueSizer of(CacheSpace cacheSpace) {
+        long maxBytes=cacheSpace.getLocalMaxMemory() == null ? 0 : (long) cacheSpace.getLocalMaxMemory() * 1024 * 1024;
+        int maxValueBytes=cacheSpace.getMaxValueBytes() == null ? 0 : cacheSpace.getMaxValueBytes();
+        if (maxBytes <= 0 && maxValueBytes <= 0) {
+            return null;
+        }
+        return new ValueSizer(Math.max(0, maxBytes), Math.max(0, maxValueBytes));
+    }
+
+    @Override
+    public int weigh(Object key, Object value) {
+        long valueSize;
+        if (value instanceof LocalValue) {
+            LocalValue localValue=(LocalValue) value;
+            valueSize=localValue.getValueSize() >= 0 ? localValue.getValueSize() : estimate(localValue.getStoreValue(), 0);
+        } else {
+            valueSize=estimate(value, 0);
+        }
+        long weight=ENTRY_OVERHEAD + estimate(key, 0) + valueSize;
+        return (int) Math.min(Integer.MAX_VALUE, weight);
+    }
+
+    /**
+     * @param size {@link #estimate(Object)}估算的字节数
+     * @return 超过单个value的字节上限时返回true并计数，每次写入只调用一次
+     */
+    public boolean isOversized(long size) {
+        if (fits(size)) {
+            return false;
+        }
+        oversized.increment();
+        return true;
+    }
+
+    /**
+     * @return 是否没有超过单个value的字节上限，不计数
+     */
+    public boolean fits(long size) {
+        return maxValueBytes <= 0 || size <= maxValueBytes;
+    }
+
+    /**
+     * @return 估算的字节数，写入前估算一次，与{@link #isOversized(long)}及{@link LocalValue#LocalValue(Object, long)}一起使用
+     */
+    public long estimate(Object value) {
+        return estimate(value, 0);
+    }
+
+    private long estimate(Object value, int depth) {
+        if (value == null || value == NullValue.INSTANCE) {
+            return 0;
+        }
+        if (value instanceof String) {
+            return OBJECT_OVERHEAD * 2 + 2L * ((String) value).length();
+        }
+        if (value instanceof byte[]) {
+            return OBJECT_OVERHEAD + ((byte[]) value).length;
+        }
+        if (value instanceof char[]) {
+            return OBJECT_OVERHEAD + 2L * ((char[]) value).length;
+        }
+        if (value instanceof int[] || value instanceof float[]) {
+            return OBJECT_OVERHEAD + 4L * Array.getLength(value);
+        }
+        if (value instanceof long[] || value instanceof double[]) {
+            return OBJECT_OVERHEAD + 8L * Array.getLength(value);
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character
+                || value instanceof Enum || value instanceof Date) {
+            return OBJECT_OVERHEAD * 2;
+        }
+        if (depth < MAX_DEPTH) {
+            if (value instanceof Collection) {
+                Collection<?> collection=(Collection<?>) value;
+                return OBJECT_OVERHEAD * 4 + sample(collection.iterator(), collection.size(), depth + 1);
+            }
+            if (value instanceof Map) {
+                Map<?, ?> map=(Map<?, ?>) value;
+                long size=OBJECT_OVERHEAD * 4 + (long) OBJECT_OVERHEAD * 2 * map.size();
+                return size + sample(map.keySet().iterator(), map.size(), depth + 1)
+                        + sample(map.values().iterator(), map.size(), depth + 1);
+            }
+            if (value instanceof Object[]) {
+                Object[] array=(Object[]) value;
+                long size=OBJECT_OVERHEAD + 4L * array.length;
+                int count=Math.min(SAMPLE_SIZE, array.length);
+                long sampled=0;
+                for (int i=0; i < count; i++) {
+                    sampled+=estimate(array[i], depth + 1);
+                }
+                return count == 0 ? size : size + sampled * array.length / count;
+            }
+        }
+        return fieldSize(value, depth);
+    }
+
+    /**
+     * @description 按前几个元素的平均大小估算所有元素
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private long sample(Iterator<?> iterator, int size, int depth) {
+        long sampled=0;
+        int count=0;
+        while (count < SAMPLE_SIZE && iterator.hasNext()) {
+            sampled+=estimate(iterator.next(), depth) + 4;
+            count++;
+        }
+        return count == 0 ? 0 : sampled * size / count;
+    }
+
+    /**
+     * @description 按字段估算对象：基本类型字段按类型大小，引用字段向下估算，超过层数时按固定大小
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private long fieldSize(Object value, int depth) {
+        if (depth >= MAX_DEPTH) {
+            return DEFAULT_SIZE;
+        }
+        Layout layout=LAYOUTS.get(value.getClass());
+        long size=layout.shallowSize;
+        for (Field field : layout.references) {
+            try {
+                size+=estimate(field.get(value), depth + 1);
+            } catch (IllegalAccessException e) {
+                size+=DEFAULT_SIZE;
+            }
+        }
+        return size;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public int getMaxValueBytes() {
+        return maxValueBytes;
+    }
+
+    public long getOversized() {
+        return oversized.sum();
+    }
+
+    /**
+     * @author zhao tailen
+     * @description 一个类的实例大小：对象头加基本类型及引用字段的大小，需要向下估算的引用字段
+     * @date 2026-10-17
+     */
+    private static final class Layout {
+
+        private final long shallowSize;
+
+        private final Field[] references;
+
+        private Layout(long shallowSize, Field[] references) {
+            this.shallowSize=shallowSize;
+            this.references=references;
+        }
+
+        private static Layout of(Class<?> type) {
+            long shallowSize=OBJECT_OVERHEAD;
+            List<Field> references=new ArrayList<>();
+            int referenceCount=0;
+            boolean accessible=true;
+            for (Class<?> c=type; c != null && c != Object.class; c=c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    Class<?> fieldType=field.getType();
+                    if (fieldType.isPrimitive()) {
+                        shallowSize+=primitiveSize(fieldType);
+                        continue;
+                    }
+                    shallowSize+=REFERENCE_SIZE;
+                    referenceCount++;
+                    if (accessible) {
+                        try {
+                            field.setAccessible(true);
+                            references.add(field);
+                        } catch (RuntimeException e) {
+                            // classes of closed modules are estimated by their field count only
+                            accessible=false;
+                        }
+                    }
+                }
+            }
+            if (!accessible) {
+                shallowSize+=(long) referenceCount * DEFAULT_SIZE;
+                references.clear();
+            }
+            return new Layout(shallowSize, references.toArray(new Field[0]));
+        }
+
+        private static int primitiveSize(Class<?> type) {
+            if (type == long.class || type == double.class) {
+                return 8;
+            }
+            if (type == int.class || type == float.class) {
+                return 4;
+            }
+            if (type == short.class || type == char.class) {
+                return 2;
+            }
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.cache.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * @author zhao tailen
+ * @description 单个缓存空间的指标：本地层使用caffeine自带的统计，远程层记录命中、未命中及延迟，
+ * 另外记录提升到本地的次数、加载耗时以及各个队列的长度。命中路径上只有{@code LongAdder}累加
+ * @date 2026-10-17
+ */
+public class CacheMetrics {
+
+    /**
+     * 延迟分位数的统计窗口【毫秒】
+     * */
+    private static final long LATENCY_WINDOW=10000;
+
+    private final String name;
+
+    private volatile Cache<?, ?> localCache;
+
+    private final LongAdder remoteHits=new LongAdder();
+
+    private final LongAdder remoteMisses=new LongAdder();
+
+    private final LongAdder remoteErrors=new LongAdder();
+
+    private final LongAdder promotions=new LongAdder();
+
+    private final LongAdder loadFailures=new LongAdder();
+
+    private final LatencyRecorder remoteLatency=new LatencyRecorder(LATENCY_WINDOW);
+
+    private final LatencyRecorder loadLatency=new LatencyRecorder(LATENCY_WINDOW);
+
+    private final Map<String, LongSupplier> queueSizes=Collections.synchronizedMap(new LinkedHashMap<>());
+
+    private final Map<String, LongSupplier> counters=Collections.synchronizedMap(new LinkedHashMap<>());
+
+    private final Map<String, LongSupplier> gauges=Collections.synchronizedMap(new LinkedHashMap<>());
+
+    public CacheMetrics(String name) {
+        this.name=name;
+    }
+
+    /**
+     * @param localCache 开启了recordStats的本地缓存
+     * @description 绑定本地层，命中与未命中从caffeine的统计中读取
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void bindLocalCache(Cache<?, ?> localCache) {
+        this.localCache=localCache;
+    }
+
+    /**
+     * @param queue 队列名称
+     * @param size  队列长度
+     * @description 登记一个需要导出长度的队列
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void bindQueue(String queue, LongSupplier size) {
+        queueSizes.put(queue, size);
+    }
+
+    /**
+     * @param counter 计数名称
+     * @param count   累计次数
+     * @description 登记一个由其他组件维护的累计次数【如溢出写入、延迟写入的次数】
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void bindCounter(String counter, LongSupplier count) {
+        counters.put(counter, count);
+    }
+
+    /**
+     * @param gauge 指标名称
+     * @param value 当前值
+     * @description 登记一个由其他组件维护的当前值【如熔断器的状态】
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void bindGauge(String gauge, LongSupplier value) {
+        gauges.put(gauge, value);
+    }
+
+    /**
+     * @param startNanos 开始查询远程缓存的时间
+     * @param value      查询结果
+     * @param error      查询异常
+     * @description 记录一次远程查询
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void recordRemoteGet(long startNanos, Object value, Throwable error) {
+        remoteLatency.record(startNanos);
+        if (error != null) {
+            remoteErrors.increment();
+        } else if (value != null) {
+            remoteHits.increment();
+        } else {
+            remoteMisses.increment();
+        }
+    }
+
+    public void recordPromotion() {
+        promotions.increment();
+    }
+
+    /**
+     * @param startNanos 开始加载的时间
+     * @param success    是否加载成功
+     * @description 记录一次valueLoader的加载
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void recordLoad(long startNanos, boolean success) {
+        loadLatency.record(startNanos);
+        if (!success) {
+            loadFailures.increment();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return 本地层的统计，没有本地层时为空统计
+     */
+    public CacheStats getLocalStats() {
+        Cache<?, ?> cache=localCache;
+        return cache == null ? CacheStats.empty() : cache.stats();
+    }
+
+    public boolean hasLocalCache() {
+        return localCache != null;
+    }
+
+    public long getLocalSize() {
+        Cache<?, ?> cache=localCache;
+        return cache == null ? 0 : cache.estimatedSize();
+    }
+
+    public long getRemoteHits() {
+        return remoteHits.sum();
+    }
+
+    public long getRemoteMisses() {
+        return remoteMisses.sum();
+    }
+
+    public long getRemoteErrors() {
+        return remoteErrors.sum();
+    }
+
+    public long getPromotions() {
+        return promotions.sum();
+    }
+
+    public long getLoadFailures() {
+        return loadFailures.sum();
+    }
+
+    public LatencyRecorder getRemoteLatency() {
+        return remoteLatency;
+    }
+
+    public LatencyRecorder getLoadLatency() {
+        return loadLatency;
+    }
+
+    public Map<String, LongSupplier> getQueueSizes() {
+        synchronized (queueSizes) {
+            return new LinkedHashMap<>(queueSizes);
+        }
+    }
+
+    public Map<String, LongSupplier> getCounters() {
+        synchronized (counters) {
+            return new LinkedHashMap<>(counters);
+        }
+    }
+
+    public Map<String, LongSupplier> getGauges() {
+        synchronized (gauges) {
+            return new LinkedHashMap<>(gauges);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.cache.metrics;
+
+import com.cache.server.CacheTaskExecutor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * @author zhao tailen
+ * @description 将每个缓存空间的{@link CacheMetrics}及共享线程池的状态导出到Micrometer，
+ * 所有指标都按读取时计算，不在缓存的访问路径上产生额外开销
+ * @date 2026-10-17
+ */
+public class CacheMetricsBinder implements MeterBinder {
+
+    private static final String PREFIX="doublelevel.cache";
+
+    private static final double[] PERCENTILES={50, 99, 99.9};
+
+    private final CacheManager cacheManager;
+
+    private final CacheTaskExecutor taskExecutor;
+
+    public CacheMetricsBinder(CacheManager cacheManager, CacheTaskExecutor taskExecutor) {
+        this.cacheManager=cacheManager;
+        this.taskExecutor=taskExecutor;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache=cacheManager.getCache(name);
+            if (cache instanceof MeteredCache) {
+                bindCache(registry, ((MeteredCache) cache).getMetrics());
+            }
+        }
+        if (taskExecutor != null) {
+            bindExecutor(registry);
+        }
+    }
+
+    private void bindCache(MeterRegistry registry, CacheMetrics metrics) {
+        Tags tags=Tags.of("cache", metrics.getName());
+
+        if (metrics.hasLocalCache()) {
+            FunctionCounter.builder(PREFIX + ".gets", metrics, m -> m.getLocalStats().hitCount())
+                    .tags(tags).tags("tier", "local", "result", "hit").register(registry);
+            FunctionCounter.builder(PREFIX + ".gets", metrics, m -> m.getLocalStats().missCount())
+                    .tags(tags).tags("tier", "local", "result", "miss").register(registry);
+            FunctionCounter.builder(PREFIX + ".evictions", metrics, m -> m.getLocalStats().evictionCount())
+                    .tags(tags).register(registry);
+            Gauge.builder(PREFIX + ".size", metrics, CacheMetrics::getLocalSize)
+                    .tags(tags).tags("tier", "local").register(registry);
+        }
+
+        FunctionCounter.builder(PREFIX + ".gets", metrics, CacheMetrics::getRemoteHits)
+                .tags(tags).tags("tier", "remote", "result", "hit").register(registry);
+        FunctionCounter.builder(PREFIX + ".gets", metrics, CacheMetrics::getRemoteMisses)
+                .tags(tags).tags("tier", "remote", "result", "miss").register(registry);
+        FunctionCounter.builder(PREFIX + ".gets", metrics, CacheMetrics::getRemoteErrors)
+                .tags(tags).tags("tier", "remote", "result", "error").register(registry);
+        FunctionCounter.builder(PREFIX + ".promotions", metrics, CacheMetrics::getPromotions)
+                .tags(tags).register(registry);
+        FunctionCounter.builder(PREFIX + ".load.failures", metrics, CacheMetrics::getLoadFailures)
+                .tags(tags).register(registry);
+
+        bindLatency(registry, PREFIX + ".remote.latency", tags, metrics.getRemoteLatency());
+        bindLatency(registry, PREFIX + ".load.latency", tags, metrics.getLoadLatency());
+
+        for (Map.Entry<String, LongSupplier> queue : metrics.getQueueSizes().entrySet()) {
+            LongSupplier size=queue.getValue();
+            Gauge.builder(PREFIX + ".queue.size", size, LongSupplier::getAsLong)
+                    .tags(tags).tags("queue", queue.getKey()).register(registry);
+        }
+        for (Map.Entry<String, LongSupplier> counter : metrics.getCounters().entrySet()) {
+            LongSupplier count=counter.getValue();
+            FunctionCounter.builder(PREFIX + "." + counter.getKey(), count, LongSupplier::getAsLong)
+                    .tags(tags).register(registry);
+        }
+        for (Map.Entry<String, LongSupplier> gauge : metrics.getGauges().entrySet()) {
+            LongSupplier value=gauge.getValue();
+            Gauge.builder(PREFIX + "." + gauge.getKey(), value, LongSupplier::getAsLong)
+                    .tags(tags).register(registry);
+        }
+    }
+
+    private void bindLatency(MeterRegistry registry, String name, Tags tags, LatencyRecorder recorder) {
+        FunctionTimer.builder(name, recorder, LatencyRecorder::getCount, LatencyRecorder::getTotalNanos, TimeUnit.NANOSECONDS)
+                .tags(tags).register(registry);
+        for (double percentile : PERCENTILES) {
+            Gauge.builder(name + ".percentile", recorder, r -> r.getValueAtPercentile(percentile) / 1e6)
+                    .tags(tags).tags("phi", String.valueOf(percentile / 100)).baseUnit("milliseconds").register(registry);
+        }
+        Gauge.builder(name + ".max", recorder, r -> r.getMaxValue() / 1e6)
+                .tags(tags).baseUnit("milliseconds").register(registry);
+    }
+
+    private void bindExecutor(MeterRegistry registry) {
+        Gauge.builder(PREFIX + ".executor.queue.size", taskExecutor, CacheTaskExecutor::getQueueSize)
+                .register(registry);
+        Gauge.builder(PREFIX + ".executor.active", taskExecutor, CacheTaskExecutor::getActiveCount)
+                .register(registry);
+        FunctionCounter.builder(PREFIX + ".executor.dropped", taskExecutor, CacheTaskExecutor::getDroppedTasks)
+                .register(registry);
+        FunctionCounter.builder(PREFIX + ".executor.caller.runs", taskExecutor, CacheTaskExecutor::getCallerRunsTasks)
+                .register(registry);
+    }
+}
@@ -0,0 +1,91 @@
+package com.cache.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author zhao tailen
+ * @description 基于HdrHistogram {@code Recorder}的延迟统计，记录过程无锁，
+ * 分位数按固定时间窗口统计，读取时才切换窗口
+ * @date 2026-10-17
+ */
+public class LatencyRecorder {
+
+    private static final long HIGHEST_TRACKABLE=TimeUnit.MINUTES.toNanos(1);
+
+    private static final int SIGNIFICANT_DIGITS=2;
+
+    private final Recorder recorder=new Recorder(HIGHEST_TRACKABLE, SIGNIFICANT_DIGITS);
+
+    private final LongAdder count=new LongAdder();
+
+    private final LongAdder totalNanos=new LongAdder();
+
+    private final long windowNanos;
+
+    private long windowStart=System.nanoTime();
+
+    private Histogram window;
+
+    private Histogram recycled;
+
+    /**
+     * @param windowMillis 分位数统计窗口【毫秒】
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public LatencyRecorder(long windowMillis) {
+        this.windowNanos=TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.window=recorder.getIntervalHistogram();
+    }
+
+    /**
+     * @param startNanos {@code System.nanoTime()}记录的开始时间
+     * @description 记录一次耗时
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void record(long startNanos) {
+        long nanos=System.nanoTime() - startNanos;
+        recorder.recordValue(Math.min(Math.max(nanos, 0), HIGHEST_TRACKABLE));
+        count.increment();
+        totalNanos.add(nanos);
+    }
+
+    /**
+     * @param percentile 分位数【0-100】
+     * @return 上一个完整窗口内的分位数耗时【纳秒】
+     */
+    public synchronized long getValueAtPercentile(double percentile) {
+        return currentWindow().getValueAtPercentile(percentile);
+    }
+
+    /**
+     * @return 上一个完整窗口内的最大耗时【纳秒】
+     */
+    public synchronized long getMaxValue() {
+        return currentWindow().getMaxValue();
+    }
+
+    private Histogram currentWindow() {
+        long now=System.nanoTime();
+        if (now - windowStart >= windowNanos) {
+            Histogram previous=window;
+            window=recorder.getIntervalHistogram(recycled);
+            recycled=previous;
+            windowStart=now;
+        }
+        return window;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+}
@@ -0,0 +1,11 @@
+package com.cache.metrics;
+
+/**
+ * @author zhao tailen
+ * @description 提供指标的缓存空间
+ * @date 2026-10-17
+ */
+public interface MeteredCache {
+
+    CacheMetrics getMetrics();
+}
@@ -0,0 +1,269 @@
+package com.cache.remote;
+
+import com.cache.domain.CacheInvalidation;
+import com.cache.server.CacheTaskExecutor;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author zhao tailen
+ * @description 基于{@code RTopic}的本地缓存失效通道，每个缓存空间一个topic，
+ * 批量发布被修改的key及clear事件，所有节点订阅后失效自己的本地缓存
+ * @date 2026-10-17
+ */
+public class CacheInvalidationBus {
+
+    private final Logger log=LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    /**
+     * 当前节点标识
+     */
+    public static final String NODE_ID=UUID.randomUUID().toString();
+
+    private static final String TOPIC_SUFFIX=":invalidation";
+
+    private final String name;
+
+    private final RTopic<CacheInvalidation> topic;
+
+    private final Listener listener;
+
+    private final int batchSize;
+
+    private final ConcurrentLinkedQueue<PendingKey> pendingKeys=new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger pendingCount=new AtomicInteger();
+
+    private int listenerId;
+
+    private ScheduledFuture<?> flushTask;
+
+    private final LongAdder publishedMessages=new LongAdder();
+
+    private final LongAdder publishedKeys=new LongAdder();
+
+    private final LongAdder publishFailures=new LongAdder();
+
+    private final LongAdder appliedMessages=new LongAdder();
+
+    private final LongAdder suppressedMessages=new LongAdder();
+
+    private final LongAdder publishLagTotal=new LongAdder();
+
+    private final AtomicLong publishLagMax=new AtomicLong();
+
+    private final LongAdder applyLagTotal=new LongAdder();
+
+    private final AtomicLong applyLagMax=new AtomicLong();
+
+    /**
+     * @param name           缓存空间名称
+     * @param redissonClient redission客户端
+     * @param batchSize      单条消息最多携带的key数量，达到后立即发布
+     * @param flushDelay     未满一批时的最长等待时间【毫秒】
+     * @param listener       收到其他节点的失效消息后的回调
+     * @param taskExecutor   共享线程池，用于定时发布
+     * @description 创建并订阅缓存空间的失效通道
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public CacheInvalidationBus(String name, RedissonClient redissonClient, int batchSize, long flushDelay, Listener listener,
+                                CacheTaskExecutor taskExecutor) {
+        this.name=name;
+        this.batchSize=batchSize;
+        this.listener=listener;
+        this.topic=redissonClient.getTopic(name + TOPIC_SUFFIX);
+        this.listenerId=topic.addListener(new MessageListener<CacheInvalidation>() {
+            @Override
+            public void onMessage(String channel, CacheInvalidation message) {
+                apply(message);
+            }
+        });
+        this.flushTask=taskExecutor.scheduleWithFixedDelay(this::flush, flushDelay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param key 被修改或删除的key
+     * @description 登记一个需要在其他节点失效的key
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void publish(Object key) {
+        pendingKeys.offer(new PendingKey(key, System.currentTimeMillis()));
+        if (pendingCount.incrementAndGet() >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * @description 通知其他节点清空整个本地缓存【先发布已登记的key】
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void publishClear() {
+        flush();
+        long now=System.currentTimeMillis();
+        send(new CacheInvalidation(NODE_ID, null, true, now), 0, now);
+    }
+
+    /**
+     * @description 发布已登记的key
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void flush() {
+        while (pendingCount.get() > 0) {
+            List<Object> keys=new ArrayList<>(Math.min(batchSize, pendingCount.get()));
+            long oldest=Long.MAX_VALUE;
+            PendingKey pending;
+            while (keys.size() < batchSize && (pending=pendingKeys.poll()) != null) {
+                pendingCount.decrementAndGet();
+                keys.add(pending.key);
+                oldest=Math.min(oldest, pending.enqueueTime);
+            }
+            if (keys.isEmpty()) {
+                return;
+            }
+            long now=System.currentTimeMillis();
+            send(new CacheInvalidation(NODE_ID, keys, false, now), keys.size(), oldest);
+        }
+    }
+
+    private void send(CacheInvalidation message, int keyCount, long enqueueTime) {
+        long lag=message.getPublishTime() - enqueueTime;
+        publishedMessages.increment();
+        publishedKeys.add(keyCount);
+        publishLagTotal.add(lag);
+        updateMax(publishLagMax, lag);
+        topic.publishAsync(message).whenComplete((receivers, e) -> {
+            if (e != null) {
+                publishFailures.increment();
+                log.warn("CacheInvalidationBus: publish {} invalidation failed", name, e);
+            }
+        });
+    }
+
+    private void apply(CacheInvalidation message) {
+        if (NODE_ID.equals(message.getOrigin())) {
+            suppressedMessages.increment();
+            return;
+        }
+        if (message.isClear()) {
+            log.debug("CacheInvalidationBus: clear all {}'local cache from {}", name, message.getOrigin());
+            listener.invalidateAll();
+        } else if (message.getKeys() != null) {
+            log.debug("CacheInvalidationBus: invalidate {}'local cache, the keys is : {}", name, message.getKeys());
+            listener.invalidate(message.getKeys());
+        }
+        long lag=System.currentTimeMillis() - message.getPublishTime();
+        appliedMessages.increment();
+        applyLagTotal.add(lag);
+        updateMax(applyLagMax, lag);
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current;
+        while (value > (current=max.get()) && !max.compareAndSet(current, value)) {
+            // retry
+        }
+    }
+
+    /**
+     * @description 取消订阅并发布剩余的key
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void destroy() {
+        flushTask.cancel(false);
+        flush();
+        topic.removeListener(listenerId);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    public long getPublishedMessages() {
+        return publishedMessages.sum();
+    }
+
+    public long getPublishedKeys() {
+        return publishedKeys.sum();
+    }
+
+    public long getPublishFailures() {
+        return publishFailures.sum();
+    }
+
+    public long getAppliedMessages() {
+        return appliedMessages.sum();
+    }
+
+    public long getSuppressedMessages() {
+        return suppressedMessages.sum();
+    }
+
+    /**
+     * 从key登记到消息发出的平均延迟【毫秒】
+     */
+    public long getAveragePublishLag() {
+        long count=publishedMessages.sum();
+        return count == 0 ? 0 : publishLagTotal.sum() / count;
+    }
+
+    public long getMaxPublishLag() {
+        return publishLagMax.get();
+    }
+
+    /**
+     * 从消息发出到本节点失效完成的平均延迟【毫秒，依赖节点间时钟同步】
+     */
+    public long getAverageApplyLag() {
+        long count=appliedMessages.sum();
+        return count == 0 ? 0 : applyLagTotal.sum() / count;
+    }
+
+    public long getMaxApplyLag() {
+        return applyLagMax.get();
+    }
+
+    /**
+     * @author zhao tailen
+     * @description 收到其他节点失效消息后的本地处理
+     * @date 2026-10-17
+     */
+    public interface Listener {
+
+        void invalidate(Collection<Object> keys);
+
+        void invalidateAll();
+    }
+
+    private static final class PendingKey {
+        private final Object key;
+        private final long enqueueTime;
+
+        private PendingKey(Object key, long enqueueTime) {
+            this.key=key;
+            this.enqueueTime=enqueueTime;
+        }
+    }
+}
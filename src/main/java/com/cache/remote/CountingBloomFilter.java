@@ -0,0 +1,132 @@
+package com.cache.remote;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @author zhao tailen
+ * @description 无锁的计数布隆过滤器，每个位置使用4位计数器【每个long保存16个】，支持删除。
+ * 计数达到上限后不再增减，只会增加误判，不会漏判
+ * @date 2026-10-17
+ */
+public class CountingBloomFilter {
+
+    private static final long MAX_COUNT=15;
+
+    private static final long COUNTER_MASK=0xFL;
+
+    private final AtomicLongArray counters;
+
+    /**
+     * 计数器数量
+     * */
+    private final long size;
+
+    /**
+     * 每个key使用的计数器数量
+     * */
+    private final int hashFunctions;
+
+    /**
+     * @param expectedInsertions 预期的key数量
+     * @param fpp                预期数量下的误判率
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public CountingBloomFilter(long expectedInsertions, double fpp) {
+        long n=Math.max(expectedInsertions, 1);
+        double p=Math.min(Math.max(fpp, Double.MIN_VALUE), 0.5);
+        long bits=(long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        int words=(int) Math.min(Math.max((bits + 15) >>> 4, 1), Integer.MAX_VALUE - 8);
+        this.counters=new AtomicLongArray(words);
+        this.size=(long) words << 4;
+        this.hashFunctions=Math.max(1, (int) Math.round((double) size / n * Math.log(2)));
+    }
+
+    public void put(Object key) {
+        long hash=mix(key.hashCode());
+        for (int i=0; i < hashFunctions; i++) {
+            add(indexOf(hash, i), 1);
+        }
+    }
+
+    /**
+     * @description 删除key，只删除可能存在的key，避免减掉其他key的计数
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void remove(Object key) {
+        long hash=mix(key.hashCode());
+        if (!mightContain(hash)) {
+            return;
+        }
+        for (int i=0; i < hashFunctions; i++) {
+            add(indexOf(hash, i), -1);
+        }
+    }
+
+    /**
+     * @return false时key一定不存在
+     */
+    public boolean mightContain(Object key) {
+        return mightContain(mix(key.hashCode()));
+    }
+
+    public void clear() {
+        for (int i=0; i < counters.length(); i++) {
+            counters.set(i, 0L);
+        }
+    }
+
+    /**
+     * 占用的计数器数量
+     */
+    public long capacity() {
+        return size;
+    }
+
+    public int getHashFunctions() {
+        return hashFunctions;
+    }
+
+    private boolean mightContain(long hash) {
+        for (int i=0; i < hashFunctions; i++) {
+            long index=indexOf(hash, i);
+            if (((counters.get((int) (index >>> 4)) >>> shiftOf(index)) & COUNTER_MASK) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void add(long index, int delta) {
+        int slot=(int) (index >>> 4);
+        int shift=shiftOf(index);
+        for (; ; ) {
+            long word=counters.get(slot);
+            long count=(word >>> shift) & COUNTER_MASK;
+            // a saturated counter may stand for more keys than it can count, it is never decremented
+            if (count == MAX_COUNT || (delta < 0 && count == 0)) {
+                return;
+            }
+            if (counters.compareAndSet(slot, word, word + ((long) delta << shift))) {
+                return;
+            }
+        }
+    }
+
+    private long indexOf(long hash, int i) {
+        long combined=(int) hash + (long) i * ((int) (hash >>> 32) | 1);
+        return (combined & Long.MAX_VALUE) % size;
+    }
+
+    private static int shiftOf(long index) {
+        return (int) (index & 15) << 2;
+    }
+
+    private static long mix(int hashCode) {
+        long h=hashCode + 0x9e3779b97f4a7c15L;
+        h=(h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h=(h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+}
@@ -0,0 +1,452 @@
+package com.cache.remote;
+
+import com.cache.domain.CacheSpace;
+import com.cache.domain.Tombstone;
+import com.cache.server.CacheTaskExecutor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.support.NullValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author zhao tailen
+ * @description 远程缓存的热点key统计【Space-Saving】：只保留topK个计数器，新key替换计数最小的计数器并继承其计数作为误差，
+ * 内存与key的数量无关。每个统计周期结束时保存访问最多的key并重新统计，
+ * 保证的访问速率【计数减去误差】达到pinRate的key在本节点短时间固定，读取时不再访问远程缓存
+ * @date 2026-10-17
+ */
+public class HotKeyTracker {
+
+    private final Logger log=LoggerFactory.getLogger(HotKeyTracker.class);
+
+    /**
+     * 取不到锁时暂存访问的缓冲大小，缓冲满时丢弃访问【热点key的访问占多数，丢弃不影响结果】
+     * */
+    private static final int BUFFER_SIZE=1024;
+
+    private final String name;
+
+    private final int topK;
+
+    /**
+     * 统计周期【秒】
+     * */
+    private final int window;
+
+    /**
+     * 固定到本地的访问速率【每秒，0为不固定】
+     * */
+    private final int pinRate;
+
+    private final ReentrantLock lock=new ReentrantLock();
+
+    private final ArrayBlockingQueue<Object> buffer=new ArrayBlockingQueue<>(BUFFER_SIZE);
+
+    private final Map<Object, Counter> counters;
+
+    /**
+     * 按计数排列的小顶堆
+     * */
+    private final Counter[] heap;
+
+    private int size;
+
+    /**
+     * 固定到本地的value，没有开启时为null
+     * */
+    private final Cache<Object, Object> pins;
+
+    private volatile Set<Object> pinnedKeys=Collections.emptySet();
+
+    /**
+     * 失效的序号，读取远程缓存前取得，用于判断读取开始后key是否失效过
+     * */
+    private final AtomicLong sequence=new AtomicLong();
+
+    /**
+     * 固定的key最近一次失效【或开始固定】的序号，只记录固定的key
+     * */
+    private final Map<Object, Long> invalidations=new ConcurrentHashMap<>();
+
+    /**
+     * 最近一次全部失效的序号
+     * */
+    private volatile long clearSequence;
+
+    private volatile List<HotKey> hotKeys=Collections.emptyList();
+
+    private final ScheduledFuture<?> windowTask;
+
+    private final LongAdder droppedRecords=new LongAdder();
+
+    private final LongAdder pinHits=new LongAdder();
+
+    /**
+     * @param name         缓存空间名称
+     * @param topK         计数器数量
+     * @param window       统计周期【秒】
+     * @param pinRate      固定到本地的访问速率【每秒，0为不固定】
+     * @param pinTtl       固定的时间【毫秒】
+     * @param taskExecutor 共享线程池
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public HotKeyTracker(String name, int topK, int window, int pinRate, int pinTtl, CacheTaskExecutor taskExecutor) {
+        this.name=name;
+        this.topK=topK;
+        this.window=Math.max(1, window);
+        this.pinRate=pinRate;
+        this.counters=new HashMap<>(topK * 4 / 3 + 1);
+        this.heap=new Counter[topK];
+        this.pins=pinRate <= 0 || pinTtl <= 0 ? null : Caffeine.newBuilder()
+                .maximumSize(topK)
+                .expireAfterWrite(pinTtl, TimeUnit.MILLISECONDS)
+                .build();
+        this.windowTask=taskExecutor.scheduleWithFixedDelay(
+                () -> taskExecutor.tryExecute(name, this::rotate), this.window, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param pinning 是否允许固定到本地【持有租约的本地缓存不允许】
+     * @return 没有设置hotKeyTopK时返回null
+     */
+    public static HotKeyTracker of(CacheSpace cacheSpace, boolean pinning, CacheTaskExecutor taskExecutor) {
+        if (cacheSpace.getHotKeyTopK() == null || cacheSpace.getHotKeyTopK() <= 0) {
+            return null;
+        }
+        int pinRate=pinning && cacheSpace.getHotKeyPinRate() != null ? cacheSpace.getHotKeyPinRate() : 0;
+        return new HotKeyTracker(cacheSpace.getName(), cacheSpace.getHotKeyTopK(), cacheSpace.getHotKeyWindow(),
+                pinRate, cacheSpace.getHotKeyPinTtl(), taskExecutor);
+    }
+
+    /**
+     * @description 记录一次需要读取远程缓存的访问，其他线程正在统计时放入缓冲
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void record(Object key) {
+        if (!lock.tryLock()) {
+            if (!buffer.offer(key)) {
+                droppedRecords.increment();
+            }
+            return;
+        }
+        try {
+            increment(key);
+            drain();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return 固定到本地的value，没有时为null
+     */
+    public Object getPinned(Object key) {
+        if (pins == null) {
+            return null;
+        }
+        Object value=pins.getIfPresent(key);
+        if (value != null) {
+            pinHits.increment();
+        }
+        return value;
+    }
+
+    /**
+     * @return 读取远程缓存前取得的序号，读取到value后传给{@link #onRemoteValue}
+     */
+    public long stamp() {
+        return sequence.get();
+    }
+
+    /**
+     * @description 从远程缓存读取到value，热点key固定到本地。读取开始后key失效过时不固定，
+     * 避免写入前开始的读取把旧的value固定到写入之后
+     * @param stamp 读取远程缓存前通过{@link #stamp()}取得的序号
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void onRemoteValue(Object key, Object value, long stamp) {
+        if (pins == null || value == null || value == NullValue.INSTANCE || Tombstone.isTombstone(value)
+                || !pinnedKeys.contains(key) || isInvalidatedSince(key, stamp)) {
+            return;
+        }
+        pins.put(key, value);
+        // an invalidation between the check and the put has already run its own invalidate before or after it
+        if (isInvalidatedSince(key, stamp)) {
+            pins.invalidate(key);
+        }
+    }
+
+    private boolean isInvalidatedSince(Object key, long stamp) {
+        if (clearSequence > stamp) {
+            return true;
+        }
+        Long invalidated=invalidations.get(key);
+        return invalidated != null && invalidated > stamp;
+    }
+
+    public void invalidate(Object key) {
+        if (pins != null) {
+            markInvalidated(key);
+            pins.invalidate(key);
+        }
+    }
+
+    public void invalidateAll(Iterable<Object> keys) {
+        if (pins != null) {
+            for (Object key : keys) {
+                markInvalidated(key);
+            }
+            pins.invalidateAll(keys);
+        }
+    }
+
+    public void invalidateAll() {
+        if (pins != null) {
+            clearSequence=sequence.incrementAndGet();
+            pins.invalidateAll();
+        }
+    }
+
+    /**
+     * @description 记录失效的序号，必须在使固定的value失效之前记录
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private void markInvalidated(Object key) {
+        long current=sequence.incrementAndGet();
+        // every pinned key has an entry from the moment it is pinned
+        invalidations.computeIfPresent(key, (k, last) -> current);
+    }
+
+    /**
+     * @return 上个统计周期访问最多的key，按访问次数从高到低
+     */
+    public List<HotKey> getHotKeys() {
+        return hotKeys;
+    }
+
+    public void destroy() {
+        windowTask.cancel(false);
+    }
+
+    private void drain() {
+        Object key;
+        while ((key=buffer.poll()) != null) {
+            increment(key);
+        }
+    }
+
+    private void increment(Object key) {
+        Counter counter=counters.get(key);
+        if (counter != null) {
+            counter.count++;
+            siftDown(counter.index);
+            return;
+        }
+        if (size < topK) {
+            counter=new Counter(key, 1, 0);
+            counter.index=size;
+            heap[size++]=counter;
+            counters.put(key, counter);
+            siftUp(counter.index);
+            return;
+        }
+        // the key with the smallest count is replaced, its count is the error bound of the new key
+        counter=heap[0];
+        counters.remove(counter.key);
+        counter.key=key;
+        counter.error=counter.count;
+        counter.count++;
+        counters.put(key, counter);
+        siftDown(0);
+    }
+
+    private void siftUp(int index) {
+        Counter counter=heap[index];
+        while (index > 0) {
+            int parent=(index - 1) >>> 1;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            heap[index]=heap[parent];
+            heap[index].index=index;
+            index=parent;
+        }
+        heap[index]=counter;
+        counter.index=index;
+    }
+
+    private void siftDown(int index) {
+        Counter counter=heap[index];
+        int half=size >>> 1;
+        while (index < half) {
+            int child=(index << 1) + 1;
+            int right=child + 1;
+            if (right < size && heap[right].count < heap[child].count) {
+                child=right;
+            }
+            if (counter.count <= heap[child].count) {
+                break;
+            }
+            heap[index]=heap[child];
+            heap[index].index=index;
+            index=child;
+        }
+        heap[index]=counter;
+        counter.index=index;
+    }
+
+    /**
+     * @description 结束一个统计周期：保存访问最多的key，更新需要固定的key，然后重新统计
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    void rotate() {
+        Counter[] snapshot;
+        lock.lock();
+        try {
+            drain();
+            snapshot=Arrays.copyOf(heap, size);
+            for (int i=0; i < size; i++) {
+                heap[i]=null;
+            }
+            size=0;
+            counters.clear();
+        } finally {
+            lock.unlock();
+        }
+        Arrays.sort(snapshot, (a, b) -> Long.compare(b.count, a.count));
+        List<HotKey> current=new ArrayList<>(snapshot.length);
+        Set<Object> pinned=new HashSet<>();
+        for (Counter counter : snapshot) {
+            HotKey hotKey=new HotKey(counter.key, counter.count, counter.error, (double) counter.count / window);
+            current.add(hotKey);
+            if (pins != null && (counter.count - counter.error) >= (long) pinRate * window) {
+                pinned.add(counter.key);
+                if (!pinnedKeys.contains(counter.key)) {
+                    // invalidations before the key was pinned were not recorded, reads in flight are not pinned
+                    invalidations.put(counter.key, sequence.incrementAndGet());
+                    log.info("HotKeyTracker: pin hot key {} of {} locally, {} reads/s", counter.key, name, hotKey.getRate());
+                }
+            }
+        }
+        hotKeys=Collections.unmodifiableList(current);
+        pinnedKeys=pinned;
+        invalidations.keySet().retainAll(pinned);
+        if (!current.isEmpty()) {
+            log.debug("HotKeyTracker: {} hottest key {}", name, current.get(0));
+        }
+    }
+
+    public int getPinnedKeys() {
+        return pinnedKeys.size();
+    }
+
+    public long getPinHits() {
+        return pinHits.sum();
+    }
+
+    public long getDroppedRecords() {
+        return droppedRecords.sum();
+    }
+
+    /**
+     * @return 上个统计周期最热key的访问速率【每秒】
+     */
+    public long getTopRate() {
+        List<HotKey> current=hotKeys;
+        return current.isEmpty() ? 0 : (long) current.get(0).getRate();
+    }
+
+    private static final class Counter {
+
+        private Object key;
+
+        private long count;
+
+        private long error;
+
+        private int index;
+
+        Counter(Object key, long count, long error) {
+            this.key=key;
+            this.count=count;
+            this.error=error;
+        }
+    }
+
+    /**
+     * @author zhao tailen
+     * @description 一个统计周期内的热点key
+     * @date 2026-10-17
+     */
+    public static final class HotKey {
+
+        private final Object key;
+
+        /**
+         * 访问次数【可能多算，最多多算error次】
+         * */
+        private final long count;
+
+        private final long error;
+
+        /**
+         * 访问速率【每秒】
+         * */
+        private final double rate;
+
+        HotKey(Object key, long count, long error, double rate) {
+            this.key=key;
+            this.count=count;
+            this.error=error;
+            this.rate=rate;
+        }
+
+        public Object getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+
+        public double getRate() {
+            return rate;
+        }
+
+        @Override
+        public String toString() {
+            return "HotKey{" +
+                    "key=" + key +
+                    ", count=" + count +
+                    ", error=" + error +
+                    ", rate=" + rate +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.cache.remote;
+
+import com.cache.server.CacheTaskExecutor;
+import org.redisson.api.RBatch;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RScoredSortedSetAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author zhao tailen
+ * @description 缓存空间所有节点共同记录的访问频率，保存在名称为{@code name:hotness}的有序集合中。
+ * 每个节点在本地累计访问次数，定期批量累加到有序集合，并且每个周期只由一个节点把所有分数减半并只保留访问最多的key，
+ * 新节点启动时按分数从高到低预热本地缓存
+ * @date 2026-10-17
+ */
+public class HotnessRecorder {
+
+    private final Logger log=LoggerFactory.getLogger(HotnessRecorder.class);
+
+    public static final String SUFFIX=":hotness";
+
+    private static final String DECAY_SUFFIX=":hotness:decay";
+
+    /**
+     * 每个周期分数的衰减比例
+     * */
+    private static final double DECAY=0.5;
+
+    private final String name;
+
+    private final RedissonClient redissonClient;
+
+    private final Codec codec;
+
+    private final RScoredSortedSet<Object> hotness;
+
+    /**
+     * 有序集合及本地每个周期最多记录的key数量
+     * */
+    private final int maxKeys;
+
+    private final long intervalMillis;
+
+    private final CacheTaskExecutor taskExecutor;
+
+    private final ScheduledFuture<?> flushTask;
+
+    private volatile ConcurrentHashMap<Object, LongAdder> counts=new ConcurrentHashMap<>();
+
+    private final LongAdder skippedKeys=new LongAdder();
+
+    private final LongAdder flushedKeys=new LongAdder();
+
+    /**
+     * @param name           缓存空间名称
+     * @param redissonClient redission客户端
+     * @param codec          key的编码
+     * @param maxKeys        最多记录的key数量
+     * @param interval       累加到有序集合的间隔【秒】
+     * @param taskExecutor   共享线程池
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public HotnessRecorder(String name, RedissonClient redissonClient, Codec codec, int maxKeys, int interval,
+                           CacheTaskExecutor taskExecutor) {
+        this.name=name;
+        this.redissonClient=redissonClient;
+        this.codec=codec;
+        this.hotness=redissonClient.getScoredSortedSet(name + SUFFIX, codec);
+        this.maxKeys=Math.max(1, maxKeys);
+        this.intervalMillis=TimeUnit.SECONDS.toMillis(interval);
+        this.taskExecutor=taskExecutor;
+        this.flushTask=taskExecutor.scheduleWithFixedDelay(
+                () -> taskExecutor.tryExecute(name, this::flush), interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @description 记录一次访问，本周期记录的key达到上限后不再记录新的key
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void record(Object key) {
+        ConcurrentHashMap<Object, LongAdder> current=counts;
+        LongAdder count=current.get(key);
+        if (count == null) {
+            if (current.size() >= maxKeys) {
+                skippedKeys.increment();
+                return;
+            }
+            count=current.computeIfAbsent(key, k -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    /**
+     * @return 访问最多的key，按访问次数从高到低
+     */
+    public Collection<Object> hottest(int count) {
+        if (count <= 0) {
+            return Collections.emptyList();
+        }
+        return hotness.valueRangeReversed(0, count - 1);
+    }
+
+    /**
+     * @description 把本周期的访问次数累加到有序集合，取得衰减权的节点再衰减分数并删除排名靠后的key
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void flush() {
+        ConcurrentHashMap<Object, LongAdder> current=counts;
+        if (current.isEmpty()) {
+            return;
+        }
+        counts=new ConcurrentHashMap<>();
+        try {
+            boolean decay=redissonClient.getBucket(name + DECAY_SUFFIX, StringCodec.INSTANCE).trySet("1", intervalMillis, TimeUnit.MILLISECONDS);
+            RBatch batch=redissonClient.createBatch();
+            RScoredSortedSetAsync<Object> batchHotness=batch.getScoredSortedSet(name + SUFFIX, codec);
+            if (decay) {
+                // halving before adding keeps the latest interval at full weight
+                batchHotness.unionAsync(Collections.singletonMap(name + SUFFIX, DECAY));
+            }
+            List<Object> keys=new ArrayList<>(current.size());
+            for (Map.Entry<Object, LongAdder> entry : current.entrySet()) {
+                batchHotness.addScoreAsync(entry.getKey(), entry.getValue().sum());
+                keys.add(entry.getKey());
+            }
+            if (decay) {
+                batchHotness.removeRangeByRankAsync(0, -maxKeys - 1);
+            }
+            batch.execute();
+            flushedKeys.add(keys.size());
+            log.debug("HotnessRecorder: flush {} keys of {}, decay {}", keys.size(), name, decay);
+        } catch (RuntimeException e) {
+            log.warn("HotnessRecorder: flush {} keys of {} failed", current.size(), name, e);
+        }
+    }
+
+    /**
+     * @description 停止定时累加并累加剩余的访问次数
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void destroy() {
+        flushTask.cancel(false);
+        flush();
+    }
+
+    public long getSkippedKeys() {
+        return skippedKeys.sum();
+    }
+
+    public long getFlushedKeys() {
+        return flushedKeys.sum();
+    }
+}
@@ -0,0 +1,198 @@
+package com.cache.remote;
+
+import com.cache.server.CacheTaskExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author zhao tailen
+ * @description 远程缓存key的本地存在性过滤器，过滤器判断key不存在时不再查询远程缓存。
+ * 本节点的写入和删除同步更新过滤器，其他节点的写入通过失效通道加入过滤器【因此必须开启失效通道】，
+ * 过期的key及漏掉的写入在定期重建【分批扫描远程缓存的key】时修正。首次重建完成前所有key都视为可能存在。
+ * 写入前登记的key在写入完成前可能被开始的重建漏掉，写入完成后如果期间开始过重建则再次登记
+ * @date 2026-10-17
+ */
+public class KeyExistenceFilter {
+
+    private final Logger log=LoggerFactory.getLogger(KeyExistenceFilter.class);
+
+    private final String name;
+
+    private final RemoteMapRouter remoteCache;
+
+    private final long expectedInsertions;
+
+    private final double fpp;
+
+    private final CacheTaskExecutor taskExecutor;
+
+    private volatile CountingBloomFilter filter;
+
+    /**
+     * 正在重建的过滤器，重建期间的写入同时加入
+     * */
+    private volatile CountingBloomFilter building;
+
+    /**
+     * 首次重建是否完成
+     * */
+    private volatile boolean ready;
+
+    private final AtomicBoolean rebuilding=new AtomicBoolean();
+
+    /**
+     * 已开始的重建次数
+     * */
+    private final AtomicLong rebuildStarts=new AtomicLong();
+
+    private final ScheduledFuture<?> rebuildTask;
+
+    private final LongAdder skippedLookups=new LongAdder();
+
+    private final LongAdder rebuilds=new LongAdder();
+
+    private final LongAdder failedRebuilds=new LongAdder();
+
+    /**
+     * @param name               缓存空间名称
+     * @param remoteCache        远程缓存
+     * @param expectedInsertions 预期的key数量【远程缓存数量】
+     * @param fpp                误判率
+     * @param rebuildInterval    重建间隔【秒】
+     * @param taskExecutor       共享线程池
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public KeyExistenceFilter(String name, RemoteMapRouter remoteCache, long expectedInsertions, double fpp,
+                              long rebuildInterval, CacheTaskExecutor taskExecutor) {
+        this.name=name;
+        this.remoteCache=remoteCache;
+        this.expectedInsertions=expectedInsertions;
+        this.fpp=fpp;
+        this.taskExecutor=taskExecutor;
+        this.filter=new CountingBloomFilter(expectedInsertions, fpp);
+        this.rebuildTask=taskExecutor.scheduleWithFixedDelay(this::scheduleRebuild, rebuildInterval, TimeUnit.SECONDS);
+        scheduleRebuild();
+    }
+
+    /**
+     * @return false时该key一定不在远程缓存中，不需要查询
+     */
+    public boolean mightContain(Object key) {
+        if (!ready || filter.mightContain(key)) {
+            return true;
+        }
+        skippedLookups.increment();
+        return false;
+    }
+
+    /**
+     * @return 登记key之前取得，写入完成后交给{@link #afterWrite}
+     */
+    public long stamp() {
+        return rebuildStarts.get();
+    }
+
+    /**
+     * @description 写入远程缓存前登记key
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void add(Object key) {
+        filter.put(key);
+        CountingBloomFilter next=building;
+        if (next != null) {
+            next.put(key);
+        }
+    }
+
+    public void addAll(Iterable<?> keys) {
+        for (Object key : keys) {
+            add(key);
+        }
+    }
+
+    /**
+     * @description 远程写入完成后，登记之后开始过重建时再次登记，重建的扫描可能早于写入
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void afterWrite(Object key, long stamp) {
+        if (rebuildStarts.get() != stamp) {
+            add(key);
+        }
+    }
+
+    /**
+     * @description 远程缓存确认删除后移除key。只减去过滤器已知的key：首次重建完成前过滤器不包含之前写入的key，
+     * 过滤器判断不存在的key也不减，避免减掉其他key的计数；正在重建的过滤器不一定扫描到该key，不移除
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void remove(Object key) {
+        CountingBloomFilter current=filter;
+        if (ready && current.mightContain(key)) {
+            current.remove(key);
+        }
+    }
+
+    public void clear() {
+        filter.clear();
+    }
+
+    private void scheduleRebuild() {
+        if (rebuilding.compareAndSet(false, true) && !taskExecutor.tryExecute(name, this::rebuild)) {
+            rebuilding.set(false);
+        }
+    }
+
+    private void rebuild() {
+        CountingBloomFilter next=new CountingBloomFilter(expectedInsertions, fpp);
+        building=next;
+        rebuildStarts.incrementAndGet();
+        try {
+            long keys=0;
+            // every shard is scanned in HSCAN batches, expired entries are skipped
+            for (Object key : remoteCache.keys()) {
+                next.put(key);
+                keys++;
+            }
+            filter=next;
+            ready=true;
+            rebuilds.increment();
+            log.debug("KeyExistenceFilter: rebuild {} with {} keys", name, keys);
+        } catch (RuntimeException e) {
+            failedRebuilds.increment();
+            log.warn("KeyExistenceFilter: rebuild {} failed", name, e);
+        } finally {
+            building=null;
+            rebuilding.set(false);
+        }
+    }
+
+    public void destroy() {
+        rebuildTask.cancel(false);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long getSkippedLookups() {
+        return skippedLookups.sum();
+    }
+
+    public long getRebuilds() {
+        return rebuilds.sum();
+    }
+
+    public long getFailedRebuilds() {
+        return failedRebuilds.sum();
+    }
+}
@@ -1,27 +1,59 @@
 package com.cache.remote;
 
+import com.cache.batch.BatchCache;
+import com.cache.codec.CacheCodecs;
 import com.cache.domain.CacheSpace;
+import com.cache.domain.Tombstone;
+import com.cache.loader.SingleFlight;
+import com.cache.metrics.CacheMetrics;
+import com.cache.metrics.MeteredCache;
+import com.cache.server.CacheTaskExecutor;
 import org.redisson.api.RMapCache;
+import org.redisson.api.RMapCacheAsync;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.support.AbstractValueAdaptingCache;
-
+import org.springframework.cache.support.NullValue;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static com.cache.remote.RemoteFutures.await;
+import static com.cache.remote.RemoteFutures.toFuture;
 
 /**
  * @author zhao tailen
  * @description 远程缓存
  * @date 2019-11-14
  */
-public class RemoteCacha extends AbstractValueAdaptingCache {
+public class RemoteCacha extends AbstractValueAdaptingCache implements BatchCache, MeteredCache {
 
     private final Logger log=LoggerFactory.getLogger(RemoteCacha.class);
 
     private RedissonClient redissonClient;
 
-    private RMapCache<Object, Object> remoteCache;
+    private Codec codec;
+
+    private List<RedissonClient> shardClients;
+
+    private List<RedissonClient> replicaClients;
+
+    private ReplicaReader replicaReader;
+
+    private RemoteMapRouter remoteCache;
 
     private volatile CacheSpace cacheSpace;
 
@@ -31,24 +63,79 @@ public class RemoteCacha extends AbstractValueAdaptingCache {
 
     private int idleDate;
 
+    /**
+     * 空结果标记的有效时间【秒，0为关闭】
+     * */
+    private int negativeTtl;
+
     private String name;
 
+    private CacheTaskExecutor taskExecutor;
+
+    private final SingleFlight singleFlight=new SingleFlight();
+
+    private RemoteLoadLock remoteLoadLock;
+
+    private RemoteCircuitBreaker breaker;
+
+    /**
+     * 熔断期间积压写入的队列，没有开启时为null
+     * */
+    private WriteBehindQueue degradedQueue;
+
+    /**
+     * 热点key统计，热点key短时间固定到本节点，没有开启时为null
+     * */
+    private HotKeyTracker hotKeys;
+
+    /**
+     * 远程缓存熔断时的查询结果
+     */
+    private static final CompletableFuture<Object> ABSENT=CompletableFuture.completedFuture(null);
+
+    /**
+     * 熔断期间跳过的远程写入
+     */
+    private static final CompletableFuture<Void> DEGRADED=CompletableFuture.completedFuture(null);
+
+    private final CacheMetrics metrics;
 
     /**
      * @param cacheSpace     缓存属性
      * @param redissonClient redission客户端
+     * @param taskExecutor   所有缓存空间共享的后台线程池
      * @description {@code AbstractValueAdaptingCache}创建一个远程缓存
      * @author zhao tailen
      * @date 2019-11-15 14:37
      */
-    public RemoteCacha(CacheSpace cacheSpace, RedissonClient redissonClient) {
+    public RemoteCacha(CacheSpace cacheSpace, RedissonClient redissonClient, CacheTaskExecutor taskExecutor) {
+        this(cacheSpace, redissonClient, Collections.singletonList(redissonClient), null, taskExecutor);
+    }
+
+    /**
+     * @param cacheSpace     缓存属性
+     * @param redissonClient redission客户端
+     * @param shardClients   远程缓存分片可以使用的redis节点【第一个为redissonClient】
+     * @param replicaClients 与shardClients一一对应的从节点客户端，不是主从部署时为null
+     * @param taskExecutor   所有缓存空间共享的后台线程池
+     * @description {@code AbstractValueAdaptingCache}创建一个分片的远程缓存
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public RemoteCacha(CacheSpace cacheSpace, RedissonClient redissonClient, List<RedissonClient> shardClients,
+                       List<RedissonClient> replicaClients, CacheTaskExecutor taskExecutor) {
         super(cacheSpace.getAllowNullValues());
         this.cacheSpace=cacheSpace;
         this.redissonClient=redissonClient;
+        this.shardClients=shardClients;
+        this.replicaClients=replicaClients;
+        this.taskExecutor=taskExecutor;
         this.name=cacheSpace.getName();
         this.expireDate=cacheSpace.getExpireDate();
         this.idleDate=cacheSpace.getIdleDate();
+        this.negativeTtl=cacheSpace.getNegativeTtl() == null ? 0 : Math.max(0, cacheSpace.getNegativeTtl());
         this.maxRemoteSize=cacheSpace.getMaxSize();
+        this.metrics=new CacheMetrics(name);
         init();
     }
 
@@ -58,18 +145,207 @@ public class RemoteCacha extends AbstractValueAdaptingCache {
      * @date 2019-11-15 14:39
      */
     private void init() {
-        this.remoteCache=redissonClient.getMapCache(this.name);
+        this.codec=CacheCodecs.resolve(cacheSpace, redissonClient);
+        int shards=cacheSpace.getRemoteShards() == null ? 1 : cacheSpace.getRemoteShards();
+        this.remoteCache=new RemoteMapRouter(name, shardClients, codec, shards, expireDate, idleDate, taskExecutor);
         remoteCache.trySetMaxSize(maxRemoteSize);
+        replicaReader=ReplicaReader.of(cacheSpace, replicaClients, codec);
+        if (replicaReader != null) {
+            remoteCache.useReplicaReads(replicaReader);
+            metrics.bindCounter("replica.reads", replicaReader::getReplicaReads);
+            metrics.bindCounter("replica.stale", replicaReader::getStaleReads);
+            metrics.bindCounter("replica.masterFallbacks", replicaReader::getMasterFallbacks);
+        }
+        if (remoteCache.getShardCount() > 1 || remoteCache.isRebalancing()) {
+            metrics.bindCounter("rebalance.moved", remoteCache::getMovedEntries);
+        }
+        if (Boolean.TRUE.equals(cacheSpace.getLoadLock())) {
+            remoteLoadLock=new RemoteLoadLock(name, redissonClient, cacheSpace.getLoadLockWait(), cacheSpace.getLoadLockLease());
+        }
+        breaker=RemoteCircuitBreaker.of(cacheSpace, remoteCache, taskExecutor);
+        if (breaker != null) {
+            metrics.bindGauge("breaker.state", () -> breaker.getState().ordinal());
+            metrics.bindCounter("breaker.timeouts", breaker::getTimeouts);
+            metrics.bindCounter("breaker.rejected", breaker::getRejectedCalls);
+            metrics.bindCounter("breaker.droppedWrites", breaker::getDroppedWrites);
+            metrics.bindCounter("breaker.opened", breaker::getOpened);
+            metrics.bindCounter("breaker.recovered", breaker::getRecovered);
+            if (Boolean.TRUE.equals(cacheSpace.getBreakerQueueWrites())) {
+                degradedQueue=new WriteBehindQueue(name, remoteCache, cacheSpace.getWriteBehindQueueSize(),
+                        cacheSpace.getWriteBehindBatchSize(), cacheSpace.getWriteBehindDelay(), cacheSpace.getWriteBehindWait(),
+                        expireDate, idleDate, keys -> { }, taskExecutor);
+                degradedQueue.pauseWhile(breaker::isOpen);
+                metrics.bindQueue("degraded", degradedQueue::getQueueSize);
+                metrics.bindCounter("degraded.written", degradedQueue::getWrittenEntries);
+            }
+        }
+        if (Boolean.TRUE.equals(cacheSpace.getKeyFilter())) {
+            // without an invalidation bus the writes of other nodes never reach a node-local filter
+            log.warn("RemoteCacha: keyFilter of {} is ignored, it needs the invalidation bus of a two-level cache", name);
+        }
+        hotKeys=HotKeyTracker.of(cacheSpace, true, taskExecutor);
+        if (hotKeys != null) {
+            metrics.bindGauge("hotKeys.topRate", hotKeys::getTopRate);
+            metrics.bindGauge("hotKeys.pinned", hotKeys::getPinnedKeys);
+            metrics.bindCounter("hotKeys.pinHits", hotKeys::getPinHits);
+            metrics.bindCounter("hotKeys.dropped", hotKeys::getDroppedRecords);
+        }
+    }
+
+    /**
+     * @return 上个统计周期读取最多的key，没有开启时为空
+     */
+    public List<HotKeyTracker.HotKey> getHotKeys() {
+        return hotKeys == null ? Collections.emptyList() : hotKeys.getHotKeys();
+    }
+
+    /**
+     * @description 停止分片迁移及熔断探测，写入积压的写入
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void destroy() {
+        if (degradedQueue != null) {
+            degradedQueue.destroy();
+        }
+        if (breaker != null) {
+            breaker.destroy();
+        }
+        if (hotKeys != null) {
+            hotKeys.destroy();
+        }
+        remoteCache.destroy();
     }
 
 
     @Override
     protected Object lookup(Object key) {
+        return await(lookupAsync(key));
+    }
 
+    /**
+     * @param key 缓存key
+     * @description 异步获取远程缓存，空结果返回null
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public CompletableFuture<Object> getAsync(Object key) {
+        return lookupAsync(key).thenApply(this::fromStoreValue);
+    }
 
-        Object value=remoteCache.get(key);
-        log.debug("RemoteCacha: get cache from remoteCache >>>>>>>>>> the key is {} and value is {}", key, value);
-        return value;
+    /**
+     * @description 异步获取远程缓存，空结果标记转换为{@code NullValue}以区分未命中
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private CompletableFuture<Object> lookupAsync(Object key) {
+        WriteBehindQueue.PendingWrite pendingWrite=degradedQueue == null ? null : degradedQueue.pending(key);
+        if (pendingWrite != null) {
+            return CompletableFuture.completedFuture(pendingWrite.isRemove() ? null : pendingWrite.getValue());
+        }
+        if (hotKeys != null) {
+            // pinned reads are still counted, a key stays pinned as long as it stays hot
+            hotKeys.record(key);
+            Object pinned=hotKeys.getPinned(key);
+            if (pinned != null) {
+                return CompletableFuture.completedFuture(pinned);
+            }
+        }
+        if (breaker != null && !breaker.allowRequest()) {
+            return ABSENT;
+        }
+        // taken before the read, a value read before a concurrent write must not be pinned after it
+        long pinStamp=hotKeys == null ? 0 : hotKeys.stamp();
+        long start=System.nanoTime();
+        CompletableFuture<Object> future=callRemote(() -> remoteCache.readAsync(key))
+                .whenComplete((v, e) -> metrics.recordRemoteGet(start, v, e)).thenApply(value -> {
+            log.debug("RemoteCacha: get cache from remoteCache >>>>>>>>>> the key is {} and value is {}", key, value);
+            if (hotKeys != null) {
+                hotKeys.onRemoteValue(key, value, pinStamp);
+            }
+            return Tombstone.isTombstone(value) ? NullValue.INSTANCE : value;
+        });
+        if (breaker == null) {
+            return future;
+        }
+        // within the latency budget a slow or failed remote read is a miss, the caller is never held longer
+        return future.exceptionally(e -> {
+            log.debug("RemoteCacha: get {} from remoteCache failed, treat as miss", key, e);
+            return null;
+        });
+    }
+
+    /**
+     * @description 开启熔断时在耗时上限内调用远程缓存并记录结果
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private <T> CompletableFuture<T> callRemote(Supplier<CompletableFuture<T>> call) {
+        return breaker == null ? call.get() : breaker.execute(call);
+    }
+
+    /**
+     * @return 远程缓存熔断中，或该key还有熔断期间积压的写入【之后的写入也进入队列以保持顺序】
+     */
+    private boolean degraded(Object key) {
+        return breaker != null && (breaker.isOpen() || (degradedQueue != null && degradedQueue.pending(key) != null));
+    }
+
+    /**
+     * @param value 为null时为删除
+     * @description 熔断期间的写入：有积压队列时进入队列，恢复后写入远程缓存，否则丢弃
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private CompletableFuture<Void> writeDegraded(Object key, Object value) {
+        if (degradedQueue != null && (value == null ? degradedQueue.remove(key) : degradedQueue.putIfAbsent(key, value))) {
+            return DEGRADED;
+        }
+        breaker.recordDroppedWrite();
+        return DEGRADED;
+    }
+
+    /**
+     * @param key         缓存key
+     * @param valueLoader 未命中时的加载逻辑，在共享线程池中执行
+     * @description 异步获取缓存，未命中时合并加载并写入缓存
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> getAsync(Object key, Callable<T> valueLoader) {
+        return lookupAsync(key).thenCompose(value -> {
+            if (value != null) {
+                return CompletableFuture.completedFuture((T) fromStoreValue(value));
+            }
+            return singleFlight.executeAsync(key, () -> loadAsync(key, valueLoader)).handle((loaded, e) -> {
+                if (e != null) {
+                    Throwable cause=e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    throw new CompletionException(new ValueRetrievalException(key, valueLoader, cause));
+                }
+                return (T) loaded;
+            });
+        });
+    }
+
+    /**
+     * @description {@link #load}的异步版本：回调可能在redisson的IO线程中执行，只有加载逻辑提交到线程池，
+     * 线程池饱和时加载失败而不是在IO线程中阻塞
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private CompletableFuture<Object> loadAsync(Object key, Callable<?> valueLoader) {
+        return lookupAsync(key).thenCompose(value -> {
+            if (value != null) {
+                return CompletableFuture.completedFuture(fromStoreValue(value));
+            }
+            if (remoteLoadLock != null && (breaker == null || !breaker.isOpen())) {
+                // the cluster lock belongs to the thread, the locked load and its write stay on one task thread
+                return taskExecutor.submit(() -> fromStoreValue(remoteLoadLock.load(key, () -> lookup(key), () -> loadAndPut(key, valueLoader))));
+            }
+            return taskExecutor.submit(() -> callLoader(valueLoader))
+                    .thenCompose(loaded -> putAsync(key, toStoreValue(loaded)).thenApply(v -> loaded));
+        });
     }
 
 
@@ -83,6 +359,21 @@ public class RemoteCacha extends AbstractValueAdaptingCache {
         return this;
     }
 
+    @Override
+    public CacheMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @description 空结果【{@code NullValue}】总是以null返回给调用方
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    @Override
+    protected Object fromStoreValue(Object storeValue) {
+        return storeValue == NullValue.INSTANCE ? null : storeValue;
+    }
+
     @Override
     public ValueWrapper get(Object key) {
         log.debug("RemoteCacha: get cache.......ValueWrapper");
@@ -96,50 +387,216 @@ public class RemoteCacha extends AbstractValueAdaptingCache {
         log.debug("RemoteCacha: get cache.......<T> ");
         Object value=lookup(key);
         if (value != null) {
-            return (T) value;
+            return (T) fromStoreValue(value);
         }
 
         try {
-            value=valueLoader.call();
+            return (T) singleFlight.execute(key, () -> load(key, valueLoader));
         } catch (Exception e) {
-            e.printStackTrace();
+            throw new ValueRetrievalException(key, valueLoader, e);
         }
-        Object storeValue=toStoreValue(value);
-        put(key, storeValue);
-        return (T) value;
+    }
 
+    /**
+     * @description 在合并后的加载中再次检查缓存，未命中时【按需持有集群锁】执行加载并写入缓存
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private Object load(Object key, Callable<?> valueLoader) throws Exception {
+        Object value=lookup(key);
+        if (value != null) {
+            return fromStoreValue(value);
+        }
+        if (remoteLoadLock != null && (breaker == null || !breaker.isOpen())) {
+            return fromStoreValue(remoteLoadLock.load(key, () -> lookup(key), () -> loadAndPut(key, valueLoader)));
+        }
+        return loadAndPut(key, valueLoader);
+    }
+
+    private Object loadAndPut(Object key, Callable<?> valueLoader) throws Exception {
+        Object value=callLoader(valueLoader);
+        put(key, toStoreValue(value));
+        return value;
+    }
+
+    private Object callLoader(Callable<?> valueLoader) throws Exception {
+        long start=System.nanoTime();
+        Object value;
+        try {
+            value=valueLoader.call();
+        } catch (Exception e) {
+            metrics.recordLoad(start, false);
+            throw e;
+        }
+        metrics.recordLoad(start, true);
+        return value;
     }
 
     @Override
     public void put(Object key, Object value) {
+        await(putAsync(key, value));
+    }
+
+    /**
+     * @description 异步写入远程缓存
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public CompletableFuture<Void> putAsync(Object key, Object value) {
+        unpin(key);
+        if (negativeTtl > 0 && (value == null || value == NullValue.INSTANCE)) {
+            log.debug("RemoteCacha: put negative result, the key is {}", key);
+            if (degraded(key)) {
+                // a negative result is only an optimization, queued writes of the key are replaced by a remove
+                return writeDegraded(key, null);
+            }
+            return callRemote(() -> toFuture(remoteCache.map(key)
+                    .fastPutAsync(key, Tombstone.INSTANCE, negativeTtl, TimeUnit.SECONDS, 0, TimeUnit.SECONDS).thenAccept(r -> { })));
+        }
         if (!super.isAllowNullValues() && value == null) {
-            this.evict(key);
-            return;
+            return evictAsync(key);
         }
 
         log.debug("RemoteCacha: put remote >>>>>>>>>>>> key is {} value is {}", key, value);
-        remoteCache.putIfAbsent(key, value, expireDate, TimeUnit.SECONDS, idleDate, TimeUnit.SECONDS);
-
+        if (degraded(key)) {
+            return writeDegraded(key, value);
+        }
+        return callRemote(() -> toFuture(putIfAbsentRemote(key, value).thenAccept(r -> { })));
     }
 
     @Override
     public ValueWrapper putIfAbsent(Object key, Object value) {
         log.debug("RemoteCacha: putIfAbsent remote >>>>>>>>>>>> key is {} value is {}", key, value);
-        remoteCache.putIfAbsent(key, value, expireDate, TimeUnit.SECONDS, idleDate, TimeUnit.SECONDS);
+        unpin(key);
+        if (degraded(key)) {
+            writeDegraded(key, value);
+        } else {
+            await(callRemote(() -> toFuture(putIfAbsentRemote(key, value))));
+        }
         return toValueWrapper(value);
     }
 
+    /**
+     * @description 远程缓存不存在该key时写入，空结果标记视为不存在
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private CompletionStage<Object> putIfAbsentRemote(Object key, Object value) {
+        RMapCache<Object, Object> map=remoteCache.map(key);
+        if (negativeTtl > 0) {
+            return map.removeAsync(key, Tombstone.INSTANCE)
+                    .thenCompose(r -> map.putIfAbsentAsync(key, value, expireDate, TimeUnit.SECONDS, idleDate, TimeUnit.SECONDS));
+        }
+        return map.putIfAbsentAsync(key, value, expireDate, TimeUnit.SECONDS, idleDate, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        log.debug("RemoteCacha: getAll remote cache, the size of keys is {}", keys.size());
+        Set<Object> remoteKeys=new HashSet<>(keys.size());
+        for (Object key : keys) {
+            if (hotKeys != null) {
+                hotKeys.record(key);
+            }
+            remoteKeys.add(key);
+        }
+        if (remoteKeys.isEmpty() || (breaker != null && !breaker.allowRequest())) {
+            return new HashMap<>();
+        }
+        Map<Object, Object> values;
+        try {
+            values=breaker == null ? remoteCache.getAll(remoteKeys) : breaker.call(() -> remoteCache.getAll(remoteKeys));
+        } catch (RuntimeException e) {
+            if (breaker == null) {
+                throw e;
+            }
+            log.debug("RemoteCacha: getAll from remoteCache failed, treat as miss", e);
+            return new HashMap<>();
+        }
+        values.values().removeIf(Tombstone::isTombstone);
+        return values;
+    }
+
+    /**
+     * @description 批量写入远程缓存，与{@link #put}一样远程已存在该key时不覆盖，通过{@code RBatch}一次提交
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    @Override
+    public void putAll(Map<?, ?> entries) {
+        log.debug("RemoteCacha: putAll remote cache, the size of entries is {}", entries.size());
+        RemoteMapRouter.Batch batch=remoteCache.batch();
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+            unpin(entry.getKey());
+            if (degraded(entry.getKey())) {
+                writeDegraded(entry.getKey(), entry.getValue() == null ? null : toStoreValue(entry.getValue()));
+                continue;
+            }
+            if (entry.getValue() == null && negativeTtl > 0) {
+                batch.map(entry.getKey()).fastPutAsync(entry.getKey(), Tombstone.INSTANCE, negativeTtl, TimeUnit.SECONDS, 0, TimeUnit.SECONDS);
+                continue;
+            }
+            if (entry.getValue() == null && !super.isAllowNullValues()) {
+                batch.fastRemove(entry.getKey());
+                continue;
+            }
+            RMapCacheAsync<Object, Object> map=batch.map(entry.getKey());
+            if (negativeTtl > 0) {
+                // commands of a batch run in order, a tombstone stands for an absent key as in putIfAbsentRemote
+                map.removeAsync(entry.getKey(), Tombstone.INSTANCE);
+            }
+            map.putIfAbsentAsync(entry.getKey(), toStoreValue(entry.getValue()), expireDate, TimeUnit.SECONDS, idleDate, TimeUnit.SECONDS);
+        }
+        if (breaker == null) {
+            batch.execute();
+        } else {
+            breaker.call(() -> {
+                batch.execute();
+                return null;
+            });
+        }
+    }
+
     @Override
     public void evict(Object key) {
+        await(evictAsync(key));
+    }
+
+    /**
+     * @description 异步清理远程缓存
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public CompletableFuture<Void> evictAsync(Object key) {
         log.debug("RemoteCacha: clear remotr cache, the key is : {}", key);
-        remoteCache.remove(key);
+        unpin(key);
+        if (degraded(key)) {
+            return writeDegraded(key, null);
+        }
+        return callRemote(() -> remoteCache.fastRemoveAsync(key)).thenAccept(removed -> { });
+    }
 
+    /**
+     * @description 本节点的写入和删除使固定的value失效，其他节点的写入在固定时间结束后可见
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private void unpin(Object key) {
+        if (hotKeys != null) {
+            hotKeys.invalidate(key);
+        }
     }
 
     @Override
     public void clear() {
         log.debug("RemoteCacha: clear all {}'cache ", cacheSpace.getName());
+        if (degradedQueue != null) {
+            degradedQueue.discard();
+        }
         remoteCache.deleteAsync();
+        if (hotKeys != null) {
+            hotKeys.invalidateAll();
+        }
     }
 
 }
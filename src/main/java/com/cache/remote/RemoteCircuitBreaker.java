@@ -0,0 +1,370 @@
+package com.cache.remote;
+
+import com.cache.domain.CacheSpace;
+import com.cache.server.CacheTaskExecutor;
+import org.redisson.client.RedisTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * @author zhao tailen
+ * @description 远程缓存的熔断器。每次远程调用有耗时上限，超出时按超时失败；
+ * 最近一批调用的失败率或耗时分位数超过阀值时熔断，熔断期间不再调用远程缓存【缓存空间只使用本地】，
+ * 并定期在后台探测，连续探测成功后恢复。业务请求不参与探测
+ * @date 2026-10-17
+ */
+public class RemoteCircuitBreaker {
+
+    private static final Logger log=LoggerFactory.getLogger(RemoteCircuitBreaker.class);
+
+    /**
+     * 恢复前需要连续成功的探测次数
+     */
+    private static final int RECOVERY_PROBES=3;
+
+    public enum State {
+        /**
+         * 正常调用远程缓存
+         */
+        CLOSED,
+        /**
+         * 熔断，只使用本地缓存
+         */
+        OPEN,
+        /**
+         * 熔断中，正在探测远程缓存是否恢复
+         */
+        HALF_OPEN
+    }
+
+    private final String name;
+
+    private final long budgetMillis;
+
+    private final double errorRate;
+
+    private final double latencyPercentile;
+
+    private final long latencyThresholdNanos;
+
+    private final int window;
+
+    private final int evaluateEvery;
+
+    private final long openMillis;
+
+    private final Supplier<CompletableFuture<Void>> probe;
+
+    private final CacheTaskExecutor taskExecutor;
+
+    /**
+     * 最近的调用结果：耗时【纳秒】左移一位，最低位为是否失败
+     * */
+    private final AtomicLongArray samples;
+
+    private final AtomicLong calls=new AtomicLong();
+
+    private final AtomicBoolean evaluating=new AtomicBoolean();
+
+    private final AtomicBoolean probing=new AtomicBoolean();
+
+    private final AtomicInteger probeSuccesses=new AtomicInteger();
+
+    private final AtomicReference<State> state=new AtomicReference<>(State.CLOSED);
+
+    private final List<BiConsumer<State, State>> listeners=new CopyOnWriteArrayList<>();
+
+    private volatile ScheduledFuture<?> probeTask;
+
+    private final LongAdder timeouts=new LongAdder();
+
+    private final LongAdder rejectedCalls=new LongAdder();
+
+    private final LongAdder droppedWrites=new LongAdder();
+
+    private final LongAdder opened=new LongAdder();
+
+    private final LongAdder recovered=new LongAdder();
+
+    /**
+     * @param name              缓存空间名称
+     * @param budgetMillis      每次远程调用的耗时上限【毫秒】
+     * @param window            统计最近多少次调用
+     * @param errorRate         熔断的失败率【超时也算失败】
+     * @param latencyPercentile 熔断的耗时分位数【如0.99】
+     * @param latencyThreshold  耗时分位数达到多少时熔断【毫秒】
+     * @param openMillis        熔断后的探测间隔【毫秒】
+     * @param probe             探测远程缓存的调用
+     * @param taskExecutor      共享线程池
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public RemoteCircuitBreaker(String name, long budgetMillis, int window, double errorRate, double latencyPercentile,
+                                long latencyThreshold, long openMillis, Supplier<CompletableFuture<Void>> probe,
+                                CacheTaskExecutor taskExecutor) {
+        this.name=name;
+        this.budgetMillis=budgetMillis;
+        this.window=Math.max(1, window);
+        this.evaluateEvery=Math.max(1, this.window / 10);
+        this.errorRate=errorRate;
+        this.latencyPercentile=latencyPercentile;
+        this.latencyThresholdNanos=TimeUnit.MILLISECONDS.toNanos(latencyThreshold);
+        this.openMillis=openMillis;
+        this.probe=probe;
+        this.taskExecutor=taskExecutor;
+        this.samples=new AtomicLongArray(this.window);
+    }
+
+    /**
+     * @param cacheSpace   缓存属性
+     * @param remoteCache  远程缓存，熔断期间探测所有分片所在节点
+     * @param taskExecutor 共享线程池
+     * @return 没有开启熔断时返回null
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public static RemoteCircuitBreaker of(CacheSpace cacheSpace, RemoteMapRouter remoteCache, CacheTaskExecutor taskExecutor) {
+        if (!Boolean.TRUE.equals(cacheSpace.getCircuitBreaker())) {
+            return null;
+        }
+        int budget=cacheSpace.getRemoteBudget();
+        int latencyThreshold=cacheSpace.getBreakerLatencyThreshold() == null || cacheSpace.getBreakerLatencyThreshold() <= 0
+                ? budget : cacheSpace.getBreakerLatencyThreshold();
+        return new RemoteCircuitBreaker(cacheSpace.getName(), budget, cacheSpace.getBreakerWindow(), cacheSpace.getBreakerErrorRate(),
+                cacheSpace.getBreakerLatencyPercentile(), latencyThreshold, cacheSpace.getBreakerOpenTime(),
+                remoteCache::pingAsync, taskExecutor);
+    }
+
+    /**
+     * @return 是否可以调用远程缓存，熔断期间返回false并记录一次拒绝
+     */
+    public boolean allowRequest() {
+        if (state.get() == State.CLOSED) {
+            return true;
+        }
+        rejectedCalls.increment();
+        return false;
+    }
+
+    public boolean isOpen() {
+        return state.get() != State.CLOSED;
+    }
+
+    /**
+     * @description 在耗时上限内执行一次远程调用并记录结果，超出上限时返回的结果以{@code RedisTimeoutException}失败
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call) {
+        long start=System.nanoTime();
+        return withBudget(call).whenComplete((value, e) -> record(System.nanoTime() - start, e != null));
+    }
+
+    /**
+     * @description 执行一次同步的远程调用并记录结果【批量操作，耗时上限由redisson的超时控制】
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public <T> T call(Supplier<T> call) {
+        long start=System.nanoTime();
+        boolean failed=true;
+        try {
+            T value=call.get();
+            failed=false;
+            return value;
+        } finally {
+            record(System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * @description 熔断期间没有写入远程缓存，也没有进入队列的写入
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void recordDroppedWrite() {
+        droppedWrites.increment();
+    }
+
+    /**
+     * @description 登记状态变化的回调【参数为变化前后的状态】
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void addListener(BiConsumer<State, State> listener) {
+        listeners.add(listener);
+    }
+
+    private <T> CompletableFuture<T> withBudget(Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> result=new CompletableFuture<>();
+        ScheduledFuture<?> timeout=taskExecutor.schedule(() -> {
+            if (result.completeExceptionally(new RedisTimeoutException(
+                    "remote call of " + name + " exceeded the latency budget of " + budgetMillis + "ms"))) {
+                timeouts.increment();
+            }
+        }, budgetMillis, TimeUnit.MILLISECONDS);
+        CompletableFuture<T> remote;
+        try {
+            remote=call.get();
+        } catch (RuntimeException e) {
+            remote=new CompletableFuture<>();
+            remote.completeExceptionally(e);
+        }
+        remote.whenComplete((value, e) -> {
+            timeout.cancel(false);
+            if (e != null) {
+                result.completeExceptionally(e);
+            } else {
+                result.complete(value);
+            }
+        });
+        return result;
+    }
+
+    private void record(long nanos, boolean failed) {
+        long n=calls.incrementAndGet();
+        samples.set((int) ((n - 1) % window), nanos << 1 | (failed ? 1 : 0));
+        if (n >= window && n % evaluateEvery == 0 && state.get() == State.CLOSED) {
+            evaluate();
+        }
+    }
+
+    private void evaluate() {
+        if (!evaluating.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long[] latencies=new long[window];
+            int failures=0;
+            for (int i=0; i < window; i++) {
+                long sample=samples.get(i);
+                failures+=(int) (sample & 1);
+                latencies[i]=sample >>> 1;
+            }
+            if (failures >= errorRate * window) {
+                trip("error rate " + failures + "/" + window);
+                return;
+            }
+            Arrays.sort(latencies);
+            long latency=latencies[Math.min(window - 1, Math.max(0, (int) Math.ceil(latencyPercentile * window) - 1))];
+            if (latency >= latencyThresholdNanos) {
+                trip("p" + latencyPercentile * 100 + " latency " + TimeUnit.NANOSECONDS.toMillis(latency) + "ms");
+            }
+        } finally {
+            evaluating.set(false);
+        }
+    }
+
+    private void trip(String reason) {
+        if (!transition(State.CLOSED, State.OPEN)) {
+            return;
+        }
+        opened.increment();
+        log.warn("RemoteCircuitBreaker: {} opened by {}, use local cache only", name, reason);
+        probeTask=taskExecutor.scheduleWithFixedDelay(this::probe, openMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @description 探测远程缓存，连续成功{@link #RECOVERY_PROBES}次后恢复，失败时继续熔断到下一次探测
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private void probe() {
+        if (state.get() == State.CLOSED || !probing.compareAndSet(false, true)) {
+            return;
+        }
+        transition(State.OPEN, State.HALF_OPEN);
+        withBudget(probe).whenComplete((value, e) -> {
+            probing.set(false);
+            if (e != null) {
+                probeSuccesses.set(0);
+                transition(State.HALF_OPEN, State.OPEN);
+                log.debug("RemoteCircuitBreaker: {} probe failed", name, e);
+                return;
+            }
+            if (probeSuccesses.incrementAndGet() < RECOVERY_PROBES) {
+                probe();
+                return;
+            }
+            close();
+        });
+    }
+
+    private void close() {
+        probeSuccesses.set(0);
+        // the samples that tripped the breaker must not trip it again
+        for (int i=0; i < window; i++) {
+            samples.set(i, 0L);
+        }
+        calls.set(0);
+        if (!transition(State.HALF_OPEN, State.CLOSED)) {
+            return;
+        }
+        ScheduledFuture<?> task=probeTask;
+        if (task != null) {
+            task.cancel(false);
+        }
+        recovered.increment();
+        log.info("RemoteCircuitBreaker: {} closed, remote cache recovered", name);
+    }
+
+    private boolean transition(State from, State to) {
+        if (!state.compareAndSet(from, to)) {
+            return false;
+        }
+        for (BiConsumer<State, State> listener : listeners) {
+            try {
+                listener.accept(from, to);
+            } catch (RuntimeException e) {
+                log.warn("RemoteCircuitBreaker: {} state listener failed", name, e);
+            }
+        }
+        return true;
+    }
+
+    public void destroy() {
+        ScheduledFuture<?> task=probeTask;
+        if (task != null) {
+            task.cancel(false);
+        }
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    public long getRejectedCalls() {
+        return rejectedCalls.sum();
+    }
+
+    public long getDroppedWrites() {
+        return droppedWrites.sum();
+    }
+
+    public long getOpened() {
+        return opened.sum();
+    }
+
+    public long getRecovered() {
+        return recovered.sum();
+    }
+}
@@ -0,0 +1,45 @@
+package com.cache.remote;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * @author zhao tailen
+ * @description 异步远程操作的工具方法
+ * @date 2026-10-17
+ */
+public final class RemoteFutures {
+
+    private RemoteFutures() {
+    }
+
+    /**
+     * @description 将redisson的{@code RFuture}等转换为{@code CompletableFuture}
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public static <T> CompletableFuture<T> toFuture(CompletionStage<T> stage) {
+        return stage.toCompletableFuture();
+    }
+
+    /**
+     * @description 同步方法等待异步结果，异常按原类型抛出
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause=e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.cache.remote;
+
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author zhao tailen
+ * @description 集群范围的加载锁，同一个key同时只有一个节点执行加载，其他节点等待后从远程缓存读取结果
+ * @date 2026-10-17
+ */
+public class RemoteLoadLock {
+
+    private final Logger log=LoggerFactory.getLogger(RemoteLoadLock.class);
+
+    private static final String LOCK_SUFFIX=":load:";
+
+    private final RedissonClient redissonClient;
+
+    private final String lockPrefix;
+
+    private final long waitTime;
+
+    private final long leaseTime;
+
+    /**
+     * @param name           缓存空间名称
+     * @param redissonClient redission客户端
+     * @param waitTime       等待锁的最长时间【毫秒】，超时后本节点直接加载
+     * @param leaseTime      锁的最长持有时间【毫秒】，防止节点宕机后锁无法释放
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public RemoteLoadLock(String name, RedissonClient redissonClient, long waitTime, long leaseTime) {
+        this.redissonClient=redissonClient;
+        this.lockPrefix=name + LOCK_SUFFIX;
+        this.waitTime=waitTime;
+        this.leaseTime=leaseTime;
+    }
+
+    /**
+     * @param key          缓存key
+     * @param remoteLookup 拿到锁后先查询远程缓存【其他节点可能已经加载完成】
+     * @param loader       加载并写入缓存的逻辑，在持有锁期间执行
+     * @description 持有集群锁加载key
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public Object load(Object key, Callable<?> remoteLookup, Callable<?> loader) throws Exception {
+        RLock lock=redissonClient.getLock(lockPrefix + key);
+        boolean locked=false;
+        try {
+            locked=lock.tryLock(waitTime, leaseTime, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            Object value=remoteLookup.call();
+            if (value != null) {
+                log.debug("RemoteLoadLock: {} loaded by other node", key);
+                return value;
+            }
+            if (!locked) {
+                log.warn("RemoteLoadLock: wait lock {}{} timeout, load without lock", lockPrefix, key);
+            }
+            return loader.call();
+        } finally {
+            if (locked && lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,794 @@
+package com.cache.remote;
+
+import com.cache.config.RedissonConfig;
+import com.cache.domain.Tombstone;
+import com.cache.server.CacheTaskExecutor;
+import io.netty.buffer.ByteBuf;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RBatch;
+import org.redisson.api.RBucket;
+import org.redisson.api.RFuture;
+import org.redisson.api.RLock;
+import org.redisson.api.RMapCache;
+import org.redisson.api.RMapCacheAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+import static com.cache.remote.RemoteFutures.await;
+import static com.cache.remote.RemoteFutures.toFuture;
+
+/**
+ * @author zhao tailen
+ * @description 远程缓存的分片路由。一个缓存空间拆分为多个{@code RMapCache}，key通过一致性哈希确定分片，
+ * 分片再通过一致性哈希分布到多个redis节点；只有一个分片时与原来一样使用名称为缓存空间名称的{@code RMapCache}。
+ * 分片数量或节点数量变化后，读取和删除同时兼顾旧的分片，并由一个节点在后台把旧分片中的缓存迁移到新分片
+ * @date 2026-10-17
+ */
+public class RemoteMapRouter {
+
+    private static final Logger log=LoggerFactory.getLogger(RemoteMapRouter.class);
+
+    private static final int VIRTUAL_NODES=128;
+
+    private static final String LAYOUT_SUFFIX=":layout";
+
+    private static final String REBALANCE_LOCK_SUFFIX=":rebalance";
+
+    /**
+     * 检查迁移是否完成的间隔【秒】
+     */
+    private static final long REBALANCE_CHECK_INTERVAL=10;
+
+    private final String name;
+
+    private final List<RedissonClient> clients;
+
+    /**
+     * 每个节点的地址，与clients一一对应
+     * */
+    private final List<String> nodeIds;
+
+    private final Codec codec;
+
+    private final int expireDate;
+
+    private final int idleDate;
+
+    private final CacheTaskExecutor taskExecutor;
+
+    private final Layout current;
+
+    /**
+     * 迁移完成前的旧分片，没有迁移时为null
+     * */
+    private volatile Layout previous;
+
+    private final RBucket<String> layoutBucket;
+
+    private final AtomicBoolean rebalancing=new AtomicBoolean();
+
+    private ScheduledFuture<?> rebalanceTask;
+
+    private final LongAdder movedEntries=new LongAdder();
+
+    /**
+     * 从节点读取，没有使用时为null
+     * */
+    private volatile ReplicaReader replicaReader;
+
+    /**
+     * @param name         缓存空间名称
+     * @param clients      分片可以使用的redis节点，第一个为默认节点【记录分片方式】
+     * @param codec        远程缓存的编码
+     * @param shards       分片数量
+     * @param expireDate   迁移时使用的有效时间【秒】
+     * @param idleDate     迁移时使用的空闲时间【秒】
+     * @param taskExecutor 共享线程池
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public RemoteMapRouter(String name, List<RedissonClient> clients, Codec codec, int shards, int expireDate, int idleDate,
+                           CacheTaskExecutor taskExecutor) {
+        this.name=name;
+        this.codec=codec;
+        this.expireDate=expireDate;
+        this.idleDate=idleDate;
+        this.taskExecutor=taskExecutor;
+        this.clients=new ArrayList<>(clients);
+        this.nodeIds=new ArrayList<>(clients.size());
+        for (RedissonClient client : clients) {
+            nodeIds.add(RedissonConfig.addressOf(client.getConfig()));
+        }
+        int[] nodes=new int[clients.size()];
+        Arrays.setAll(nodes, i -> i);
+        this.current=new Layout(name, Math.max(1, shards), this.clients, nodes, nodeIds, codec);
+        this.layoutBucket=clients.get(0).getBucket(name + LAYOUT_SUFFIX, StringCodec.INSTANCE);
+        initRebalance();
+    }
+
+    /**
+     * @description 与上次使用的分片方式不同时，开始迁移【没有记录时为未分片的缓存空间】
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private void initRebalance() {
+        String stored=layoutBucket.get();
+        if (stored == null) {
+            // an unsharded space written before layouts were recorded lives on the default node
+            if (current.shards.length == 1 && current.shards[0].clientIndex == 0) {
+                layoutBucket.trySet(current.id);
+                return;
+            }
+            stored=Layout.LEGACY_UNSHARDED;
+        }
+        if (current.id.equals(stored)) {
+            return;
+        }
+        Layout old=Layout.parse(name, stored, clients, nodeIds, codec);
+        if (old == null) {
+            log.warn("RemoteMapRouter: {} can't read the previous layout {}, skip rebalancing", name, stored);
+            layoutBucket.set(current.id);
+            return;
+        }
+        log.info("RemoteMapRouter: {} rebalance from {} to {}", name, stored, current.id);
+        previous=old;
+        rebalanceTask=taskExecutor.scheduleWithFixedDelay(this::checkRebalance, REBALANCE_CHECK_INTERVAL, TimeUnit.SECONDS);
+        checkRebalance();
+    }
+
+    /**
+     * @return key所在分片的远程缓存
+     */
+    public RMapCache<Object, Object> map(Object key) {
+        return current.shardOf(key).map;
+    }
+
+    /**
+     * @description 读取远程缓存，迁移期间新分片没有时再读取旧分片
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public CompletableFuture<Object> getAsync(Object key) {
+        Shard shard=current.shardOf(key);
+        return orPrevious(key, shard, toFuture(shard.map.getAsync(key)));
+    }
+
+    /**
+     * @description 按读取策略读取远程缓存【用于查询】，没有使用从节点时与{@link #getAsync(Object)}相同
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public CompletableFuture<Object> readAsync(Object key) {
+        ReplicaReader reader=replicaReader;
+        if (reader == null) {
+            return getAsync(key);
+        }
+        Shard shard=current.shardOf(key);
+        return orPrevious(key, shard, reader.readAsync(shard.clientIndex, shard.name, key, () -> toFuture(shard.map.getAsync(key))));
+    }
+
+    /**
+     * @description 从节点读取，与分片节点一一对应
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void useReplicaReads(ReplicaReader replicaReader) {
+        this.replicaReader=replicaReader;
+    }
+
+    private CompletableFuture<Object> orPrevious(Object key, Shard shard, CompletableFuture<Object> future) {
+        Layout old=previous;
+        if (old == null) {
+            return future;
+        }
+        Shard oldShard=old.shardOf(key);
+        if (oldShard.sameAs(shard)) {
+            return future;
+        }
+        return future.thenCompose(value -> value != null
+                ? CompletableFuture.completedFuture(value) : toFuture(oldShard.map.getAsync(key)));
+    }
+
+    public Object get(Object key) {
+        return await(getAsync(key));
+    }
+
+    /**
+     * @return 删除的数量，迁移期间同时删除旧分片
+     */
+    public CompletableFuture<Long> fastRemoveAsync(Object key) {
+        Shard shard=current.shardOf(key);
+        CompletableFuture<Long> future=toFuture(shard.map.fastRemoveAsync(key));
+        Layout old=previous;
+        if (old == null) {
+            return future;
+        }
+        Shard oldShard=old.shardOf(key);
+        if (oldShard.sameAs(shard)) {
+            return future;
+        }
+        return future.thenCombine(toFuture(oldShard.map.fastRemoveAsync(key)), Long::sum);
+    }
+
+    /**
+     * @description 按分片分组后并行批量读取，返回的map可以修改
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public Map<Object, Object> getAll(Set<Object> keys) {
+        Map<Object, Object> values=current.getAll(keys);
+        Layout old=previous;
+        if (old == null || values.size() == keys.size()) {
+            return values;
+        }
+        Set<Object> missKeys=new HashSet<>();
+        for (Object key : keys) {
+            if (!values.containsKey(key) && !old.shardOf(key).sameAs(current.shardOf(key))) {
+                missKeys.add(key);
+            }
+        }
+        if (!missKeys.isEmpty()) {
+            values.putAll(old.getAll(missKeys));
+        }
+        return values;
+    }
+
+    /**
+     * @description 按节点分组的批量操作，每个节点一个{@code RBatch}，提交时并行执行
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public Batch batch() {
+        return new Batch(false);
+    }
+
+    /**
+     * @description 按节点分组的批量操作，每个节点的操作在一个MULTI/EXEC中原子地执行
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public Batch atomicBatch() {
+        return new Batch(true);
+    }
+
+    /**
+     * @return 与key所在分片在同一个节点、名称为分片名称加suffix的远程缓存【可以与分片中的value原子地一起写入】
+     */
+    public RMapCache<Object, Object> sibling(Object key, String suffix) {
+        Shard shard=current.shardOf(key);
+        return shard.client.getMapCache(shard.name + suffix, codec);
+    }
+
+    /**
+     * @description 按分片分组后并行批量读取{@link #sibling}中的值，迁移期间只读取新分片
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public Map<Object, Object> getAllSiblings(String suffix, Set<Object> keys) {
+        Map<Shard, Set<Object>> groups=new HashMap<>();
+        for (Object key : keys) {
+            groups.computeIfAbsent(current.shardOf(key), s -> new HashSet<>()).add(key);
+        }
+        List<RFuture<Map<Object, Object>>> futures=new ArrayList<>(groups.size());
+        for (Map.Entry<Shard, Set<Object>> group : groups.entrySet()) {
+            Shard shard=group.getKey();
+            RMapCache<Object, Object> siblings=shard.client.getMapCache(shard.name + suffix, codec);
+            futures.add(siblings.getAllAsync(group.getValue()));
+        }
+        Map<Object, Object> values=new HashMap<>(Math.max(16, keys.size() * 4 / 3 + 1));
+        for (RFuture<Map<Object, Object>> future : futures) {
+            values.putAll(await(toFuture(future)));
+        }
+        return values;
+    }
+
+    /**
+     * @return 所有分片【迁移期间包含旧分片】的key，每个分片分批扫描
+     */
+    public Iterable<Object> keys() {
+        List<RMapCache<Object, Object>> maps=new ArrayList<>();
+        for (Shard shard : locations()) {
+            maps.add(shard.map);
+        }
+        return () -> new Iterator<Object>() {
+
+            private int index;
+
+            private Iterator<Object> keys=maps.get(0).keySet().iterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!keys.hasNext() && index + 1 < maps.size()) {
+                    keys=maps.get(++index).keySet().iterator();
+                }
+                return keys.hasNext();
+            }
+
+            @Override
+            public Object next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return keys.next();
+            }
+        };
+    }
+
+    /**
+     * @description 远程缓存数量平均分配到每个分片
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void trySetMaxSize(int maxSize) {
+        int shardSize=(maxSize + current.shards.length - 1) / current.shards.length;
+        for (Shard shard : current.shards) {
+            shard.map.trySetMaxSize(shardSize);
+        }
+    }
+
+    /**
+     * @description 探测所有分片所在节点是否可用
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public CompletableFuture<Void> pingAsync() {
+        CompletableFuture<?>[] futures=new CompletableFuture<?>[current.shards.length];
+        for (int i=0; i < futures.length; i++) {
+            futures[i]=toFuture(current.shards[i].map.sizeAsync());
+        }
+        return CompletableFuture.allOf(futures);
+    }
+
+    public void deleteAsync() {
+        for (Shard shard : locations()) {
+            shard.map.deleteAsync();
+        }
+    }
+
+    public void destroy() {
+        if (rebalanceTask != null) {
+            rebalanceTask.cancel(false);
+        }
+    }
+
+    public int getShardCount() {
+        return current.shards.length;
+    }
+
+    public boolean isRebalancing() {
+        return previous != null;
+    }
+
+    public long getMovedEntries() {
+        return movedEntries.sum();
+    }
+
+    private List<Shard> locations() {
+        List<Shard> shards=new ArrayList<>(Arrays.asList(current.shards));
+        Layout old=previous;
+        if (old != null) {
+            for (Shard oldShard : old.shards) {
+                if (shards.stream().noneMatch(oldShard::sameAs)) {
+                    shards.add(oldShard);
+                }
+            }
+        }
+        return shards;
+    }
+
+    /**
+     * @description 其他节点已完成迁移时不再读取旧分片，否则提交迁移任务。
+     * 在所有缓存空间共享的定时线程上执行，只异步读取分片方式，不等待redis
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private void checkRebalance() {
+        if (previous == null) {
+            return;
+        }
+        toFuture(layoutBucket.getAsync()).whenComplete((stored, e) -> {
+            if (e != null) {
+                log.warn("RemoteMapRouter: {} can't read the layout, check again later", name, e);
+                return;
+            }
+            if (current.id.equals(stored)) {
+                finishRebalance();
+                return;
+            }
+            if (rebalancing.compareAndSet(false, true) && !taskExecutor.tryExecute(name, this::rebalance)) {
+                rebalancing.set(false);
+            }
+        });
+    }
+
+    private void rebalance() {
+        RLock lock=clients.get(0).getLock(name + REBALANCE_LOCK_SUFFIX);
+        try {
+            // only one node moves the entries, the others keep reading both layouts
+            if (!lock.tryLock()) {
+                return;
+            }
+            try {
+                Layout old=previous;
+                if (old != null && !current.id.equals(layoutBucket.get())) {
+                    migrate(old);
+                    layoutBucket.set(current.id);
+                }
+                finishRebalance();
+            } finally {
+                lock.unlock();
+            }
+        } catch (RuntimeException e) {
+            log.warn("RemoteMapRouter: rebalance {} failed, retry later", name, e);
+        } finally {
+            rebalancing.set(false);
+        }
+    }
+
+    private void migrate(Layout old) {
+        for (Shard oldShard : old.shards) {
+            // entrySet iterates in HSCAN batches
+            for (Map.Entry<Object, Object> entry : oldShard.map.entrySet()) {
+                Object key=entry.getKey();
+                Object value=entry.getValue();
+                Shard shard=current.shardOf(key);
+                if (shard.sameAs(oldShard)) {
+                    continue;
+                }
+                // tombstones are short lived and simply dropped, a newer write in the new shard wins
+                boolean moved=!Tombstone.isTombstone(value)
+                        && shard.map.putIfAbsent(key, value, expireDate, TimeUnit.SECONDS, idleDate, TimeUnit.SECONDS) == null;
+                if (!oldShard.map.remove(key, value) && moved) {
+                    // removed or replaced while moving, the old value must not come back
+                    shard.map.remove(key, value);
+                    continue;
+                }
+                if (moved) {
+                    movedEntries.increment();
+                }
+            }
+        }
+        log.info("RemoteMapRouter: {} moved {} entries", name, movedEntries.sum());
+    }
+
+    private void finishRebalance() {
+        previous=null;
+        if (rebalanceTask != null) {
+            rebalanceTask.cancel(false);
+        }
+    }
+
+    /**
+     * @author zhao tailen
+     * @description 按节点分组的批量操作
+     * @date 2026-10-17
+     */
+    public final class Batch {
+
+        private final RBatch[] batches=new RBatch[clients.size()];
+
+        private final Map<Shard, RMapCacheAsync<Object, Object>> maps=new HashMap<>();
+
+        /**
+         * 每个节点的操作是否在一个事务中执行
+         * */
+        private final boolean atomic;
+
+        private Batch(boolean atomic) {
+            this.atomic=atomic;
+        }
+
+        /**
+         * @return key所在分片在批量操作中的远程缓存
+         */
+        public RMapCacheAsync<Object, Object> map(Object key) {
+            return map(current.shardOf(key));
+        }
+
+        /**
+         * @return 与key所在分片在同一个节点的{@link RemoteMapRouter#sibling}，在同一个节点的批量操作中
+         */
+        public RMapCacheAsync<Object, Object> sibling(Object key, String suffix) {
+            Shard shard=current.shardOf(key);
+            return batchOf(shard).getMapCache(shard.name + suffix, codec);
+        }
+
+        /**
+         * @return 新分片中删除的数量，批量操作执行后完成；迁移期间同时删除旧分片
+         */
+        public RFuture<Long> fastRemove(Object key) {
+            Shard shard=current.shardOf(key);
+            RFuture<Long> removed=map(shard).fastRemoveAsync(key);
+            Layout old=previous;
+            if (old != null && !old.shardOf(key).sameAs(shard)) {
+                map(old.shardOf(key)).fastRemoveAsync(key);
+            }
+            return removed;
+        }
+
+        private RMapCacheAsync<Object, Object> map(Shard shard) {
+            return maps.computeIfAbsent(shard, s -> batchOf(s).getMapCache(s.name, codec));
+        }
+
+        private RBatch batchOf(Shard shard) {
+            if (batches[shard.clientIndex] == null) {
+                batches[shard.clientIndex]=atomic
+                        ? shard.client.createBatch(BatchOptions.defaults().atomic())
+                        : shard.client.createBatch();
+            }
+            return batches[shard.clientIndex];
+        }
+
+        /**
+         * @description 并行提交每个节点的批量操作并等待完成
+         * @author zhao tailen
+         * @date 2026-10-17
+         */
+        public void execute() {
+            await(executeAsync());
+        }
+
+        /**
+         * @description 并行提交每个节点的批量操作，全部完成后完成
+         * @author zhao tailen
+         * @date 2026-10-17
+         */
+        public CompletableFuture<Void> executeAsync() {
+            List<CompletableFuture<?>> futures=new ArrayList<>(batches.length);
+            for (RBatch batch : batches) {
+                if (batch != null) {
+                    futures.add(toFuture(batch.executeAsync()));
+                }
+            }
+            return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+        }
+    }
+
+    /**
+     * @author zhao tailen
+     * @description 一个分片：名称、所在节点及对应的远程缓存
+     * @date 2026-10-17
+     */
+    private static final class Shard {
+
+        private final String name;
+
+        private final int clientIndex;
+
+        private final RedissonClient client;
+
+        private final RMapCache<Object, Object> map;
+
+        private Shard(String name, int clientIndex, RedissonClient client, Codec codec) {
+            this.name=name;
+            this.clientIndex=clientIndex;
+            this.client=client;
+            this.map=client.getMapCache(name, codec);
+        }
+
+        private boolean sameAs(Shard other) {
+            return clientIndex == other.clientIndex && name.equals(other.name);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Shard && sameAs((Shard) o);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * clientIndex + name.hashCode();
+        }
+    }
+
+    /**
+     * @author zhao tailen
+     * @description 一种分片方式：分片数量、使用的节点及key的一致性哈希环。
+     * 标识为“分片数量/节点数量/节点地址”，节点顺序或地址变化时标识随之变化；旧版本的标识只有数量，表示使用前几个节点
+     * @date 2026-10-17
+     */
+    private static final class Layout {
+
+        /**
+         * 没有记录分片方式时的旧缓存空间：一个分片，在默认节点上
+         * */
+        private static final String LEGACY_UNSHARDED="1/1";
+
+        private static final String NODE_SEPARATOR=";";
+
+        private final String id;
+
+        private final Shard[] shards;
+
+        private final Codec codec;
+
+        private final long[] ring;
+
+        private final int[] ringShards;
+
+        /**
+         * @param clients 路由的所有节点
+         * @param nodes   这种分片方式使用的节点在clients中的下标，按节点在哈希环上的顺序
+         * @param nodeIds 路由的所有节点的地址
+         */
+        private Layout(String name, int shardCount, List<RedissonClient> clients, int[] nodes, List<String> nodeIds, Codec codec) {
+            this.codec=codec;
+            this.shards=new Shard[shardCount];
+            if (shardCount == 1) {
+                // a single shard stays on the first node under the space name
+                this.id=id(1, new int[]{nodes[0]}, nodeIds);
+                shards[0]=new Shard(name, nodes[0], clients.get(nodes[0]), codec);
+                this.ring=new long[0];
+                this.ringShards=new int[0];
+                return;
+            }
+
+            this.id=id(shardCount, nodes, nodeIds);
+            long[] nodeRing=new long[nodes.length * VIRTUAL_NODES];
+            int[] ringNodes=new int[nodeRing.length];
+            fillRing(nodeRing, ringNodes, nodes.length, i -> "node-" + i);
+            for (int i=0; i < shardCount; i++) {
+                String shardName=name + ":" + i;
+                int clientIndex=nodes[nodes.length == 1 ? 0 : ringNodes[ceiling(nodeRing, hash(shardName))]];
+                shards[i]=new Shard(shardName, clientIndex, clients.get(clientIndex), codec);
+            }
+            this.ring=new long[shardCount * VIRTUAL_NODES];
+            this.ringShards=new int[ring.length];
+            fillRing(ring, ringShards, shardCount, i -> name + ":" + i);
+        }
+
+        private Shard shardOf(Object key) {
+            if (shards.length == 1) {
+                return shards[0];
+            }
+            return shards[ringShards[ceiling(ring, hashKey(key))]];
+        }
+
+        private Map<Object, Object> getAll(Set<Object> keys) {
+            if (shards.length == 1) {
+                return shards[0].map.getAll(keys);
+            }
+            Map<Shard, Set<Object>> groups=new HashMap<>();
+            for (Object key : keys) {
+                groups.computeIfAbsent(shardOf(key), s -> new HashSet<>()).add(key);
+            }
+            List<RFuture<Map<Object, Object>>> futures=new ArrayList<>(groups.size());
+            for (Map.Entry<Shard, Set<Object>> group : groups.entrySet()) {
+                futures.add(group.getKey().map.getAllAsync(group.getValue()));
+            }
+            Map<Object, Object> values=new HashMap<>(Math.max(16, keys.size() * 4 / 3 + 1));
+            for (RFuture<Map<Object, Object>> future : futures) {
+                values.putAll(await(toFuture(future)));
+            }
+            return values;
+        }
+
+        private long hashKey(Object key) {
+            if (key instanceof String) {
+                return hash((String) key);
+            }
+            // other keys are hashed by their encoded form, which is the same on every node
+            ByteBuf encoded;
+            try {
+                encoded=codec.getMapKeyEncoder().encode(key);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            try {
+                long h=0xcbf29ce484222325L;
+                for (int i=encoded.readerIndex(); i < encoded.writerIndex(); i++) {
+                    h=(h ^ encoded.getByte(i)) * 0x100000001b3L;
+                }
+                return mix(h);
+            } finally {
+                encoded.release();
+            }
+        }
+
+        private static String id(int shards, int[] nodes, List<String> nodeIds) {
+            StringBuilder id=new StringBuilder().append(shards).append('/').append(nodes.length).append('/');
+            for (int i=0; i < nodes.length; i++) {
+                if (i > 0) {
+                    id.append(NODE_SEPARATOR);
+                }
+                id.append(nodeIds.get(nodes[i]));
+            }
+            return id.toString();
+        }
+
+        /**
+         * @return 旧的分片方式，使用的节点已经不在路由中时为null
+         */
+        private static Layout parse(String name, String id, List<RedissonClient> clients, List<String> nodeIds, Codec codec) {
+            // node addresses contain '/' themselves, only the first two separators split the id
+            String[] parts=id.split("/", 3);
+            try {
+                int shards=Integer.parseInt(parts[0]);
+                int nodeCount=Integer.parseInt(parts[1]);
+                if (shards < 1 || nodeCount < 1) {
+                    return null;
+                }
+                int[] nodes=new int[nodeCount];
+                if (parts.length == 2) {
+                    // a layout recorded before addresses were part of the id uses the first nodes in order
+                    if (nodeCount > clients.size()) {
+                        return null;
+                    }
+                    Arrays.setAll(nodes, i -> i);
+                } else {
+                    String[] addresses=parts[2].split(NODE_SEPARATOR);
+                    if (addresses.length != nodeCount) {
+                        return null;
+                    }
+                    for (int i=0; i < nodeCount; i++) {
+                        nodes[i]=nodeIds.indexOf(addresses[i]);
+                        if (nodes[i] < 0) {
+                            return null;
+                        }
+                    }
+                }
+                return new Layout(name, shards, clients, nodes, nodeIds, codec);
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+
+        private static void fillRing(long[] ring, int[] owners, int count, IntFunction<String> pointName) {
+            long[][] points=new long[ring.length][];
+            int n=0;
+            for (int i=0; i < count; i++) {
+                for (int v=0; v < VIRTUAL_NODES; v++) {
+                    points[n++]=new long[]{hash(pointName.apply(i) + "#" + v), i};
+                }
+            }
+            Arrays.sort(points, (a, b) -> Long.compare(a[0], b[0]));
+            for (int i=0; i < points.length; i++) {
+                ring[i]=points[i][0];
+                owners[i]=(int) points[i][1];
+            }
+        }
+
+        private static int ceiling(long[] ring, long hash) {
+            int index=Arrays.binarySearch(ring, hash);
+            if (index < 0) {
+                index=-index - 1;
+            }
+            return index == ring.length ? 0 : index;
+        }
+
+        private static long hash(String value) {
+            long h=0xcbf29ce484222325L;
+            for (int i=0; i < value.length(); i++) {
+                h=(h ^ value.charAt(i)) * 0x100000001b3L;
+            }
+            return mix(h);
+        }
+
+        private static long mix(long h) {
+            h=(h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+            h=(h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+            return h ^ (h >>> 31);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.cache.remote;
+
+import com.cache.server.CacheTaskExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * @author zhao tailen
+ * @description 本地缓存溢出的异步写入，溢出的缓存先进入有界队列，按数量或时间通过{@code RBatch}批量写入远程缓存
+ * @date 2026-10-17
+ */
+public class RemoteSpillWriter {
+
+    private final Logger log=LoggerFactory.getLogger(RemoteSpillWriter.class);
+
+    private final String name;
+
+    private final RemoteMapRouter remoteMaps;
+
+    private final CacheTaskExecutor taskExecutor;
+
+    private final int batchSize;
+
+    private final ArrayBlockingQueue<SpillEntry> queue;
+
+    private final ScheduledFuture<?> flushTask;
+
+    /**
+     * 是否暂停写入【远程缓存熔断期间】
+     * */
+    private volatile BooleanSupplier paused=() -> false;
+
+    private final LongAdder spilledEntries=new LongAdder();
+
+    private final LongAdder droppedEntries=new LongAdder();
+
+    private final LongAdder failedEntries=new LongAdder();
+
+    /**
+     * @param name           缓存空间名称
+     * @param remoteMaps     远程缓存的分片路由
+     * @param queueSize      等待写入的最大数量，超出后丢弃
+     * @param batchSize      每批写入的数量
+     * @param flushInterval  不满一批时的最长等待时间【毫秒】
+     * @param taskExecutor   共享线程池
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public RemoteSpillWriter(String name, RemoteMapRouter remoteMaps, int queueSize, int batchSize,
+                             long flushInterval, CacheTaskExecutor taskExecutor) {
+        this.name=name;
+        this.remoteMaps=remoteMaps;
+        this.taskExecutor=taskExecutor;
+        this.batchSize=batchSize;
+        this.queue=new ArrayBlockingQueue<>(queueSize);
+        this.flushTask=taskExecutor.scheduleWithFixedDelay(this::scheduleFlush, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param key       缓存key
+     * @param value     缓存value
+     * @param ttl       剩余有效时间【毫秒】
+     * @param idleTime  空闲时间【毫秒】
+     * @return 是否进入队列
+     * @description 登记一个溢出的缓存
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public boolean offer(Object key, Object value, long ttl, long idleTime) {
+        if (!queue.offer(new SpillEntry(key, value, ttl, idleTime))) {
+            droppedEntries.increment();
+            log.debug("RemoteSpillWriter: {}'spill queue is full, drop key {}", name, key);
+            return false;
+        }
+        if (queue.size() >= batchSize) {
+            scheduleFlush();
+        }
+        return true;
+    }
+
+    /**
+     * @description 条件成立期间暂停定时写入，积压的写入在恢复后写入
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void pauseWhile(BooleanSupplier paused) {
+        this.paused=paused;
+    }
+
+    private void scheduleFlush() {
+        if (!queue.isEmpty() && !paused.getAsBoolean()) {
+            taskExecutor.tryExecute(name, this::flush);
+        }
+    }
+
+    /**
+     * @description 将队列中的缓存分批写入远程缓存
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void flush() {
+        List<SpillEntry> entries=new ArrayList<>(batchSize);
+        while (queue.drainTo(entries, batchSize) > 0) {
+            RemoteMapRouter.Batch batch=remoteMaps.batch();
+            for (SpillEntry entry : entries) {
+                batch.map(entry.key).putIfAbsentAsync(entry.key, entry.value, entry.ttl, TimeUnit.MILLISECONDS, entry.idleTime, TimeUnit.MILLISECONDS);
+            }
+            try {
+                batch.execute();
+                spilledEntries.add(entries.size());
+                log.debug("RemoteSpillWriter: spill {} entries to {}", entries.size(), name);
+            } catch (RuntimeException e) {
+                failedEntries.add(entries.size());
+                log.warn("RemoteSpillWriter: spill {} entries to {} failed", entries.size(), name, e);
+            }
+            entries.clear();
+        }
+    }
+
+    /**
+     * @description 停止定时写入并写入剩余的缓存
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void destroy() {
+        flushTask.cancel(false);
+        flush();
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public long getSpilledEntries() {
+        return spilledEntries.sum();
+    }
+
+    public long getDroppedEntries() {
+        return droppedEntries.sum();
+    }
+
+    public long getFailedEntries() {
+        return failedEntries.sum();
+    }
+
+    private static final class SpillEntry {
+        private final Object key;
+        private final Object value;
+        private final long ttl;
+        private final long idleTime;
+
+        private SpillEntry(Object key, Object value, long ttl, long idleTime) {
+            this.key=key;
+            this.value=value;
+            this.ttl=ttl;
+            this.idleTime=idleTime;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.cache.remote;
+
+import com.cache.server.CacheTaskExecutor;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author zhao tailen
+ * @description 从节点落后程度的心跳。本应用节点定期把当前时间写入主节点的心跳key，
+ * 从节点上读取到的心跳时间即为该从节点已同步到的时间，时间只由本应用节点写入和比较，不受各节点时钟差异影响
+ * @date 2026-10-17
+ */
+public class ReplicaHeartbeat {
+
+    /**
+     * 本应用节点的心跳key
+     */
+    public static final String KEY="cache:replica:heartbeat:" + UUID.randomUUID();
+
+    /**
+     * 心跳key的有效时间【秒】，应用节点停止后自动清理
+     */
+    private static final long KEY_TTL=60;
+
+    private final RBucket<String> heartbeat;
+
+    private final ScheduledFuture<?> heartbeatTask;
+
+    /**
+     * @param master       主节点的客户端【只读主节点】
+     * @param interval     心跳间隔【毫秒】
+     * @param taskExecutor 共享线程池
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public ReplicaHeartbeat(RedissonClient master, long interval, CacheTaskExecutor taskExecutor) {
+        this.heartbeat=master.getBucket(KEY, StringCodec.INSTANCE);
+        this.heartbeatTask=taskExecutor.scheduleWithFixedDelay(this::beat, interval, TimeUnit.MILLISECONDS);
+        beat();
+    }
+
+    private void beat() {
+        heartbeat.setAsync(String.valueOf(System.currentTimeMillis()), KEY_TTL, TimeUnit.SECONDS);
+    }
+
+    public void destroy() {
+        heartbeatTask.cancel(false);
+    }
+}
@@ -0,0 +1,185 @@
+package com.cache.remote;
+
+import com.cache.domain.CacheSpace;
+import com.cache.domain.ReadPolicy;
+import io.netty.buffer.ByteBuf;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.protocol.RedisCommands;
+import org.redisson.command.CommandAsyncExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static com.cache.remote.RemoteFutures.toFuture;
+
+/**
+ * @author zhao tailen
+ * @description 从节点读取远程缓存。{@code RMapCache.get}会更新空闲时间，redisson总是发送到主节点，
+ * 这里使用只读脚本按相同的规则在从节点读取【不更新空闲时间】，并在同一个脚本中比较{@link ReplicaHeartbeat}，
+ * 从节点落后超过maxStaleness时不返回结果，改读主节点
+ * @date 2026-10-17
+ */
+public class ReplicaReader {
+
+    private static final Logger log=LoggerFactory.getLogger(ReplicaReader.class);
+
+    private static final String STALE="REPLICA_STALE";
+
+    private static final String GET_SCRIPT=
+            "local beat = redis.call('get', KEYS[4]); "
+            + "if beat == false or tonumber(ARGV[1]) - tonumber(beat) > tonumber(ARGV[3]) then "
+            + "return redis.error_reply('" + STALE + "'); "
+            + "end; "
+            + "local value = redis.call('hget', KEYS[1], ARGV[2]); "
+            + "if value == false then return nil; end; "
+            + "local t, val = struct.unpack('dLc0', value); "
+            + "local expireDate = 92233720368547758; "
+            + "local expireDateScore = redis.call('zscore', KEYS[2], ARGV[2]); "
+            + "if expireDateScore ~= false then expireDate = tonumber(expireDateScore) end; "
+            + "if t ~= 0 then "
+            + "local expireIdle = redis.call('zscore', KEYS[3], ARGV[2]); "
+            + "if expireIdle ~= false then expireDate = math.min(expireDate, tonumber(expireIdle)) end; "
+            + "end; "
+            + "if expireDate <= tonumber(ARGV[1]) then return nil; end; "
+            + "return val;";
+
+    /**
+     * 与分片节点一一对应的从节点客户端
+     * */
+    private final List<RedissonClient> replicaClients;
+
+    private final Codec codec;
+
+    private final ReadPolicy readPolicy;
+
+    private final long maxStaleness;
+
+    private final LongAdder replicaReads=new LongAdder();
+
+    private final LongAdder staleReads=new LongAdder();
+
+    private final LongAdder masterFallbacks=new LongAdder();
+
+    /**
+     * @param replicaClients 与分片节点一一对应的从节点客户端【readMode为SLAVE】
+     * @param codec          远程缓存的编码
+     * @param readPolicy     读取策略
+     * @param maxStaleness   从节点允许落后的时间【毫秒】
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public ReplicaReader(List<RedissonClient> replicaClients, Codec codec, ReadPolicy readPolicy, long maxStaleness) {
+        this.replicaClients=replicaClients;
+        this.codec=codec;
+        this.readPolicy=readPolicy;
+        this.maxStaleness=maxStaleness;
+    }
+
+    /**
+     * @param cacheSpace     缓存属性
+     * @param replicaClients 与分片节点一一对应的从节点客户端，不是主从部署时为null
+     * @param codec          远程缓存的编码
+     * @return 读取策略为读主节点或不是主从部署时返回null
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public static ReplicaReader of(CacheSpace cacheSpace, List<RedissonClient> replicaClients, Codec codec) {
+        ReadPolicy readPolicy=cacheSpace.getReadPolicy();
+        if (readPolicy == null || readPolicy == ReadPolicy.MASTER) {
+            return null;
+        }
+        if (replicaClients == null) {
+            log.warn("ReplicaReader: {} reads from master, redisTopology is not masterSlave", cacheSpace.getName());
+            return null;
+        }
+        return new ReplicaReader(replicaClients, codec, readPolicy, cacheSpace.getMaxStaleness());
+    }
+
+    /**
+     * @param clientIndex 分片所在节点
+     * @param mapName     分片名称
+     * @param key         缓存key
+     * @param master      读取主节点
+     * @description 按读取策略读取，从节点落后过多时总是读取主节点
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    CompletableFuture<Object> readAsync(int clientIndex, String mapName, Object key, Supplier<CompletableFuture<Object>> master) {
+        ByteBuf encodedKey;
+        try {
+            encodedKey=codec.getMapKeyEncoder().encode(key);
+        } catch (IOException e) {
+            return master.get();
+        }
+        replicaReads.increment();
+        CommandAsyncExecutor executor=((Redisson) replicaClients.get(clientIndex)).getCommandExecutor();
+        List<Object> keys=Arrays.<Object>asList(mapName, prefixName("redisson__timeout__set", mapName),
+                prefixName("redisson__idle__set", mapName), ReplicaHeartbeat.KEY);
+        CompletableFuture<Object> future=toFuture(executor.evalReadAsync(mapName, codec, RedisCommands.EVAL_MAP_VALUE, GET_SCRIPT,
+                keys, System.currentTimeMillis(), encodedKey, maxStaleness));
+        return future.handle((value, e) -> {
+            if (e != null) {
+                if (isStale(e)) {
+                    staleReads.increment();
+                } else if (readPolicy != ReadPolicy.REPLICA_FALLBACK) {
+                    CompletableFuture<Object> failed=new CompletableFuture<>();
+                    failed.completeExceptionally(e);
+                    return failed;
+                }
+                masterFallbacks.increment();
+                return master.get();
+            }
+            if (value == null && readPolicy == ReadPolicy.REPLICA_FALLBACK) {
+                // the replica may not have received a recent write yet
+                masterFallbacks.increment();
+                return master.get();
+            }
+            return CompletableFuture.completedFuture(value);
+        }).thenCompose(f -> f);
+    }
+
+    private static boolean isStale(Throwable e) {
+        for (Throwable cause=e; cause != null; cause=cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains(STALE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @description 与redisson中{@code RMapCache}过期集合的命名规则相同
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private static String prefixName(String prefix, String name) {
+        if (name.contains("{")) {
+            return prefix + ":" + name;
+        }
+        return prefix + ":{" + name + "}";
+    }
+
+    public ReadPolicy getReadPolicy() {
+        return readPolicy;
+    }
+
+    public long getReplicaReads() {
+        return replicaReads.sum();
+    }
+
+    public long getStaleReads() {
+        return staleReads.sum();
+    }
+
+    public long getMasterFallbacks() {
+        return masterFallbacks.sum();
+    }
+}
@@ -0,0 +1,431 @@
+package com.cache.remote;
+
+import com.cache.server.CacheTaskExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * @author zhao tailen
+ * @description 远程缓存的延迟写入队列。同一个key的多次写入在队列中按操作的语义合并【putIfAbsent不覆盖排队的put，
+ * 排在remove之后的putIfAbsent合并为put】，按数量或时间通过{@code RBatch}批量写入，写入成功后才回调；
+ * 等待写入的key数量有上限，队列满时调用线程等待
+ * @date 2026-10-17
+ */
+public class WriteBehindQueue {
+
+    private final Logger log=LoggerFactory.getLogger(WriteBehindQueue.class);
+
+    private final String name;
+
+    private final RemoteMapRouter remoteMaps;
+
+    private final CacheTaskExecutor taskExecutor;
+
+    private final int batchSize;
+
+    private final long expireMillis;
+
+    private final long idleMillis;
+
+    private final long waitMillis;
+
+    private final Semaphore permits;
+
+    private final ConcurrentHashMap<Object, PendingWrite> pendingWrites=new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<Object, PendingWrite> flushingWrites=new ConcurrentHashMap<>();
+
+    private final ConcurrentLinkedQueue<Object> pendingKeys=new ConcurrentLinkedQueue<>();
+
+    private final Consumer<List<Object>> afterFlush;
+
+    private final ScheduledFuture<?> flushTask;
+
+    /**
+     * 是否暂停写入【远程缓存熔断期间】
+     * */
+    private volatile BooleanSupplier paused=() -> false;
+
+    private final Object flushLock=new Object();
+
+    /**
+     * 与每次写入在同一个节点的同一个事务中提交的写入【租约的版本号】
+     * */
+    private volatile Companion companion;
+
+    private final LongAdder writtenEntries=new LongAdder();
+
+    private final LongAdder coalescedWrites=new LongAdder();
+
+    private final LongAdder rejectedWrites=new LongAdder();
+
+    private final LongAdder overflowWrites=new LongAdder();
+
+    private final LongAdder failedEntries=new LongAdder();
+
+    /**
+     * @param name           缓存空间名称
+     * @param remoteMaps     远程缓存的分片路由
+     * @param queueSize      等待写入的key最大数量
+     * @param batchSize      每批写入的数量
+     * @param flushDelay     不满一批时的最长等待时间【毫秒】
+     * @param waitMillis     队列满时调用线程的最长等待时间【毫秒】，超时后由调用方直接写入
+     * @param expireDate     缓存有效时间【秒】
+     * @param idleDate       缓存空闲时间【秒】
+     * @param afterFlush     一批写入成功后的回调【参数为写入的key】
+     * @param taskExecutor   共享线程池
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public WriteBehindQueue(String name, RemoteMapRouter remoteMaps, int queueSize, int batchSize,
+                            long flushDelay, long waitMillis, int expireDate, int idleDate,
+                            Consumer<List<Object>> afterFlush, CacheTaskExecutor taskExecutor) {
+        this.name=name;
+        this.remoteMaps=remoteMaps;
+        this.taskExecutor=taskExecutor;
+        this.batchSize=batchSize;
+        this.waitMillis=waitMillis;
+        this.expireMillis=TimeUnit.SECONDS.toMillis(expireDate);
+        this.idleMillis=TimeUnit.SECONDS.toMillis(idleDate);
+        this.permits=new Semaphore(queueSize);
+        this.afterFlush=afterFlush;
+        this.flushTask=taskExecutor.scheduleWithFixedDelay(this::scheduleFlush, flushDelay, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean put(Object key, Object value) {
+        return enqueue(key, new PendingWrite(Operation.PUT, value, false));
+    }
+
+    public boolean putIfAbsent(Object key, Object value) {
+        return enqueue(key, new PendingWrite(Operation.PUT_IF_ABSENT, value, false));
+    }
+
+    public boolean remove(Object key) {
+        return enqueue(key, new PendingWrite(Operation.REMOVE, null, false));
+    }
+
+    /**
+     * @return 是否进入队列，返回false时调用方应直接写入远程缓存
+     * @description 登记一次写入，key已在队列中或正在写入时与之前的写入合并
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private boolean enqueue(Object key, PendingWrite write) {
+        for (; ; ) {
+            PendingWrite current=pendingWrites.get(key);
+            if (current != null) {
+                PendingWrite merged=current.then(write);
+                if (merged == null) {
+                    coalescedWrites.increment();
+                    return true;
+                }
+                if (pendingWrites.replace(key, current, merged.withPermit(current.permit))) {
+                    coalescedWrites.increment();
+                    return true;
+                }
+                continue;
+            }
+            PendingWrite flushing=flushingWrites.get(key);
+            PendingWrite next=flushing == null ? write : flushing.then(write);
+            if (next == null) {
+                // a conditional write behind a write in flight cannot change the result
+                coalescedWrites.increment();
+                return true;
+            }
+            boolean permit=acquire();
+            if (!permit) {
+                if (flushing == null) {
+                    rejectedWrites.increment();
+                    log.debug("WriteBehindQueue: {}'queue is full, write key {} directly", name, key);
+                    return false;
+                }
+                // a direct write could land before the batch in flight and be overwritten by the older value
+                overflowWrites.increment();
+            }
+            if (pendingWrites.putIfAbsent(key, next.withPermit(permit)) == null) {
+                pendingKeys.offer(key);
+                if (pendingWrites.size() >= batchSize) {
+                    scheduleFlush();
+                }
+                return true;
+            }
+            if (permit) {
+                permits.release();
+            }
+        }
+    }
+
+    private boolean acquire() {
+        try {
+            return permits.tryAcquire(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * @param key 缓存key
+     * @return 尚未写入远程缓存的写入，没有时返回null
+     * @description 读取时优先使用尚未写入的值，保证本节点读到自己的写入
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public PendingWrite pending(Object key) {
+        PendingWrite write=pendingWrites.get(key);
+        return write != null ? write : flushingWrites.get(key);
+    }
+
+    /**
+     * @description 丢弃所有尚未写入的值【clear时使用】
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void discard() {
+        Object key;
+        while ((key=pendingKeys.poll()) != null) {
+            PendingWrite write=pendingWrites.remove(key);
+            if (write != null && write.permit) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * @description 条件成立期间暂停定时写入，积压的写入在恢复后写入
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void pauseWhile(BooleanSupplier paused) {
+        this.paused=paused;
+    }
+
+    /**
+     * @description 设置后每批写入按节点在事务中执行，同时提交每个key的附带写入
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void writeAlong(Companion companion) {
+        this.companion=companion;
+    }
+
+    private void scheduleFlush() {
+        if (!pendingWrites.isEmpty() && !paused.getAsBoolean()) {
+            taskExecutor.tryExecute(name, this::flush);
+        }
+    }
+
+    /**
+     * @description 将队列中的写入分批提交到远程缓存
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            List<Object> keys=new ArrayList<>(batchSize);
+            List<PendingWrite> writes=new ArrayList<>(batchSize);
+            Object key;
+            Companion along=companion;
+            while (!pendingKeys.isEmpty()) {
+                RemoteMapRouter.Batch batch=along == null ? remoteMaps.batch() : remoteMaps.atomicBatch();
+                List<Runnable> onWritten=along == null ? Collections.emptyList() : new ArrayList<>(batchSize);
+                while (keys.size() < batchSize && (key=pendingKeys.poll()) != null) {
+                    PendingWrite write=takePending(key);
+                    if (write == null) {
+                        continue;
+                    }
+                    if (write.permit) {
+                        permits.release();
+                    }
+                    keys.add(key);
+                    writes.add(write);
+                    write.addTo(batch, key, expireMillis, idleMillis);
+                    if (along != null) {
+                        onWritten.add(along.stage(batch, key, write));
+                    }
+                }
+                if (keys.isEmpty()) {
+                    return;
+                }
+                boolean written=false;
+                try {
+                    batch.execute();
+                    written=true;
+                    writtenEntries.add(keys.size());
+                    log.debug("WriteBehindQueue: write {} entries to {}", keys.size(), name);
+                } catch (RuntimeException e) {
+                    failedEntries.add(keys.size());
+                    log.warn("WriteBehindQueue: write {} entries to {} failed", keys.size(), name, e);
+                } finally {
+                    for (int i=0; i < keys.size(); i++) {
+                        flushingWrites.remove(keys.get(i), writes.get(i));
+                    }
+                }
+                // other nodes keep their copies when the remote cache still holds the old values
+                if (written) {
+                    onWritten.forEach(Runnable::run);
+                    afterFlush.accept(keys);
+                }
+                keys=new ArrayList<>(batchSize);
+                writes=new ArrayList<>(batchSize);
+            }
+        }
+    }
+
+    /**
+     * @return 从队列中取出的写入，已被丢弃时返回null
+     * @description 写入先登记为正在写入再离开队列，读取时不会出现两者都找不到的间隙
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private PendingWrite takePending(Object key) {
+        for (; ; ) {
+            PendingWrite write=pendingWrites.get(key);
+            if (write == null) {
+                flushingWrites.remove(key);
+                return null;
+            }
+            flushingWrites.put(key, write);
+            // a concurrent merge replaced the write, take the merged one
+            if (pendingWrites.remove(key, write)) {
+                return write;
+            }
+        }
+    }
+
+    /**
+     * @description 停止定时写入并写入队列中剩余的值【应用正常关闭时不丢失写入】
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void destroy() {
+        flushTask.cancel(false);
+        flush();
+        log.info("WriteBehindQueue: {} flushed on shutdown, {} entries written", name, writtenEntries.sum());
+    }
+
+    public int getQueueSize() {
+        return pendingWrites.size();
+    }
+
+    public long getWrittenEntries() {
+        return writtenEntries.sum();
+    }
+
+    public long getCoalescedWrites() {
+        return coalescedWrites.sum();
+    }
+
+    public long getRejectedWrites() {
+        return rejectedWrites.sum();
+    }
+
+    /**
+     * @return 队列满但key正在写入，超出上限进入队列的写入次数
+     */
+    public long getOverflowWrites() {
+        return overflowWrites.sum();
+    }
+
+    public long getFailedEntries() {
+        return failedEntries.sum();
+    }
+
+    /**
+     * @author zhao tailen
+     * @description 与队列中的写入在同一个节点的同一个事务中提交的写入
+     * @date 2026-10-17
+     */
+    @FunctionalInterface
+    public interface Companion {
+        /**
+         * @return 这批写入成功后执行的回调
+         */
+        Runnable stage(RemoteMapRouter.Batch batch, Object key, PendingWrite write);
+    }
+
+    private enum Operation {
+        PUT, PUT_IF_ABSENT, REMOVE
+    }
+
+    /**
+     * @author zhao tailen
+     * @description 尚未写入远程缓存的一次写入
+     * @date 2026-10-17
+     */
+    public static final class PendingWrite {
+        private final Operation operation;
+        private final Object value;
+
+        /**
+         * 是否占用队列的名额
+         * */
+        private final boolean permit;
+
+        private PendingWrite(Operation operation, Object value, boolean permit) {
+            this.operation=operation;
+            this.value=value;
+            this.permit=permit;
+        }
+
+        private PendingWrite withPermit(boolean permit) {
+            return this.permit == permit ? this : new PendingWrite(operation, value, permit);
+        }
+
+        /**
+         * @return 先执行本次写入再执行next的合并结果，next不改变结果时返回null
+         */
+        private PendingWrite then(PendingWrite next) {
+            if (next.operation != Operation.PUT_IF_ABSENT) {
+                return next;
+            }
+            if (operation == Operation.REMOVE) {
+                // the key is absent once the remove is written, the conditional write always succeeds
+                return new PendingWrite(Operation.PUT, next.value, false);
+            }
+            // a queued put makes the key present, a queued putIfAbsent alone decides the result
+            return null;
+        }
+
+        public boolean isRemove() {
+            return operation == Operation.REMOVE;
+        }
+
+        /**
+         * @return 是否为条件写入【putIfAbsent】，写入后不一定生效
+         */
+        public boolean isConditional() {
+            return operation == Operation.PUT_IF_ABSENT;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        private void addTo(RemoteMapRouter.Batch batch, Object key, long expireMillis, long idleMillis) {
+            switch (operation) {
+                case PUT:
+                    batch.map(key).fastPutAsync(key, value, expireMillis, TimeUnit.MILLISECONDS, idleMillis, TimeUnit.MILLISECONDS);
+                    break;
+                case PUT_IF_ABSENT:
+                    batch.map(key).putIfAbsentAsync(key, value, expireMillis, TimeUnit.MILLISECONDS, idleMillis, TimeUnit.MILLISECONDS);
+                    break;
+                default:
+                    batch.fastRemove(key);
+                    break;
+            }
+        }
+    }
+}
@@ -1,15 +1,23 @@
 package com.cache.server;
 
+import com.cache.codec.CacheCodecs;
 import com.cache.config.CacheAttributeYmlConfig;
+import com.cache.config.RedissonConfig;
 import com.cache.domain.CacheSpace;
 import com.cache.remote.RemoteCacha;
 import com.cache.doubleLevel.DoubleLevel;
 import com.cache.domain.CacheChangeStrategy;
 import com.cache.domain.CachePriority;
+import com.cache.domain.OversizePolicy;
+import com.cache.domain.ReadPolicy;
+import com.cache.remote.ReplicaHeartbeat;
 import com.cache.local.LocalCacha;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
+import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import org.redisson.config.ReadMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,8 +25,12 @@ import org.springframework.cache.Cache;
 import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
+import java.io.IOException;
+import java.net.URL;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author zhao tailen
@@ -40,7 +52,45 @@ public class CacheAttributeService {
     private static final int IDLE=1800;
     private static final float TWOLEVELS_RATIO=0.5f;
     private static final long ACCESS_THRESHOLD=10000;
+    private static final int INVALIDATION_BATCH_SIZE=100;
+    private static final int INVALIDATION_DELAY=10;
+    private static final int LOAD_LOCK_WAIT=3000;
+    private static final int LOAD_LOCK_LEASE=30000;
+    private static final int SPILL_QUEUE_SIZE=10000;
+    private static final int SPILL_BATCH_SIZE=100;
+    private static final int SPILL_FLUSH_INTERVAL=100;
+    private static final int WRITE_BEHIND_QUEUE_SIZE=10000;
+    private static final int WRITE_BEHIND_BATCH_SIZE=100;
+    private static final int WRITE_BEHIND_DELAY=100;
+    private static final int WRITE_BEHIND_WAIT=1000;
+    private static final float NEGATIVE_MAX_RATIO=0.1f;
+    private static final float KEY_FILTER_FPP=0.01f;
+    private static final int MAX_STALENESS=1000;
+    private static final int REMOTE_BUDGET=200;
+    private static final int BREAKER_WINDOW=100;
+    private static final float BREAKER_ERROR_RATE=0.5f;
+    private static final float BREAKER_LATENCY_PERCENTILE=0.99f;
+    private static final int BREAKER_OPEN_TIME=5000;
+    private static final int REPLICA_HEARTBEAT_INTERVAL=100;
+    private static final int SNAPSHOT_INTERVAL=60;
+    private static final int WARM_UP_TIME=10000;
+    private static final int HOTNESS_INTERVAL=60;
+    private static final int ADAPT_INTERVAL=60;
+    private static final float ADAPT_RANGE=4f;
+    private static final int HOT_KEY_TOP_K=0;
+    private static final int HOT_KEY_WINDOW=10;
+    private static final int HOT_KEY_PIN_TTL=1000;
+    private static final int EXECUTOR_QUEUE_SIZE=1000;
+    private static final int EXECUTOR_SPACE_LIMIT=100;
+    private static final long EXECUTOR_SHUTDOWN_TIMEOUT=10000;
     private HashSet<String> repeatCacheNameList=new HashSet<>();
+    private List<DoubleLevel> doubleLevelList=new ArrayList<>();
+    private List<RemoteCacha> remoteCachaList=new ArrayList<>();
+    private List<LocalCacha> localCachaList=new ArrayList<>();
+    private CacheTaskExecutor cacheTaskExecutor;
+    private List<RedissonClient> shardClients;
+    private List<RedissonClient> replicaClients;
+    private List<ReplicaHeartbeat> replicaHeartbeats=new ArrayList<>();
 
 
     public List<CacheSpace> handleCacheAttribute() {
@@ -55,7 +105,7 @@ public class CacheAttributeService {
             if (StringUtils.isBlank(cacheSpaceAttributeMap.get("name"))) {
                 continue;
             }
-            CacheSpace cacheSpaca=createCacheSpaca(cacheSpaceAttributeMap);
+            CacheSpace cacheSpaca=createCacheSpaca(cacheSpaceAttributeMap, cacheAttributeYmlConfig.getSnapshotDir());
             cacheSpaca.setAllowNullValues(false);
             cacheSpaceList.add(cacheSpaca);
         }
@@ -70,6 +120,8 @@ public class CacheAttributeService {
         }
 
         List<Cache> cacheList=new ArrayList<Cache>();
+        CacheTaskExecutor taskExecutor=getCacheTaskExecutor();
+        List<RedissonClient> shardClients=getShardClients();
 
         for (CacheSpace cacheSpace : cacheSpaceList) {
             log.debug("cache is {}", cacheSpace.toString());
@@ -86,30 +138,181 @@ public class CacheAttributeService {
                 continue;
             }
 
+            List<RedissonClient> replicaClients=cacheSpace.getReadPolicy() == null || ReadPolicy.MASTER.equals(cacheSpace.getReadPolicy())
+                    ? null : getReplicaClients();
+
             if (CachePriority.ONLY_LOCAL.equals(cachePriority)) {
-                LocalCacha localCachaComponent=new LocalCacha(cacheSpace);
+                LocalCacha localCachaComponent=new LocalCacha(cacheSpace, CacheCodecs.resolve(cacheSpace, redissonClient), taskExecutor);
                 log.info("load local cache <{}> success", cacheSpace.getName());
                 cacheList.add(localCachaComponent);
+                localCachaList.add(localCachaComponent);
                 continue;
             }
 
             if (CachePriority.ONLY_REMOTE.equals(cachePriority)) {
-                RemoteCacha remoteCachaComponent=new RemoteCacha(cacheSpace, redissonClient);
+                RemoteCacha remoteCachaComponent=new RemoteCacha(cacheSpace, redissonClient, shardClients, replicaClients, taskExecutor);
                 log.info("load remote cache < {} > success", cacheSpace.getName());
                 cacheList.add(remoteCachaComponent);
+                remoteCachaList.add(remoteCachaComponent);
                 continue;
             }
 
-            DoubleLevel twoLevelsCacheComponent=new DoubleLevel(cacheSpace, redissonClient);
+            DoubleLevel twoLevelsCacheComponent=new DoubleLevel(cacheSpace, redissonClient, shardClients, replicaClients, taskExecutor);
             log.info("load doubleLevel cache < {} > success", cacheSpace.getName());
             cacheList.add(twoLevelsCacheComponent);
+            doubleLevelList.add(twoLevelsCacheComponent);
         }
+        warmUp(doubleLevelList);
         SimpleCacheManager cacheManager=new SimpleCacheManager();
         cacheManager.setCaches(cacheList);
         return cacheManager;
     }
 
-    private CacheSpace createCacheSpaca(Map<String, String> cacheSpaceAttributeMap) {
+    /**
+     * @description 并行预热所有开启预热的两级缓存，默认全部结束【或达到各自的时间上限】后才返回，应用在预热完成后才就绪；
+     * warmUpBlocking为false时不等待，预热在后台继续，期间未命中的读取照常访问远程缓存
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private void warmUp(List<DoubleLevel> doubleLevels) {
+        List<CompletableFuture<Void>> warmUps=new ArrayList<>();
+        for (DoubleLevel doubleLevel : doubleLevels) {
+            CompletableFuture<Void> warmUp=doubleLevel.warmUp();
+            if (warmUp != null) {
+                warmUps.add(warmUp);
+            }
+        }
+        if (warmUps.isEmpty()) {
+            return;
+        }
+        long start=System.currentTimeMillis();
+        CompletableFuture<Void> all=CompletableFuture.allOf(warmUps.toArray(new CompletableFuture[0]));
+        if (Boolean.FALSE.equals(cacheAttributeYmlConfig.getWarmUpBlocking())) {
+            all.thenRun(() -> log.info("warm up {} caches in {} ms", warmUps.size(), System.currentTimeMillis() - start));
+            log.info("warm up {} caches in the background", warmUps.size());
+            return;
+        }
+        all.join();
+        log.info("warm up {} caches in {} ms", warmUps.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * @description 应用关闭时释放缓存空间持有的资源
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    @PreDestroy
+    public void destroy() {
+        for (DoubleLevel doubleLevel : doubleLevelList) {
+            doubleLevel.destroy();
+        }
+        for (RemoteCacha remoteCacha : remoteCachaList) {
+            remoteCacha.destroy();
+        }
+        for (LocalCacha localCacha : localCachaList) {
+            localCacha.destroy();
+        }
+        for (ReplicaHeartbeat replicaHeartbeat : replicaHeartbeats) {
+            replicaHeartbeat.destroy();
+        }
+        if (cacheTaskExecutor != null) {
+            cacheTaskExecutor.shutdown(EXECUTOR_SHUTDOWN_TIMEOUT);
+        }
+        if (replicaClients != null) {
+            for (RedissonClient replicaClient : replicaClients) {
+                replicaClient.shutdown();
+            }
+        }
+        if (shardClients != null) {
+            // the first client is the application's own and is shut down by spring
+            for (RedissonClient shardClient : shardClients.subList(1, shardClients.size())) {
+                shardClient.shutdown();
+            }
+        }
+    }
+
+    /**
+     * @description 远程缓存分片使用的redis节点，第一个为默认的redissonClient，其余按remoteNodes的顺序创建
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public synchronized List<RedissonClient> getShardClients() {
+        if (shardClients == null) {
+            List<RedissonClient> clients=new ArrayList<>();
+            clients.add(redissonClient);
+            List<String> remoteNodes=cacheAttributeYmlConfig.getRemoteNodes();
+            if (remoteNodes != null) {
+                for (String remoteNode : remoteNodes) {
+                    URL url=getClass().getClassLoader().getResource(remoteNode);
+                    if (url == null) {
+                        throw new IllegalStateException("redisson config " + remoteNode + " is not found in classpath");
+                    }
+                    try {
+                        Config config=Config.fromYAML(url);
+                        clients.add(Redisson.create(isMasterSlave() ? RedissonConfig.withReadMode(config, ReadMode.MASTER) : config));
+                    } catch (IOException e) {
+                        throw new IllegalStateException("redisson config " + remoteNode + " can not be read", e);
+                    }
+                    log.info("load remote node < {} > success", remoteNode);
+                }
+            }
+            shardClients=Collections.unmodifiableList(clients);
+        }
+        return shardClients;
+    }
+
+    /**
+     * @description 与分片节点一一对应的从节点客户端及心跳，只在主从部署且有缓存空间读从节点时创建
+     * @return 不是主从部署时返回null
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public synchronized List<RedissonClient> getReplicaClients() {
+        if (!isMasterSlave()) {
+            return null;
+        }
+        if (replicaClients == null) {
+            int interval=cacheAttributeYmlConfig.getReplicaHeartbeatInterval() == null
+                    ? REPLICA_HEARTBEAT_INTERVAL : cacheAttributeYmlConfig.getReplicaHeartbeatInterval();
+            List<RedissonClient> clients=new ArrayList<>();
+            for (RedissonClient shardClient : getShardClients()) {
+                clients.add(Redisson.create(RedissonConfig.withReadMode(shardClient.getConfig(), ReadMode.SLAVE)));
+                replicaHeartbeats.add(new ReplicaHeartbeat(shardClient, interval, getCacheTaskExecutor()));
+            }
+            replicaClients=Collections.unmodifiableList(clients);
+            log.info("load {} replica clients success", clients.size());
+        }
+        return replicaClients;
+    }
+
+    private boolean isMasterSlave() {
+        return RedissonConfig.MASTER_SLAVE.equals(cacheAttributeYmlConfig.getRedisTopology());
+    }
+
+    /**
+     * @description 所有缓存空间共享的后台线程池
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public synchronized CacheTaskExecutor getCacheTaskExecutor() {
+        if (cacheTaskExecutor == null) {
+            int parallelism=cacheAttributeYmlConfig.getExecutorParallelism() == null
+                    ? Runtime.getRuntime().availableProcessors() : cacheAttributeYmlConfig.getExecutorParallelism();
+            int queueSize=cacheAttributeYmlConfig.getExecutorQueueSize() == null
+                    ? EXECUTOR_QUEUE_SIZE : cacheAttributeYmlConfig.getExecutorQueueSize();
+            int spaceLimit=cacheAttributeYmlConfig.getExecutorSpaceLimit() == null
+                    ? EXECUTOR_SPACE_LIMIT : cacheAttributeYmlConfig.getExecutorSpaceLimit();
+            cacheTaskExecutor=new CacheTaskExecutor(parallelism, queueSize, spaceLimit);
+        }
+        return cacheTaskExecutor;
+    }
+
+    /**
+     * @description 按yml中一个缓存空间的配置创建缓存空间，未配置的属性使用默认值【基准测试也通过这里创建缓存空间】
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public static CacheSpace createCacheSpaca(Map<String, String> cacheSpaceAttributeMap, String snapshotDir) {
         CacheSpace cacheSpace=new CacheSpace();
         if (!Objects.isNull(cacheSpaceAttributeMap.get("name"))) {
             cacheSpace.setName(cacheSpaceAttributeMap.get("name"));
@@ -137,10 +340,132 @@ public class CacheAttributeService {
 
         cacheSpace.setAccessThreshold(NumberUtils.toLong(cacheSpaceAttributeMap.get("accessThreshold"), ACCESS_THRESHOLD));
 
+        cacheSpace.setInvalidationBus(Boolean.valueOf(cacheSpaceAttributeMap.get("invalidationBus")));
+
+        cacheSpace.setInvalidationBatchSize(toPositiveInt(cacheSpaceAttributeMap, "invalidationBatchSize", INVALIDATION_BATCH_SIZE));
+
+        cacheSpace.setInvalidationDelay(toPositiveInt(cacheSpaceAttributeMap, "invalidationDelay", INVALIDATION_DELAY));
+
+        cacheSpace.setLoadLock(Boolean.valueOf(cacheSpaceAttributeMap.get("loadLock")));
+
+        cacheSpace.setLoadLockWait(NumberUtils.toInt(cacheSpaceAttributeMap.get("loadLockWait"), LOAD_LOCK_WAIT));
+
+        cacheSpace.setLoadLockLease(NumberUtils.toInt(cacheSpaceAttributeMap.get("loadLockLease"), LOAD_LOCK_LEASE));
+
+        cacheSpace.setSpillQueueSize(NumberUtils.toInt(cacheSpaceAttributeMap.get("spillQueueSize"), SPILL_QUEUE_SIZE));
+
+        cacheSpace.setSpillBatchSize(NumberUtils.toInt(cacheSpaceAttributeMap.get("spillBatchSize"), SPILL_BATCH_SIZE));
+
+        cacheSpace.setSpillFlushInterval(NumberUtils.toInt(cacheSpaceAttributeMap.get("spillFlushInterval"), SPILL_FLUSH_INTERVAL));
+
+        cacheSpace.setWriteBehind(Boolean.valueOf(cacheSpaceAttributeMap.get("writeBehind")));
+
+        cacheSpace.setWriteBehindQueueSize(NumberUtils.toInt(cacheSpaceAttributeMap.get("writeBehindQueueSize"), WRITE_BEHIND_QUEUE_SIZE));
+
+        cacheSpace.setWriteBehindBatchSize(NumberUtils.toInt(cacheSpaceAttributeMap.get("writeBehindBatchSize"), WRITE_BEHIND_BATCH_SIZE));
+
+        cacheSpace.setWriteBehindDelay(NumberUtils.toInt(cacheSpaceAttributeMap.get("writeBehindDelay"), WRITE_BEHIND_DELAY));
+
+        cacheSpace.setWriteBehindWait(NumberUtils.toInt(cacheSpaceAttributeMap.get("writeBehindWait"), WRITE_BEHIND_WAIT));
+
+        cacheSpace.setLeaseTime(NumberUtils.toInt(cacheSpaceAttributeMap.get("leaseTime"), 0));
+
+        cacheSpace.setCodec(cacheSpaceAttributeMap.get("codec"));
+
+        cacheSpace.setCodecClasses(cacheSpaceAttributeMap.get("codecClasses"));
+
+        cacheSpace.setRefreshAheadRatio(NumberUtils.toFloat(cacheSpaceAttributeMap.get("refreshAheadRatio"), 0f));
+
+        cacheSpace.setNegativeTtl(NumberUtils.toInt(cacheSpaceAttributeMap.get("negativeTtl"), 0));
+
+        cacheSpace.setNegativeMaxRatio(NumberUtils.toFloat(cacheSpaceAttributeMap.get("negativeMaxRatio"), NEGATIVE_MAX_RATIO));
+
+        cacheSpace.setKeyFilter(Boolean.valueOf(cacheSpaceAttributeMap.get("keyFilter")));
+
+        cacheSpace.setKeyFilterFpp(NumberUtils.toFloat(cacheSpaceAttributeMap.get("keyFilterFpp"), KEY_FILTER_FPP));
+
+        cacheSpace.setKeyFilterRebuildInterval(NumberUtils.toInt(cacheSpaceAttributeMap.get("keyFilterRebuildInterval"), 0));
+
+        cacheSpace.setRemoteShards(NumberUtils.toInt(cacheSpaceAttributeMap.get("remoteShards"), 1));
+
+        if (!Objects.isNull(cacheSpaceAttributeMap.get("readPolicy"))) {
+            cacheSpace.setReadPolicy(handleReadPolicy(cacheSpaceAttributeMap.get("readPolicy")));
+        }
+
+        cacheSpace.setMaxStaleness(NumberUtils.toInt(cacheSpaceAttributeMap.get("maxStaleness"), MAX_STALENESS));
+
+        cacheSpace.setCircuitBreaker(Boolean.valueOf(cacheSpaceAttributeMap.get("circuitBreaker")));
+
+        cacheSpace.setRemoteBudget(NumberUtils.toInt(cacheSpaceAttributeMap.get("remoteBudget"), REMOTE_BUDGET));
+
+        cacheSpace.setBreakerWindow(NumberUtils.toInt(cacheSpaceAttributeMap.get("breakerWindow"), BREAKER_WINDOW));
+
+        cacheSpace.setBreakerErrorRate(NumberUtils.toFloat(cacheSpaceAttributeMap.get("breakerErrorRate"), BREAKER_ERROR_RATE));
+
+        cacheSpace.setBreakerLatencyPercentile(NumberUtils.toFloat(cacheSpaceAttributeMap.get("breakerLatencyPercentile"), BREAKER_LATENCY_PERCENTILE));
+
+        cacheSpace.setBreakerLatencyThreshold(NumberUtils.toInt(cacheSpaceAttributeMap.get("breakerLatencyThreshold"), 0));
+
+        cacheSpace.setBreakerOpenTime(NumberUtils.toInt(cacheSpaceAttributeMap.get("breakerOpenTime"), BREAKER_OPEN_TIME));
+
+        cacheSpace.setBreakerQueueWrites(Boolean.valueOf(cacheSpaceAttributeMap.get("breakerQueueWrites")));
+
+        cacheSpace.setOffHeapSize(NumberUtils.toInt(cacheSpaceAttributeMap.get("offHeapSize"), 0));
+
+        cacheSpace.setSnapshot(Boolean.valueOf(cacheSpaceAttributeMap.get("snapshot")));
+
+        cacheSpace.setSnapshotInterval(NumberUtils.toInt(cacheSpaceAttributeMap.get("snapshotInterval"), SNAPSHOT_INTERVAL));
+
+        cacheSpace.setSnapshotDir(snapshotDir);
+
+        cacheSpace.setWarmUp(Boolean.valueOf(cacheSpaceAttributeMap.get("warmUp")));
+
+        cacheSpace.setWarmUpSize(NumberUtils.toInt(cacheSpaceAttributeMap.get("warmUpSize"), 0));
+
+        cacheSpace.setWarmUpTime(NumberUtils.toInt(cacheSpaceAttributeMap.get("warmUpTime"), WARM_UP_TIME));
+
+        cacheSpace.setHotnessInterval(NumberUtils.toInt(cacheSpaceAttributeMap.get("hotnessInterval"), HOTNESS_INTERVAL));
+
+        cacheSpace.setLocalMaxMemory(NumberUtils.toInt(cacheSpaceAttributeMap.get("localMaxMemory"), 0));
+
+        cacheSpace.setMaxValueBytes(NumberUtils.toInt(cacheSpaceAttributeMap.get("maxValueBytes"), 0));
+
+        cacheSpace.setOversizePolicy(handleOversizePolicy(cacheSpaceAttributeMap.get("oversizePolicy")));
+
+        cacheSpace.setAdaptiveSplit(Boolean.valueOf(cacheSpaceAttributeMap.get("adaptiveSplit")));
+
+        cacheSpace.setAdaptInterval(NumberUtils.toInt(cacheSpaceAttributeMap.get("adaptInterval"), ADAPT_INTERVAL));
+
+        cacheSpace.setAdaptMinRatio(NumberUtils.toFloat(cacheSpaceAttributeMap.get("adaptMinRatio"), cacheSpace.getTwoLevelsRatio() / ADAPT_RANGE));
+
+        cacheSpace.setAdaptMaxRatio(NumberUtils.toFloat(cacheSpaceAttributeMap.get("adaptMaxRatio"), cacheSpace.getTwoLevelsRatio() * ADAPT_RANGE));
+
+        cacheSpace.setHotKeyTopK(NumberUtils.toInt(cacheSpaceAttributeMap.get("hotKeyTopK"), HOT_KEY_TOP_K));
+
+        cacheSpace.setHotKeyWindow(NumberUtils.toInt(cacheSpaceAttributeMap.get("hotKeyWindow"), HOT_KEY_WINDOW));
+
+        cacheSpace.setHotKeyPinRate(NumberUtils.toInt(cacheSpaceAttributeMap.get("hotKeyPinRate"), 0));
+
+        cacheSpace.setHotKeyPinTtl(NumberUtils.toInt(cacheSpaceAttributeMap.get("hotKeyPinTtl"), HOT_KEY_PIN_TTL));
+
         return cacheSpace;
     }
 
-    private CachePriority handleCachePriority(String cachePriortyStr) {
+    /**
+     * @description 解析必须为正数的属性，配置为0或负数时启动失败，不再等到定时任务或发布时才出错
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    private static int toPositiveInt(Map<String, String> cacheSpaceAttributeMap, String attribute, int defaultValue) {
+        int value=NumberUtils.toInt(cacheSpaceAttributeMap.get(attribute), defaultValue);
+        if (value <= 0) {
+            throw new IllegalArgumentException("cache space " + cacheSpaceAttributeMap.get("name") + ": "
+                    + attribute + " must be positive, but was " + value);
+        }
+        return value;
+    }
+
+    private static CachePriority handleCachePriority(String cachePriortyStr) {
         if (cachePriortyStr.equals("remote")) {
             return CachePriority.ONLY_REMOTE;
         }
@@ -164,7 +489,7 @@ public class CacheAttributeService {
         return CachePriority.ONLY_LOCAL;
     }
 
-    private CacheChangeStrategy handleCacheChangeStrategy(String cachePriortyStr) {
+    private static CacheChangeStrategy handleCacheChangeStrategy(String cachePriortyStr) {
         if (cachePriortyStr.equals("accessThreshold")) {
             return CacheChangeStrategy.ACCESS_THRESHOLD;
         }
@@ -176,4 +501,24 @@ public class CacheAttributeService {
         return CacheChangeStrategy.OVERFLOW_MAX_SIZE;
     }
 
+    private static ReadPolicy handleReadPolicy(String readPolicyStr) {
+        if (readPolicyStr.equals("replica")) {
+            return ReadPolicy.REPLICA;
+        }
+
+        if (readPolicyStr.equals("replicaFallback")) {
+            return ReadPolicy.REPLICA_FALLBACK;
+        }
+
+        return ReadPolicy.MASTER;
+    }
+
+    private static OversizePolicy handleOversizePolicy(String oversizePolicyStr) {
+        if ("remoteOnly".equals(oversizePolicyStr)) {
+            return OversizePolicy.REMOTE_ONLY;
+        }
+
+        return OversizePolicy.SKIP;
+    }
+
 }
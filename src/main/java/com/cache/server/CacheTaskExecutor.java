@@ -0,0 +1,196 @@
+package com.cache.server;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author zhao tailen
+ * @description 所有缓存空间共享的后台线程池。
+ * 关键任务【加载等】在线程池饱和时由调用线程执行；非关键任务【刷新、溢出等】在饱和或超过单个缓存空间的配额时直接丢弃
+ * @date 2026-10-17
+ */
+public class CacheTaskExecutor {
+
+    private final Logger log=LoggerFactory.getLogger(CacheTaskExecutor.class);
+
+    private final ThreadPoolExecutor executor;
+
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    private final int spaceLimit;
+
+    private final ConcurrentHashMap<String, AtomicInteger> spaceTasks=new ConcurrentHashMap<>();
+
+    private final LongAdder droppedTasks=new LongAdder();
+
+    private final LongAdder callerRunsTasks=new LongAdder();
+
+    /**
+     * @param parallelism 线程数
+     * @param queueSize   等待队列长度
+     * @param spaceLimit  单个缓存空间最多同时排队或执行的非关键任务数
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public CacheTaskExecutor(int parallelism, int queueSize, int spaceLimit) {
+        this.spaceLimit=spaceLimit;
+        this.executor=new ThreadPoolExecutor(
+                parallelism, parallelism, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueSize), threadFactory("cache-task-"), new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.scheduler=new ScheduledThreadPoolExecutor(1, threadFactory("cache-scheduler-"));
+        this.scheduler.setRemoveOnCancelPolicy(true);
+        log.info("CacheTaskExecutor: parallelism {} queueSize {} spaceLimit {}", parallelism, queueSize, spaceLimit);
+    }
+
+    /**
+     * @description 提交关键任务，线程池饱和时由调用线程执行
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void execute(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            if (executor.isShutdown()) {
+                throw e;
+            }
+            callerRunsTasks.increment();
+            task.run();
+        }
+    }
+
+    /**
+     * @return 任务的结果，线程池饱和时以{@code RejectedExecutionException}完成
+     * @description 提交会阻塞的异步任务【加载等】，饱和时不在调用线程执行：
+     * 调用线程可能是redisson的IO线程，在其中等待远程结果会死锁
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> future=new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(task.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            droppedTasks.increment();
+            log.debug("CacheTaskExecutor: queue is full, reject async task");
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * @return 任务是否被接受
+     * @description 提交非关键任务，线程池饱和或缓存空间超过配额时丢弃
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public boolean tryExecute(String space, Runnable task) {
+        AtomicInteger tasks=spaceTasks.computeIfAbsent(space, s -> new AtomicInteger());
+        if (tasks.incrementAndGet() > spaceLimit) {
+            tasks.decrementAndGet();
+            droppedTasks.increment();
+            log.debug("CacheTaskExecutor: {} exceeds space limit {}, drop task", space, spaceLimit);
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    tasks.decrementAndGet();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            tasks.decrementAndGet();
+            droppedTasks.increment();
+            log.debug("CacheTaskExecutor: queue is full, drop {}'task", space);
+            return false;
+        }
+    }
+
+    /**
+     * @description 延迟执行一次的轻量任务【如远程调用的超时】
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        return scheduler.schedule(task, delay, unit);
+    }
+
+    /**
+     * @description 周期执行的轻量任务【耗时的工作应通过{@link #tryExecute}提交】
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, long delay, TimeUnit unit) {
+        return scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                log.error("CacheTaskExecutor: scheduled task failed", e);
+            }
+        }, delay, delay, unit);
+    }
+
+    /**
+     * @param timeout 等待正在执行的任务完成的最长时间【毫秒】
+     * @description 停止接受任务并等待已提交的任务完成
+     * @author zhao tailen
+     * @date 2026-10-17
+     */
+    public void shutdown(long timeout) {
+        scheduler.shutdown();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeout, TimeUnit.MILLISECONDS)) {
+                log.warn("CacheTaskExecutor: {} tasks not finished in {} ms", executor.getQueue().size(), timeout);
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        scheduler.shutdownNow();
+    }
+
+    public Executor getExecutor() {
+        return this::execute;
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public long getDroppedTasks() {
+        return droppedTasks.sum();
+    }
+
+    public long getCallerRunsTasks() {
+        return callerRunsTasks.sum();
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger index=new AtomicInteger();
+        return r -> {
+            Thread thread=new Thread(r, prefix + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
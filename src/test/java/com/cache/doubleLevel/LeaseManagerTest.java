@@ -0,0 +1,123 @@
+package com.cache.doubleLevel;
+
+import com.cache.local.LocalValue;
+import com.cache.server.CacheTaskExecutor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author zhao tailen
+ * @description 本地租约的持有、续约及撤销【按给定的远程版本号校验，不需要远程缓存】
+ * @date 2026-10-17
+ */
+public class LeaseManagerTest {
+
+    private static final Set<Object> KEYS=Collections.singleton("k");
+
+    private CacheTaskExecutor taskExecutor;
+
+    private Cache<Object, LocalValue> localCache;
+
+    private LeaseManager leaseManager;
+
+    @Before
+    public void setUp() {
+        taskExecutor=new CacheTaskExecutor(1, 16, 16);
+        localCache=Caffeine.newBuilder().build();
+        leaseManager=newLeaseManager(true);
+    }
+
+    @After
+    public void tearDown() {
+        leaseManager.destroy();
+        taskExecutor.shutdown(100);
+    }
+
+    private LeaseManager newLeaseManager(boolean grantOnWrite) {
+        // the revalidate task runs every 30 seconds and never fires during a test
+        return new LeaseManager("test", null, localCache, 100, 60, 3600, 3600, grantOnWrite, taskExecutor);
+    }
+
+    private static Map<Object, Object> versions(Object version) {
+        return Collections.singletonMap("k", version);
+    }
+
+    @Test
+    public void grantedLeaseIsValid() {
+        assertFalse(leaseManager.isValid("k"));
+        leaseManager.grant("k", "v1");
+
+        assertTrue(leaseManager.isValid("k"));
+    }
+
+    @Test
+    public void writerHoldsNoLeaseWithoutGrantOnWrite() {
+        LeaseManager remoteFirst=newLeaseManager(false);
+        try {
+            remoteFirst.grant("k", "v1");
+            assertFalse(remoteFirst.isValid("k"));
+        } finally {
+            remoteFirst.destroy();
+        }
+    }
+
+    @Test
+    public void unchangedVersionRenewsLease() {
+        localCache.put("k", new LocalValue("a"));
+        leaseManager.grant("k", "v1");
+
+        leaseManager.renew(KEYS, versions("v1"));
+
+        assertTrue(leaseManager.isValid("k"));
+        assertNotNull(localCache.getIfPresent("k"));
+        assertEquals(1, leaseManager.getRenewedLeases());
+        assertEquals(0, leaseManager.getRevokedLeases());
+    }
+
+    @Test
+    public void changedVersionRevokesLeaseAndLocalValue() {
+        localCache.put("k", new LocalValue("a"));
+        leaseManager.grant("k", "v1");
+
+        leaseManager.renew(KEYS, versions("v2"));
+
+        assertFalse(leaseManager.isValid("k"));
+        assertNull(localCache.getIfPresent("k"));
+        assertEquals(1, leaseManager.getRevokedLeases());
+    }
+
+    @Test
+    public void missingVersionRevokesLease() {
+        localCache.put("k", new LocalValue("a"));
+        leaseManager.grant("k", "v1");
+
+        leaseManager.renew(KEYS, Collections.emptyMap());
+
+        assertFalse(leaseManager.isValid("k"));
+        assertNull(localCache.getIfPresent("k"));
+    }
+
+    @Test
+    public void invalidatedLeaseIsNotRenewed() {
+        leaseManager.grant("k", "v1");
+        leaseManager.invalidate("k");
+
+        leaseManager.renew(KEYS, versions("v1"));
+
+        assertFalse(leaseManager.isValid("k"));
+        assertEquals(0, leaseManager.getRenewedLeases());
+    }
+}
@@ -0,0 +1,160 @@
+package com.cache.local;
+
+import com.cache.server.CacheTaskExecutor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.cache.support.NullValue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author zhao tailen
+ * @description 本地缓存快照的写入及重启后的按需恢复【快照文件写在临时目录中】
+ * @date 2026-10-17
+ */
+public class LocalSnapshotTest {
+
+    private static final long HOUR=3600_000;
+
+    private CacheTaskExecutor taskExecutor;
+
+    private Path dir;
+
+    private Cache<Object, LocalValue> localCache;
+
+    @Before
+    public void setUp() throws IOException {
+        taskExecutor=new CacheTaskExecutor(1, 16, 16);
+        dir=Files.createTempDirectory("snapshot");
+        localCache=Caffeine.newBuilder().build();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        taskExecutor.shutdown(100);
+        try (Stream<Path> files=Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /**
+     * @description 创建快照并等待读取完成【单线程的线程池按提交顺序执行】
+     */
+    private LocalSnapshot open(Cache<Object, LocalValue> cache) {
+        LocalSnapshot snapshot;
+        try {
+            // the interval is never reached during a test, snapshots are written by destroy
+            snapshot=new LocalSnapshot("test", dir.toString(), 3600, 3600, StringCodec.INSTANCE, taskExecutor);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        taskExecutor.submit(() -> null).join();
+        snapshot.setLocalCache(cache);
+        return snapshot;
+    }
+
+    private void writeSnapshot() {
+        open(localCache).destroy();
+    }
+
+    @Test
+    public void restoredValueKeepsWriteTimeAndExpiry() {
+        long now=System.currentTimeMillis();
+        localCache.put("a", new LocalValue("1", now - 1000, now + HOUR));
+        localCache.put("b", new LocalValue("2"));
+        writeSnapshot();
+
+        LocalSnapshot snapshot=open(Caffeine.newBuilder().build());
+        LocalValue restored=snapshot.restore("a");
+
+        assertEquals(2, snapshot.getLoadedEntries());
+        assertNotNull(restored);
+        assertEquals("1", restored.get());
+        assertEquals(now - 1000, restored.getWriteTime());
+        assertEquals(now + HOUR, restored.getExpireTime());
+        assertEquals("2", snapshot.restore("b").get());
+        assertEquals(2, snapshot.getRestoredEntries());
+    }
+
+    @Test
+    public void entryIsRestoredOnlyOnce() {
+        localCache.put("a", new LocalValue("1"));
+        writeSnapshot();
+
+        LocalSnapshot snapshot=open(Caffeine.newBuilder().build());
+
+        assertNotNull(snapshot.restore("a"));
+        assertNull(snapshot.restore("a"));
+        assertEquals(0, snapshot.getPendingSize());
+    }
+
+    @Test
+    public void expiredEntryIsSkipped() throws InterruptedException {
+        long now=System.currentTimeMillis();
+        localCache.put("a", new LocalValue("1", now, now + 50));
+        writeSnapshot();
+        Thread.sleep(100);
+
+        LocalSnapshot snapshot=open(Caffeine.newBuilder().build());
+
+        assertEquals(0, snapshot.getLoadedEntries());
+        assertNull(snapshot.restore("a"));
+    }
+
+    @Test
+    public void nullValueIsNotWritten() {
+        localCache.put("a", new LocalValue(NullValue.INSTANCE));
+        writeSnapshot();
+
+        assertEquals(0, open(Caffeine.newBuilder().build()).getLoadedEntries());
+    }
+
+    @Test
+    public void invalidatedEntryIsNotRestored() {
+        localCache.put("a", new LocalValue("1"));
+        writeSnapshot();
+
+        LocalSnapshot snapshot=open(Caffeine.newBuilder().build());
+        snapshot.invalidate("a");
+
+        assertNull(snapshot.restore("a"));
+    }
+
+    @Test
+    public void pendingEntriesAreCarriedIntoNextSnapshot() {
+        localCache.put("a", new LocalValue("1"));
+        writeSnapshot();
+
+        // a restart that never reads "a" still keeps it for the next one
+        Cache<Object, LocalValue> restarted=Caffeine.newBuilder().build();
+        restarted.put("b", new LocalValue("2"));
+        open(restarted).destroy();
+
+        LocalSnapshot snapshot=open(Caffeine.newBuilder().build());
+        assertEquals(2, snapshot.getLoadedEntries());
+        assertEquals("1", snapshot.restore("a").get());
+        assertEquals("2", snapshot.restore("b").get());
+    }
+
+    @Test
+    public void unreadableFileStartsCold() throws IOException {
+        Files.write(dir.resolve("test.snapshot"), new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+
+        LocalSnapshot snapshot=open(Caffeine.newBuilder().build());
+
+        assertEquals(0, snapshot.getLoadedEntries());
+        assertNull(snapshot.restore("a"));
+    }
+}
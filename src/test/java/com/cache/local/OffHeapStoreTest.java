@@ -0,0 +1,193 @@
+package com.cache.local;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author zhao tailen
+ * @description 堆外缓存的块分配、释放、按规格淘汰及并发读写
+ * @date 2026-10-17
+ */
+public class OffHeapStoreTest {
+
+    private static final long TTL=60_000;
+
+    /**
+     * 超过半页的value独占一页
+     * */
+    private static final String PAGE_VALUE=value(OffHeapStore.PAGE_SIZE / 2 + 1);
+
+    private final List<String> evicted=new ArrayList<>();
+
+    private OffHeapStore store;
+
+    @Before
+    public void setUp() {
+        store=newStore(4);
+    }
+
+    @After
+    public void tearDown() {
+        store.destroy();
+    }
+
+    private OffHeapStore newStore(int pages) {
+        return new OffHeapStore("test", (long) pages * OffHeapStore.PAGE_SIZE, StringCodec.INSTANCE,
+                (key, value, ttl, idleTime) -> evicted.add((String) key));
+    }
+
+    private static String value(int length) {
+        char[] chars=new char[length];
+        Arrays.fill(chars, 'x');
+        return new String(chars);
+    }
+
+    @Test
+    public void hitKeepsWriteTimeAndExpiry() {
+        long writeTime=System.currentTimeMillis() - 1000;
+        assertTrue(store.put("k", "v", writeTime, TTL, 0));
+
+        LocalValue localValue=store.get("k");
+
+        assertNotNull(localValue);
+        assertEquals("v", localValue.get());
+        assertEquals(writeTime, localValue.getWriteTime());
+        assertTrue(localValue.getExpireTime() > System.currentTimeMillis());
+        assertEquals(1, store.getHits());
+    }
+
+    @Test
+    public void replacedValueFreesItsChunk() {
+        store.put("k", "v", 0, TTL, 0);
+        store.put("k", value(1000), 0, TTL, 0);
+
+        assertEquals(1, store.getSize());
+        assertEquals(value(1000), store.get("k").get());
+        // only the chunk of the larger size class stays in use
+        assertTrue(store.getUsedBytes() >= 1000 && store.getUsedBytes() < 2000);
+    }
+
+    @Test
+    public void invalidateFreesChunk() {
+        store.put("a", "v", 0, TTL, 0);
+        store.put("b", value(1000), 0, TTL, 0);
+        store.invalidate("a");
+        store.invalidateAll();
+
+        assertNull(store.get("b"));
+        assertEquals(0, store.getSize());
+        assertEquals(0, store.getUsedBytes());
+    }
+
+    @Test
+    public void expiredValueIsMissedAndFreed() throws InterruptedException {
+        store.put("k", "v", 0, 1, 0);
+        Thread.sleep(5);
+
+        assertNull(store.get("k"));
+        assertEquals(0, store.getUsedBytes());
+        assertEquals(1, store.getMisses());
+    }
+
+    @Test
+    public void fullSizeClassEvictsLeastRecentlyUsed() {
+        OffHeapStore small=newStore(2);
+        try {
+            small.put("a", PAGE_VALUE, 0, TTL, 0);
+            small.put("b", PAGE_VALUE, 0, TTL, 0);
+            small.get("a");
+            small.put("c", PAGE_VALUE, 0, TTL, 0);
+
+            assertEquals(Arrays.asList("b"), evicted);
+            assertNotNull(small.get("a"));
+            assertNull(small.get("b"));
+            assertEquals(1, small.getEvictions());
+        } finally {
+            small.destroy();
+        }
+    }
+
+    @Test
+    public void pageGivenToOneSizeClassIsNotShared() {
+        OffHeapStore small=newStore(1);
+        try {
+            assertTrue(small.put("big", PAGE_VALUE, 0, TTL, 0));
+
+            assertFalse(small.put("small", "v", 0, TTL, 0));
+            assertEquals(1, small.getRejected());
+            assertEquals(OffHeapStore.PAGE_SIZE, small.getAllocatedBytes());
+            assertTrue(evicted.isEmpty());
+        } finally {
+            small.destroy();
+        }
+    }
+
+    @Test
+    public void oversizedValueIsRejected() {
+        assertFalse(store.put("k", value(OffHeapStore.PAGE_SIZE + 1), 0, TTL, 0));
+        assertEquals(1, store.getRejected());
+        assertEquals(0, store.getAllocatedBytes());
+    }
+
+    @Test
+    public void destroyedStoreRejectsWrites() {
+        store.put("k", "v", 0, TTL, 0);
+        store.destroy();
+
+        assertNull(store.get("k"));
+        assertFalse(store.put("k", "v", 0, TTL, 0));
+        assertEquals(0, store.getUsedBytes());
+    }
+
+    @Test
+    public void concurrentWritesAcrossSizeClassesKeepAccounting() throws InterruptedException {
+        AtomicInteger wrongValues=new AtomicInteger();
+        Thread[] threads=new Thread[4];
+        for (int t=0; t < threads.length; t++) {
+            threads[t]=new Thread(() -> {
+                ThreadLocalRandom random=ThreadLocalRandom.current();
+                for (int i=0; i < 20_000; i++) {
+                    String key="key" + random.nextInt(200);
+                    // values of different lengths move a key between size classes
+                    switch (random.nextInt(4)) {
+                        case 0:
+                            store.invalidate(key);
+                            break;
+                        case 1:
+                            LocalValue localValue=store.get(key);
+                            if (localValue != null && !((String) localValue.get()).startsWith(key + ":")) {
+                                wrongValues.incrementAndGet();
+                            }
+                            break;
+                        default:
+                            store.put(key, key + ":" + value(random.nextInt(5000)), 0, TTL, 0);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, wrongValues.get());
+        assertTrue(store.getUsedBytes() > 0);
+        store.invalidateAll();
+        assertEquals(0, store.getSize());
+        assertEquals(0, store.getUsedBytes());
+    }
+}
@@ -0,0 +1,103 @@
+package com.cache.remote;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author zhao tailen
+ * @description 计数布隆过滤器的写入、删除及计数上限
+ * @date 2026-10-17
+ */
+public class CountingBloomFilterTest {
+
+    @Test
+    public void addedKeysAreNeverMissed() {
+        CountingBloomFilter filter=new CountingBloomFilter(1000, 0.01);
+        for (int i=0; i < 1000; i++) {
+            filter.put("key" + i);
+        }
+        for (int i=0; i < 1000; i++) {
+            assertTrue(filter.mightContain("key" + i));
+        }
+    }
+
+    @Test
+    public void falsePositiveRateStaysNearExpected() {
+        CountingBloomFilter filter=new CountingBloomFilter(10000, 0.01);
+        for (int i=0; i < 10000; i++) {
+            filter.put("key" + i);
+        }
+        int falsePositives=0;
+        for (int i=0; i < 10000; i++) {
+            if (filter.mightContain("absent" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue("false positives: " + falsePositives, falsePositives < 300);
+    }
+
+    @Test
+    public void removedKeyIsAbsent() {
+        CountingBloomFilter filter=new CountingBloomFilter(1000, 0.01);
+        filter.put("a");
+        filter.remove("a");
+
+        assertFalse(filter.mightContain("a"));
+    }
+
+    @Test
+    public void keyAddedTwiceSurvivesOneRemove() {
+        CountingBloomFilter filter=new CountingBloomFilter(1000, 0.01);
+        filter.put("a");
+        filter.put("a");
+        filter.remove("a");
+
+        assertTrue(filter.mightContain("a"));
+    }
+
+    @Test
+    public void removingUnknownKeysKeepsOtherKeys() {
+        CountingBloomFilter filter=new CountingBloomFilter(1000, 0.01);
+        for (int i=0; i < 1000; i++) {
+            filter.put("key" + i);
+        }
+        int unknown=0;
+        for (int i=0; unknown < 1000; i++) {
+            // a key the filter reports absent never decrements the counters it shares with others
+            if (!filter.mightContain("absent" + i)) {
+                unknown++;
+                filter.remove("absent" + i);
+                filter.remove("absent" + i);
+            }
+        }
+        for (int i=0; i < 1000; i++) {
+            assertTrue(filter.mightContain("key" + i));
+        }
+    }
+
+    @Test
+    public void saturatedCountersAreNeverDecremented() {
+        CountingBloomFilter filter=new CountingBloomFilter(1, 0.5);
+        for (int i=0; i < 20; i++) {
+            filter.put("a");
+        }
+        for (int i=0; i < 20; i++) {
+            filter.remove("a");
+        }
+
+        assertTrue(filter.mightContain("a"));
+    }
+
+    @Test
+    public void clearRemovesAllKeys() {
+        CountingBloomFilter filter=new CountingBloomFilter(1000, 0.01);
+        filter.put("a");
+        filter.put("b");
+        filter.clear();
+
+        assertFalse(filter.mightContain("a"));
+        assertFalse(filter.mightContain("b"));
+    }
+}
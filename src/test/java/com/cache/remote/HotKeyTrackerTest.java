@@ -0,0 +1,198 @@
+package com.cache.remote;
+
+import com.cache.server.CacheTaskExecutor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.support.NullValue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author zhao tailen
+ * @description 热点key的Space-Saving统计、误差上限及固定到本地【统计周期结束由测试直接调用rotate】
+ * @date 2026-10-17
+ */
+public class HotKeyTrackerTest {
+
+    /**
+     * 统计周期【秒】，测试期间定时任务不会执行
+     * */
+    private static final int WINDOW=3600;
+
+    private CacheTaskExecutor taskExecutor;
+
+    @Before
+    public void setUp() {
+        taskExecutor=new CacheTaskExecutor(1, 16, 16);
+    }
+
+    @After
+    public void tearDown() {
+        taskExecutor.shutdown(100);
+    }
+
+    private HotKeyTracker newTracker(int topK, int pinRate) {
+        return new HotKeyTracker("test", topK, WINDOW, pinRate, 60_000, taskExecutor);
+    }
+
+    private static void record(HotKeyTracker tracker, Object key, int times) {
+        for (int i=0; i < times; i++) {
+            tracker.record(key);
+        }
+    }
+
+    private static HotKeyTracker.HotKey find(List<HotKeyTracker.HotKey> hotKeys, Object key) {
+        for (HotKeyTracker.HotKey hotKey : hotKeys) {
+            if (hotKey.getKey().equals(key)) {
+                return hotKey;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void hotKeysAreSortedByCount() {
+        HotKeyTracker tracker=newTracker(4, 0);
+        record(tracker, "a", 3);
+        record(tracker, "b", 5);
+        record(tracker, "c", 1);
+        tracker.rotate();
+
+        List<HotKeyTracker.HotKey> hotKeys=tracker.getHotKeys();
+
+        assertEquals(3, hotKeys.size());
+        assertEquals("b", hotKeys.get(0).getKey());
+        assertEquals("a", hotKeys.get(1).getKey());
+        assertEquals("c", hotKeys.get(2).getKey());
+        assertEquals(0, hotKeys.get(0).getError());
+        tracker.destroy();
+    }
+
+    @Test
+    public void newKeyReplacesSmallestCounter() {
+        HotKeyTracker tracker=newTracker(2, 0);
+        record(tracker, "a", 3);
+        record(tracker, "b", 1);
+        record(tracker, "c", 1);
+        tracker.rotate();
+
+        List<HotKeyTracker.HotKey> hotKeys=tracker.getHotKeys();
+
+        assertEquals(2, hotKeys.size());
+        assertNull(find(hotKeys, "b"));
+        // "c" inherits the count of "b" as its error
+        HotKeyTracker.HotKey c=find(hotKeys, "c");
+        assertEquals(2, c.getCount());
+        assertEquals(1, c.getError());
+        tracker.destroy();
+    }
+
+    @Test
+    public void frequentKeysAreFoundWithinErrorBound() {
+        int topK=10;
+        HotKeyTracker tracker=newTracker(topK, 0);
+        Map<Object, Integer> counts=new HashMap<>();
+        Random random=new Random(7);
+        int total=100_000;
+        for (int i=0; i < total; i++) {
+            // three hot keys take about half of the reads, the rest is spread over many cold keys
+            String key=random.nextBoolean() ? "hot" + random.nextInt(3) : "cold" + random.nextInt(10_000);
+            counts.merge(key, 1, Integer::sum);
+            tracker.record(key);
+        }
+        tracker.rotate();
+
+        List<HotKeyTracker.HotKey> hotKeys=tracker.getHotKeys();
+        for (int i=0; i < 3; i++) {
+            HotKeyTracker.HotKey hotKey=hotKeys.get(i);
+            assertTrue(hotKey.toString(), hotKey.getKey().toString().startsWith("hot"));
+        }
+        for (Map.Entry<Object, Integer> entry : counts.entrySet()) {
+            if (entry.getValue() > total / topK) {
+                assertTrue(String.valueOf(entry.getKey()), find(hotKeys, entry.getKey()) != null);
+            }
+        }
+        for (HotKeyTracker.HotKey hotKey : hotKeys) {
+            // the count never misses a read and overcounts by at most the error
+            long actual=counts.get(hotKey.getKey());
+            assertTrue(hotKey.toString(), hotKey.getCount() >= actual);
+            assertTrue(hotKey.toString(), hotKey.getCount() - hotKey.getError() <= actual);
+        }
+        tracker.destroy();
+    }
+
+    @Test
+    public void rotateStartsNewWindow() {
+        HotKeyTracker tracker=newTracker(4, 0);
+        record(tracker, "a", 10);
+        tracker.rotate();
+        record(tracker, "b", 1);
+        tracker.rotate();
+
+        List<HotKeyTracker.HotKey> hotKeys=tracker.getHotKeys();
+
+        assertEquals(1, hotKeys.size());
+        assertEquals("b", hotKeys.get(0).getKey());
+        assertEquals(1, hotKeys.get(0).getCount());
+        tracker.destroy();
+    }
+
+    @Test
+    public void keyAbovePinRateIsPinned() {
+        HotKeyTracker tracker=newTracker(4, 1);
+        record(tracker, "hot", WINDOW);
+        record(tracker, "cold", WINDOW - 1);
+        tracker.rotate();
+
+        tracker.onRemoteValue("hot", "v", tracker.stamp());
+        tracker.onRemoteValue("cold", "v", tracker.stamp());
+
+        assertEquals(1, tracker.getPinnedKeys());
+        assertEquals("v", tracker.getPinned("hot"));
+        assertNull(tracker.getPinned("cold"));
+        assertEquals(1, tracker.getPinHits());
+        tracker.destroy();
+    }
+
+    @Test
+    public void readStartedBeforeInvalidationIsNotPinned() {
+        HotKeyTracker tracker=newTracker(4, 1);
+        record(tracker, "hot", WINDOW);
+        tracker.rotate();
+
+        long stamp=tracker.stamp();
+        tracker.invalidate("hot");
+        tracker.onRemoteValue("hot", "old", stamp);
+        assertNull(tracker.getPinned("hot"));
+
+        stamp=tracker.stamp();
+        tracker.invalidateAll();
+        tracker.onRemoteValue("hot", "old", stamp);
+        assertNull(tracker.getPinned("hot"));
+
+        tracker.onRemoteValue("hot", NullValue.INSTANCE, tracker.stamp());
+        assertNull(tracker.getPinned("hot"));
+        tracker.destroy();
+    }
+
+    @Test
+    public void invalidateRemovesPinnedValue() {
+        HotKeyTracker tracker=newTracker(4, 1);
+        record(tracker, "hot", WINDOW);
+        tracker.rotate();
+        tracker.onRemoteValue("hot", "v", tracker.stamp());
+
+        tracker.invalidate("hot");
+
+        assertNull(tracker.getPinned("hot"));
+        tracker.destroy();
+    }
+}
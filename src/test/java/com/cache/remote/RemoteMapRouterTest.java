@@ -0,0 +1,288 @@
+package com.cache.remote;
+
+import com.cache.server.CacheTaskExecutor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.redisson.api.RBucket;
+import org.redisson.api.RFuture;
+import org.redisson.api.RLock;
+import org.redisson.api.RMapCache;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author zhao tailen
+ * @description 分片方式变化后旧分片中缓存的迁移【redis节点为内存中的模拟实现】
+ * @date 2026-10-17
+ */
+public class RemoteMapRouterTest {
+
+    private static final int KEYS=200;
+
+    private CacheTaskExecutor taskExecutor;
+
+    private Node a;
+
+    private Node b;
+
+    @Before
+    public void setUp() {
+        taskExecutor=new CacheTaskExecutor(1, 16, 16);
+        a=new Node("redis://10.0.0.1:6379");
+        b=new Node("redis://10.0.0.2:6379");
+    }
+
+    @After
+    public void tearDown() {
+        taskExecutor.shutdown(100);
+    }
+
+    private RemoteMapRouter newRouter(int shards, Node... nodes) {
+        RedissonClient[] clients=new RedissonClient[nodes.length];
+        for (int i=0; i < nodes.length; i++) {
+            clients[i]=nodes[i].client;
+        }
+        // string keys are hashed directly, the codec is never used
+        return new RemoteMapRouter("test", Arrays.asList(clients), null, shards, 3600, 3600, taskExecutor);
+    }
+
+    private static void fill(RemoteMapRouter router) {
+        for (int i=0; i < KEYS; i++) {
+            router.map("key" + i).put("key" + i, "value" + i);
+        }
+    }
+
+    private static void awaitRebalanced(RemoteMapRouter router) throws InterruptedException {
+        for (int i=0; i < 500 && router.isRebalancing(); i++) {
+            Thread.sleep(10);
+        }
+        assertFalse(router.isRebalancing());
+    }
+
+    /**
+     * @description 每个key只在新分片中，并且能通过路由读取
+     */
+    private static void assertAllInCurrentShards(RemoteMapRouter router, Node... nodes) {
+        for (int i=0; i < KEYS; i++) {
+            String key="key" + i;
+            assertEquals("value" + i, router.map(key).get(key));
+            assertEquals("value" + i, router.getAsync(key).join());
+            int copies=0;
+            for (Node node : nodes) {
+                for (Map<Object, Object> map : node.maps.values()) {
+                    copies+=map.containsKey(key) ? 1 : 0;
+                }
+            }
+            assertEquals(key, 1, copies);
+        }
+    }
+
+    @Test
+    public void unshardedSpaceMovesToShards() throws InterruptedException {
+        for (int i=0; i < KEYS; i++) {
+            a.map("test").put("key" + i, "value" + i);
+        }
+
+        RemoteMapRouter router=newRouter(4, a, b);
+        awaitRebalanced(router);
+
+        assertAllInCurrentShards(router, a, b);
+        assertTrue(a.map("test").isEmpty());
+        assertEquals(KEYS, router.getMovedEntries());
+        router.destroy();
+    }
+
+    @Test
+    public void reorderedNodesMoveEntries() throws InterruptedException {
+        Node c=new Node("redis://10.0.0.3:6379");
+        RemoteMapRouter before=newRouter(8, a, b, c);
+        awaitRebalanced(before);
+        fill(before);
+        before.destroy();
+
+        // same shard and node counts, the shards now sit on other nodes; the default node stays first
+        RemoteMapRouter router=newRouter(8, a, c, b);
+        awaitRebalanced(router);
+
+        assertAllInCurrentShards(router, a, b, c);
+        assertTrue(router.getMovedEntries() > 0);
+        router.destroy();
+    }
+
+    @Test
+    public void layoutRecordedWithCountsOnlyUsesFirstNodes() throws InterruptedException {
+        RemoteMapRouter before=newRouter(4, a);
+        awaitRebalanced(before);
+        fill(before);
+        before.destroy();
+        a.bucket("test:layout").set("4/1");
+
+        RemoteMapRouter router=newRouter(4, a, b);
+        awaitRebalanced(router);
+
+        assertAllInCurrentShards(router, a, b);
+        router.destroy();
+    }
+
+    @Test
+    public void removedNodeSkipsRebalancing() throws InterruptedException {
+        Node c=new Node("redis://10.0.0.3:6379");
+        RemoteMapRouter before=newRouter(4, a, c);
+        awaitRebalanced(before);
+        fill(before);
+        before.destroy();
+
+        // the old shards on the replaced node can't be read, the space starts over on the new layout
+        RemoteMapRouter router=newRouter(4, a, b);
+
+        assertFalse(router.isRebalancing());
+        assertEquals(0, router.getMovedEntries());
+        assertFalse(a.bucket("test:layout").get().toString().contains("10.0.0.3"));
+        router.destroy();
+    }
+
+    @Test
+    public void readsFallBackToOldShardsWhileMoving() throws InterruptedException {
+        for (int i=0; i < KEYS; i++) {
+            a.map("test").put("key" + i, "value" + i);
+        }
+        // another node holds the rebalance lock and has not moved anything yet
+        ReentrantLock lock=a.lock("test:rebalance");
+        Thread holder=new Thread(lock::lock);
+        holder.start();
+        holder.join();
+
+        RemoteMapRouter router=newRouter(4, a, b);
+
+        assertTrue(router.isRebalancing());
+        for (int i=0; i < KEYS; i++) {
+            assertEquals("value" + i, router.getAsync("key" + i).join());
+        }
+        assertEquals(0, router.getMovedEntries());
+        router.destroy();
+    }
+
+    /**
+     * @author zhao tailen
+     * @description 内存中的redis节点：RMapCache、RBucket、RLock通过动态代理委托给jdk的实现
+     * @date 2026-10-17
+     */
+    private static final class Node {
+
+        private final String address;
+
+        private final Map<String, ConcurrentMap<Object, Object>> maps=new ConcurrentHashMap<>();
+
+        private final Map<String, AtomicReference<Object>> buckets=new ConcurrentHashMap<>();
+
+        private final Map<String, ReentrantLock> locks=new ConcurrentHashMap<>();
+
+        private final RedissonClient client;
+
+        private Node(String address) {
+            this.address=address;
+            Map<String, Function<Object[], Object>> handlers=new HashMap<>();
+            handlers.put("getConfig", args -> {
+                Config config=new Config();
+                config.useSingleServer().setAddress(address);
+                return config;
+            });
+            handlers.put("getMapCache", args -> mapCache((String) args[0]));
+            handlers.put("getBucket", args -> bucketOf((String) args[0]));
+            handlers.put("getLock", args -> proxy(RLock.class, lock((String) args[0]), new HashMap<>()));
+            this.client=proxy(RedissonClient.class, new Object(), handlers);
+        }
+
+        private ConcurrentMap<Object, Object> map(String name) {
+            return maps.computeIfAbsent(name, n -> new ConcurrentHashMap<>());
+        }
+
+        private AtomicReference<Object> bucket(String name) {
+            return buckets.computeIfAbsent(name, n -> new AtomicReference<>());
+        }
+
+        private ReentrantLock lock(String name) {
+            return locks.computeIfAbsent(name, n -> new ReentrantLock());
+        }
+
+        private RMapCache<?, ?> mapCache(String name) {
+            ConcurrentMap<Object, Object> map=map(name);
+            Map<String, Function<Object[], Object>> handlers=new HashMap<>();
+            // the ttl and idle arguments are ignored, entries never expire
+            handlers.put("put", args -> map.put(args[0], args[1]));
+            handlers.put("putIfAbsent", args -> map.putIfAbsent(args[0], args[1]));
+            handlers.put("getAsync", args -> future(map.get(args[0])));
+            handlers.put("sizeAsync", args -> future(map.size()));
+            handlers.put("trySetMaxSize", args -> true);
+            handlers.put("fastRemoveAsync", args -> {
+                long removed=0;
+                for (Object key : (Object[]) args[0]) {
+                    removed+=map.remove(key) == null ? 0 : 1;
+                }
+                return future(removed);
+            });
+            return proxy(RMapCache.class, map, handlers);
+        }
+
+        private RBucket<?> bucketOf(String name) {
+            AtomicReference<Object> bucket=bucket(name);
+            Map<String, Function<Object[], Object>> handlers=new HashMap<>();
+            handlers.put("getAsync", args -> future(bucket.get()));
+            handlers.put("trySet", args -> bucket.compareAndSet(null, args[0]));
+            return proxy(RBucket.class, bucket, handlers);
+        }
+
+        private static RFuture<?> future(Object value) {
+            return proxy(RFuture.class, CompletableFuture.completedFuture(value), new HashMap<>());
+        }
+
+        /**
+         * @description 目标对象上有同名同参数的方法时直接调用，否则按方法名称使用handlers
+         */
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, Object target, Map<String, Function<Object[], Object>> handlers) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                Object[] arguments=args == null ? new Object[0] : args;
+                Method delegate=findMethod(target, method);
+                if (delegate != null) {
+                    return delegate.invoke(target, arguments);
+                }
+                Function<Object[], Object> handler=handlers.get(method.getName());
+                if (handler == null) {
+                    throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+                }
+                return handler.apply(arguments);
+            });
+        }
+
+        private static Method findMethod(Object target, Method method) {
+            try {
+                return target.getClass().getMethod(method.getName(), method.getParameterTypes());
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return address;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.cache.remote;
+
+import com.cache.server.CacheTaskExecutor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author zhao tailen
+ * @description 延迟写入队列中同一个key的写入合并【不触发批量写入，不需要远程缓存】
+ * @date 2026-10-17
+ */
+public class WriteBehindQueueTest {
+
+    /**
+     * 定时写入的间隔，测试期间不会触发
+     * */
+    private static final long NEVER=TimeUnit.HOURS.toMillis(1);
+
+    private CacheTaskExecutor taskExecutor;
+
+    private WriteBehindQueue queue;
+
+    @Before
+    public void setUp() {
+        taskExecutor=new CacheTaskExecutor(1, 16, 16);
+        queue=newQueue(100);
+    }
+
+    @After
+    public void tearDown() {
+        taskExecutor.shutdown(100);
+    }
+
+    private WriteBehindQueue newQueue(int queueSize) {
+        return new WriteBehindQueue("test", null, queueSize, 1000, NEVER, 0, 60, 60, keys -> { }, taskExecutor);
+    }
+
+    @Test
+    public void putReplacesQueuedPut() {
+        assertTrue(queue.put("k", "a"));
+        assertTrue(queue.put("k", "b"));
+
+        assertEquals("b", queue.pending("k").getValue());
+        assertEquals(1, queue.getQueueSize());
+        assertEquals(1, queue.getCoalescedWrites());
+    }
+
+    @Test
+    public void putIfAbsentOverQueuedPutIsNoop() {
+        queue.put("k", "a");
+        assertTrue(queue.putIfAbsent("k", "b"));
+
+        assertEquals("a", queue.pending("k").getValue());
+        assertEquals(1, queue.getQueueSize());
+    }
+
+    @Test
+    public void putIfAbsentOverQueuedPutIfAbsentKeepsFirst() {
+        queue.putIfAbsent("k", "a");
+        queue.putIfAbsent("k", "b");
+
+        assertEquals("a", queue.pending("k").getValue());
+    }
+
+    @Test
+    public void putIfAbsentOverQueuedRemoveBecomesPut() {
+        queue.remove("k");
+        queue.putIfAbsent("k", "a");
+
+        WriteBehindQueue.PendingWrite write=queue.pending("k");
+        assertFalse(write.isRemove());
+        assertEquals("a", write.getValue());
+        // a put is unconditional, a later putIfAbsent no longer decides the value
+        queue.putIfAbsent("k", "b");
+        assertEquals("a", queue.pending("k").getValue());
+    }
+
+    @Test
+    public void removeReplacesQueuedPut() {
+        queue.put("k", "a");
+        queue.remove("k");
+
+        assertTrue(queue.pending("k").isRemove());
+        assertNull(queue.pending("k").getValue());
+    }
+
+    @Test
+    public void putReplacesQueuedRemove() {
+        queue.remove("k");
+        queue.put("k", "a");
+
+        assertFalse(queue.pending("k").isRemove());
+        assertEquals("a", queue.pending("k").getValue());
+    }
+
+    @Test
+    public void fullQueueRejectsNewKeysButStillMergesQueuedOnes() {
+        WriteBehindQueue small=newQueue(1);
+        assertTrue(small.put("a", 1));
+
+        assertFalse(small.put("b", 2));
+        assertEquals(1, small.getRejectedWrites());
+        assertTrue(small.put("a", 3));
+        assertEquals(3, small.pending("a").getValue());
+    }
+
+    @Test
+    public void discardReleasesQueueCapacity() {
+        WriteBehindQueue small=newQueue(1);
+        small.put("a", 1);
+        small.discard();
+
+        assertNull(small.pending("a"));
+        assertTrue(small.put("b", 2));
+        assertEquals(1, small.getQueueSize());
+    }
+}